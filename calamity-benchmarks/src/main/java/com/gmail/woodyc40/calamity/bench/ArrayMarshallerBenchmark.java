@@ -0,0 +1,150 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.marshal.CharArrayMarshaller;
+import com.gmail.woodyc40.calamity.marshal.DefaultMarshaller;
+import com.gmail.woodyc40.calamity.marshal.DoubleArrayMarshaller;
+import com.gmail.woodyc40.calamity.marshal.FloatArrayMarshaller;
+import com.gmail.woodyc40.calamity.marshal.IntArrayMarshaller;
+import com.gmail.woodyc40.calamity.marshal.LongArrayMarshaller;
+import com.gmail.woodyc40.calamity.marshal.Marshaller;
+import com.gmail.woodyc40.calamity.marshal.ShortArrayMarshaller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Array;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding and decoding a primitive array of
+ * {@code bytes} bytes using the {@link DefaultMarshaller}
+ * for {@code byte[]} and the primitive array marshallers
+ * for every other type.
+ *
+ * <p>Arrays are decoded both into a new array and into an
+ * existing array. The {@code DefaultMarshaller} writes no
+ * length, and is always decoded using the known length.</p>
+ *
+ * @author caojohnny
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ArrayMarshallerBenchmark {
+    @Param({ "byte", "short", "char", "int", "long", "float", "double" })
+    private String type;
+    @Param({ "64", "1024", "1048576" })
+    private int bytes;
+
+    private Marshaller<Object> marshaller;
+    private CalamityBuf buf;
+    private Object array;
+    private Object out;
+    private int length;
+    private int encodedLength;
+
+    @Setup
+    public void setup() {
+        Class<?> component;
+        switch (this.type) {
+            case "byte":
+                component = byte.class;
+                this.marshaller = (Marshaller) new DefaultMarshaller();
+                break;
+            case "short":
+                component = short.class;
+                this.marshaller = (Marshaller) new ShortArrayMarshaller();
+                break;
+            case "char":
+                component = char.class;
+                this.marshaller = (Marshaller) new CharArrayMarshaller();
+                break;
+            case "int":
+                component = int.class;
+                this.marshaller = (Marshaller) new IntArrayMarshaller();
+                break;
+            case "long":
+                component = long.class;
+                this.marshaller = (Marshaller) new LongArrayMarshaller();
+                break;
+            case "float":
+                component = float.class;
+                this.marshaller = (Marshaller) new FloatArrayMarshaller();
+                break;
+            case "double":
+                component = double.class;
+                this.marshaller = (Marshaller) new DoubleArrayMarshaller();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type: " + this.type);
+        }
+
+        this.length = this.bytes / elementSize(component);
+        this.array = Array.newInstance(component, this.length);
+        this.out = Array.newInstance(component, this.length);
+        for (int i = 0; i < this.length; i++) {
+            Array.set(this.array, i, component == char.class ? (Object) (char) i : (Object) (byte) i);
+        }
+
+        this.buf = CalamityOptions.newBuilder().newBuf();
+        this.encodedLength = this.marshaller.write(this.buf, 0, this.array);
+    }
+
+    /**
+     * Obtains the number of bytes occupied by an element of
+     * the given primitive type.
+     *
+     * @param component the primitive type
+     * @return the size of an element
+     */
+    private static int elementSize(Class<?> component) {
+        if (component == byte.class) {
+            return Byte.BYTES;
+        }
+
+        if (component == short.class || component == char.class) {
+            return Short.BYTES;
+        }
+
+        return component == long.class || component == double.class ? Long.BYTES : Integer.BYTES;
+    }
+
+    @Benchmark
+    public int encode(ByteCounter counter) {
+        int length = this.marshaller.write(this.buf, 0, this.array);
+        counter.bytes += length;
+        return length;
+    }
+
+    @Benchmark
+    public Object decode(ByteCounter counter) {
+        counter.bytes += this.encodedLength;
+        if ("byte".equals(this.type)) {
+            byte[] out = new byte[this.length];
+            this.marshaller.read(this.buf, 0, out, 0, this.length);
+            return out;
+        }
+
+        return this.marshaller.read(this.buf, 0);
+    }
+
+    @Benchmark
+    public Object decodeInto(ByteCounter counter) {
+        counter.bytes += this.encodedLength;
+        this.marshaller.read(this.buf, 0, this.out, 0, this.length);
+        return this.out;
+    }
+}
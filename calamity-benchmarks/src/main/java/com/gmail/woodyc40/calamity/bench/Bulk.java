@@ -0,0 +1,83 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import com.gmail.woodyc40.calamity.marshal.Marshalled;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * A message carrying a 1 MiB array.
+ *
+ * @author caojohnny
+ */
+@Marshalled
+public class Bulk implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of values in the array, 1 MiB worth
+     */
+    private static final int LENGTH = (1 << 20) / Long.BYTES;
+
+    int sequence;
+    long[] values;
+
+    /**
+     * Creates an empty message to be read into.
+     */
+    public Bulk() {
+    }
+
+    /**
+     * Creates a message with arbitrary contents.
+     *
+     * @param seed the value from which to derive the
+     * contents
+     * @return the message
+     */
+    static Bulk sample(int seed) {
+        Bulk bulk = new Bulk();
+        bulk.sequence = seed;
+        bulk.values = new long[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            bulk.values[i] = (long) seed * i;
+        }
+
+        return bulk;
+    }
+
+    /**
+     * Writes this message by hand.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(this.sequence);
+        out.writeInt(this.values.length);
+        for (long value : this.values) {
+            out.writeLong(value);
+        }
+    }
+
+    /**
+     * Reads a message written by
+     * {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return the message
+     * @throws IOException if the input fails
+     */
+    static Bulk readFrom(DataInput in) throws IOException {
+        Bulk bulk = new Bulk();
+        bulk.sequence = in.readInt();
+        bulk.values = new long[in.readInt()];
+        for (int i = 0; i < bulk.values.length; i++) {
+            bulk.values[i] = in.readLong();
+        }
+
+        return bulk;
+    }
+}
@@ -0,0 +1,88 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The baseline for {@link ByteStoreBenchmark} and
+ * {@link ResizerBenchmark}, performing the same writes
+ * using a {@link ByteArrayOutputStream}.
+ *
+ * <p>Streams cannot be read in place, so only writes are
+ * measured.</p>
+ *
+ * @author caojohnny
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ByteArrayOutputStreamBenchmark {
+    @Param({ "64", "4096", "262144" })
+    private int length;
+
+    private ByteArrayOutputStream stream;
+    private byte[] data;
+
+    @Setup
+    public void setup() {
+        this.stream = new ByteArrayOutputStream(this.length);
+        this.data = Components.data(this.length);
+    }
+
+    @Benchmark
+    public int writeSingleBytes() {
+        ByteArrayOutputStream stream = this.stream;
+        stream.reset();
+        for (int i = 0; i < this.length; i++) {
+            stream.write(i);
+        }
+
+        return stream.size();
+    }
+
+    @Benchmark
+    public int writeBulk() {
+        this.stream.reset();
+        this.stream.write(this.data, 0, this.length);
+        return this.stream.size();
+    }
+
+    /**
+     * Equivalent to {@link ResizerBenchmark#appendFromEmpty()}
+     * with a {@code chunk} of {@code length} bytes.
+     *
+     * @param state the number of bytes to append
+     * @return the number of bytes written
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int appendFromEmpty(AppendState state) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream(16);
+        while (stream.size() < state.total) {
+            stream.write(this.data, 0, this.length);
+        }
+
+        return stream.size();
+    }
+
+    @State(Scope.Thread)
+    public static class AppendState {
+        @Param({ "65536", "16777216" })
+        private int total;
+    }
+}
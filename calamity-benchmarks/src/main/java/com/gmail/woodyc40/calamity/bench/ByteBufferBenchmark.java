@@ -0,0 +1,87 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The baseline for {@link ByteStoreBenchmark}, performing
+ * the same operations on a heap or direct
+ * {@link ByteBuffer}.
+ *
+ * @author caojohnny
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ByteBufferBenchmark {
+    @Param({ "heap", "direct" })
+    private String kind;
+    @Param({ "64", "4096", "262144" })
+    private int length;
+
+    private ByteBuffer buffer;
+    private byte[] data;
+    private byte[] out;
+
+    @Setup
+    public void setup() {
+        this.buffer = "direct".equals(this.kind) ?
+                ByteBuffer.allocateDirect(this.length) :
+                ByteBuffer.allocate(this.length);
+        this.data = Components.data(this.length);
+        this.out = new byte[this.length];
+
+        this.buffer.put(this.data);
+    }
+
+    @Benchmark
+    public int writeSingleBytes() {
+        ByteBuffer buffer = this.buffer;
+        buffer.clear();
+        for (int i = 0; i < this.length; i++) {
+            buffer.put((byte) i);
+        }
+
+        return buffer.position();
+    }
+
+    @Benchmark
+    public int readSingleBytes() {
+        ByteBuffer buffer = this.buffer;
+        int sum = 0;
+        for (int i = 0; i < this.length; i++) {
+            sum += buffer.get(i);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public int writeBulk() {
+        this.buffer.clear();
+        this.buffer.put(this.data, 0, this.length);
+        return this.buffer.position();
+    }
+
+    @Benchmark
+    public byte[] readBulk() {
+        this.buffer.clear();
+        this.buffer.get(this.out, 0, this.length);
+        return this.out;
+    }
+}
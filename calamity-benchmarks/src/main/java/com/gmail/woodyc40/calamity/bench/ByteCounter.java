@@ -0,0 +1,28 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counts the bytes encoded or decoded by a benchmark, which
+ * JMH reports as a rate alongside the operations per
+ * second.
+ *
+ * @author caojohnny
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ByteCounter {
+    /**
+     * The number of bytes processed in this iteration
+     */
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void clean() {
+        this.bytes = 0;
+    }
+}
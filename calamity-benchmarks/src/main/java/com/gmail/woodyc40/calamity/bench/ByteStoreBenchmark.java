@@ -0,0 +1,98 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Measures single-byte and bulk writes and reads of
+ * {@code length} bytes through a buffer backed by each
+ * byte store, once the store has already been sized.
+ *
+ * <p>{@link ByteBufferBenchmark} and
+ * {@link ByteArrayOutputStreamBenchmark} perform the same
+ * operations as a baseline.</p>
+ *
+ * @author caojohnny
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ByteStoreBenchmark {
+    @Param({ "array", "safeArray", "chunked", "direct", "promoting", "tiered" })
+    private String store;
+    @Param({ "64", "4096", "262144" })
+    private int length;
+
+    private CalamityBuf buf;
+    private byte[] data;
+    private byte[] out;
+
+    @Setup
+    public void setup() {
+        this.buf = CalamityOptions.newBuilder()
+                .byteStore(Components.byteStore(this.store))
+                .initialLength(this.length)
+                .newBuf();
+        this.data = Components.data(this.length);
+        this.out = new byte[this.length];
+
+        this.buf.write(this.data);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.buf.free();
+    }
+
+    @Benchmark
+    public int writeSingleBytes() {
+        CalamityBuf buf = this.buf;
+        buf.idx(WRITER, 0);
+        for (int i = 0; i < this.length; i++) {
+            buf.write((byte) i);
+        }
+
+        return buf.idx(WRITER);
+    }
+
+    @Benchmark
+    public int readSingleBytes() {
+        CalamityBuf buf = this.buf;
+        int sum = 0;
+        for (int i = 0; i < this.length; i++) {
+            sum += buf.read(i);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public int writeBulk() {
+        return this.buf.write(0, this.data, 0, this.length);
+    }
+
+    @Benchmark
+    public byte[] readBulk() {
+        this.buf.read(0, this.out, 0, this.length);
+        return this.out;
+    }
+}
@@ -0,0 +1,135 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.bytes.ByteStore;
+import com.gmail.woodyc40.calamity.bytes.DirectByteStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Moves bytes through a {@link ReadableByteChannel} and a
+ * {@link WritableByteChannel}.
+ *
+ * <p>Channels read and write a view of the store's raw
+ * array, or of the direct buffer of a
+ * {@link DirectByteStore}, when either is available. Other
+ * stores are copied through a scratch heap buffer which is
+ * kept between calls.</p>
+ *
+ * @author caojohnny
+ */
+final class ChannelAdapter implements IoAdapter {
+    /**
+     * The source of the bytes read into the buffer
+     */
+    private final ReadableByteChannel in;
+    /**
+     * The sink of the bytes written from the buffer
+     */
+    private final WritableByteChannel out;
+    /**
+     * The buffer used to copy bytes to and from stores
+     * which cannot be viewed
+     */
+    private ByteBuffer scratch = ByteBuffer.allocate(0);
+
+    /**
+     * Creates a new adapter.
+     *
+     * @param in the source, or {@code null} if nothing
+     * will be read
+     * @param out the sink, or {@code null} if nothing will
+     * be written
+     */
+    ChannelAdapter(ReadableByteChannel in, WritableByteChannel out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    /**
+     * Obtains a view of the given range of the store, or
+     * {@code null} if the store cannot be viewed.
+     *
+     * @param store the store to view
+     * @param idx the first byte of the view
+     * @param length the number of bytes in the view
+     * @return the view
+     */
+    private static ByteBuffer view(ByteStore store, int idx, int length) {
+        if (store.isArrayRaw()) {
+            return ByteBuffer.wrap(store.array(), idx, length);
+        }
+
+        if (store instanceof DirectByteStore) {
+            ByteBuffer view = ((DirectByteStore) store).buffer().duplicate();
+            view.limit(idx + length).position(idx);
+            return view;
+        }
+
+        return null;
+    }
+
+    /**
+     * Obtains the cleared scratch buffer, limited to the
+     * given number of bytes.
+     *
+     * @param length the number of bytes
+     * @return the scratch buffer
+     */
+    private ByteBuffer scratch(int length) {
+        if (this.scratch.capacity() < length) {
+            this.scratch = ByteBuffer.allocate(length);
+        }
+
+        this.scratch.clear().limit(length);
+        return this.scratch;
+    }
+
+    @Override
+    public int fill(CalamityBuf buf, int length) throws IOException {
+        int idx = buf.idx(WRITER);
+        buf.resizer().resize(buf, idx, length);
+
+        ByteStore store = buf.byteStore();
+        ByteBuffer view = view(store, idx, length);
+        int read;
+        if (view != null) {
+            read = this.in.read(view);
+        } else {
+            ByteBuffer scratch = this.scratch(length);
+            read = this.in.read(scratch);
+            if (read > 0) {
+                store.write(idx, scratch.array(), 0, read);
+            }
+        }
+
+        if (read > 0) {
+            buf.idx(WRITER, idx + read);
+        }
+
+        return read;
+    }
+
+    @Override
+    public void drain(CalamityBuf buf, int length) throws IOException {
+        int idx = buf.idx(READER);
+        ByteStore store = buf.byteStore();
+        ByteBuffer view = view(store, idx, length);
+        if (view == null) {
+            view = this.scratch(length);
+            store.read(0, view.array(), idx, length);
+        }
+
+        while (view.hasRemaining()) {
+            this.out.write(view);
+        }
+
+        buf.idx(READER, idx + length);
+    }
+}
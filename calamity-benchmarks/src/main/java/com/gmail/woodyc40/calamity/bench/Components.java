@@ -0,0 +1,99 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import com.gmail.woodyc40.calamity.bytes.ArrayByteStore;
+import com.gmail.woodyc40.calamity.bytes.ByteStore;
+import com.gmail.woodyc40.calamity.bytes.ChunkedByteStore;
+import com.gmail.woodyc40.calamity.bytes.DirectByteStore;
+import com.gmail.woodyc40.calamity.bytes.PromotingByteStore;
+import com.gmail.woodyc40.calamity.bytes.SafeArrayByteStore;
+import com.gmail.woodyc40.calamity.bytes.TieredByteStore;
+import com.gmail.woodyc40.calamity.resize.DoublingResizer;
+import com.gmail.woodyc40.calamity.resize.NoopResizer;
+import com.gmail.woodyc40.calamity.resize.Resizer;
+import com.gmail.woodyc40.calamity.resize.SteppedResizer;
+
+import java.util.function.Supplier;
+
+/**
+ * Maps the names used by the benchmark parameters to the
+ * components that they measure.
+ *
+ * @author caojohnny
+ */
+final class Components {
+    /**
+     * The threshold used by the {@code pageSteps} resizer,
+     * 64 KiB
+     */
+    private static final int PAGE_STEPS_THRESHOLD = 1 << 16;
+
+    /**
+     * Construction disabled.
+     */
+    private Components() {
+    }
+
+    /**
+     * Obtains the supplier of the byte store with the given
+     * name.
+     *
+     * @param name the name of the store
+     * @return the supplier
+     */
+    static Supplier<ByteStore> byteStore(String name) {
+        switch (name) {
+            case "array":
+                return ArrayByteStore::new;
+            case "safeArray":
+                return SafeArrayByteStore::new;
+            case "chunked":
+                return ChunkedByteStore::new;
+            case "direct":
+                return DirectByteStore::new;
+            case "promoting":
+                return PromotingByteStore::new;
+            case "tiered":
+                return TieredByteStore::new;
+            default:
+                throw new IllegalArgumentException("Unknown byte store: " + name);
+        }
+    }
+
+    /**
+     * Obtains the supplier of the resizer with the given
+     * name.
+     *
+     * @param name the name of the resizer
+     * @return the supplier
+     */
+    static Supplier<Resizer> resizer(String name) {
+        switch (name) {
+            case "noop":
+                return NoopResizer.SUPPLIER;
+            case "doubling":
+                return DoublingResizer.SUPPLIER;
+            case "stepped":
+                return SteppedResizer.SUPPLIER;
+            case "pageSteps":
+                return SteppedResizer.pageSteps(PAGE_STEPS_THRESHOLD);
+            default:
+                throw new IllegalArgumentException("Unknown resizer: " + name);
+        }
+    }
+
+    /**
+     * Creates an array of the given length filled with
+     * arbitrary bytes.
+     *
+     * @param length the length of the array
+     * @return the array
+     */
+    static byte[] data(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+
+        return data;
+    }
+}
@@ -0,0 +1,66 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Encodes messages by hand using a
+ * {@link DataOutputStream} over a reused
+ * {@link ByteArrayOutputStream}.
+ *
+ * @author caojohnny
+ */
+final class DataStreamCodec implements MessageCodec {
+    /**
+     * The shape of the messages
+     */
+    private final Shape shape;
+    /**
+     * The stream which messages are encoded into
+     */
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    /**
+     * The output wrapping {@link #bytes}
+     */
+    private final DataOutputStream out = new DataOutputStream(this.bytes);
+    /**
+     * The stream of the last encoded message
+     */
+    private ByteArrayInputStream encoded;
+    /**
+     * The input wrapping {@link #encoded}
+     */
+    private DataInputStream in;
+
+    /**
+     * Creates a new codec.
+     *
+     * @param shape the shape of the messages
+     */
+    DataStreamCodec(Shape shape) {
+        this.shape = shape;
+    }
+
+    @Override
+    public int encode(Object message) throws IOException {
+        this.bytes.reset();
+        this.shape.writeTo(message, this.out);
+        this.out.flush();
+        return this.bytes.size();
+    }
+
+    @Override
+    public void prepareDecode() {
+        this.encoded = new ByteArrayInputStream(this.bytes.toByteArray());
+        this.in = new DataInputStream(this.encoded);
+    }
+
+    @Override
+    public Object decode() throws IOException {
+        this.encoded.reset();
+        return this.shape.readFrom(this.in);
+    }
+}
@@ -0,0 +1,115 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Measures the round trip of {@code chunk} bytes sent from
+ * a buffer to an {@link EchoServer} on the loopback
+ * address and received back into the same buffer, through
+ * either a {@link Socket}'s streams or a blocking
+ * {@link SocketChannel}.
+ *
+ * <p>Every operation is one round trip, so the sampled
+ * latencies are those of individual request and response
+ * pairs.</p>
+ *
+ * @author caojohnny
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EchoBenchmark {
+    @Param({ "array", "chunked", "direct" })
+    private String store;
+    @Param({ "stream", "channel" })
+    private String adapter;
+    @Param({ "64", "4096", "65536" })
+    private int chunk;
+
+    private EchoServer server;
+    private Closeable connection;
+    private IoAdapter ioAdapter;
+    private CalamityBuf buf;
+
+    @Setup
+    public void setup() throws IOException {
+        this.server = new EchoServer();
+        switch (this.adapter) {
+            case "stream": {
+                Socket socket = new Socket(this.server.address().getAddress(), this.server.address().getPort());
+                socket.setTcpNoDelay(true);
+                this.connection = socket;
+                this.ioAdapter = new StreamAdapter(socket.getInputStream(), socket.getOutputStream());
+                break;
+            }
+            case "channel": {
+                SocketChannel channel = SocketChannel.open(this.server.address());
+                channel.socket().setTcpNoDelay(true);
+                this.connection = channel;
+                this.ioAdapter = new ChannelAdapter(channel, channel);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown adapter: " + this.adapter);
+        }
+
+        this.buf = CalamityOptions.newBuilder()
+                .byteStore(Components.byteStore(this.store))
+                .initialLength(this.chunk * 2)
+                .newBuf();
+        this.buf.write(Components.data(this.chunk));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.connection.close();
+        this.server.close();
+        this.buf.free();
+    }
+
+    @Benchmark
+    public int roundTrip(ByteCounter counter) throws IOException {
+        CalamityBuf buf = this.buf;
+        int chunk = this.chunk;
+
+        buf.idx(READER, 0);
+        this.ioAdapter.drain(buf, chunk);
+
+        int end = chunk * 2;
+        while (buf.idx(WRITER) < end) {
+            if (this.ioAdapter.fill(buf, end - buf.idx(WRITER)) < 0) {
+                throw new EOFException("Echo server closed the connection");
+            }
+        }
+
+        buf.idx(WRITER, chunk);
+        counter.bytes += end;
+        return end;
+    }
+}
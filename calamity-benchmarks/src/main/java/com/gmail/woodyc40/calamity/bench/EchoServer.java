@@ -0,0 +1,100 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * A server bound to an ephemeral port on the loopback
+ * address which writes back every byte that it receives.
+ *
+ * <p>Each connection is served by its own daemon thread
+ * using plain blocking streams, so that the server side is
+ * the same regardless of the adapter being measured.</p>
+ *
+ * @author caojohnny
+ */
+final class EchoServer implements Closeable {
+    /**
+     * The number of bytes echoed per read
+     */
+    private static final int BUFFER_LENGTH = 1 << 16;
+
+    /**
+     * The socket accepting connections
+     */
+    private final ServerSocket server;
+
+    /**
+     * Starts a new server.
+     *
+     * @throws IOException if the server could not be bound
+     */
+    EchoServer() throws IOException {
+        this.server = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+
+        Thread acceptor = new Thread(this::accept, "echo-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Obtains the address to which clients connect.
+     *
+     * @return the address of the server
+     */
+    InetSocketAddress address() {
+        return (InetSocketAddress) this.server.getLocalSocketAddress();
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     */
+    private void accept() {
+        while (!this.server.isClosed()) {
+            try {
+                Socket socket = this.server.accept();
+                socket.setTcpNoDelay(true);
+
+                Thread echo = new Thread(() -> echo(socket), "echo-" + socket.getPort());
+                echo.setDaemon(true);
+                echo.start();
+            } catch (IOException e) {
+                if (!this.server.isClosed()) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes back the bytes received from the given socket
+     * until the connection is closed.
+     *
+     * @param socket the connection to serve
+     */
+    private static void echo(Socket socket) {
+        byte[] bytes = new byte[BUFFER_LENGTH];
+        try (Socket s = socket) {
+            InputStream in = s.getInputStream();
+            OutputStream out = s.getOutputStream();
+
+            int read;
+            while ((read = in.read(bytes)) >= 0) {
+                out.write(bytes, 0, read);
+            }
+        } catch (IOException ignored) {
+            // Connection reset by a client
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.server.close();
+    }
+}
@@ -0,0 +1,145 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Measures reading a file into a buffer and writing a
+ * buffer out to a file, {@code chunk} bytes per
+ * operation, through either streams or channels.
+ *
+ * <p>Each operation is a single read or write, so the
+ * sampled latencies are those of individual chunks. Files
+ * are {@value #FILE_LENGTH} bytes long and are created in
+ * {@code java.io.tmpdir}, and they are rewound whenever
+ * the end is reached. Reads are almost always served from
+ * the page cache, which is usually also true of files
+ * that are read repeatedly in production.</p>
+ *
+ * @author caojohnny
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FileIoBenchmark {
+    /**
+     * The length of the files read and written, 64 MiB
+     */
+    private static final int FILE_LENGTH = 1 << 26;
+
+    @Param({ "array", "chunked", "direct" })
+    private String store;
+    @Param({ "stream", "channel" })
+    private String adapter;
+    @Param({ "4096", "65536", "1048576" })
+    private int chunk;
+
+    private Path dir;
+    private FileInputStream in;
+    private FileOutputStream out;
+    private IoAdapter ioAdapter;
+    private CalamityBuf ingestBuf;
+    private CalamityBuf egressBuf;
+    private int written;
+
+    @Setup
+    public void setup() throws IOException {
+        this.dir = Files.createTempDirectory("calamity-bench");
+        Path source = this.dir.resolve("source");
+        byte[] data = Components.data(this.chunk);
+        try (OutputStream out = Files.newOutputStream(source)) {
+            for (int i = 0; i < FILE_LENGTH; i += this.chunk) {
+                out.write(data);
+            }
+        }
+
+        this.in = new FileInputStream(source.toFile());
+        this.out = new FileOutputStream(this.dir.resolve("sink").toFile());
+        switch (this.adapter) {
+            case "stream":
+                this.ioAdapter = new StreamAdapter(this.in, this.out);
+                break;
+            case "channel":
+                this.ioAdapter = new ChannelAdapter(this.in.getChannel(), this.out.getChannel());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown adapter: " + this.adapter);
+        }
+
+        CalamityOptions options = CalamityOptions.newBuilder()
+                .byteStore(Components.byteStore(this.store))
+                .initialLength(this.chunk);
+        this.ingestBuf = options.newBuf();
+        this.egressBuf = options.newBuf();
+        this.egressBuf.write(data);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.in.close();
+        this.out.close();
+        this.ingestBuf.free();
+        this.egressBuf.free();
+
+        Files.delete(this.dir.resolve("source"));
+        Files.delete(this.dir.resolve("sink"));
+        Files.delete(this.dir);
+    }
+
+    @Benchmark
+    public int ingest(ByteCounter counter) throws IOException {
+        CalamityBuf buf = this.ingestBuf;
+        buf.idx(WRITER, 0);
+
+        int read = this.ioAdapter.fill(buf, this.chunk);
+        if (read < 0) {
+            this.in.getChannel().position(0);
+            read = this.ioAdapter.fill(buf, this.chunk);
+        }
+
+        counter.bytes += read;
+        return read;
+    }
+
+    @Benchmark
+    public int egress(ByteCounter counter) throws IOException {
+        if (this.written >= FILE_LENGTH) {
+            this.out.getChannel().position(0);
+            this.written = 0;
+        }
+
+        CalamityBuf buf = this.egressBuf;
+        buf.idx(READER, 0);
+        this.ioAdapter.drain(buf, this.chunk);
+        this.written += this.chunk;
+
+        counter.bytes += this.chunk;
+        return this.chunk;
+    }
+}
@@ -0,0 +1,70 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import com.gmail.woodyc40.calamity.marshal.Marshalled;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * A tiny message header of 14 bytes.
+ *
+ * @author caojohnny
+ */
+@Marshalled
+public class Header implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    int type;
+    long id;
+    short flags;
+
+    /**
+     * Creates an empty header to be read into.
+     */
+    public Header() {
+    }
+
+    /**
+     * Creates a header with arbitrary contents.
+     *
+     * @param seed the value from which to derive the
+     * contents
+     * @return the header
+     */
+    static Header sample(int seed) {
+        Header header = new Header();
+        header.type = seed & 0xF;
+        header.id = seed * 0x9E3779B97F4A7C15L;
+        header.flags = (short) seed;
+        return header;
+    }
+
+    /**
+     * Writes this header by hand.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(this.type);
+        out.writeLong(this.id);
+        out.writeShort(this.flags);
+    }
+
+    /**
+     * Reads a header written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return the header
+     * @throws IOException if the input fails
+     */
+    static Header readFrom(DataInput in) throws IOException {
+        Header header = new Header();
+        header.type = in.readInt();
+        header.id = in.readLong();
+        header.flags = in.readShort();
+        return header;
+    }
+}
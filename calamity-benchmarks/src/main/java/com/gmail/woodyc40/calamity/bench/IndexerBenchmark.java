@@ -0,0 +1,81 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import com.gmail.woodyc40.calamity.indexer.DefaultIndexer;
+import com.gmail.woodyc40.calamity.indexer.IndexKey;
+import com.gmail.woodyc40.calamity.indexer.Indexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Measures looking up and updating the {@code READER} and
+ * {@code WRITER} indexes, which are fast-pathed, and a
+ * custom index key, which is held in a map alongside
+ * {@code extraKeys} other custom keys.
+ *
+ * @author caojohnny
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class IndexerBenchmark {
+    /**
+     * The custom key which is looked up
+     */
+    private static final IndexKey MARK = new IndexKey("bench.mark");
+
+    @Param({ "0", "16" })
+    private int extraKeys;
+
+    private Indexer indexer;
+    private int next;
+
+    @Setup
+    public void setup() {
+        this.indexer = new DefaultIndexer();
+        this.indexer.setIdx(MARK, 1);
+        for (int i = 0; i < this.extraKeys; i++) {
+            this.indexer.setIdx(new IndexKey("bench.extra" + i), i);
+        }
+    }
+
+    @Benchmark
+    public int readerAndWriter() {
+        return this.indexer.idx(READER) + this.indexer.idx(WRITER);
+    }
+
+    @Benchmark
+    public int setWriter() {
+        int idx = this.next++;
+        this.indexer.setIdx(WRITER, idx);
+        return idx;
+    }
+
+    @Benchmark
+    public int customKey() {
+        return this.indexer.idx(MARK);
+    }
+
+    @Benchmark
+    public int setCustomKey() {
+        int idx = this.next++;
+        this.indexer.setIdx(MARK, idx);
+        return idx;
+    }
+}
@@ -0,0 +1,38 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+
+import java.io.IOException;
+
+/**
+ * Moves bytes between a buffer and the source and sink of
+ * an I/O benchmark, i.e. a file or a socket.
+ *
+ * @author caojohnny
+ */
+interface IoAdapter {
+    /**
+     * Reads at most {@code length} bytes from the source
+     * into the buffer at its {@code WRITER} index, resizing
+     * the buffer beforehand and moving the index past the
+     * bytes that were read.
+     *
+     * @param buf the buffer to read into
+     * @param length the maximum number of bytes to read
+     * @return the number of bytes read, or {@code -1} if
+     * the source has no more bytes
+     * @throws IOException if the source could not be read
+     */
+    int fill(CalamityBuf buf, int length) throws IOException;
+
+    /**
+     * Writes {@code length} bytes from the buffer at its
+     * {@code READER} index to the sink, moving the index
+     * past the bytes that were written.
+     *
+     * @param buf the buffer to write from
+     * @param length the number of bytes to write
+     * @throws IOException if the sink could not be written
+     */
+    void drain(CalamityBuf buf, int length) throws IOException;
+}
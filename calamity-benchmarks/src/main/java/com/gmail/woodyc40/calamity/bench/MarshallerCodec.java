@@ -0,0 +1,53 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.marshal.Marshaller;
+import com.gmail.woodyc40.calamity.marshal.MarshallingResolver;
+import com.gmail.woodyc40.calamity.util.Constants;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Encodes messages into a reused buffer using a
+ * {@link Marshaller}.
+ *
+ * @author caojohnny
+ */
+final class MarshallerCodec implements MessageCodec {
+    /**
+     * The buffer which messages are encoded into
+     */
+    private final CalamityBuf buf;
+    /**
+     * The marshaller of the messages
+     */
+    private final Marshaller<Object> marshaller;
+
+    /**
+     * Creates a new codec.
+     *
+     * @param resolver the resolver of the buffer, used to
+     * marshal the fields of messages
+     * @param marshaller the marshaller of the messages
+     */
+    MarshallerCodec(MarshallingResolver resolver, Marshaller<?> marshaller) {
+        this.buf = CalamityOptions.newBuilder()
+                .marshaller(Constants.supplyConst(resolver))
+                .newBuf();
+        this.marshaller = (Marshaller<Object>) marshaller;
+    }
+
+    @Override
+    public int encode(Object message) {
+        this.buf.idx(WRITER, 0);
+        return this.marshaller.write(this.buf, 0, message);
+    }
+
+    @Override
+    public Object decode() {
+        this.buf.idx(READER, 0);
+        return this.marshaller.read(this.buf, 0);
+    }
+}
@@ -0,0 +1,106 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import com.gmail.woodyc40.calamity.marshal.GraphMarshaller;
+import com.gmail.woodyc40.calamity.marshal.MarshallingResolver;
+import com.gmail.woodyc40.calamity.marshal.PojoMarshallerFactory;
+import com.gmail.woodyc40.calamity.marshal.RegistryMarshallingResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding and decoding a tiny header, a 1 KiB
+ * mixed record and a message carrying a 1 MiB array using:
+ *
+ * <ul>
+ *     <li>{@code pojo}: the {@link PojoMarshallerFactory};
+ *     </li>
+ *     <li>{@code generated}: the marshallers generated for
+ *     {@code @Marshalled} classes;</li>
+ *     <li>{@code graph}: the {@link GraphMarshaller};</li>
+ *     <li>{@code dataStream}: hand-written encoding using a
+ *     {@link java.io.DataOutputStream}; and</li>
+ *     <li>{@code objectStream}: Java serialization.</li>
+ * </ul>
+ *
+ * @author caojohnny
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MessageBenchmark {
+    @Param({ "header", "record", "bulk" })
+    private String shape;
+    @Param({ "pojo", "generated", "graph", "dataStream", "objectStream" })
+    private String codec;
+
+    private MessageCodec messageCodec;
+    private Object message;
+    private int encodedLength;
+
+    @Setup
+    public void setup() throws Exception {
+        Shape shape = Shape.valueOf(this.shape.toUpperCase(Locale.ROOT));
+        this.message = shape.sample(1);
+        this.messageCodec = createCodec(this.codec, shape);
+
+        this.encodedLength = this.messageCodec.encode(this.message);
+        this.messageCodec.prepareDecode();
+    }
+
+    /**
+     * Creates the codec with the given name.
+     *
+     * @param name the name of the codec
+     * @param shape the shape of the messages
+     * @return the codec
+     */
+    private static MessageCodec createCodec(String name, Shape shape) {
+        RegistryMarshallingResolver.Builder builder = RegistryMarshallingResolver.newBuilder().registerDefaults();
+        switch (name) {
+            case "pojo": {
+                MarshallingResolver resolver = builder.factory(new PojoMarshallerFactory()).build();
+                return new MarshallerCodec(resolver, resolver.resolveType(shape.type()));
+            }
+            case "generated": {
+                MarshallingResolver resolver = builder.registerGenerated().build();
+                return new MarshallerCodec(resolver, resolver.resolveType(shape.type()));
+            }
+            case "graph":
+                return new MarshallerCodec(builder.build(), new GraphMarshaller());
+            case "dataStream":
+                return new DataStreamCodec(shape);
+            case "objectStream":
+                return new ObjectStreamCodec();
+            default:
+                throw new IllegalArgumentException("Unknown codec: " + name);
+        }
+    }
+
+    @Benchmark
+    public int encode(ByteCounter counter) throws Exception {
+        int length = this.messageCodec.encode(this.message);
+        counter.bytes += length;
+        return length;
+    }
+
+    @Benchmark
+    public Object decode(ByteCounter counter) throws Exception {
+        counter.bytes += this.encodedLength;
+        return this.messageCodec.decode();
+    }
+}
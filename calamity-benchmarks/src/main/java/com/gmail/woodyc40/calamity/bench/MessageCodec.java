@@ -0,0 +1,34 @@
+package com.gmail.woodyc40.calamity.bench;
+
+/**
+ * Encodes and decodes messages for
+ * {@link MessageBenchmark}.
+ *
+ * @author caojohnny
+ */
+interface MessageCodec {
+    /**
+     * Encodes the given message, replacing the previously
+     * encoded message.
+     *
+     * @param message the message to encode
+     * @return the number of bytes encoded
+     * @throws Exception if encoding fails
+     */
+    int encode(Object message) throws Exception;
+
+    /**
+     * Prepares to decode the last encoded message
+     * repeatedly.
+     */
+    default void prepareDecode() {
+    }
+
+    /**
+     * Decodes the last encoded message.
+     *
+     * @return the decoded message
+     * @throws Exception if decoding fails
+     */
+    Object decode() throws Exception;
+}
@@ -0,0 +1,46 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Encodes messages using Java serialization into a reused
+ * {@link ByteArrayOutputStream}, with a new stream for each
+ * message as is done when messages are sent separately.
+ *
+ * @author caojohnny
+ */
+final class ObjectStreamCodec implements MessageCodec {
+    /**
+     * The stream which messages are encoded into
+     */
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    /**
+     * The stream of the last encoded message
+     */
+    private ByteArrayInputStream encoded;
+
+    @Override
+    public int encode(Object message) throws IOException {
+        this.bytes.reset();
+        try (ObjectOutputStream out = new ObjectOutputStream(this.bytes)) {
+            out.writeObject(message);
+        }
+
+        return this.bytes.size();
+    }
+
+    @Override
+    public void prepareDecode() {
+        this.encoded = new ByteArrayInputStream(this.bytes.toByteArray());
+    }
+
+    @Override
+    public Object decode() throws IOException, ClassNotFoundException {
+        this.encoded.reset();
+        return new ObjectInputStream(this.encoded).readObject();
+    }
+}
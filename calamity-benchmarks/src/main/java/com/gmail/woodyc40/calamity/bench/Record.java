@@ -0,0 +1,136 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import com.gmail.woodyc40.calamity.marshal.Marshalled;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * A record of roughly 1 KiB mixing primitives, strings,
+ * arrays and a nested header.
+ *
+ * @author caojohnny
+ */
+@Marshalled
+public class Record implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    Header header;
+    int sequence;
+    long timestamp;
+    double value;
+    boolean last;
+    String name;
+    String description;
+    int[] samples;
+    long[] offsets;
+
+    /**
+     * Creates an empty record to be read into.
+     */
+    public Record() {
+    }
+
+    /**
+     * Creates a record with arbitrary contents.
+     *
+     * @param seed the value from which to derive the
+     * contents
+     * @return the record
+     */
+    static Record sample(int seed) {
+        Record record = new Record();
+        record.header = Header.sample(seed);
+        record.sequence = seed;
+        record.timestamp = 1_500_000_000_000L + seed;
+        record.value = seed / 3.0;
+        record.last = (seed & 1) == 0;
+        record.name = text("record-", 64);
+        record.description = text("A record used to benchmark marshalling, ", 200);
+        record.samples = new int[64];
+        record.offsets = new long[32];
+        for (int i = 0; i < record.samples.length; i++) {
+            record.samples[i] = seed * i;
+        }
+
+        for (int i = 0; i < record.offsets.length; i++) {
+            record.offsets[i] = (long) seed << i;
+        }
+
+        return record;
+    }
+
+    /**
+     * Repeats the given text up to the given length.
+     *
+     * @param text the text to repeat
+     * @param length the length of the result
+     * @return the repeated text
+     */
+    private static String text(String text, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            builder.append(text);
+        }
+
+        return builder.substring(0, length);
+    }
+
+    /**
+     * Writes this record by hand.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        this.header.writeTo(out);
+        out.writeInt(this.sequence);
+        out.writeLong(this.timestamp);
+        out.writeDouble(this.value);
+        out.writeBoolean(this.last);
+        out.writeUTF(this.name);
+        out.writeUTF(this.description);
+
+        out.writeInt(this.samples.length);
+        for (int sample : this.samples) {
+            out.writeInt(sample);
+        }
+
+        out.writeInt(this.offsets.length);
+        for (long offset : this.offsets) {
+            out.writeLong(offset);
+        }
+    }
+
+    /**
+     * Reads a record written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return the record
+     * @throws IOException if the input fails
+     */
+    static Record readFrom(DataInput in) throws IOException {
+        Record record = new Record();
+        record.header = Header.readFrom(in);
+        record.sequence = in.readInt();
+        record.timestamp = in.readLong();
+        record.value = in.readDouble();
+        record.last = in.readBoolean();
+        record.name = in.readUTF();
+        record.description = in.readUTF();
+
+        record.samples = new int[in.readInt()];
+        for (int i = 0; i < record.samples.length; i++) {
+            record.samples[i] = in.readInt();
+        }
+
+        record.offsets = new long[in.readInt()];
+        for (int i = 0; i < record.offsets.length; i++) {
+            record.offsets[i] = in.readLong();
+        }
+
+        return record;
+    }
+}
@@ -0,0 +1,77 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures appending {@code total} bytes in
+ * {@code chunk}-sized writes to a new, empty buffer using
+ * each resizer, so that the buffer is grown repeatedly.
+ *
+ * <p>The {@code noop} resizer cannot grow the buffer, and is
+ * instead given an initial length of {@code total} bytes as
+ * the cost of appending without any resizing at all.</p>
+ *
+ * @author caojohnny
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ResizerBenchmark {
+    /**
+     * The initial length of buffers which are resized
+     */
+    private static final int INITIAL_LENGTH = 16;
+
+    @Param({ "noop", "doubling", "stepped", "pageSteps" })
+    private String resizer;
+    @Param({ "array", "chunked", "direct" })
+    private String store;
+    @Param({ "64", "4096" })
+    private int chunk;
+    @Param({ "65536", "16777216" })
+    private int total;
+
+    private CalamityOptions options;
+    private byte[] data;
+
+    @Setup
+    public void setup() {
+        this.options = CalamityOptions.newBuilder()
+                .byteStore(Components.byteStore(this.store))
+                .resizer(Components.resizer(this.resizer))
+                .initialLength("noop".equals(this.resizer) ? this.total : INITIAL_LENGTH);
+        this.data = Components.data(this.chunk);
+    }
+
+    @Benchmark
+    public int appendFromEmpty() {
+        CalamityBuf buf = this.options.newBuf();
+        try {
+            int written = 0;
+            while (written < this.total) {
+                written += buf.write(this.data);
+            }
+
+            return written;
+        } finally {
+            buf.free();
+        }
+    }
+}
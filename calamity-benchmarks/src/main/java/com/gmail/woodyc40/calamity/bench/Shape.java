@@ -0,0 +1,113 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The shapes of message which are marshalled by
+ * {@link MessageBenchmark}.
+ *
+ * @author caojohnny
+ */
+enum Shape {
+    HEADER(Header.class) {
+        @Override
+        Object sample(int seed) {
+            return Header.sample(seed);
+        }
+
+        @Override
+        void writeTo(Object message, DataOutput out) throws IOException {
+            ((Header) message).writeTo(out);
+        }
+
+        @Override
+        Object readFrom(DataInput in) throws IOException {
+            return Header.readFrom(in);
+        }
+    },
+    RECORD(Record.class) {
+        @Override
+        Object sample(int seed) {
+            return Record.sample(seed);
+        }
+
+        @Override
+        void writeTo(Object message, DataOutput out) throws IOException {
+            ((Record) message).writeTo(out);
+        }
+
+        @Override
+        Object readFrom(DataInput in) throws IOException {
+            return Record.readFrom(in);
+        }
+    },
+    BULK(Bulk.class) {
+        @Override
+        Object sample(int seed) {
+            return Bulk.sample(seed);
+        }
+
+        @Override
+        void writeTo(Object message, DataOutput out) throws IOException {
+            ((Bulk) message).writeTo(out);
+        }
+
+        @Override
+        Object readFrom(DataInput in) throws IOException {
+            return Bulk.readFrom(in);
+        }
+    };
+
+    /**
+     * The class of the message
+     */
+    private final Class<?> type;
+
+    /**
+     * Creates a new shape.
+     *
+     * @param type the class of the message
+     */
+    Shape(Class<?> type) {
+        this.type = type;
+    }
+
+    /**
+     * Obtains the class of the message.
+     *
+     * @return the class
+     */
+    Class<?> type() {
+        return this.type;
+    }
+
+    /**
+     * Creates a message with arbitrary contents.
+     *
+     * @param seed the value from which to derive the
+     * contents
+     * @return the message
+     */
+    abstract Object sample(int seed);
+
+    /**
+     * Writes the given message by hand.
+     *
+     * @param message the message to write
+     * @param out the output to write to
+     * @throws IOException if the output fails
+     */
+    abstract void writeTo(Object message, DataOutput out) throws IOException;
+
+    /**
+     * Reads a message written by
+     * {@link #writeTo(Object, DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return the message
+     * @throws IOException if the input fails
+     */
+    abstract Object readFrom(DataInput in) throws IOException;
+}
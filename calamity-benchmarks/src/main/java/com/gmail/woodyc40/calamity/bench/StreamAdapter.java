@@ -0,0 +1,104 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.bytes.ByteStore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Moves bytes through an {@link InputStream} and an
+ * {@link OutputStream}.
+ *
+ * <p>Streams read and write the store's raw array directly
+ * when it is available, and otherwise copy through a
+ * scratch array which is kept between calls.</p>
+ *
+ * @author caojohnny
+ */
+final class StreamAdapter implements IoAdapter {
+    /**
+     * The source of the bytes read into the buffer
+     */
+    private final InputStream in;
+    /**
+     * The sink of the bytes written from the buffer
+     */
+    private final OutputStream out;
+    /**
+     * The array used to copy bytes to and from stores
+     * without a raw array
+     */
+    private byte[] scratch = new byte[0];
+
+    /**
+     * Creates a new adapter.
+     *
+     * @param in the source, or {@code null} if nothing
+     * will be read
+     * @param out the sink, or {@code null} if nothing will
+     * be written
+     */
+    StreamAdapter(InputStream in, OutputStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    /**
+     * Obtains a scratch array that holds at least the given
+     * number of bytes.
+     *
+     * @param length the number of bytes
+     * @return the scratch array
+     */
+    private byte[] scratch(int length) {
+        if (this.scratch.length < length) {
+            this.scratch = new byte[length];
+        }
+
+        return this.scratch;
+    }
+
+    @Override
+    public int fill(CalamityBuf buf, int length) throws IOException {
+        int idx = buf.idx(WRITER);
+        buf.resizer().resize(buf, idx, length);
+
+        ByteStore store = buf.byteStore();
+        int read;
+        if (store.isArrayRaw()) {
+            read = this.in.read(store.array(), idx, length);
+        } else {
+            byte[] scratch = this.scratch(length);
+            read = this.in.read(scratch, 0, length);
+            if (read > 0) {
+                store.write(idx, scratch, 0, read);
+            }
+        }
+
+        if (read > 0) {
+            buf.idx(WRITER, idx + read);
+        }
+
+        return read;
+    }
+
+    @Override
+    public void drain(CalamityBuf buf, int length) throws IOException {
+        int idx = buf.idx(READER);
+        ByteStore store = buf.byteStore();
+        if (store.isArrayRaw()) {
+            this.out.write(store.array(), idx, length);
+        } else {
+            byte[] scratch = this.scratch(length);
+            store.read(0, scratch, idx, length);
+            this.out.write(scratch, 0, length);
+        }
+
+        buf.idx(READER, idx + length);
+    }
+}
@@ -0,0 +1,110 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.marshal.StringMarshaller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding and decoding strings of {@code length}
+ * characters using the {@link StringMarshaller}s.
+ *
+ * <p>{@code ascii} text only holds characters below
+ * {@code 0x80}, {@code latin1} text holds characters below
+ * {@code 0x100}, and {@code mixed} text additionally holds
+ * characters which are three bytes in UTF-8.</p>
+ *
+ * @author caojohnny
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class StringMarshallerBenchmark {
+    @Param({ "utf8", "latin1" })
+    private String charset;
+    @Param({ "ascii", "latin1", "mixed" })
+    private String text;
+    @Param({ "16", "1024" })
+    private int length;
+
+    private StringMarshaller marshaller;
+    private CalamityBuf buf;
+    private String value;
+    private int encodedLength;
+
+    @Setup
+    public void setup() {
+        this.marshaller = "utf8".equals(this.charset) ? StringMarshaller.UTF_8 : StringMarshaller.LATIN_1;
+        this.value = text(this.text, this.length);
+        this.buf = CalamityOptions.newBuilder().newBuf();
+        this.encodedLength = this.marshaller.write(this.buf, 0, this.value);
+    }
+
+    /**
+     * Creates random text of the given kind.
+     *
+     * @param kind the kind of characters in the text
+     * @param length the number of characters
+     * @return the text
+     */
+    private static String text(String kind, int length) {
+        Random random = new Random(length);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            char c = (char) (' ' + random.nextInt('~' - ' '));
+            switch (kind) {
+                case "ascii":
+                    break;
+                case "latin1":
+                    if (i % 4 == 0) {
+                        c = (char) ('\u00C0' + random.nextInt(0x40));
+                    }
+
+                    break;
+                case "mixed":
+                    if (i % 4 == 0) {
+                        c = (char) ('\u00C0' + random.nextInt(0x40));
+                    } else if (i % 4 == 1) {
+                        c = (char) ('\u4E00' + random.nextInt(0x1000));
+                    }
+
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown text: " + kind);
+            }
+
+            chars[i] = c;
+        }
+
+        return new String(chars);
+    }
+
+    @Benchmark
+    public int encode(ByteCounter counter) {
+        int length = this.marshaller.write(this.buf, 0, this.value);
+        counter.bytes += length;
+        return length;
+    }
+
+    @Benchmark
+    public String decode(ByteCounter counter) {
+        counter.bytes += this.encodedLength;
+        return this.marshaller.read(this.buf, 0);
+    }
+}
@@ -0,0 +1,161 @@
+package com.gmail.woodyc40.calamity.bench;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.marshal.BooleanMarshaller;
+import com.gmail.woodyc40.calamity.marshal.CharMarshaller;
+import com.gmail.woodyc40.calamity.marshal.DoubleMarshaller;
+import com.gmail.woodyc40.calamity.marshal.IntMarshaller;
+import com.gmail.woodyc40.calamity.marshal.LongMarshaller;
+import com.gmail.woodyc40.calamity.marshal.Marshaller;
+import com.gmail.woodyc40.calamity.marshal.VarIntMarshaller;
+import com.gmail.woodyc40.calamity.marshal.VarLongMarshaller;
+import com.gmail.woodyc40.calamity.marshal.ZigZagIntMarshaller;
+import com.gmail.woodyc40.calamity.marshal.ZigZagLongMarshaller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+
+/**
+ * Measures encoding and decoding {@code 1024} boxed values
+ * per operation through each scalar marshaller.
+ *
+ * <p>The values used for varints are spread across every
+ * encoded length, and are signed for the ZigZag
+ * marshallers.</p>
+ *
+ * @author caojohnny
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ValueMarshallerBenchmark {
+    /**
+     * The number of values marshalled per operation
+     */
+    private static final int COUNT = 1024;
+
+    @Param({ "int", "long", "double", "char", "boolean", "varInt", "varLong", "zigZagInt", "zigZagLong" })
+    private String marshaller;
+
+    private Marshaller<Object> valueMarshaller;
+    private CalamityBuf buf;
+    private Object[] values;
+    private Object[] decoded;
+    private int encodedLength;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(COUNT);
+        this.values = new Object[COUNT];
+        this.decoded = new Object[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            this.values[i] = value(this.marshaller, random);
+        }
+
+        this.valueMarshaller = (Marshaller<Object>) marshaller(this.marshaller);
+        this.buf = CalamityOptions.newBuilder().newBuf();
+        this.encodedLength = this.encode(new ByteCounter());
+    }
+
+    /**
+     * Creates the marshaller with the given name.
+     *
+     * @param name the name of the marshaller
+     * @return the marshaller
+     */
+    private static Marshaller<?> marshaller(String name) {
+        switch (name) {
+            case "int":
+                return new IntMarshaller();
+            case "long":
+                return new LongMarshaller();
+            case "double":
+                return new DoubleMarshaller();
+            case "char":
+                return new CharMarshaller();
+            case "boolean":
+                return new BooleanMarshaller();
+            case "varInt":
+                return new VarIntMarshaller();
+            case "varLong":
+                return new VarLongMarshaller();
+            case "zigZagInt":
+                return new ZigZagIntMarshaller();
+            case "zigZagLong":
+                return new ZigZagLongMarshaller();
+            default:
+                throw new IllegalArgumentException("Unknown marshaller: " + name);
+        }
+    }
+
+    /**
+     * Creates a random value for the marshaller with the
+     * given name.
+     *
+     * @param name the name of the marshaller
+     * @param random the source of randomness
+     * @return the value
+     */
+    private static Object value(String name, Random random) {
+        switch (name) {
+            case "int":
+            case "varInt":
+                return random.nextInt() >>> random.nextInt(Integer.SIZE);
+            case "zigZagInt":
+                return random.nextInt() >> random.nextInt(Integer.SIZE);
+            case "long":
+            case "varLong":
+                return random.nextLong() >>> random.nextInt(Long.SIZE);
+            case "zigZagLong":
+                return random.nextLong() >> random.nextInt(Long.SIZE);
+            case "double":
+                return random.nextDouble();
+            case "char":
+                return (char) random.nextInt(Character.MAX_VALUE + 1);
+            case "boolean":
+                return random.nextBoolean();
+            default:
+                throw new IllegalArgumentException("Unknown marshaller: " + name);
+        }
+    }
+
+    @Benchmark
+    public int encode(ByteCounter counter) {
+        int idx = 0;
+        for (Object value : this.values) {
+            idx += this.valueMarshaller.write(this.buf, idx, value);
+        }
+
+        counter.bytes += idx;
+        return idx;
+    }
+
+    @Benchmark
+    public Object[] decode(ByteCounter counter) {
+        int idx = 0;
+        for (int i = 0; i < COUNT; i++) {
+            this.decoded[i] = this.valueMarshaller.read(this.buf, idx);
+            idx = this.buf.idx(READER);
+        }
+
+        counter.bytes += this.encodedLength;
+        return this.decoded;
+    }
+}
@@ -2,6 +2,9 @@ package com.gmail.woodyc40.calamity;
 
 import com.gmail.woodyc40.calamity.comp.Component;
 import com.gmail.woodyc40.calamity.indexer.IndexKey;
+import com.gmail.woodyc40.calamity.marshal.Marshaller;
+import com.gmail.woodyc40.calamity.marshal.MarshallingResolver;
+import com.gmail.woodyc40.calamity.metrics.BufferEvents;
 
 import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
 import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
@@ -149,6 +152,156 @@ public interface CalamityBuf extends Component, StrippedCalamityBuf {
      */
     int read(int toIndex, byte[] to, int fromIndex, int length);
 
+    /**
+     * Writes the given object to the buffer at the
+     * {@code WRITER} index, using the marshaller resolved
+     * for the class of the object.
+     *
+     * @param obj the object to write to the buffer
+     * @return the number of bytes that were written into
+     * the buffer
+     * @throws IllegalArgumentException if no marshaller
+     * could be resolved for the object
+     */
+    default int marshal(Object obj) {
+        Marshaller<Object> marshaller = (Marshaller<Object>) this.resolveMarshaller(obj.getClass());
+        return BufferEvents.write(marshaller, this, this.idx(WRITER), obj);
+    }
+
+    /**
+     * Reads an object of the given type from the buffer at
+     * the {@code READER} index, using the marshaller
+     * resolved for the given type.
+     *
+     * @param cls the type of object to read
+     * @param <T> the type of object to read
+     * @return the object that was read from the buffer
+     * @throws IllegalArgumentException if no marshaller
+     * could be resolved for the type
+     */
+    default <T> T unmarshal(Class<T> cls) {
+        return BufferEvents.read(this.resolveMarshaller(cls), this, this.idx(READER));
+    }
+
+    /**
+     * Computes the number of bytes that the given object
+     * will occupy once marshalled.
+     *
+     * @param obj the object to be marshalled
+     * @return the number of bytes, or {@code -1} if the size
+     * is not known in advance
+     * @throws IllegalArgumentException if no marshaller
+     * could be resolved for the object
+     */
+    default int sizeOf(Object obj) {
+        Marshaller<Object> marshaller = (Marshaller<Object>) this.resolveMarshaller(obj.getClass());
+        return marshaller.sizeOf(obj);
+    }
+
+    /**
+     * Computes the number of bytes that the given objects
+     * will occupy once marshalled.
+     *
+     * @param objs the objects to be marshalled
+     * @return the number of bytes, or {@code -1} if the size
+     * of any object is not known in advance
+     * @throws IllegalArgumentException if no marshaller
+     * could be resolved for an object
+     * @throws OutOfMemoryError if the size exceeds the
+     * maximum length of an array
+     */
+    default int sizeOfAll(Object... objs) {
+        long size = 0;
+        for (Object obj : objs) {
+            int objSize = this.sizeOf(obj);
+            if (objSize < 0) {
+                return -1;
+            }
+
+            size += objSize;
+        }
+
+        if (size > Integer.MAX_VALUE) {
+            throw new OutOfMemoryError(String.format("Buffer length overflow (length = %d)", size));
+        }
+
+        return (int) size;
+    }
+
+    /**
+     * Writes the given objects to the buffer in order at
+     * the {@code WRITER} index.
+     *
+     * <p>If the size of every object is known in advance,
+     * the buffer is resized exactly once and the objects
+     * are written without any further capacity checks.
+     * Otherwise, this is equivalent to calling
+     * {@link #marshal(Object)} for each object.</p>
+     *
+     * @param objs the objects to write to the buffer
+     * @return the number of bytes that were written into
+     * the buffer
+     * @throws IllegalArgumentException if no marshaller
+     * could be resolved for an object
+     */
+    default int marshalAll(Object... objs) {
+        int size = this.sizeOfAll(objs);
+        int start = this.idx(WRITER);
+        if (size < 0) {
+            for (Object obj : objs) {
+                this.marshal(obj);
+            }
+
+            return this.idx(WRITER) - start;
+        }
+
+        this.resizer().resize(this, start, size);
+
+        StrippedCalamityBuf presized = new PresizedBuf(this);
+        for (Object obj : objs) {
+            Marshaller<Object> marshaller = (Marshaller<Object>) this.resolveMarshaller(obj.getClass());
+            BufferEvents.write(marshaller, presized, this.idx(WRITER), obj);
+        }
+
+        return this.idx(WRITER) - start;
+    }
+
+    /**
+     * Begins a batch of writes at the {@code WRITER} index,
+     * ensuring space for the given number of bytes at once.
+     *
+     * <p>The bytes written by the batch are only visible
+     * once it is committed, see {@link WriteBatch}.</p>
+     *
+     * @param upperBound the number of bytes expected to be
+     * written by the batch
+     * @return the new batch
+     */
+    default WriteBatch beginWrite(int upperBound) {
+        return new WriteBatch(this, upperBound);
+    }
+
+    /**
+     * Resolves the marshaller for the given type using this
+     * buffer's {@link MarshallingResolver}, failing if the
+     * type is not supported.
+     *
+     * @param cls the type which to find the marshaller for
+     * @param <T> the marshalled type
+     * @return the marshaller
+     * @throws IllegalArgumentException if no marshaller
+     * could be resolved for the type
+     */
+    default <T> Marshaller<T> resolveMarshaller(Class<T> cls) {
+        MarshallingResolver resolver = this.resolver();
+        Marshaller<T> marshaller = resolver.resolveType(cls);
+        if (marshaller == null) {
+            throw new IllegalArgumentException("No marshaller for " + cls.getName());
+        }
+
+        return marshaller;
+    }
+
     /**
      * Resets the indexes of the buffer.
      *
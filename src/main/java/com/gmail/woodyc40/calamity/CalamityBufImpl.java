@@ -4,8 +4,13 @@ import com.gmail.woodyc40.calamity.bytes.ByteStore;
 import com.gmail.woodyc40.calamity.indexer.IndexKey;
 import com.gmail.woodyc40.calamity.indexer.Indexer;
 import com.gmail.woodyc40.calamity.marshal.MarshallingResolver;
+import com.gmail.woodyc40.calamity.metrics.AllocationProfiler;
+import com.gmail.woodyc40.calamity.metrics.BufferEvents;
+import com.gmail.woodyc40.calamity.metrics.BufferMetrics;
 import com.gmail.woodyc40.calamity.resize.Resizer;
 
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
 /**
  * The primary implementation of the Calamity buffers
  * specification, making use of different components passed
@@ -35,6 +40,20 @@ public class CalamityBufImpl implements CalamityBuf {
      * buffer
      */
     private final MarshallingResolver resolver;
+    /**
+     * The metrics recorded into, or {@code null} if
+     * disabled
+     */
+    private final BufferMetrics metrics;
+    /**
+     * The allocation site sample of this buffer, or
+     * {@code null} if it was not sampled
+     */
+    private AllocationProfiler.Sample sample;
+    /**
+     * Whether or not this buffer has been freed
+     */
+    private boolean freed;
 
     /**
      * Creates the buffer implementation with the given
@@ -46,9 +65,12 @@ public class CalamityBufImpl implements CalamityBuf {
     private CalamityBufImpl(CalamityOptions options) {
         this.options = options;
         this.byteStore = options.newByteStore();
-        this.resizer = options.newResizer();
         this.indexer = options.newIndexer();
         this.resolver = options.newResolver();
+        this.metrics = options.metrics();
+
+        Resizer resizer = options.newResizer();
+        this.resizer = this.metrics == null ? resizer : this.metrics.wrap(resizer);
     }
 
     /**
@@ -72,6 +94,15 @@ public class CalamityBufImpl implements CalamityBuf {
     static CalamityBufImpl alloc(CalamityOptions options) {
         CalamityBufImpl buf = new CalamityBufImpl(options);
         buf.internalInit();
+        BufferEvents.allocated(buf.byteStore);
+        if (buf.metrics != null) {
+            buf.metrics.recordAllocate(buf.byteStore);
+        }
+
+        AllocationProfiler profiler = options.profiler();
+        if (profiler != null) {
+            buf.sample = profiler.recordAllocate(buf);
+        }
 
         return buf;
     }
@@ -135,10 +166,21 @@ public class CalamityBufImpl implements CalamityBuf {
     public void reset() {
         this.byteStore.reset();
         this.indexer.reset();
+        this.resizer.shrink(this);
     }
 
     @Override
     public void free() {
+        if (this.metrics != null && !this.freed) {
+            this.metrics.recordFree(this.byteStore.length(), this.idx(WRITER));
+        }
+
+        if (this.sample != null) {
+            this.options.profiler().recordFree(this.sample);
+            this.sample = null;
+        }
+
+        this.freed = true;
         this.byteStore.free();
         this.resizer.free();
         this.indexer.free();
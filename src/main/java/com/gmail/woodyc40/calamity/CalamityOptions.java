@@ -7,6 +7,9 @@ import com.gmail.woodyc40.calamity.indexer.DefaultIndexer;
 import com.gmail.woodyc40.calamity.indexer.Indexer;
 import com.gmail.woodyc40.calamity.marshal.DefaultMarshallingResolver;
 import com.gmail.woodyc40.calamity.marshal.MarshallingResolver;
+import com.gmail.woodyc40.calamity.memory.MemoryGovernor;
+import com.gmail.woodyc40.calamity.metrics.AllocationProfiler;
+import com.gmail.woodyc40.calamity.metrics.BufferMetrics;
 import com.gmail.woodyc40.calamity.resize.DoublingResizer;
 import com.gmail.woodyc40.calamity.resize.Resizer;
 import com.gmail.woodyc40.calamity.util.Constants;
@@ -57,6 +60,21 @@ public final class CalamityOptions {
      * The limit on the byte size of this buffer
      */
     private int maxLength = Constants.ARRAY_MAX_SIZE;
+    /**
+     * The governor which byte stores report allocations
+     * to, or {@code null} if ungoverned
+     */
+    private MemoryGovernor governor;
+    /**
+     * The metrics which buffers record into, or
+     * {@code null} if disabled
+     */
+    private BufferMetrics metrics;
+    /**
+     * The profiler which samples allocation sites, or
+     * {@code null} if disabled
+     */
+    private AllocationProfiler profiler;
     /**
      * Whether or not to automatically free memory consumed
      * by bytes that have already been read from the buffer
@@ -180,6 +198,56 @@ public final class CalamityOptions {
         return this;
     }
 
+    /**
+     * Sets the governor which the byte storage of the
+     * buffer will report its allocations to.
+     *
+     * <p>Use {@link MemoryGovernor#global()} to share a
+     * single governor between every buffer in the
+     * process.</p>
+     *
+     * @param governor the memory governor, or {@code null}
+     * to disable accounting
+     * @return the current instance of the options builder
+     */
+    public CalamityOptions governor(MemoryGovernor governor) {
+        this.checkImmutable();
+        this.governor = governor;
+        return this;
+    }
+
+    /**
+     * Sets the metrics which the buffer will record its
+     * allocations, resizes and copies into.
+     *
+     * <p>Buffers built from copies of these options share
+     * the same metrics, which are therefore aggregated for
+     * every buffer built from this template.</p>
+     *
+     * @param metrics the metrics, or {@code null} to
+     * disable metrics
+     * @return the current instance of the options builder
+     */
+    public CalamityOptions metrics(BufferMetrics metrics) {
+        this.checkImmutable();
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Sets the profiler which samples the code paths that
+     * allocate buffers.
+     *
+     * @param profiler the profiler, or {@code null} to
+     * disable profiling
+     * @return the current instance of the options builder
+     */
+    public CalamityOptions profiler(AllocationProfiler profiler) {
+        this.checkImmutable();
+        this.profiler = profiler;
+        return this;
+    }
+
     /**
      * Sets whether or not the buffer should automatically
      * free read bytes.
@@ -303,6 +371,47 @@ public final class CalamityOptions {
         return this.maxLength;
     }
 
+    /**
+     * Obtains the governor which the byte storage of the
+     * buffer reports its allocations to.
+     *
+     * <p>By default, allocations are not governed and this
+     * returns {@code null}.</p>
+     *
+     * @return the memory governor, or {@code null} if
+     * ungoverned
+     */
+    public MemoryGovernor governor() {
+        return this.governor;
+    }
+
+    /**
+     * Obtains the metrics which the buffer records into.
+     *
+     * <p>By default, metrics are disabled and this returns
+     * {@code null}.</p>
+     *
+     * @return the buffer metrics, or {@code null} if
+     * disabled
+     */
+    public BufferMetrics metrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Obtains the profiler which samples the code paths that
+     * allocate buffers.
+     *
+     * <p>By default, profiling is disabled and this returns
+     * {@code null}.</p>
+     *
+     * @return the allocation profiler, or {@code null} if
+     * disabled
+     */
+    public AllocationProfiler profiler() {
+        return this.profiler;
+    }
+
     /**
      * Checks to determine whether the buffer will
      * automatically free read bytes off of the buffer.
@@ -350,6 +459,9 @@ public final class CalamityOptions {
                 .indexer(this.indexer)
                 .marshaller(this.resolver)
                 .maxLength(this.maxLength)
+                .governor(this.governor)
+                .metrics(this.metrics)
+                .profiler(this.profiler)
                 .autoFree(this.autoFree)
                 .threadSafe(this.threadSafe);
     }
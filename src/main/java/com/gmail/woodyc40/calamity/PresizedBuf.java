@@ -0,0 +1,69 @@
+package com.gmail.woodyc40.calamity;
+
+import com.gmail.woodyc40.calamity.bytes.ByteStore;
+import com.gmail.woodyc40.calamity.indexer.IndexKey;
+import com.gmail.woodyc40.calamity.indexer.Indexer;
+import com.gmail.woodyc40.calamity.marshal.MarshallingResolver;
+import com.gmail.woodyc40.calamity.resize.NoopResizer;
+import com.gmail.woodyc40.calamity.resize.Resizer;
+
+/**
+ * A view of a buffer whose space has already been ensured,
+ * which is passed to marshallers so that their calls to
+ * the resizer are skipped.
+ *
+ * <p>All components other than the resizer, as well as the
+ * indexes, are those of the underlying buffer.</p>
+ *
+ * @author caojohnny
+ */
+final class PresizedBuf implements StrippedCalamityBuf {
+    /**
+     * The buffer which has been sized
+     */
+    private final StrippedCalamityBuf buf;
+
+    /**
+     * Creates a new view of the given buffer.
+     *
+     * @param buf the buffer which has been sized
+     */
+    PresizedBuf(StrippedCalamityBuf buf) {
+        this.buf = buf;
+    }
+
+    @Override
+    public <T extends ByteStore> T byteStore() {
+        return this.buf.byteStore();
+    }
+
+    @Override
+    public <T extends Resizer> T resizer() {
+        return (T) NoopResizer.INSTANCE;
+    }
+
+    @Override
+    public <T extends Indexer> T indexer() {
+        return this.buf.indexer();
+    }
+
+    @Override
+    public <T extends MarshallingResolver> T resolver() {
+        return this.buf.resolver();
+    }
+
+    @Override
+    public CalamityOptions options() {
+        return this.buf.options();
+    }
+
+    @Override
+    public int idx(IndexKey key) {
+        return this.buf.idx(key);
+    }
+
+    @Override
+    public void idx(IndexKey key, int idx) {
+        this.buf.idx(key, idx);
+    }
+}
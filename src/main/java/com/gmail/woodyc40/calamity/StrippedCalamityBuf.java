@@ -4,7 +4,9 @@ import com.gmail.woodyc40.calamity.bytes.ByteStore;
 import com.gmail.woodyc40.calamity.indexer.IndexKey;
 import com.gmail.woodyc40.calamity.indexer.Indexer;
 import com.gmail.woodyc40.calamity.marshal.MarshallingResolver;
+import com.gmail.woodyc40.calamity.marshal.VarIntMarshaller;
 import com.gmail.woodyc40.calamity.resize.Resizer;
+import com.gmail.woodyc40.calamity.util.Bytes;
 
 import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
 import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
@@ -112,4 +114,85 @@ public interface StrippedCalamityBuf {
     default int writable() {
         return this.options().maxLength() - this.idx(WRITER);
     }
+
+    /**
+     * Reserves the given number of bytes at the
+     * {@code WRITER} index, moving the index past them so
+     * that writing may continue after the placeholder.
+     *
+     * <p>The reserved bytes are later filled in using one of
+     * the {@code backfill} methods once their value, such as
+     * the length of the data that follows, is known:</p>
+     *
+     * <pre>{@code
+     *      int lengthIdx = buf.reserve(Integer.BYTES);
+     *      int written = buf.marshal(body);
+     *      buf.backfillInt(lengthIdx, written);
+     * }</pre>
+     *
+     * @param length the number of bytes to reserve
+     * @return the index of the reserved bytes
+     */
+    default int reserve(int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Negative reserve length: " + length);
+        }
+
+        int idx = this.idx(WRITER);
+        this.resizer().resize(this, idx, length);
+        this.idx(WRITER, idx + length);
+
+        return idx;
+    }
+
+    /**
+     * Overwrites the int at the given index, which must have
+     * already been written or reserved, in big-endian order.
+     *
+     * @param idx the index of the reserved bytes
+     * @param value the value to write
+     */
+    default void backfillInt(int idx, int value) {
+        if (idx < 0 || idx + Integer.BYTES > this.idx(WRITER)) {
+            throw new IllegalArgumentException("Cannot backfill unreserved bytes at index " + idx);
+        }
+
+        Bytes.putInt(this.byteStore(), idx, value);
+    }
+
+    /**
+     * Overwrites the long at the given index, which must
+     * have already been written or reserved, in big-endian
+     * order.
+     *
+     * @param idx the index of the reserved bytes
+     * @param value the value to write
+     */
+    default void backfillLong(int idx, long value) {
+        if (idx < 0 || idx + Long.BYTES > this.idx(WRITER)) {
+            throw new IllegalArgumentException("Cannot backfill unreserved bytes at index " + idx);
+        }
+
+        Bytes.putLong(this.byteStore(), idx, value);
+    }
+
+    /**
+     * Overwrites the given number of bytes at the given
+     * index, which must have already been written or
+     * reserved, with a padded varint that is readable by
+     * {@link VarIntMarshaller}.
+     *
+     * @param idx the index of the reserved bytes
+     * @param width the number of bytes reserved
+     * @param value the non-negative value to write
+     * @throws IllegalArgumentException if the value does
+     * not fit into the given width
+     */
+    default void backfillVarInt(int idx, int width, int value) {
+        if (idx < 0 || idx + width > this.idx(WRITER)) {
+            throw new IllegalArgumentException("Cannot backfill unreserved bytes at index " + idx);
+        }
+
+        VarIntMarshaller.writePadded(this, idx, width, value);
+    }
 }
@@ -0,0 +1,315 @@
+package com.gmail.woodyc40.calamity;
+
+import com.gmail.woodyc40.calamity.bytes.ByteStore;
+import com.gmail.woodyc40.calamity.indexer.IndexKey;
+import com.gmail.woodyc40.calamity.indexer.Indexer;
+import com.gmail.woodyc40.calamity.marshal.Marshaller;
+import com.gmail.woodyc40.calamity.marshal.MarshallingResolver;
+import com.gmail.woodyc40.calamity.metrics.BufferEvents;
+import com.gmail.woodyc40.calamity.resize.Resizer;
+import com.gmail.woodyc40.calamity.util.Bytes;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * A scope in which many writes are made to a buffer after
+ * space for all of them has been ensured at once, obtained
+ * using {@link CalamityBuf#beginWrite(int)}.
+ *
+ * <p>The batch keeps its own {@code WRITER} index, which
+ * is only published to the buffer once the batch is
+ * {@link #commit() committed}. Aborting the batch instead
+ * leaves the buffer's {@code WRITER} index where the batch
+ * began, discarding everything written by the batch. A
+ * batch that is closed without being committed is
+ * aborted:</p>
+ *
+ * <pre>{@code
+ *      try (WriteBatch batch = buf.beginWrite(64)) {
+ *          batch.writeInt(header);
+ *          if (!encodeBody(batch)) {
+ *              return;
+ *          }
+ *
+ *          batch.commit();
+ *      }
+ * }</pre>
+ *
+ * <p>Marshallers may write into the batch directly, as it
+ * is itself a {@link StrippedCalamityBuf}. Writes within
+ * the reserved space do not call the buffer's resizer;
+ * writes beyond it are still permitted, but resize the
+ * buffer as usual.</p>
+ *
+ * <p>Batches are not thread-safe, and the buffer should
+ * not be written to by other means while a batch is
+ * open.</p>
+ *
+ * @author caojohnny
+ */
+public final class WriteBatch implements StrippedCalamityBuf, AutoCloseable {
+    /**
+     * The buffer being written to
+     */
+    private final CalamityBuf buf;
+    /**
+     * The resizer which checks writes against the reserved
+     * space
+     */
+    private final BatchResizer resizer = new BatchResizer();
+    /**
+     * The buffer's WRITER index when the batch began
+     */
+    private final int start;
+    /**
+     * The index up to which space has been ensured
+     */
+    private int limit;
+    /**
+     * The WRITER index of the batch
+     */
+    private int writer;
+    /**
+     * Whether or not the batch has been committed or
+     * aborted
+     */
+    private boolean closed;
+
+    /**
+     * Begins a new batch at the buffer's current
+     * {@code WRITER} index.
+     *
+     * @param buf the buffer to write to
+     * @param upperBound the number of bytes to reserve
+     */
+    WriteBatch(CalamityBuf buf, int upperBound) {
+        if (upperBound < 0) {
+            throw new IllegalArgumentException("Negative upper bound: " + upperBound);
+        }
+
+        this.buf = buf;
+        this.start = buf.idx(WRITER);
+        this.writer = this.start;
+
+        buf.resizer().resize(buf, this.start, upperBound);
+        this.limit = this.start + upperBound;
+    }
+
+    /**
+     * Ensures that the given number of bytes may be written
+     * at the batch's {@code WRITER} index.
+     *
+     * @param length the number of bytes to write
+     * @return the index at which to write
+     */
+    private int ensure(int length) {
+        if (this.closed) {
+            throw new IllegalStateException("Batch has already been committed or aborted");
+        }
+
+        int idx = this.writer;
+        if (idx + length > this.limit) {
+            this.resizer.resize(this, idx, length);
+        }
+
+        this.writer = idx + length;
+        return idx;
+    }
+
+    /**
+     * Writes a single byte.
+     *
+     * @param b the byte to write
+     */
+    public void writeByte(int b) {
+        int idx = this.ensure(1);
+        this.buf.byteStore().write(idx, (byte) b);
+    }
+
+    /**
+     * Writes a short in big-endian order.
+     *
+     * @param value the value to write
+     */
+    public void writeShort(int value) {
+        int idx = this.ensure(Short.BYTES);
+        Bytes.putShort(this.buf.byteStore(), idx, (short) value);
+    }
+
+    /**
+     * Writes an int in big-endian order.
+     *
+     * @param value the value to write
+     */
+    public void writeInt(int value) {
+        int idx = this.ensure(Integer.BYTES);
+        Bytes.putInt(this.buf.byteStore(), idx, value);
+    }
+
+    /**
+     * Writes a long in big-endian order.
+     *
+     * @param value the value to write
+     */
+    public void writeLong(long value) {
+        int idx = this.ensure(Long.BYTES);
+        Bytes.putLong(this.buf.byteStore(), idx, value);
+    }
+
+    /**
+     * Writes the bits of a float in big-endian order.
+     *
+     * @param value the value to write
+     */
+    public void writeFloat(float value) {
+        this.writeInt(Float.floatToRawIntBits(value));
+    }
+
+    /**
+     * Writes the bits of a double in big-endian order.
+     *
+     * @param value the value to write
+     */
+    public void writeDouble(double value) {
+        this.writeLong(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Writes the given range of bytes.
+     *
+     * @param from the bytes to write
+     * @param fromIndex the index of the first byte to write
+     * @param length the number of bytes to write
+     */
+    public void write(byte[] from, int fromIndex, int length) {
+        int idx = this.ensure(length);
+        this.buf.byteStore().write(idx, from, fromIndex, length);
+    }
+
+    /**
+     * Writes the given object using the marshaller resolved
+     * by the buffer.
+     *
+     * @param obj the object to write
+     * @return the number of bytes written
+     * @throws IllegalArgumentException if no marshaller
+     * could be resolved for the object
+     */
+    public int marshal(Object obj) {
+        int idx = this.ensure(0);
+        Marshaller<Object> marshaller = (Marshaller<Object>) this.buf.resolveMarshaller(obj.getClass());
+        return BufferEvents.write(marshaller, this, idx, obj);
+    }
+
+    /**
+     * Obtains the number of bytes written by this batch so
+     * far.
+     *
+     * @return the number of bytes written
+     */
+    public int written() {
+        return this.writer - this.start;
+    }
+
+    /**
+     * Publishes the bytes written by this batch by moving
+     * the buffer's {@code WRITER} index past them.
+     *
+     * @return the number of bytes written
+     */
+    public int commit() {
+        this.ensure(0);
+        this.closed = true;
+        this.buf.idx(WRITER, this.writer);
+
+        return this.writer - this.start;
+    }
+
+    /**
+     * Discards the bytes written by this batch, leaving the
+     * buffer's {@code WRITER} index where the batch began.
+     */
+    public void abort() {
+        this.ensure(0);
+        this.closed = true;
+        this.writer = this.start;
+    }
+
+    /**
+     * Aborts this batch if it has not been committed.
+     */
+    @Override
+    public void close() {
+        if (!this.closed) {
+            this.abort();
+        }
+    }
+
+    @Override
+    public <T extends ByteStore> T byteStore() {
+        return this.buf.byteStore();
+    }
+
+    @Override
+    public <T extends Resizer> T resizer() {
+        return (T) this.resizer;
+    }
+
+    @Override
+    public <T extends Indexer> T indexer() {
+        return this.buf.indexer();
+    }
+
+    @Override
+    public <T extends MarshallingResolver> T resolver() {
+        return this.buf.resolver();
+    }
+
+    @Override
+    public CalamityOptions options() {
+        return this.buf.options();
+    }
+
+    @Override
+    public int idx(IndexKey key) {
+        return key == WRITER ? this.writer : this.buf.idx(key);
+    }
+
+    @Override
+    public void idx(IndexKey key, int idx) {
+        if (key == WRITER) {
+            this.writer = idx;
+        } else {
+            this.buf.idx(key, idx);
+        }
+    }
+
+    /**
+     * The resizer of the batch, which only calls the
+     * buffer's resizer for writes beyond the reserved
+     * space.
+     */
+    private final class BatchResizer implements Resizer {
+        @Override
+        public void resize(StrippedCalamityBuf buf, int beginIndex, int length) {
+            int end = beginIndex + length;
+            if (end > WriteBatch.this.limit) {
+                WriteBatch.this.buf.resizer().resize(WriteBatch.this.buf, beginIndex, length);
+                WriteBatch.this.limit = end;
+            }
+        }
+
+        @Override
+        public void init(CalamityBuf buf) {
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return false;
+        }
+
+        @Override
+        public void free() {
+        }
+    }
+}
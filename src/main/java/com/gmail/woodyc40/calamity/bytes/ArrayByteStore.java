@@ -1,6 +1,8 @@
 package com.gmail.woodyc40.calamity.bytes;
 
 import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.memory.MemoryGovernor;
+import com.gmail.woodyc40.calamity.metrics.BufferMetrics;
 
 /**
  * A form of byte storage in which a standard {@code byte}
@@ -17,6 +19,16 @@ public class ArrayByteStore implements ByteStore {
      * The underlying data stored by this {@code ByteStore}
      */
     private byte[] bytes;
+    /**
+     * The governor which allocations are reported to, or
+     * {@code null} if allocations are not governed
+     */
+    private MemoryGovernor governor;
+    /**
+     * The metrics which copies are recorded into, or
+     * {@code null} if disabled
+     */
+    private BufferMetrics metrics;
 
     @Override
     public int length() {
@@ -25,9 +37,18 @@ public class ArrayByteStore implements ByteStore {
 
     @Override
     public void setLength(int newLength) {
+        int oldLength = this.bytes == null ? 0 : this.bytes.length;
+        if (this.governor != null) {
+            this.governor.adjust(newLength - oldLength);
+        }
+
         byte[] newBytes = new byte[newLength];
         if (this.bytes != null) {
-            System.arraycopy(this.bytes, 0, newBytes, 0, this.bytes.length);
+            int copied = Math.min(this.bytes.length, newLength);
+            System.arraycopy(this.bytes, 0, newBytes, 0, copied);
+            if (this.metrics != null) {
+                this.metrics.recordCopy(copied);
+            }
         }
 
         this.bytes = newBytes;
@@ -69,7 +90,14 @@ public class ArrayByteStore implements ByteStore {
 
     @Override
     public void init(CalamityBuf buf) {
-        this.setLength(buf.options().initialLength());
+        this.init(buf, buf.options().initialLength());
+    }
+
+    @Override
+    public void init(CalamityBuf buf, int length) {
+        this.governor = buf.options().governor();
+        this.metrics = buf.options().metrics();
+        this.setLength(length);
     }
 
     @Override
@@ -79,6 +107,12 @@ public class ArrayByteStore implements ByteStore {
 
     @Override
     public void free() {
+        if (this.bytes != null) {
+            if (this.governor != null) {
+                this.governor.release(this.bytes.length);
+            }
+        }
+
         this.bytes = null;
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.gmail.woodyc40.calamity.bytes;
 
+import com.gmail.woodyc40.calamity.CalamityBuf;
 import com.gmail.woodyc40.calamity.comp.Component;
 
 /**
@@ -29,7 +30,9 @@ public interface ByteStore extends Component {
      *
      * <p>No destruction of data should be done by this
      * method. When this method exits, the same data should
-     * remain in the {@code DataStore}.</p>
+     * remain in the {@code DataStore}, with the exception
+     * of bytes that lie beyond {@code newLength} when the
+     * memory space is being shrunk.</p>
      *
      * <p>Resizing should be handled by the
      * {@link com.gmail.woodyc40.calamity.resize.Resizer}
@@ -145,4 +148,21 @@ public interface ByteStore extends Component {
      * the state of the buffer being set back to empty.</p>
      */
     void reset();
+
+    /**
+     * Initializes this store for the given buffer, holding
+     * the given number of bytes rather than the initial
+     * length of the buffer's options, e.g. when the bytes of
+     * another store are migrated into it.
+     *
+     * <p>By default, the store is initialized normally and
+     * then set to the given length.</p>
+     *
+     * @param buf the buffer which holds this store
+     * @param length the length of this store
+     */
+    default void init(CalamityBuf buf, int length) {
+        this.init(buf);
+        this.setLength(length);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,266 @@
+package com.gmail.woodyc40.calamity.bytes;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.memory.MemoryGovernor;
+import com.gmail.woodyc40.calamity.metrics.BufferMetrics;
+import com.gmail.woodyc40.calamity.util.Constants;
+
+/**
+ * A form of byte storage in which the bytes are held in a
+ * chain of equally sized {@code byte} arrays, none of which
+ * are large enough to become a humongous allocation for the
+ * G1 garbage collector.
+ *
+ * <p>Small stores are held in a single array of exactly the
+ * requested length, as {@link ArrayByteStore} would do.
+ * Once the store grows beyond the chunk size, it is held in
+ * full-sized chunks, and growing the store only allocates
+ * the new chunks without copying the existing ones.</p>
+ *
+ * <p>Pairing this store with a
+ * {@link com.gmail.woodyc40.calamity.resize.SteppedResizer}
+ * that steps by the {@link #chunkSize()} past the chunk
+ * size keeps large buffers growing one chunk at a time.</p>
+ *
+ * <p>The array returned by this store's {@link #array()}
+ * method is only the raw underlying array while the store
+ * is held by a single chunk.</p>
+ *
+ * @author caojohnny
+ */
+public class ChunkedByteStore implements ByteStore {
+    /**
+     * The number of bytes assumed to be taken up by the
+     * header of an array object
+     */
+    private static final int ARRAY_HEADER_SIZE = 16;
+
+    /**
+     * The size of each chunk, a power of two
+     */
+    private final int chunkSize;
+    /**
+     * The number of bits to shift an index by to obtain the
+     * index of its chunk
+     */
+    private final int chunkShift;
+    /**
+     * The mask used to obtain the index of a byte within
+     * its chunk
+     */
+    private final int chunkMask;
+
+    /**
+     * The underlying chunks stored by this
+     * {@code ByteStore}
+     */
+    private byte[][] chunks;
+    /**
+     * The total length of the memory space
+     */
+    private int length;
+    /**
+     * The governor which allocations are reported to, or
+     * {@code null} if allocations are not governed
+     */
+    private MemoryGovernor governor;
+    /**
+     * The metrics which copies are recorded into, or
+     * {@code null} if disabled
+     */
+    private BufferMetrics metrics;
+
+    /**
+     * Creates a new chunked byte store with chunks sized to
+     * avoid humongous allocations in the running JVM.
+     */
+    public ChunkedByteStore() {
+        this(Constants.humongousThreshold());
+    }
+
+    /**
+     * Creates a new chunked byte store which will hold
+     * chunks that are smaller than the given threshold.
+     *
+     * @param humongousThreshold the number of bytes, which
+     * includes the array header, that each chunk must stay
+     * below
+     */
+    public ChunkedByteStore(int humongousThreshold) {
+        if (humongousThreshold <= ARRAY_HEADER_SIZE + 1) {
+            throw new IllegalArgumentException("Humongous threshold too small: " + humongousThreshold);
+        }
+
+        this.chunkSize = Integer.highestOneBit(humongousThreshold - ARRAY_HEADER_SIZE - 1);
+        this.chunkShift = Integer.numberOfTrailingZeros(this.chunkSize);
+        this.chunkMask = this.chunkSize - 1;
+    }
+
+    /**
+     * Obtains the size of the chunks used to hold the
+     * bytes of a store that has outgrown a single chunk.
+     *
+     * @return the chunk size
+     */
+    public int chunkSize() {
+        return this.chunkSize;
+    }
+
+    @Override
+    public int length() {
+        return this.length;
+    }
+
+    @Override
+    public void setLength(int newLength) {
+        int newCount = (int) (((long) newLength + this.chunkMask) >>> this.chunkShift);
+        long newAllocated = newLength <= this.chunkSize ? newLength : (long) newCount << this.chunkShift;
+        if (this.governor != null) {
+            this.governor.adjust(newAllocated - this.allocated());
+        }
+
+        if (newLength <= this.chunkSize) {
+            byte[] first = this.chunks == null ? null : this.chunks[0];
+            this.chunks = new byte[][] { resizeChunk(first, newLength) };
+            this.length = newLength;
+            return;
+        }
+
+        int oldCount = this.chunks == null ? 0 : this.chunks.length;
+        byte[][] newChunks = new byte[newCount][];
+        if (oldCount > 0) {
+            System.arraycopy(this.chunks, 0, newChunks, 0, Math.min(oldCount, newCount));
+            newChunks[0] = resizeChunk(newChunks[0], this.chunkSize);
+        }
+
+        for (int i = oldCount; i < newCount; i++) {
+            newChunks[i] = new byte[this.chunkSize];
+        }
+
+        this.chunks = newChunks;
+        this.length = (int) Math.min((long) newCount << this.chunkShift, Constants.ARRAY_MAX_SIZE);
+    }
+
+    /**
+     * Obtains the number of bytes allocated for the chunks
+     * of this store.
+     *
+     * @return the allocated bytes
+     */
+    private long allocated() {
+        if (this.chunks == null) {
+            return 0;
+        }
+
+        return this.chunks.length == 1 ? this.chunks[0].length : (long) this.chunks.length << this.chunkShift;
+    }
+
+    /**
+     * Resizes the given chunk to the given length, copying
+     * over as many bytes as will fit.
+     *
+     * @param chunk the chunk to resize, or {@code null}
+     * @param newLength the new length of the chunk
+     * @return the resized chunk
+     */
+    private byte[] resizeChunk(byte[] chunk, int newLength) {
+        if (chunk != null && chunk.length == newLength) {
+            return chunk;
+        }
+
+        byte[] newChunk = new byte[newLength];
+        if (chunk != null) {
+            int copied = Math.min(chunk.length, newLength);
+            System.arraycopy(chunk, 0, newChunk, 0, copied);
+            if (this.metrics != null) {
+                this.metrics.recordCopy(copied);
+            }
+        }
+
+        return newChunk;
+    }
+
+    @Override
+    public byte[] array() {
+        if (this.chunks.length == 1) {
+            return this.chunks[0];
+        }
+
+        byte[] array = new byte[this.length];
+        this.read(0, array, 0, this.length);
+        return array;
+    }
+
+    @Override
+    public boolean isArrayRaw() {
+        return this.chunks.length == 1;
+    }
+
+    @Override
+    public void write(int idx, byte b) {
+        this.chunks[idx >>> this.chunkShift][idx & this.chunkMask] = b;
+    }
+
+    @Override
+    public byte read(int idx) {
+        return this.chunks[idx >>> this.chunkShift][idx & this.chunkMask];
+    }
+
+    @Override
+    public void write(int toIndex, byte[] from, int fromIndex, int length) {
+        while (length > 0) {
+            byte[] chunk = this.chunks[toIndex >>> this.chunkShift];
+            int offset = toIndex & this.chunkMask;
+            int count = Math.min(length, chunk.length - offset);
+            System.arraycopy(from, fromIndex, chunk, offset, count);
+
+            toIndex += count;
+            fromIndex += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public void read(int toIndex, byte[] to, int fromIndex, int length) {
+        while (length > 0) {
+            byte[] chunk = this.chunks[fromIndex >>> this.chunkShift];
+            int offset = fromIndex & this.chunkMask;
+            int count = Math.min(length, chunk.length - offset);
+            System.arraycopy(chunk, offset, to, toIndex, count);
+
+            toIndex += count;
+            fromIndex += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public void reset() {
+    }
+
+    @Override
+    public void init(CalamityBuf buf) {
+        this.init(buf, buf.options().initialLength());
+    }
+
+    @Override
+    public void init(CalamityBuf buf, int length) {
+        this.governor = buf.options().governor();
+        this.metrics = buf.options().metrics();
+        this.setLength(length);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return false;
+    }
+
+    @Override
+    public void free() {
+        if (this.governor != null) {
+            this.governor.release(this.allocated());
+        }
+        this.chunks = null;
+        this.length = 0;
+    }
+}
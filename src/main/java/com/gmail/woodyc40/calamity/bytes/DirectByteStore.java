@@ -0,0 +1,141 @@
+package com.gmail.woodyc40.calamity.bytes;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.memory.MemoryGovernor;
+import com.gmail.woodyc40.calamity.metrics.BufferMetrics;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A form of byte storage in which the bytes are held
+ * off-heap in a direct {@link ByteBuffer}, and therefore
+ * are not scanned or copied by the garbage collector.
+ *
+ * <p>The array returned by this store's {@link #array()}
+ * method is always a copy of the bytes held off-heap.</p>
+ *
+ * @author caojohnny
+ */
+public class DirectByteStore implements ByteStore {
+    /**
+     * The underlying buffer held by this {@code ByteStore}
+     */
+    private ByteBuffer buffer;
+    /**
+     * The governor which allocations are reported to, or
+     * {@code null} if allocations are not governed
+     */
+    private MemoryGovernor governor;
+    /**
+     * The metrics which copies are recorded into, or
+     * {@code null} if disabled
+     */
+    private BufferMetrics metrics;
+
+    /**
+     * Obtains the direct buffer which holds the bytes of
+     * this store.
+     *
+     * <p>The position and limit of the returned buffer are
+     * not defined, and the buffer will be replaced whenever
+     * this store is resized.</p>
+     *
+     * @return the underlying direct buffer
+     */
+    public ByteBuffer buffer() {
+        return this.buffer;
+    }
+
+    @Override
+    public int length() {
+        return this.buffer.capacity();
+    }
+
+    @Override
+    public void setLength(int newLength) {
+        if (this.governor != null) {
+            this.governor.adjust(newLength - (this.buffer == null ? 0 : this.buffer.capacity()));
+        }
+
+        ByteBuffer newBuffer = ByteBuffer.allocateDirect(newLength);
+        if (this.buffer != null) {
+            ByteBuffer source = this.buffer.duplicate();
+            source.clear();
+            source.limit(Math.min(source.capacity(), newLength));
+            newBuffer.put(source);
+            newBuffer.clear();
+            if (this.metrics != null) {
+                this.metrics.recordCopy(source.limit());
+            }
+        }
+
+        this.buffer = newBuffer;
+    }
+
+    @Override
+    public byte[] array() {
+        byte[] array = new byte[this.length()];
+        this.read(0, array, 0, array.length);
+
+        return array;
+    }
+
+    @Override
+    public boolean isArrayRaw() {
+        return false;
+    }
+
+    @Override
+    public void write(int idx, byte b) {
+        this.buffer.put(idx, b);
+    }
+
+    @Override
+    public byte read(int idx) {
+        return this.buffer.get(idx);
+    }
+
+    @Override
+    public void write(int toIndex, byte[] from, int fromIndex, int length) {
+        this.buffer.position(toIndex);
+        this.buffer.put(from, fromIndex, length);
+    }
+
+    @Override
+    public void read(int toIndex, byte[] to, int fromIndex, int length) {
+        this.buffer.position(fromIndex);
+        this.buffer.get(to, toIndex, length);
+    }
+
+    @Override
+    public void reset() {
+    }
+
+    @Override
+    public void init(CalamityBuf buf) {
+        this.init(buf, buf.options().initialLength());
+    }
+
+    @Override
+    public void init(CalamityBuf buf, int length) {
+        this.governor = buf.options().governor();
+        this.metrics = buf.options().metrics();
+        this.setLength(length);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return false;
+    }
+
+    @Override
+    public void free() {
+        if (this.buffer != null) {
+            if (this.governor != null) {
+                this.governor.release(this.buffer.capacity());
+            }
+        }
+
+        this.buffer = null;
+    }
+}
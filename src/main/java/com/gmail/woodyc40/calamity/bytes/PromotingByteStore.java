@@ -0,0 +1,199 @@
+package com.gmail.woodyc40.calamity.bytes;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.metrics.BufferMetrics;
+
+import java.util.function.Supplier;
+
+/**
+ * A form of byte storage which begins as a cheap on-heap
+ * {@link ArrayByteStore}, and is promoted to another kind
+ * of storage once it grows beyond a given length.
+ *
+ * <p>Promotion copies the bytes into the new storage once,
+ * after which all operations are delegated to it. If the
+ * store is later shrunk back down to the promotion length,
+ * e.g. by {@link com.gmail.woodyc40.calamity.resize.Resizer#shrink},
+ * its bytes are moved back onto the heap.</p>
+ *
+ * <p>Since the buffer only ever refers to this store, the
+ * migration is invisible to holders of the buffer. By
+ * default, stores are promoted to a
+ * {@link DirectByteStore} after growing past 1 MiB.</p>
+ *
+ * @author caojohnny
+ */
+public class PromotingByteStore implements ByteStore {
+    /**
+     * The default length beyond which stores are promoted
+     */
+    public static final int DEFAULT_PROMOTION_LENGTH = 1 << 20;
+
+    /**
+     * The length beyond which this store is promoted
+     */
+    private final int promotionLength;
+    /**
+     * The supplier of the store to promote to
+     */
+    private final Supplier<ByteStore> promotedStore;
+
+    /**
+     * The buffer which this store belongs to
+     */
+    private CalamityBuf buf;
+    /**
+     * The store that currently holds the bytes
+     */
+    private ByteStore store;
+    /**
+     * Whether or not the store has been promoted
+     */
+    private boolean promoted;
+
+    /**
+     * Creates a store that will be promoted to a
+     * {@link DirectByteStore} past
+     * {@link #DEFAULT_PROMOTION_LENGTH}.
+     */
+    public PromotingByteStore() {
+        this(DEFAULT_PROMOTION_LENGTH, DirectByteStore::new);
+    }
+
+    /**
+     * Creates a store that will be promoted to the supplied
+     * store once it grows beyond the given length.
+     *
+     * @param promotionLength the length beyond which the
+     * store will be promoted
+     * @param promotedStore the supplier of the store to
+     * promote to
+     */
+    public PromotingByteStore(int promotionLength, Supplier<ByteStore> promotedStore) {
+        this.promotionLength = promotionLength;
+        this.promotedStore = promotedStore;
+    }
+
+    /**
+     * Determines whether or not this store has been
+     * promoted off of the initial heap array.
+     *
+     * @return {@code true} if the store has been promoted
+     */
+    public boolean isPromoted() {
+        return this.promoted;
+    }
+
+    /**
+     * Obtains the store which currently holds the bytes.
+     *
+     * @param <T> the type of store
+     * @return the current store
+     */
+    public <T extends ByteStore> T delegate() {
+        return (T) this.store;
+    }
+
+    @Override
+    public int length() {
+        return this.store.length();
+    }
+
+    @Override
+    public void setLength(int newLength) {
+        if (newLength > this.promotionLength) {
+            if (!this.promoted) {
+                this.migrate(this.promotedStore.get(), newLength);
+                this.promoted = true;
+                return;
+            }
+        } else if (this.promoted) {
+            this.migrate(new ArrayByteStore(), newLength);
+            this.promoted = false;
+            return;
+        }
+
+        this.store.setLength(newLength);
+    }
+
+    /**
+     * Moves the bytes held by the current store into the
+     * given store, which then replaces the current store.
+     *
+     * @param target the store to migrate to
+     * @param newLength the length of the new store
+     */
+    private void migrate(ByteStore target, int newLength) {
+        target.init(this.buf, newLength);
+
+        ByteStore source = this.store;
+        int length = Math.min(source.length(), newLength);
+        if (source.isArrayRaw()) {
+            target.write(0, source.array(), 0, length);
+        } else {
+            byte[] bytes = new byte[length];
+            source.read(0, bytes, 0, length);
+            target.write(0, bytes, 0, length);
+        }
+
+        BufferMetrics metrics = this.buf.options().metrics();
+        if (metrics != null) {
+            metrics.recordCopy(length);
+        }
+
+        source.free();
+        this.store = target;
+    }
+
+    @Override
+    public byte[] array() {
+        return this.store.array();
+    }
+
+    @Override
+    public boolean isArrayRaw() {
+        return this.store.isArrayRaw();
+    }
+
+    @Override
+    public void write(int idx, byte b) {
+        this.store.write(idx, b);
+    }
+
+    @Override
+    public byte read(int idx) {
+        return this.store.read(idx);
+    }
+
+    @Override
+    public void write(int toIndex, byte[] from, int fromIndex, int length) {
+        this.store.write(toIndex, from, fromIndex, length);
+    }
+
+    @Override
+    public void read(int toIndex, byte[] to, int fromIndex, int length) {
+        this.store.read(toIndex, to, fromIndex, length);
+    }
+
+    @Override
+    public void reset() {
+        this.store.reset();
+    }
+
+    @Override
+    public void init(CalamityBuf buf) {
+        this.buf = buf;
+        this.store = new ArrayByteStore();
+        this.store.init(buf);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return false;
+    }
+
+    @Override
+    public void free() {
+        this.store.free();
+    }
+}
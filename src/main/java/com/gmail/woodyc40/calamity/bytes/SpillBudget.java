@@ -0,0 +1,114 @@
+package com.gmail.woodyc40.calamity.bytes;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A memory budget which may be shared between several
+ * {@link TieredByteStore}s in order to bound the number of
+ * bytes that they hold in memory altogether.
+ *
+ * <p>Once the budget has been used up, stores sharing it
+ * will spill their cold segments to disk rather than
+ * allocate further memory.</p>
+ *
+ * @author caojohnny
+ */
+public final class SpillBudget {
+    /**
+     * A budget which never runs out, and therefore never
+     * causes stores to spill
+     */
+    public static final SpillBudget UNLIMITED = new SpillBudget(Long.MAX_VALUE);
+
+    /**
+     * The number of bytes that may be held in memory
+     */
+    private final long limit;
+    /**
+     * The number of bytes currently held in memory
+     */
+    private final AtomicLong used = new AtomicLong();
+
+    /**
+     * Creates a new budget with the given limit.
+     *
+     * @param limit the number of bytes that may be held in
+     * memory by all stores sharing this budget
+     */
+    public SpillBudget(long limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Negative budget: " + limit);
+        }
+
+        this.limit = limit;
+    }
+
+    /**
+     * Obtains the number of bytes that may be held in
+     * memory by all stores sharing this budget.
+     *
+     * @return the budget limit
+     */
+    public long limit() {
+        return this.limit;
+    }
+
+    /**
+     * Obtains the number of bytes currently reserved from
+     * this budget.
+     *
+     * @return the used bytes
+     */
+    public long used() {
+        return this.used.get();
+    }
+
+    /**
+     * Attempts to reserve the given number of bytes,
+     * failing if doing so would exceed the limit.
+     *
+     * @param bytes the number of bytes to reserve
+     * @return {@code true} if the bytes were reserved
+     */
+    public boolean tryReserve(long bytes) {
+        if (this.limit == Long.MAX_VALUE) {
+            return true;
+        }
+
+        while (true) {
+            long used = this.used.get();
+            long newUsed = used + bytes;
+            if (newUsed > this.limit) {
+                return false;
+            }
+
+            if (this.used.compareAndSet(used, newUsed)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserves the given number of bytes regardless of
+     * whether or not the limit would be exceeded.
+     *
+     * @param bytes the number of bytes to reserve
+     */
+    public void forceReserve(long bytes) {
+        if (this.limit != Long.MAX_VALUE) {
+            this.used.addAndGet(bytes);
+        }
+    }
+
+    /**
+     * Returns bytes that have previously been reserved to
+     * this budget.
+     *
+     * @param bytes the number of bytes to release
+     */
+    public void release(long bytes) {
+        if (this.limit != Long.MAX_VALUE) {
+            this.used.addAndGet(-bytes);
+        }
+    }
+}
@@ -0,0 +1,561 @@
+package com.gmail.woodyc40.calamity.bytes;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.memory.MemoryGovernor;
+import com.gmail.woodyc40.calamity.memory.MemoryLimitException;
+import com.gmail.woodyc40.calamity.metrics.BufferMetrics;
+import com.gmail.woodyc40.calamity.util.Constants;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A form of byte storage which holds its bytes in
+ * fixed-size segments, spilling cold segments to a
+ * temporary file once a memory budget has been exceeded
+ * and faulting them back in when they are accessed.
+ *
+ * <p>Segments are only allocated once they are first
+ * accessed. When a segment must be brought into memory and
+ * either the per-buffer budget or the shared
+ * {@link SpillBudget} would be exceeded, the least recently
+ * accessed segment is written out to disk. The segments
+ * holding the reader and writer indexes of the buffer are
+ * never spilled, so the hot head and tail of the data
+ * always remain in memory, and only the middle of a buffer
+ * that is growing faster than it is being drained is moved
+ * to disk.</p>
+ *
+ * <p>While the {@link MemoryGovernor} of the buffer is
+ * under pressure, a segment is spilled for each one that
+ * is brought into memory regardless of the budgets, so that
+ * the store does not grow its share of the memory in
+ * use.</p>
+ *
+ * <p>Stores no larger than a single segment are held in a
+ * single array of exactly the requested length, and the
+ * array returned by {@link #array()} is only raw in that
+ * case.</p>
+ *
+ * @author caojohnny
+ */
+public class TieredByteStore implements ByteStore {
+    /**
+     * The default segment size, 64 KiB
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 10;
+    /**
+     * The default number of bytes that a single store may
+     * hold in memory, 16 MiB
+     */
+    public static final long DEFAULT_BUFFER_BUDGET = 16 << 20;
+
+    /**
+     * The size of each segment, a power of two
+     */
+    private final int segmentSize;
+    /**
+     * The number of bits to shift an index by to obtain the
+     * index of its segment
+     */
+    private final int segmentShift;
+    /**
+     * The mask used to obtain the index of a byte within
+     * its segment
+     */
+    private final int segmentMask;
+    /**
+     * The number of bytes this store may hold in memory
+     */
+    private final long bufferBudget;
+    /**
+     * The budget shared with other stores
+     */
+    private final SpillBudget globalBudget;
+    /**
+     * The directory in which to create the spill file, or
+     * {@code null} to use the default temporary directory
+     */
+    private final Path spillDirectory;
+
+    /**
+     * The buffer which this store belongs to
+     */
+    private CalamityBuf buf;
+    /**
+     * The segments held in memory, {@code null} for those
+     * which are spilled or have not yet been accessed
+     */
+    private byte[][] segments;
+    /**
+     * Whether or not each segment has been spilled
+     */
+    private boolean[] spilled;
+    /**
+     * The clock value at which each segment was last
+     * accessed
+     */
+    private long[] lastAccess;
+    /**
+     * The access clock
+     */
+    private long clock;
+    /**
+     * The total length of the memory space
+     */
+    private int length;
+    /**
+     * The number of bytes currently held in memory
+     */
+    private long residentBytes;
+    /**
+     * A segment which has been spilled and may be reused
+     * for the next segment brought into memory
+     */
+    private byte[] spare;
+    /**
+     * The file which spilled segments are written to,
+     * created when a segment is first spilled
+     */
+    private FileChannel spillFile;
+    /**
+     * The governor which allocations are reported to, or
+     * {@code null} if allocations are not governed
+     */
+    private MemoryGovernor governor;
+    /**
+     * The metrics which copies are recorded into, or
+     * {@code null} if disabled
+     */
+    private BufferMetrics metrics;
+
+    /**
+     * Creates a new tiered store using the default segment
+     * size and per-buffer budget, with no shared budget.
+     */
+    public TieredByteStore() {
+        this(DEFAULT_SEGMENT_SIZE, DEFAULT_BUFFER_BUDGET, SpillBudget.UNLIMITED, null);
+    }
+
+    /**
+     * Creates a new tiered store.
+     *
+     * @param segmentSize the size of each segment, which
+     * must be a power of two
+     * @param bufferBudget the number of bytes which this
+     * store may hold in memory before spilling
+     * @param globalBudget the budget shared with other
+     * stores
+     * @param spillDirectory the directory in which to
+     * create the spill file, or {@code null} to use the
+     * default temporary directory
+     */
+    public TieredByteStore(int segmentSize, long bufferBudget, SpillBudget globalBudget, Path spillDirectory) {
+        if (segmentSize <= 0 || Integer.bitCount(segmentSize) != 1) {
+            throw new IllegalArgumentException("Segment size must be a power of two: " + segmentSize);
+        }
+
+        this.segmentSize = segmentSize;
+        this.segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+        this.segmentMask = segmentSize - 1;
+        this.bufferBudget = bufferBudget;
+        this.globalBudget = globalBudget;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Obtains the size of the segments used to hold the
+     * bytes of a store that has outgrown a single segment.
+     *
+     * @return the segment size
+     */
+    public int segmentSize() {
+        return this.segmentSize;
+    }
+
+    /**
+     * Obtains the number of bytes that this store is
+     * currently holding in memory.
+     *
+     * @return the resident bytes
+     */
+    public long residentBytes() {
+        return this.residentBytes;
+    }
+
+    @Override
+    public int length() {
+        return this.length;
+    }
+
+    @Override
+    public void setLength(int newLength) {
+        int newCount = newLength <= this.segmentSize ? 1 :
+                (int) (((long) newLength + this.segmentMask) >>> this.segmentShift);
+        int oldCount = this.segments == null ? 0 : this.segments.length;
+        for (int i = newCount; i < oldCount; i++) {
+            this.discard(i);
+        }
+
+        if (oldCount == 0) {
+            this.segments = new byte[newCount][];
+            this.spilled = new boolean[newCount];
+            this.lastAccess = new long[newCount];
+        } else {
+            this.segments = Arrays.copyOf(this.segments, newCount);
+            this.spilled = Arrays.copyOf(this.spilled, newCount);
+            this.lastAccess = Arrays.copyOf(this.lastAccess, newCount);
+        }
+
+        int firstLength = newCount == 1 ? newLength : this.segmentSize;
+        byte[] first = this.spilled[0] ? this.segment(0) : this.segments[0];
+        if (first == null || first.length != firstLength) {
+            int oldLength = first == null ? 0 : first.length;
+            if (this.governor != null) {
+                this.governor.adjust(firstLength - oldLength);
+            }
+            this.residentBytes += firstLength - oldLength;
+            this.globalBudget.forceReserve(firstLength - oldLength);
+
+            byte[] newFirst = new byte[firstLength];
+            if (first != null) {
+                int copied = Math.min(oldLength, firstLength);
+                System.arraycopy(first, 0, newFirst, 0, copied);
+                if (this.metrics != null) {
+                    this.metrics.recordCopy(copied);
+                }
+            }
+
+            this.segments[0] = newFirst;
+        }
+
+        this.length = newCount == 1 ? newLength :
+                (int) Math.min((long) newCount << this.segmentShift, Constants.ARRAY_MAX_SIZE);
+    }
+
+    /**
+     * Obtains the segment at the given index, bringing it
+     * into memory if necessary.
+     *
+     * @param index the segment index
+     * @return the segment
+     */
+    private byte[] segment(int index) {
+        byte[] segment = this.segments[index];
+        if (segment == null) {
+            segment = this.faultIn(index);
+        }
+
+        this.lastAccess[index] = ++this.clock;
+        return segment;
+    }
+
+    /**
+     * Brings the segment at the given index into memory,
+     * reading it back from the spill file if it has been
+     * spilled.
+     *
+     * @param index the segment index
+     * @return the segment
+     */
+    private byte[] faultIn(int index) {
+        // Pressure is shared with every other buffer and is
+        // rarely relieved by this one, so spilling until it
+        // is would write out every segment and thrash
+        if (this.governor != null && this.governor.isUnderPressure()) {
+            this.spillColdest(index);
+        }
+
+        while (this.residentBytes + this.segmentSize > this.bufferBudget ||
+                !this.globalBudget.tryReserve(this.segmentSize)) {
+            if (!this.spillColdest(index)) {
+                this.globalBudget.forceReserve(this.segmentSize);
+                break;
+            }
+        }
+
+        if (this.governor != null) {
+            try {
+                this.governor.reserve(this.segmentSize);
+            } catch (MemoryLimitException e) {
+                this.globalBudget.release(this.segmentSize);
+                throw e;
+            }
+        }
+
+        this.residentBytes += this.segmentSize;
+
+        byte[] segment = this.spare;
+        this.spare = null;
+        if (segment == null) {
+            segment = new byte[this.segmentSize];
+        } else if (!this.spilled[index]) {
+            Arrays.fill(segment, (byte) 0);
+        }
+
+        if (this.spilled[index]) {
+            this.readSpilled(index, segment);
+            this.spilled[index] = false;
+        }
+
+        this.segments[index] = segment;
+        return segment;
+    }
+
+    /**
+     * Spills the least recently accessed segment that does
+     * not hold the reader or writer index.
+     *
+     * @param exclude the index of a segment which must not
+     * be spilled
+     * @return {@code true} if a segment was spilled,
+     * {@code false} if there were no segments that could
+     * be spilled
+     */
+    private boolean spillColdest(int exclude) {
+        int head = -1;
+        int tail = -1;
+        int lastTail = -1;
+        if (this.buf != null) {
+            int writer = this.buf.idx(WRITER);
+            head = this.buf.idx(READER) >>> this.segmentShift;
+            tail = writer >>> this.segmentShift;
+            lastTail = Math.max(writer - 1, 0) >>> this.segmentShift;
+        }
+
+        int victim = -1;
+        long oldest = Long.MAX_VALUE;
+        for (int i = 0; i < this.segments.length; i++) {
+            byte[] segment = this.segments[i];
+            if (segment == null || segment.length != this.segmentSize ||
+                    i == exclude || i == head || i == tail || i == lastTail) {
+                continue;
+            }
+
+            if (this.lastAccess[i] < oldest) {
+                oldest = this.lastAccess[i];
+                victim = i;
+            }
+        }
+
+        if (victim < 0) {
+            return false;
+        }
+
+        byte[] segment = this.segments[victim];
+        this.writeSpilled(victim, segment);
+        this.segments[victim] = null;
+        this.spilled[victim] = true;
+        this.release(this.segmentSize);
+        this.spare = segment;
+
+        return true;
+    }
+
+    /**
+     * Drops the segment at the given index without
+     * preserving its bytes.
+     *
+     * @param index the segment index
+     */
+    private void discard(int index) {
+        byte[] segment = this.segments[index];
+        if (segment != null) {
+            this.release(segment.length);
+            this.segments[index] = null;
+        }
+
+        this.spilled[index] = false;
+    }
+
+    /**
+     * Returns the given number of bytes to the budgets.
+     *
+     * @param bytes the number of bytes no longer held in
+     * memory
+     */
+    private void release(long bytes) {
+        this.residentBytes -= bytes;
+        this.globalBudget.release(bytes);
+        if (this.governor != null) {
+            this.governor.release(bytes);
+        }
+    }
+
+    /**
+     * Obtains the spill file, creating it if it does not
+     * yet exist.
+     *
+     * @return the spill file
+     * @throws IOException if the file could not be created
+     */
+    private FileChannel spillFile() throws IOException {
+        if (this.spillFile == null) {
+            Path file = this.spillDirectory == null ?
+                    Files.createTempFile("calamity-", ".spill") :
+                    Files.createTempFile(this.spillDirectory, "calamity-", ".spill");
+            this.spillFile = FileChannel.open(file, READ, WRITE, DELETE_ON_CLOSE);
+        }
+
+        return this.spillFile;
+    }
+
+    /**
+     * Writes the given segment to the spill file.
+     *
+     * @param index the segment index
+     * @param segment the segment bytes
+     */
+    private void writeSpilled(int index, byte[] segment) {
+        ByteBuffer source = ByteBuffer.wrap(segment);
+        long position = (long) index << this.segmentShift;
+        try {
+            FileChannel file = this.spillFile();
+            while (source.hasRemaining()) {
+                position += file.write(source, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill segment " + index, e);
+        }
+    }
+
+    /**
+     * Reads the given segment back from the spill file.
+     *
+     * @param index the segment index
+     * @param segment the array which to read the segment
+     * bytes into
+     */
+    private void readSpilled(int index, byte[] segment) {
+        ByteBuffer target = ByteBuffer.wrap(segment);
+        long position = (long) index << this.segmentShift;
+        try {
+            FileChannel file = this.spillFile();
+            while (target.hasRemaining()) {
+                int read = file.read(target, position);
+                if (read < 0) {
+                    throw new EOFException("Spill file truncated");
+                }
+
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to fault in segment " + index, e);
+        }
+    }
+
+    @Override
+    public byte[] array() {
+        if (this.segments.length == 1) {
+            return this.segment(0);
+        }
+
+        byte[] array = new byte[this.length];
+        this.read(0, array, 0, this.length);
+        return array;
+    }
+
+    @Override
+    public boolean isArrayRaw() {
+        return this.segments.length == 1;
+    }
+
+    @Override
+    public void write(int idx, byte b) {
+        this.segment(idx >>> this.segmentShift)[idx & this.segmentMask] = b;
+    }
+
+    @Override
+    public byte read(int idx) {
+        return this.segment(idx >>> this.segmentShift)[idx & this.segmentMask];
+    }
+
+    @Override
+    public void write(int toIndex, byte[] from, int fromIndex, int length) {
+        while (length > 0) {
+            byte[] segment = this.segment(toIndex >>> this.segmentShift);
+            int offset = toIndex & this.segmentMask;
+            int count = Math.min(length, segment.length - offset);
+            System.arraycopy(from, fromIndex, segment, offset, count);
+
+            toIndex += count;
+            fromIndex += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public void read(int toIndex, byte[] to, int fromIndex, int length) {
+        while (length > 0) {
+            byte[] segment = this.segment(fromIndex >>> this.segmentShift);
+            int offset = fromIndex & this.segmentMask;
+            int count = Math.min(length, segment.length - offset);
+            System.arraycopy(segment, offset, to, toIndex, count);
+
+            toIndex += count;
+            fromIndex += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 1; i < this.segments.length; i++) {
+            this.discard(i);
+        }
+
+        if (this.segments[0] == null) {
+            this.spilled[0] = false;
+        }
+    }
+
+    @Override
+    public void init(CalamityBuf buf) {
+        this.init(buf, buf.options().initialLength());
+    }
+
+    @Override
+    public void init(CalamityBuf buf, int length) {
+        this.buf = buf;
+        this.governor = buf.options().governor();
+        this.metrics = buf.options().metrics();
+        this.setLength(length);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return false;
+    }
+
+    @Override
+    public void free() {
+        this.release(this.residentBytes);
+        this.segments = null;
+        this.spilled = null;
+        this.lastAccess = null;
+        this.spare = null;
+        this.length = 0;
+
+        if (this.spillFile != null) {
+            try {
+                this.spillFile.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to delete spill file", e);
+            } finally {
+                this.spillFile = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package com.gmail.woodyc40.calamity.ipc;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.util.Constants;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * A single-producer, single-consumer ring of messages held
+ * in a memory-mapped file, which allows two processes on
+ * the same host to exchange messages without any system
+ * calls.
+ *
+ * <p>The file begins with a header holding the capacity of
+ * the ring and the producer and consumer indexes, each on
+ * its own cache line. The indexes only ever increase, and
+ * are published using release stores once the bytes that
+ * they cover have been written or read, so neither side
+ * ever locks. Each message is prefixed by its length.</p>
+ *
+ * <p>Messages are written and read through a
+ * {@link CalamityBuf} which views the ring directly, so
+ * they are never copied. The producer {@link #claim()}s a
+ * buffer, writes a message into it from index {@code 0}
+ * and {@link #publish()}es it, after which the consumer
+ * may {@link #poll()} the message and {@link #release()}
+ * it once read. Only one process may produce and only one
+ * may consume, and neither side is thread-safe.</p>
+ *
+ * <p>The ring is created by one side using
+ * {@link #create(Path, int)} and then opened by the other
+ * using {@link #open(Path)}.</p>
+ *
+ * @author caojohnny
+ */
+public final class MappedRing implements Closeable {
+    /**
+     * The smallest capacity of a ring
+     */
+    public static final int MIN_CAPACITY = 64;
+    /**
+     * The largest capacity of a ring
+     */
+    public static final int MAX_CAPACITY = 1 << 30;
+    /**
+     * The value identifying a ring file
+     */
+    private static final int MAGIC = 0x434C5247;
+    /**
+     * The offset of the capacity in the header
+     */
+    private static final int CAPACITY_OFFSET = 4;
+    /**
+     * The offset of the producer index in the header
+     */
+    private static final int PRODUCER_OFFSET = 64;
+    /**
+     * The offset of the consumer index in the header
+     */
+    private static final int CONSUMER_OFFSET = 128;
+    /**
+     * The offset of the data region
+     */
+    private static final int DATA_OFFSET = 192;
+    /**
+     * The number of bytes occupied by a length prefix
+     */
+    private static final int PREFIX = 4;
+
+    /**
+     * The channel of the mapped file
+     */
+    private final FileChannel channel;
+    /**
+     * The mapping of the file, which is referenced so that
+     * it is not unmapped while this ring is in use
+     */
+    private final MappedByteBuffer mapped;
+    /**
+     * The data region of the mapping
+     */
+    private final ByteBuffer data;
+    /**
+     * The address of the producer index
+     */
+    private final long producerAddress;
+    /**
+     * The address of the consumer index
+     */
+    private final long consumerAddress;
+    /**
+     * The number of bytes held by the data region
+     */
+    private final int capacity;
+    /**
+     * The mask of positions in the data region
+     */
+    private final int mask;
+    /**
+     * The view of the message being written
+     */
+    private final RingByteStore writeStore;
+    /**
+     * The buffer viewing the message being written
+     */
+    private final CalamityBuf writeBuf;
+    /**
+     * The view of the message being read
+     */
+    private final RingByteStore readStore;
+    /**
+     * The buffer viewing the message being read
+     */
+    private final CalamityBuf readBuf;
+
+    /**
+     * The producer index, as last published by this side
+     */
+    private long producer;
+    /**
+     * The consumer index, as last published by this side
+     */
+    private long consumer;
+    /**
+     * Whether or not a message has been claimed but not yet
+     * published
+     */
+    private boolean claimed;
+    /**
+     * Whether or not a message has been polled but not yet
+     * released
+     */
+    private boolean polled;
+    /**
+     * The length of the polled message
+     */
+    private int polledLength;
+    /**
+     * Whether or not the ring file has been closed
+     */
+    private boolean closed;
+
+    /**
+     * Maps a ring.
+     *
+     * @param channel the channel of the ring file
+     * @param mapped the mapping of the whole file
+     * @param capacity the capacity of the data region
+     * @param options the options of the buffers viewing the
+     * ring
+     */
+    private MappedRing(FileChannel channel, MappedByteBuffer mapped, int capacity, CalamityOptions options) {
+        this.channel = channel;
+        this.mapped = mapped;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+
+        ByteBuffer data = mapped.duplicate();
+        data.position(DATA_OFFSET);
+        data.limit(DATA_OFFSET + capacity);
+        this.data = data.slice();
+
+        long address = OrderedAccess.address(mapped);
+        this.producerAddress = address + PRODUCER_OFFSET;
+        this.consumerAddress = address + CONSUMER_OFFSET;
+        this.producer = OrderedAccess.getAcquire(this.producerAddress);
+        this.consumer = OrderedAccess.getAcquire(this.consumerAddress);
+
+        this.writeStore = new RingByteStore(this, this.data);
+        this.writeBuf = newView(options, this.writeStore);
+        this.readStore = new RingByteStore(this, this.data);
+        this.readBuf = newView(options, this.readStore);
+    }
+
+    /**
+     * Creates a new ring file, replacing the given file if
+     * it already exists, with buffers using the default
+     * options.
+     *
+     * @param file the ring file
+     * @param capacity the number of bytes held by the ring,
+     * which must be a power of two
+     * @return the ring
+     * @throws IOException if the file could not be mapped
+     */
+    public static MappedRing create(Path file, int capacity) throws IOException {
+        return create(file, capacity, CalamityOptions.getDefault());
+    }
+
+    /**
+     * Creates a new ring file, replacing the given file if
+     * it already exists.
+     *
+     * @param file the ring file
+     * @param capacity the number of bytes held by the ring,
+     * which must be a power of two
+     * @param options the options of the buffers viewing the
+     * ring, of which the byte store, resizer, metrics and
+     * profiler are replaced
+     * @return the ring
+     * @throws IOException if the file could not be mapped
+     */
+    public static MappedRing create(Path file, int capacity, CalamityOptions options) throws IOException {
+        if (capacity < MIN_CAPACITY || capacity > MAX_CAPACITY || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two between " + MIN_CAPACITY +
+                    " and " + MAX_CAPACITY + ": " + capacity);
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, DATA_OFFSET + capacity);
+            // The truncated file is zero-filled, so both indexes
+            // begin at 0
+            mapped.putInt(CAPACITY_OFFSET, capacity);
+            mapped.putInt(0, MAGIC);
+
+            return new MappedRing(channel, mapped, capacity, options);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing ring file with buffers using the
+     * default options.
+     *
+     * @param file the ring file
+     * @return the ring
+     * @throws IOException if the file could not be mapped
+     */
+    public static MappedRing open(Path file) throws IOException {
+        return open(file, CalamityOptions.getDefault());
+    }
+
+    /**
+     * Opens an existing ring file.
+     *
+     * @param file the ring file
+     * @param options the options of the buffers viewing the
+     * ring, of which the byte store, resizer, metrics and
+     * profiler are replaced
+     * @return the ring
+     * @throws IOException if the file could not be mapped
+     * @throws IllegalStateException if the file does not
+     * hold a ring
+     */
+    public static MappedRing open(Path file, CalamityOptions options) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size < DATA_OFFSET) {
+                throw new IllegalStateException("Not a ring file: " + file);
+            }
+
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, DATA_OFFSET);
+            int capacity = header.getInt(CAPACITY_OFFSET);
+            if (header.getInt(0) != MAGIC || capacity < MIN_CAPACITY || Integer.bitCount(capacity) != 1 ||
+                    size < DATA_OFFSET + (long) capacity) {
+                throw new IllegalStateException("Not a ring file: " + file);
+            }
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, DATA_OFFSET + capacity);
+            return new MappedRing(channel, mapped, capacity, options);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a buffer viewing the ring.
+     *
+     * <p>Views are neither recorded by metrics nor sampled
+     * by a profiler, since they never allocate and live as
+     * long as the ring.</p>
+     *
+     * @param options the options of the buffer
+     * @param store the view of the ring
+     * @return the buffer
+     */
+    private static CalamityBuf newView(CalamityOptions options, RingByteStore store) {
+        return options.copy()
+                .initialLength(0)
+                .byteStore(Constants.supplyConst(store))
+                .resizer(RingResizer::new)
+                .metrics(null)
+                .profiler(null)
+                .threadSafe(false)
+                .newBuf();
+    }
+
+    /**
+     * Obtains the number of bytes held by the ring,
+     * including the length prefix of each message.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Obtains the largest message which may currently be
+     * claimed, i.e. the space released by the consumer less
+     * the length prefix.
+     *
+     * @return the number of writable bytes
+     */
+    public int writable() {
+        long used = this.producer - OrderedAccess.getAcquire(this.consumerAddress);
+        return (int) Math.max(0, this.capacity - used - PREFIX);
+    }
+
+    /**
+     * Claims the buffer used to write the next message.
+     *
+     * <p>The message is written from index {@code 0} up to
+     * the writer index of the buffer. Writing more than
+     * {@link #writable()} bytes throws an
+     * {@link IllegalStateException}, or an
+     * {@link IndexOutOfBoundsException} when writing to an
+     * index directly. Claiming again before publishing
+     * discards the claimed message.</p>
+     *
+     * @return the buffer viewing the next message
+     * @throws IllegalStateException if the ring is closed
+     */
+    public CalamityBuf claim() {
+        this.checkOpen();
+        this.writeStore.view(this.producer + PREFIX, this.writable());
+        this.writeBuf.idx(READER, 0);
+        this.writeBuf.idx(WRITER, 0);
+        this.claimed = true;
+
+        return this.writeBuf;
+    }
+
+    /**
+     * Publishes the claimed message to the consumer.
+     *
+     * @throws IllegalStateException if no message has been
+     * claimed, if the message and its length prefix do
+     * not fit into the space released by the consumer, or
+     * if the ring is closed
+     */
+    public void publish() {
+        this.checkOpen();
+        if (!this.claimed) {
+            throw new IllegalStateException("No message has been claimed");
+        }
+
+        int length = this.writeBuf.idx(WRITER);
+        long free = this.capacity - (this.producer - OrderedAccess.getAcquire(this.consumerAddress));
+        if (PREFIX + (long) length > free) {
+            throw new IllegalStateException(String.format(
+                    "Ring is full (required = %d, available = %d)", PREFIX + length, free));
+        }
+
+        this.putInt(this.producer, length);
+        this.producer += PREFIX + length;
+        this.claimed = false;
+
+        OrderedAccess.setRelease(this.producerAddress, this.producer);
+    }
+
+    /**
+     * Polls the buffer holding the next message, if one has
+     * been published.
+     *
+     * <p>The message is held between the reader and writer
+     * indexes of the buffer, and remains valid until it is
+     * released. Polling again before releasing returns the
+     * same message.</p>
+     *
+     * @return the buffer viewing the next message, or
+     * {@code null} if no message has been published
+     * @throws IllegalStateException if the length of the
+     * message is corrupt, or if the ring is closed
+     */
+    public CalamityBuf poll() {
+        this.checkOpen();
+        long published = OrderedAccess.getAcquire(this.producerAddress) - this.consumer;
+        if (published == 0) {
+            return null;
+        }
+
+        // The length is written by another process, and would
+        // move the consumer index out of the ring if corrupt
+        int length = this.getInt(this.consumer);
+        if (length < 0 || PREFIX + (long) length > Math.min(published, this.capacity)) {
+            throw new IllegalStateException(String.format(
+                    "Invalid message length %d at index %d (published = %d)", length, this.consumer, published));
+        }
+
+        this.readStore.view(this.consumer + PREFIX, length);
+        this.readBuf.idx(READER, 0);
+        this.readBuf.idx(WRITER, length);
+        this.polled = true;
+        this.polledLength = length;
+
+        return this.readBuf;
+    }
+
+    /**
+     * Releases the polled message, allowing the producer to
+     * reuse its space.
+     *
+     * @throws IllegalStateException if no message has been
+     * polled, or if the ring is closed
+     */
+    public void release() {
+        this.checkOpen();
+        if (!this.polled) {
+            throw new IllegalStateException("No message has been polled");
+        }
+
+        this.consumer += PREFIX + this.polledLength;
+        this.polled = false;
+
+        OrderedAccess.setRelease(this.consumerAddress, this.consumer);
+    }
+
+    /**
+     * Closes the ring file.
+     *
+     * <p>The mapping itself is released once the ring is
+     * garbage collected, and neither the ring nor its
+     * buffers may be used afterwards.</p>
+     *
+     * @throws IOException if the file could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.channel.close();
+    }
+
+    /**
+     * Ensures that the ring file has not been closed.
+     */
+    private void checkOpen() {
+        if (this.closed) {
+            throw new IllegalStateException("Ring is closed");
+        }
+    }
+
+    /**
+     * Writes a length prefix, which may wrap around the end
+     * of the data region.
+     *
+     * @param index the ring index of the prefix
+     * @param value the length
+     */
+    private void putInt(long index, int value) {
+        for (int i = 0; i < PREFIX; i++) {
+            this.data.put((int) (index + i) & this.mask, (byte) (value >>> (i << 3)));
+        }
+    }
+
+    /**
+     * Reads a length prefix, which may wrap around the end
+     * of the data region.
+     *
+     * @param index the ring index of the prefix
+     * @return the length
+     */
+    private int getInt(long index) {
+        int value = 0;
+        for (int i = 0; i < PREFIX; i++) {
+            value |= (this.data.get((int) (index + i) & this.mask) & 0xFF) << (i << 3);
+        }
+
+        return value;
+    }
+}
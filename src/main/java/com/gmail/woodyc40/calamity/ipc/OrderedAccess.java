@@ -0,0 +1,117 @@
+package com.gmail.woodyc40.calamity.ipc;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Ordered and volatile access to {@code long} values held
+ * off-heap, which Java 8 only provides through
+ * {@code sun.misc.Unsafe}.
+ *
+ * <p>A release store guarantees that every write made
+ * before it is visible to another thread or process which
+ * observes the stored value with an acquire load, without
+ * the cost of a full fence. {@code Unsafe} is reached
+ * reflectively and invoked through constant method
+ * handles, which the JIT compiles down to the same
+ * instructions as calling it directly.</p>
+ *
+ * @author caojohnny
+ */
+final class OrderedAccess {
+    /**
+     * {@code Unsafe#getLong(Object, long)}
+     */
+    private static final MethodHandle GET_LONG;
+    /**
+     * {@code Unsafe#getLongVolatile(Object, long)}
+     */
+    private static final MethodHandle GET_LONG_VOLATILE;
+    /**
+     * {@code Unsafe#putOrderedLong(Object, long, long)}
+     */
+    private static final MethodHandle PUT_ORDERED_LONG;
+    /**
+     * The offset of the address field of direct buffers
+     */
+    private static final long ADDRESS_OFFSET;
+
+    static {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            GET_LONG = lookup.unreflect(unsafeClass.getMethod("getLong", Object.class, long.class))
+                    .bindTo(unsafe);
+            GET_LONG_VOLATILE = lookup.unreflect(unsafeClass.getMethod("getLongVolatile", Object.class, long.class))
+                    .bindTo(unsafe);
+            PUT_ORDERED_LONG = lookup.unreflect(
+                    unsafeClass.getMethod("putOrderedLong", Object.class, long.class, long.class))
+                    .bindTo(unsafe);
+            ADDRESS_OFFSET = (long) unsafeClass.getMethod("objectFieldOffset", Field.class)
+                    .invoke(unsafe, Buffer.class.getDeclaredField("address"));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Construction disabled.
+     */
+    private OrderedAccess() {
+    }
+
+    /**
+     * Obtains the address of the first byte of a direct
+     * buffer.
+     *
+     * @param buffer the direct buffer
+     * @return the address
+     */
+    static long address(ByteBuffer buffer) {
+        if (!buffer.isDirect()) {
+            throw new IllegalArgumentException("Buffer is not direct");
+        }
+
+        try {
+            return (long) GET_LONG.invokeExact((Object) buffer, ADDRESS_OFFSET);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /**
+     * Loads a value, ordering every later load after it.
+     *
+     * @param address the address of the value
+     * @return the value
+     */
+    static long getAcquire(long address) {
+        try {
+            return (long) GET_LONG_VOLATILE.invokeExact((Object) null, address);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /**
+     * Stores a value, ordering every earlier store before
+     * it.
+     *
+     * @param address the address of the value
+     * @param value the value
+     */
+    static void setRelease(long address, long value) {
+        try {
+            PUT_ORDERED_LONG.invokeExact((Object) null, address, value);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
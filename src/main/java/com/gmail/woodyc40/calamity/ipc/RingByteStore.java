@@ -0,0 +1,191 @@
+package com.gmail.woodyc40.calamity.ipc;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.bytes.ByteStore;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A view of one message in the data region of a
+ * {@link MappedRing}, which wraps around the end of the
+ * region.
+ *
+ * <p>Index {@code 0} of the store is the first byte of the
+ * message. The store may only be lengthened by the
+ * {@link RingResizer}, up to the space which the consumer
+ * has released, and bytes beyond its length may not be
+ * accessed, since they may belong to unread messages.</p>
+ *
+ * @author caojohnny
+ */
+final class RingByteStore implements ByteStore {
+    /**
+     * The ring which this store views
+     */
+    private final MappedRing ring;
+    /**
+     * The data region of the ring
+     */
+    private final ByteBuffer data;
+    /**
+     * The mask of positions in the data region
+     */
+    private final int mask;
+    /**
+     * The ring index of the first byte of the message
+     */
+    private long base;
+    /**
+     * The number of bytes which may be accessed
+     */
+    private int length;
+
+    /**
+     * Creates a new ring view.
+     *
+     * @param ring the ring to view
+     * @param data the data region of the ring
+     */
+    RingByteStore(MappedRing ring, ByteBuffer data) {
+        this.ring = ring;
+        this.data = data;
+        this.mask = data.capacity() - 1;
+    }
+
+    /**
+     * Obtains the ring which this store views.
+     *
+     * @return the ring
+     */
+    MappedRing ring() {
+        return this.ring;
+    }
+
+    /**
+     * Moves this view to another message.
+     *
+     * @param base the ring index of the first byte
+     * @param length the number of accessible bytes
+     */
+    void view(long base, int length) {
+        this.base = base;
+        this.length = length;
+    }
+
+    /**
+     * Obtains the ring index of the first byte of the
+     * message.
+     *
+     * @return the base index
+     */
+    long base() {
+        return this.base;
+    }
+
+    /**
+     * Computes the position of a byte in the data region.
+     *
+     * @param idx the index of the byte in this store
+     * @return the position
+     */
+    private int position(int idx) {
+        return (int) (this.base + idx) & this.mask;
+    }
+
+    /**
+     * Ensures that the given range of bytes lies within
+     * this view, since positions outside of it would wrap
+     * onto other messages.
+     *
+     * @param idx the index of the first byte
+     * @param length the number of bytes
+     */
+    private void checkRange(int idx, int length) {
+        if (idx < 0 || length < 0 || idx > this.length - length) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Range [%d, %d) is outside of the message (length = %d)", idx, idx + length, this.length));
+        }
+    }
+
+    @Override
+    public int length() {
+        return this.length;
+    }
+
+    @Override
+    public void setLength(int newLength) {
+        this.length = newLength;
+    }
+
+    @Override
+    public byte[] array() {
+        byte[] array = new byte[this.length];
+        this.read(0, array, 0, array.length);
+
+        return array;
+    }
+
+    @Override
+    public boolean isArrayRaw() {
+        return false;
+    }
+
+    @Override
+    public void write(int idx, byte b) {
+        this.checkRange(idx, 1);
+        this.data.put(this.position(idx), b);
+    }
+
+    @Override
+    public byte read(int idx) {
+        this.checkRange(idx, 1);
+        return this.data.get(this.position(idx));
+    }
+
+    @Override
+    public void write(int toIndex, byte[] from, int fromIndex, int length) {
+        this.checkRange(toIndex, length);
+        ByteBuffer data = this.data.duplicate();
+        int position = this.position(toIndex);
+        int head = Math.min(length, data.capacity() - position);
+
+        data.position(position);
+        data.put(from, fromIndex, head);
+        if (head < length) {
+            data.position(0);
+            data.put(from, fromIndex + head, length - head);
+        }
+    }
+
+    @Override
+    public void read(int toIndex, byte[] to, int fromIndex, int length) {
+        this.checkRange(fromIndex, length);
+        ByteBuffer data = this.data.duplicate();
+        int position = this.position(fromIndex);
+        int head = Math.min(length, data.capacity() - position);
+
+        data.position(position);
+        data.get(to, toIndex, head);
+        if (head < length) {
+            data.position(0);
+            data.get(to, toIndex + head, length - head);
+        }
+    }
+
+    @Override
+    public void reset() {
+    }
+
+    @Override
+    public void init(CalamityBuf buf) {
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return false;
+    }
+
+    @Override
+    public void free() {
+    }
+}
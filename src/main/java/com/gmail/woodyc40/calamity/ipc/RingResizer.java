@@ -0,0 +1,44 @@
+package com.gmail.woodyc40.calamity.ipc;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.resize.Resizer;
+
+/**
+ * Lengthens the message being written into a
+ * {@link MappedRing} into the space which the consumer has
+ * released, without ever copying it.
+ *
+ * @author caojohnny
+ */
+final class RingResizer implements Resizer {
+    @Override
+    public void resize(StrippedCalamityBuf buf, int beginIndex, int length) {
+        RingByteStore store = buf.byteStore();
+        int requiredLength = beginIndex + length;
+        if (requiredLength <= store.length()) {
+            return;
+        }
+
+        int available = store.ring().writable();
+        if (requiredLength > available) {
+            throw new IllegalStateException(String.format(
+                    "Ring is full (required = %d, available = %d)", requiredLength, available));
+        }
+
+        store.setLength(available);
+    }
+
+    @Override
+    public void init(CalamityBuf buf) {
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return false;
+    }
+
+    @Override
+    public void free() {
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * Inter-process communication through buffers.
+ *
+ * <p>A {@link com.gmail.woodyc40.calamity.ipc.MappedRing}
+ * places a ring of messages in a memory-mapped file, so
+ * that two processes on the same host may exchange
+ * messages through
+ * {@link com.gmail.woodyc40.calamity.CalamityBuf}s viewing
+ * the ring, without copying them and without any system
+ * calls.</p>
+ */
+package com.gmail.woodyc40.calamity.ipc;
@@ -0,0 +1,65 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Marshals {@code boolean} values, boxed or not, as a
+ * single byte of either {@code 1} or {@code 0}.
+ *
+ * @author caojohnny
+ */
+public class BooleanMarshaller extends ValueMarshaller<Boolean> {
+    /**
+     * The number of bytes occupied by a marshalled value
+     */
+    public static final int SIZE = 1;
+
+    /**
+     * Writes the given value into the buffer without
+     * boxing it.
+     *
+     * @param buf the buffer which to write into
+     * @param toIndex the index at which to begin writing
+     * @param value the value to write
+     * @return the number of bytes written
+     */
+    public int writeBoolean(StrippedCalamityBuf buf, int toIndex, boolean value) {
+        buf.resizer().resize(buf, toIndex, SIZE);
+        buf.byteStore().write(toIndex, (byte) (value ? 1 : 0));
+        buf.idx(WRITER, toIndex + SIZE);
+
+        return SIZE;
+    }
+
+    /**
+     * Reads a value from the buffer without boxing it.
+     *
+     * @param buf the buffer which to read from
+     * @param fromIndex the index at which to begin reading
+     * @return the value that was read
+     */
+    public boolean readBoolean(StrippedCalamityBuf buf, int fromIndex) {
+        boolean value = buf.byteStore().read(fromIndex) != 0;
+        buf.idx(READER, fromIndex + SIZE);
+
+        return value;
+    }
+
+    @Override
+    public int sizeOf(Boolean obj) {
+        return SIZE;
+    }
+
+    @Override
+    public int write(StrippedCalamityBuf buf, int toIndex, Boolean from) {
+        return this.writeBoolean(buf, toIndex, from);
+    }
+
+    @Override
+    public Boolean read(StrippedCalamityBuf buf, int fromIndex) {
+        return this.readBoolean(buf, fromIndex);
+    }
+}
@@ -0,0 +1,43 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Marshals {@code byte} arrays preceded by their length,
+ * so that they may be unmarshalled without knowing their
+ * length in advance.
+ *
+ * <p>This differs from the {@link DefaultMarshaller}, which
+ * writes the raw bytes of an array for the buffer's own
+ * byte array operations.</p>
+ *
+ * @author caojohnny
+ */
+public class ByteArrayMarshaller extends PrimitiveArrayMarshaller<byte[]> {
+    /**
+     * Creates a new marshaller for {@code byte} arrays.
+     */
+    public ByteArrayMarshaller() {
+        super(Byte.BYTES);
+    }
+
+    @Override
+    protected int length(byte[] array) {
+        return array.length;
+    }
+
+    @Override
+    protected byte[] newArray(int length) {
+        return new byte[length];
+    }
+
+    @Override
+    protected void put(ByteBuffer bytes, byte[] from, int fromIndex, int length) {
+        bytes.put(from, fromIndex, length);
+    }
+
+    @Override
+    protected void get(ByteBuffer bytes, byte[] to, int toIndex, int length) {
+        bytes.get(to, toIndex, length);
+    }
+}
@@ -0,0 +1,38 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Marshals {@code char} arrays using a
+ * {@link java.nio.CharBuffer} view of the buffer's bytes.
+ *
+ * @author caojohnny
+ */
+public class CharArrayMarshaller extends PrimitiveArrayMarshaller<char[]> {
+    /**
+     * Creates a new marshaller for {@code char} arrays.
+     */
+    public CharArrayMarshaller() {
+        super(Character.BYTES);
+    }
+
+    @Override
+    protected int length(char[] array) {
+        return array.length;
+    }
+
+    @Override
+    protected char[] newArray(int length) {
+        return new char[length];
+    }
+
+    @Override
+    protected void put(ByteBuffer bytes, char[] from, int fromIndex, int length) {
+        bytes.asCharBuffer().put(from, fromIndex, length);
+    }
+
+    @Override
+    protected void get(ByteBuffer bytes, char[] to, int toIndex, int length) {
+        bytes.asCharBuffer().get(to, toIndex, length);
+    }
+}
@@ -0,0 +1,66 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.util.Bytes;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Marshals {@code char} values, boxed or not, as 2 bytes
+ * in big-endian order.
+ *
+ * @author caojohnny
+ */
+public class CharMarshaller extends ValueMarshaller<Character> {
+    /**
+     * The number of bytes occupied by a marshalled value
+     */
+    public static final int SIZE = 2;
+
+    /**
+     * Writes the given value into the buffer without
+     * boxing it.
+     *
+     * @param buf the buffer which to write into
+     * @param toIndex the index at which to begin writing
+     * @param value the value to write
+     * @return the number of bytes written
+     */
+    public int writeChar(StrippedCalamityBuf buf, int toIndex, char value) {
+        buf.resizer().resize(buf, toIndex, SIZE);
+        Bytes.putShort(buf.byteStore(), toIndex, (short) value);
+        buf.idx(WRITER, toIndex + SIZE);
+
+        return SIZE;
+    }
+
+    /**
+     * Reads a value from the buffer without boxing it.
+     *
+     * @param buf the buffer which to read from
+     * @param fromIndex the index at which to begin reading
+     * @return the value that was read
+     */
+    public char readChar(StrippedCalamityBuf buf, int fromIndex) {
+        char value = (char) Bytes.getShort(buf.byteStore(), fromIndex);
+        buf.idx(READER, fromIndex + SIZE);
+
+        return value;
+    }
+
+    @Override
+    public int sizeOf(Character obj) {
+        return SIZE;
+    }
+
+    @Override
+    public int write(StrippedCalamityBuf buf, int toIndex, Character from) {
+        return this.writeChar(buf, toIndex, from);
+    }
+
+    @Override
+    public Character read(StrippedCalamityBuf buf, int fromIndex) {
+        return this.readChar(buf, fromIndex);
+    }
+}
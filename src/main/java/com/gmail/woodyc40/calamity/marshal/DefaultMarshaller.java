@@ -10,6 +10,11 @@ import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
  * The default marshaller supports marshalling of byte
  * arrays to and from the buffer.
  *
+ * <p>Only the raw bytes of the array are written, so new
+ * arrays cannot be created from the buffer. Use the
+ * {@link ByteArrayMarshaller} to marshal arrays preceded
+ * by their length.</p>
+ *
  * @author caojohnny
  */
 public class DefaultMarshaller implements Marshaller<byte[]> {
@@ -32,13 +37,24 @@ public class DefaultMarshaller implements Marshaller<byte[]> {
         return bytesToCopy;
     }
 
+    @Override
+    public byte[] read(StrippedCalamityBuf buf, int fromIndex) {
+        throw new UnsupportedOperationException(
+                "Raw byte arrays have no length, use " + ByteArrayMarshaller.class.getName());
+    }
+
+    @Override
+    public int sizeOf(byte[] obj) {
+        return obj.length;
+    }
+
     @Override
     public void init(CalamityBuf buf) {
     }
 
     @Override
     public boolean isThreadSafe() {
-        return false;
+        return true;
     }
 
     @Override
@@ -0,0 +1,38 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Marshals {@code double} arrays using a
+ * {@link java.nio.DoubleBuffer} view of the buffer's bytes.
+ *
+ * @author caojohnny
+ */
+public class DoubleArrayMarshaller extends PrimitiveArrayMarshaller<double[]> {
+    /**
+     * Creates a new marshaller for {@code double} arrays.
+     */
+    public DoubleArrayMarshaller() {
+        super(Double.BYTES);
+    }
+
+    @Override
+    protected int length(double[] array) {
+        return array.length;
+    }
+
+    @Override
+    protected double[] newArray(int length) {
+        return new double[length];
+    }
+
+    @Override
+    protected void put(ByteBuffer bytes, double[] from, int fromIndex, int length) {
+        bytes.asDoubleBuffer().put(from, fromIndex, length);
+    }
+
+    @Override
+    protected void get(ByteBuffer bytes, double[] to, int toIndex, int length) {
+        bytes.asDoubleBuffer().get(to, toIndex, length);
+    }
+}
@@ -0,0 +1,66 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.util.Bytes;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Marshals {@code double} values, boxed or not, as 8 bytes
+ * holding their IEEE 754 bits in big-endian order.
+ *
+ * @author caojohnny
+ */
+public class DoubleMarshaller extends ValueMarshaller<Double> {
+    /**
+     * The number of bytes occupied by a marshalled value
+     */
+    public static final int SIZE = 8;
+
+    /**
+     * Writes the given value into the buffer without
+     * boxing it.
+     *
+     * @param buf the buffer which to write into
+     * @param toIndex the index at which to begin writing
+     * @param value the value to write
+     * @return the number of bytes written
+     */
+    public int writeDouble(StrippedCalamityBuf buf, int toIndex, double value) {
+        buf.resizer().resize(buf, toIndex, SIZE);
+        Bytes.putLong(buf.byteStore(), toIndex, Double.doubleToRawLongBits(value));
+        buf.idx(WRITER, toIndex + SIZE);
+
+        return SIZE;
+    }
+
+    /**
+     * Reads a value from the buffer without boxing it.
+     *
+     * @param buf the buffer which to read from
+     * @param fromIndex the index at which to begin reading
+     * @return the value that was read
+     */
+    public double readDouble(StrippedCalamityBuf buf, int fromIndex) {
+        double value = Double.longBitsToDouble(Bytes.getLong(buf.byteStore(), fromIndex));
+        buf.idx(READER, fromIndex + SIZE);
+
+        return value;
+    }
+
+    @Override
+    public int sizeOf(Double obj) {
+        return SIZE;
+    }
+
+    @Override
+    public int write(StrippedCalamityBuf buf, int toIndex, Double from) {
+        return this.writeDouble(buf, toIndex, from);
+    }
+
+    @Override
+    public Double read(StrippedCalamityBuf buf, int fromIndex) {
+        return this.readDouble(buf, fromIndex);
+    }
+}
@@ -0,0 +1,38 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Marshals {@code float} arrays using a
+ * {@link java.nio.FloatBuffer} view of the buffer's bytes.
+ *
+ * @author caojohnny
+ */
+public class FloatArrayMarshaller extends PrimitiveArrayMarshaller<float[]> {
+    /**
+     * Creates a new marshaller for {@code float} arrays.
+     */
+    public FloatArrayMarshaller() {
+        super(Float.BYTES);
+    }
+
+    @Override
+    protected int length(float[] array) {
+        return array.length;
+    }
+
+    @Override
+    protected float[] newArray(int length) {
+        return new float[length];
+    }
+
+    @Override
+    protected void put(ByteBuffer bytes, float[] from, int fromIndex, int length) {
+        bytes.asFloatBuffer().put(from, fromIndex, length);
+    }
+
+    @Override
+    protected void get(ByteBuffer bytes, float[] to, int toIndex, int length) {
+        bytes.asFloatBuffer().get(to, toIndex, length);
+    }
+}
@@ -0,0 +1,122 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.bytes.ByteStore;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+
+/**
+ * The base class of the marshallers generated for classes
+ * annotated with {@link Marshalled}.
+ *
+ * <p>Generated marshallers are stateless and resolve the
+ * marshallers of their reference fields through the
+ * resolver of the buffer being marshalled.</p>
+ *
+ * @param <T> the type that is marshalled
+ * @author caojohnny
+ */
+public abstract class GeneratedMarshaller<T> implements Marshaller<T> {
+    /**
+     * Obtains the type which this marshaller was generated
+     * for.
+     *
+     * @return the marshalled type
+     */
+    public abstract Class<T> type();
+
+    /**
+     * Writes a reference field as a presence byte followed
+     * by the bytes written by the marshaller resolved for
+     * the given type.
+     *
+     * @param buf the buffer which to write into
+     * @param idx the index of the presence byte, for which
+     * space must have been ensured
+     * @param type the declared type of the field
+     * @param value the value of the field
+     * @param <V> the declared type of the field
+     * @return the index after the written bytes
+     */
+    protected static <V> int writeReference(StrippedCalamityBuf buf, int idx, Class<V> type, V value) {
+        ByteStore store = buf.byteStore();
+        if (value == null) {
+            store.write(idx, (byte) 0);
+            return idx + 1;
+        }
+
+        store.write(idx, (byte) 1);
+        return idx + 1 + resolve(buf, type).write(buf, idx + 1, value);
+    }
+
+    /**
+     * Reads a reference field written by
+     * {@link #writeReference(StrippedCalamityBuf, int, Class, Object)},
+     * moving the reader index of the buffer past it.
+     *
+     * @param buf the buffer which to read from
+     * @param idx the index of the presence byte
+     * @param type the declared type of the field
+     * @param <V> the declared type of the field
+     * @return the value of the field, or {@code null}
+     */
+    protected static <V> V readReference(StrippedCalamityBuf buf, int idx, Class<V> type) {
+        if (buf.byteStore().read(idx) == 0) {
+            buf.idx(READER, idx + 1);
+            return null;
+        }
+
+        return resolve(buf, type).read(buf, idx + 1);
+    }
+
+    /**
+     * Resolves the marshaller for the given type using the
+     * resolver of the given buffer.
+     *
+     * @param buf the buffer being marshalled
+     * @param type the type to resolve
+     * @param <V> the type to resolve
+     * @return the marshaller
+     * @throws IllegalArgumentException if no marshaller
+     * could be resolved for the type
+     */
+    private static <V> Marshaller<V> resolve(StrippedCalamityBuf buf, Class<V> type) {
+        MarshallingResolver resolver = buf.resolver();
+        Marshaller<V> marshaller = resolver.resolveType(type);
+        if (marshaller == null) {
+            throw new IllegalArgumentException("No marshaller for " + type.getName());
+        }
+
+        return marshaller;
+    }
+
+    @Override
+    public int write(StrippedCalamityBuf buf, int toIndex, T from, int fromIndex, int length) {
+        return this.write(buf, toIndex, from);
+    }
+
+    @Override
+    public abstract int write(StrippedCalamityBuf buf, int toIndex, T from);
+
+    @Override
+    public int read(StrippedCalamityBuf buf, int toIndex, T to, int fromIndex, int length) {
+        throw new UnsupportedOperationException(this.getClass().getName() + " cannot read into existing objects");
+    }
+
+    @Override
+    public abstract T read(StrippedCalamityBuf buf, int fromIndex);
+
+    @Override
+    public void init(CalamityBuf buf) {
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public void free() {
+    }
+}
@@ -0,0 +1,931 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.util.Object2IntOpenHashMap;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Marshals an arbitrary graph of objects, preserving shared
+ * and cyclic references.
+ *
+ * <p>Every object is assigned an id the first time that it
+ * is written, and is written as a back-reference to that id
+ * whenever it is encountered again. The name of each class
+ * is likewise written only once per message, after which it
+ * is referred to by its position in the class table.</p>
+ *
+ * <p>Objects are written according to their class:</p>
+ * <ul>
+ *     <li>types resolved by the leaf resolver, by default
+ *     the strings, boxed primitives and primitive arrays
+ *     registered by
+ *     {@link RegistryMarshallingResolver.Builder#registerDefaults()},
+ *     are written by their marshaller. Leaves must be read
+ *     back as the same type, e.g. any {@link CharSequence}
+ *     is read back as a {@link String};</li>
+ *     <li>{@code byte[]} is written as its length followed
+ *     by its contents;</li>
+ *     <li>enums are written as their ordinal;</li>
+ *     <li>other arrays, {@link Collection}s and {@link Map}s
+ *     are written as their length followed by their
+ *     elements, and must have a no-arg constructor if they
+ *     are not arrays. JDK collections without a public
+ *     no-arg constructor, such as those returned by
+ *     {@code Arrays.asList} or {@code Collections}, are
+ *     read back as an {@link ArrayList},
+ *     {@link LinkedHashSet} or {@link LinkedHashMap};</li>
+ *     <li>every other object is written as its instance
+ *     fields in declaration order, as with
+ *     {@link PojoMarshallerFactory}, and must have a no-arg
+ *     constructor so that it may be referred to before its
+ *     fields are read.</li>
+ * </ul>
+ *
+ * <p>The reference and class tables are reset after every
+ * message but keep their capacity, so marshalling many
+ * similar messages does not reallocate them. As a result,
+ * a graph marshaller is not thread-safe.</p>
+ *
+ * <p>The class filter is applied both to written objects and
+ * to the class names that are read, and should be used to
+ * restrict the classes that are permitted when reading from
+ * an untrusted source.</p>
+ *
+ * @author caojohnny
+ */
+public class GraphMarshaller implements Marshaller<Object> {
+    /**
+     * The lookup used to access constructors
+     */
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    /**
+     * The tag of a {@code null} reference
+     */
+    private static final int NULL = 0;
+    /**
+     * The tag of a back-reference, followed by the id of
+     * the object
+     */
+    private static final int REFERENCE = 1;
+    /**
+     * The tag of an object of a class that has not yet been
+     * written, followed by the class name
+     */
+    private static final int NEW_CLASS = 2;
+    /**
+     * The tag of an object of the first class in the class
+     * table, which subsequent classes follow
+     */
+    private static final int FIRST_CLASS = 3;
+
+    /**
+     * The resolver for types written by their marshaller
+     */
+    private final MarshallingResolver leaves;
+    /**
+     * The types which may be marshalled
+     */
+    private final Predicate<Class<?>> filter;
+    /**
+     * The loader used to find the classes that are read
+     */
+    private final ClassLoader loader;
+    /**
+     * The layouts of the types that have been marshalled,
+     * which are held by this marshaller rather than by a
+     * {@link ClassValue} because each layout references it
+     */
+    private final Map<Class<?>, Layout> layouts = new HashMap<>();
+
+    /**
+     * The ids of the objects written in this message
+     */
+    private final Object2IntOpenHashMap<IdentityKey> ids = new Object2IntOpenHashMap<>();
+    /**
+     * The keys of {@link #ids}, retained to be reused by
+     * later messages
+     */
+    private final List<IdentityKey> keys = new ArrayList<>();
+    /**
+     * The key used to look up objects in {@link #ids}
+     */
+    private final IdentityKey probe = new IdentityKey();
+    /**
+     * The ids of the classes written in this message
+     */
+    private final Object2IntOpenHashMap<Class<?>> classIds = new Object2IntOpenHashMap<>();
+    /**
+     * The objects read in this message, by id
+     */
+    private final List<Object> objects = new ArrayList<>();
+    /**
+     * The classes read in this message, by id
+     */
+    private final List<Class<?>> classes = new ArrayList<>();
+
+    /**
+     * Creates a new graph marshaller which permits every
+     * class.
+     */
+    public GraphMarshaller() {
+        this(type -> true);
+    }
+
+    /**
+     * Creates a new graph marshaller which permits the
+     * classes matching the given filter.
+     *
+     * @param filter the types to permit
+     */
+    public GraphMarshaller(Predicate<Class<?>> filter) {
+        this(RegistryMarshallingResolver.newBuilder().registerDefaults().build(), filter,
+                GraphMarshaller.class.getClassLoader());
+    }
+
+    /**
+     * Creates a new graph marshaller.
+     *
+     * @param leaves the resolver for types which are written
+     * by their marshaller rather than by the graph
+     * marshaller
+     * @param filter the types to permit
+     * @param loader the loader used to find the classes
+     * that are read
+     */
+    public GraphMarshaller(MarshallingResolver leaves, Predicate<Class<?>> filter, ClassLoader loader) {
+        this.leaves = leaves;
+        this.filter = filter;
+        this.loader = loader;
+
+        this.ids.defaultReturnValue(-1);
+        this.classIds.defaultReturnValue(-1);
+    }
+
+    /**
+     * Clears the reference and class tables, retaining
+     * their capacity.
+     *
+     * <p>This is done automatically after every message.</p>
+     */
+    public void reset() {
+        for (int i = 0, n = this.ids.size(); i < n; i++) {
+            this.keys.get(i).obj = null;
+        }
+
+        this.ids.clear();
+        this.classIds.clear();
+        this.objects.clear();
+        this.classes.clear();
+    }
+
+    @Override
+    public int write(StrippedCalamityBuf buf, int toIndex, Object from, int fromIndex, int length) {
+        return this.write(buf, toIndex, from);
+    }
+
+    @Override
+    public int write(StrippedCalamityBuf buf, int toIndex, Object from) {
+        try {
+            int idx = this.writeValue(buf, toIndex, from);
+            buf.idx(WRITER, idx);
+            return idx - toIndex;
+        } finally {
+            this.reset();
+        }
+    }
+
+    @Override
+    public int read(StrippedCalamityBuf buf, int toIndex, Object to, int fromIndex, int length) {
+        throw new UnsupportedOperationException("Object graphs can only be read into new objects");
+    }
+
+    @Override
+    public Object read(StrippedCalamityBuf buf, int fromIndex) {
+        try {
+            return this.readValue(buf, fromIndex);
+        } finally {
+            this.reset();
+        }
+    }
+
+    @Override
+    public void init(CalamityBuf buf) {
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return false;
+    }
+
+    @Override
+    public void free() {
+        this.reset();
+        this.keys.clear();
+        this.ids.trim(0);
+        this.classIds.trim(0);
+    }
+
+    /**
+     * Writes the given object, or a back-reference to it if
+     * it has already been written.
+     *
+     * @param buf the buffer which to write into
+     * @param idx the index at which to begin writing
+     * @param obj the object to write
+     * @return the index after the written bytes
+     */
+    private int writeValue(StrippedCalamityBuf buf, int idx, Object obj) {
+        if (obj == null) {
+            return idx + VarInts.write(buf, idx, NULL);
+        }
+
+        this.probe.set(obj);
+        int id = this.ids.getInt(this.probe);
+        this.probe.obj = null;
+        if (id >= 0) {
+            idx += VarInts.write(buf, idx, REFERENCE);
+            return idx + VarInts.write(buf, idx, id);
+        }
+
+        Class<?> type = obj instanceof Enum ? ((Enum<?>) obj).getDeclaringClass() : obj.getClass();
+        Layout layout = this.layout(type);
+
+        id = this.ids.size();
+        IdentityKey key;
+        if (id < this.keys.size()) {
+            key = this.keys.get(id);
+        } else {
+            key = new IdentityKey();
+            this.keys.add(key);
+        }
+
+        key.set(obj);
+        this.ids.put(key, id);
+
+        int classId = this.classIds.getInt(type);
+        if (classId < 0) {
+            this.classIds.put(type, this.classIds.size());
+            idx += VarInts.write(buf, idx, NEW_CLASS);
+            idx += StringMarshaller.UTF_8.write(buf, idx, type.getName());
+        } else {
+            idx += VarInts.write(buf, idx, FIRST_CLASS + (long) classId);
+        }
+
+        return layout.write(buf, idx, obj);
+    }
+
+    /**
+     * Reads an object, moving the buffer's reader index past
+     * it.
+     *
+     * @param buf the buffer which to read from
+     * @param idx the index at which to begin reading
+     * @return the object that was read
+     */
+    private Object readValue(StrippedCalamityBuf buf, int idx) {
+        long tag = VarInts.read(buf, idx, VarIntMarshaller.MAX_SIZE);
+        idx = buf.idx(READER);
+        if (tag == NULL) {
+            return null;
+        }
+
+        if (tag == REFERENCE) {
+            long id = VarInts.read(buf, idx, VarIntMarshaller.MAX_SIZE);
+            if (id >= this.objects.size()) {
+                throw new IllegalStateException("Invalid back-reference to object " + id);
+            }
+
+            return this.objects.get((int) id);
+        }
+
+        Class<?> type;
+        if (tag == NEW_CLASS) {
+            String name = StringMarshaller.UTF_8.read(buf, idx);
+            idx = buf.idx(READER);
+
+            try {
+                type = Class.forName(name, false, this.loader);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Unknown class " + name, e);
+            }
+
+            this.classes.add(type);
+        } else {
+            long classId = tag - FIRST_CLASS;
+            if (classId >= this.classes.size()) {
+                throw new IllegalStateException("Invalid reference to class " + classId);
+            }
+
+            type = this.classes.get((int) classId);
+        }
+
+        int id = this.objects.size();
+        this.objects.add(null);
+        return this.layout(type).read(buf, idx, id);
+    }
+
+    /**
+     * Reads the number of elements that follow, ensuring
+     * that there are enough bytes left in the buffer to hold
+     * them.
+     *
+     * @param buf the buffer which to read from
+     * @param idx the index at which to begin reading
+     * @return the number of elements
+     */
+    private static int readLength(StrippedCalamityBuf buf, int idx) {
+        long length = VarInts.read(buf, idx, VarIntMarshaller.MAX_SIZE);
+        if (length > buf.readable()) {
+            throw new IllegalStateException("Invalid length " + length + " at index " + idx);
+        }
+
+        return (int) length;
+    }
+
+    /**
+     * Obtains the layout of the given type, creating it the
+     * first time that the type is marshalled.
+     *
+     * @param type the type to marshal
+     * @return the layout
+     * @throws IllegalArgumentException if the type cannot be
+     * marshalled
+     */
+    private Layout layout(Class<?> type) {
+        Layout layout = this.layouts.get(type);
+        if (layout == null) {
+            layout = this.createLayout(type);
+            this.layouts.put(type, layout);
+        }
+
+        return layout;
+    }
+
+    /**
+     * Creates the layout of the given type.
+     *
+     * @param type the type to inspect
+     * @return the layout
+     * @throws IllegalArgumentException if the type cannot be
+     * marshalled
+     */
+    private Layout createLayout(Class<?> type) {
+        if (!this.filter.test(type)) {
+            throw new IllegalArgumentException(type.getName() + " is not permitted");
+        }
+
+        if (type == byte[].class) {
+            return new ByteArrayLayout();
+        }
+
+        Marshaller<Object> leaf = (Marshaller<Object>) this.leaves.resolveType(type);
+        if (leaf != null) {
+            return new LeafLayout(leaf);
+        }
+
+        if (type.isEnum()) {
+            return new EnumLayout(type.getEnumConstants());
+        }
+
+        if (type.isArray()) {
+            return new ArrayLayout(type.getComponentType());
+        }
+
+        if (Collection.class.isAssignableFrom(type)) {
+            Class<?> fallback = Set.class.isAssignableFrom(type) ? LinkedHashSet.class : ArrayList.class;
+            return new CollectionLayout(collectionNoArgs(type, fallback));
+        }
+
+        if (Map.class.isAssignableFrom(type)) {
+            return new MapLayout(collectionNoArgs(type, LinkedHashMap.class));
+        }
+
+        if (type.getClassLoader() == null) {
+            throw new IllegalArgumentException("No marshaller for " + type.getName());
+        }
+
+        List<Field> fields = PojoMarshallerFactory.fields(type);
+        PojoMarshaller.FieldCodec[] codecs = new PojoMarshaller.FieldCodec[fields.size()];
+        try {
+            for (int i = 0; i < codecs.length; i++) {
+                Field field = fields.get(i);
+                MethodHandle getter = PojoMarshallerFactory.getter(field);
+                MethodHandle setter = PojoMarshallerFactory.setter(field);
+                codecs[i] = field.getType().isPrimitive() ?
+                        PojoMarshallerFactory.primitiveCodec(field.getType(), getter, setter) :
+                        new ReferenceCodec(getter, setter);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access " + type.getName(), e);
+        }
+
+        return new ObjectLayout(type, codecs, noArgs(type));
+    }
+
+    /**
+     * Obtains the no-arg constructor of the given type,
+     * adapted to the type {@code ()Object}.
+     *
+     * @param type the type to construct
+     * @return the constructor
+     * @throws IllegalArgumentException if there is no no-arg
+     * constructor
+     */
+    private static MethodHandle noArgs(Class<?> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return LOOKUP.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException(type.getName() + " must have an accessible no-arg constructor", e);
+        }
+    }
+
+    /**
+     * Obtains the no-arg constructor of the given collection
+     * or map type, or of the given fallback type if it is a
+     * JDK type which cannot be constructed, e.g. because it
+     * is private or immutable.
+     *
+     * @param type the type to construct
+     * @param fallback the mutable type constructed in place
+     * of a JDK type
+     * @return the constructor of type {@code ()Object}
+     * @throws IllegalArgumentException if a type which is not
+     * a JDK type has no no-arg constructor
+     */
+    private static MethodHandle collectionNoArgs(Class<?> type, Class<?> fallback) {
+        if (type.getClassLoader() != null) {
+            return noArgs(type);
+        }
+
+        if (Modifier.isPublic(type.getModifiers())) {
+            try {
+                return LOOKUP.findConstructor(type, MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(Object.class));
+            } catch (NoSuchMethodException | IllegalAccessException ignored) {
+                // No public no-arg constructor, e.g. EnumMap
+            }
+        }
+
+        return noArgs(fallback);
+    }
+
+    /**
+     * Invokes the given no-arg constructor.
+     *
+     * @param factory the constructor of type {@code ()Object}
+     * @return the new object
+     */
+    private static Object construct(MethodHandle factory) {
+        try {
+            return (Object) factory.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to construct object", t);
+        }
+    }
+
+    /**
+     * Compares objects by identity so that they may be held
+     * in an {@link Object2IntOpenHashMap}.
+     */
+    private static final class IdentityKey {
+        /**
+         * The object, or {@code null} if the key is unused
+         */
+        Object obj;
+        /**
+         * The identity hash code of the object
+         */
+        int hash;
+
+        /**
+         * Sets the object compared by this key.
+         *
+         * @param obj the object
+         */
+        void set(Object obj) {
+            this.obj = obj;
+            this.hash = System.identityHashCode(obj);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey && ((IdentityKey) o).obj == this.obj;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+    /**
+     * Writes and reads the objects of a particular type.
+     */
+    private abstract static class Layout {
+        /**
+         * Writes the contents of the given object.
+         *
+         * @param buf the buffer which to write into
+         * @param idx the index at which to begin writing
+         * @param obj the object to write
+         * @return the index after the written bytes
+         */
+        abstract int write(StrippedCalamityBuf buf, int idx, Object obj);
+
+        /**
+         * Reads an object, recording it under the given id
+         * as soon as it has been created and moving the
+         * buffer's reader index past it.
+         *
+         * @param buf the buffer which to read from
+         * @param idx the index at which to begin reading
+         * @param id the id of the object
+         * @return the object that was read
+         */
+        abstract Object read(StrippedCalamityBuf buf, int idx, int id);
+    }
+
+    /**
+     * Writes objects using the marshaller of their type.
+     */
+    private final class LeafLayout extends Layout {
+        /**
+         * The marshaller of the type
+         */
+        private final Marshaller<Object> marshaller;
+
+        /**
+         * Creates a new layout.
+         *
+         * @param marshaller the marshaller of the type
+         */
+        LeafLayout(Marshaller<Object> marshaller) {
+            this.marshaller = marshaller;
+        }
+
+        @Override
+        int write(StrippedCalamityBuf buf, int idx, Object obj) {
+            return idx + this.marshaller.write(buf, idx, obj);
+        }
+
+        @Override
+        Object read(StrippedCalamityBuf buf, int idx, int id) {
+            Object obj = this.marshaller.read(buf, idx);
+            GraphMarshaller.this.objects.set(id, obj);
+            return obj;
+        }
+    }
+
+    /**
+     * Writes byte arrays as their length followed by their
+     * contents.
+     */
+    private final class ByteArrayLayout extends Layout {
+        @Override
+        int write(StrippedCalamityBuf buf, int idx, Object obj) {
+            byte[] array = (byte[]) obj;
+            idx += VarInts.write(buf, idx, array.length);
+
+            buf.resizer().resize(buf, idx, array.length);
+            buf.byteStore().write(idx, array, 0, array.length);
+            return idx + array.length;
+        }
+
+        @Override
+        Object read(StrippedCalamityBuf buf, int idx, int id) {
+            int length = readLength(buf, idx);
+            idx = buf.idx(READER);
+
+            byte[] array = new byte[length];
+            buf.byteStore().read(0, array, idx, length);
+            buf.idx(READER, idx + length);
+
+            GraphMarshaller.this.objects.set(id, array);
+            return array;
+        }
+    }
+
+    /**
+     * Writes enum constants as their ordinal.
+     */
+    private final class EnumLayout extends Layout {
+        /**
+         * The constants of the enum
+         */
+        private final Object[] constants;
+
+        /**
+         * Creates a new layout.
+         *
+         * @param constants the constants of the enum
+         */
+        EnumLayout(Object[] constants) {
+            this.constants = constants;
+        }
+
+        @Override
+        int write(StrippedCalamityBuf buf, int idx, Object obj) {
+            return idx + VarInts.write(buf, idx, ((Enum<?>) obj).ordinal());
+        }
+
+        @Override
+        Object read(StrippedCalamityBuf buf, int idx, int id) {
+            long ordinal = VarInts.read(buf, idx, VarIntMarshaller.MAX_SIZE);
+            if (ordinal >= this.constants.length) {
+                throw new IllegalStateException("Invalid ordinal " + ordinal + " at index " + idx);
+            }
+
+            Object obj = this.constants[(int) ordinal];
+            GraphMarshaller.this.objects.set(id, obj);
+            return obj;
+        }
+    }
+
+    /**
+     * Writes arrays as their length followed by their
+     * elements.
+     */
+    private final class ArrayLayout extends Layout {
+        /**
+         * The component type of the array
+         */
+        private final Class<?> componentType;
+
+        /**
+         * Creates a new layout.
+         *
+         * @param componentType the component type of the
+         * array
+         */
+        ArrayLayout(Class<?> componentType) {
+            this.componentType = componentType;
+        }
+
+        @Override
+        int write(StrippedCalamityBuf buf, int idx, Object obj) {
+            int length = Array.getLength(obj);
+            idx += VarInts.write(buf, idx, length);
+            for (int i = 0; i < length; i++) {
+                idx = GraphMarshaller.this.writeValue(buf, idx, Array.get(obj, i));
+            }
+
+            return idx;
+        }
+
+        @Override
+        Object read(StrippedCalamityBuf buf, int idx, int id) {
+            int length = readLength(buf, idx);
+            Object array = Array.newInstance(this.componentType, length);
+            GraphMarshaller.this.objects.set(id, array);
+
+            for (int i = 0; i < length; i++) {
+                Array.set(array, i, GraphMarshaller.this.readValue(buf, buf.idx(READER)));
+            }
+
+            return array;
+        }
+    }
+
+    /**
+     * Writes collections as their size followed by their
+     * elements.
+     */
+    private final class CollectionLayout extends Layout {
+        /**
+         * The constructor of type {@code ()Object}
+         */
+        private final MethodHandle factory;
+
+        /**
+         * Creates a new layout.
+         *
+         * @param factory the no-arg constructor
+         */
+        CollectionLayout(MethodHandle factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        int write(StrippedCalamityBuf buf, int idx, Object obj) {
+            Collection<?> collection = (Collection<?>) obj;
+            idx += VarInts.write(buf, idx, collection.size());
+            for (Object element : collection) {
+                idx = GraphMarshaller.this.writeValue(buf, idx, element);
+            }
+
+            return idx;
+        }
+
+        @Override
+        Object read(StrippedCalamityBuf buf, int idx, int id) {
+            int size = readLength(buf, idx);
+            Collection<Object> collection = (Collection<Object>) construct(this.factory);
+            GraphMarshaller.this.objects.set(id, collection);
+
+            for (int i = 0; i < size; i++) {
+                collection.add(GraphMarshaller.this.readValue(buf, buf.idx(READER)));
+            }
+
+            return collection;
+        }
+    }
+
+    /**
+     * Writes maps as their size followed by their keys and
+     * values.
+     */
+    private final class MapLayout extends Layout {
+        /**
+         * The constructor of type {@code ()Object}
+         */
+        private final MethodHandle factory;
+
+        /**
+         * Creates a new layout.
+         *
+         * @param factory the no-arg constructor
+         */
+        MapLayout(MethodHandle factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        int write(StrippedCalamityBuf buf, int idx, Object obj) {
+            Map<?, ?> map = (Map<?, ?>) obj;
+            idx += VarInts.write(buf, idx, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                idx = GraphMarshaller.this.writeValue(buf, idx, entry.getKey());
+                idx = GraphMarshaller.this.writeValue(buf, idx, entry.getValue());
+            }
+
+            return idx;
+        }
+
+        @Override
+        Object read(StrippedCalamityBuf buf, int idx, int id) {
+            int size = readLength(buf, idx);
+            Map<Object, Object> map = (Map<Object, Object>) construct(this.factory);
+            GraphMarshaller.this.objects.set(id, map);
+
+            for (int i = 0; i < size; i++) {
+                Object key = GraphMarshaller.this.readValue(buf, buf.idx(READER));
+                map.put(key, GraphMarshaller.this.readValue(buf, buf.idx(READER)));
+            }
+
+            return map;
+        }
+    }
+
+    /**
+     * Writes objects as their instance fields in
+     * declaration order.
+     */
+    private final class ObjectLayout extends Layout {
+        /**
+         * The type of the objects
+         */
+        private final Class<?> type;
+        /**
+         * The fields of the type in declaration order
+         */
+        private final PojoMarshaller.FieldCodec[] fields;
+        /**
+         * The number of fixed-width bytes occupied by each
+         * field and those which follow it
+         */
+        private final int[] fixedSizes;
+        /**
+         * The constructor of type {@code ()Object}
+         */
+        private final MethodHandle factory;
+
+        /**
+         * Creates a new layout.
+         *
+         * @param type the type of the objects
+         * @param fields the fields of the type
+         * @param factory the no-arg constructor
+         */
+        ObjectLayout(Class<?> type, PojoMarshaller.FieldCodec[] fields, MethodHandle factory) {
+            this.type = type;
+            this.fields = fields;
+            this.factory = factory;
+
+            this.fixedSizes = new int[fields.length + 1];
+            for (int i = fields.length - 1; i >= 0; i--) {
+                this.fixedSizes[i] = this.fixedSizes[i + 1] + fields[i].fixedSize;
+            }
+        }
+
+        @Override
+        int write(StrippedCalamityBuf buf, int idx, Object obj) {
+            try {
+                buf.resizer().resize(buf, idx, this.fixedSizes[0]);
+                for (int i = 0; i < this.fields.length; i++) {
+                    PojoMarshaller.FieldCodec field = this.fields[i];
+                    idx = field.write(buf, idx, obj);
+                    if (field.isReference()) {
+                        buf.resizer().resize(buf, idx, this.fixedSizes[i + 1]);
+                    }
+                }
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Failed to marshal " + this.type.getName(), t);
+            }
+
+            return idx;
+        }
+
+        @Override
+        Object read(StrippedCalamityBuf buf, int idx, int id) {
+            Object obj = construct(this.factory);
+            GraphMarshaller.this.objects.set(id, obj);
+
+            try {
+                for (PojoMarshaller.FieldCodec field : this.fields) {
+                    idx = field.read(buf, idx, obj);
+                }
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Failed to marshal " + this.type.getName(), t);
+            }
+
+            buf.idx(READER, idx);
+            return obj;
+        }
+    }
+
+    /**
+     * Transfers a reference field through the graph, so that
+     * its value may be written as a back-reference.
+     */
+    private final class ReferenceCodec extends PojoMarshaller.FieldCodec {
+        /**
+         * The getter of type {@code (Object)Object}
+         */
+        private final MethodHandle getter;
+        /**
+         * The setter of type {@code (Object,Object)void}
+         */
+        private final MethodHandle setter;
+
+        /**
+         * Creates a new codec.
+         *
+         * @param getter the getter of the field
+         * @param setter the setter of the field
+         */
+        ReferenceCodec(MethodHandle getter, MethodHandle setter) {
+            super(0);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        boolean isReference() {
+            return true;
+        }
+
+        @Override
+        int write(StrippedCalamityBuf buf, int idx, Object obj) throws Throwable {
+            return GraphMarshaller.this.writeValue(buf, idx, (Object) this.getter.invokeExact(obj));
+        }
+
+        @Override
+        int read(StrippedCalamityBuf buf, int idx, Object obj) throws Throwable {
+            this.setter.invokeExact(obj, GraphMarshaller.this.readValue(buf, idx));
+            return buf.idx(READER);
+        }
+
+        @Override
+        int readArg(StrippedCalamityBuf buf, int idx, Object[] args, int arg) {
+            throw new UnsupportedOperationException("Graph fields are always set after construction");
+        }
+    }
+}
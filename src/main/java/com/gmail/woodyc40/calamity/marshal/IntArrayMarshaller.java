@@ -0,0 +1,38 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Marshals {@code int} arrays using a
+ * {@link java.nio.IntBuffer} view of the buffer's bytes.
+ *
+ * @author caojohnny
+ */
+public class IntArrayMarshaller extends PrimitiveArrayMarshaller<int[]> {
+    /**
+     * Creates a new marshaller for {@code int} arrays.
+     */
+    public IntArrayMarshaller() {
+        super(Integer.BYTES);
+    }
+
+    @Override
+    protected int length(int[] array) {
+        return array.length;
+    }
+
+    @Override
+    protected int[] newArray(int length) {
+        return new int[length];
+    }
+
+    @Override
+    protected void put(ByteBuffer bytes, int[] from, int fromIndex, int length) {
+        bytes.asIntBuffer().put(from, fromIndex, length);
+    }
+
+    @Override
+    protected void get(ByteBuffer bytes, int[] to, int toIndex, int length) {
+        bytes.asIntBuffer().get(to, toIndex, length);
+    }
+}
@@ -0,0 +1,66 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.util.Bytes;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Marshals {@code int} values, boxed or not, as 4 bytes
+ * in big-endian order.
+ *
+ * @author caojohnny
+ */
+public class IntMarshaller extends ValueMarshaller<Integer> {
+    /**
+     * The number of bytes occupied by a marshalled value
+     */
+    public static final int SIZE = 4;
+
+    /**
+     * Writes the given value into the buffer without
+     * boxing it.
+     *
+     * @param buf the buffer which to write into
+     * @param toIndex the index at which to begin writing
+     * @param value the value to write
+     * @return the number of bytes written
+     */
+    public int writeInt(StrippedCalamityBuf buf, int toIndex, int value) {
+        buf.resizer().resize(buf, toIndex, SIZE);
+        Bytes.putInt(buf.byteStore(), toIndex, value);
+        buf.idx(WRITER, toIndex + SIZE);
+
+        return SIZE;
+    }
+
+    /**
+     * Reads a value from the buffer without boxing it.
+     *
+     * @param buf the buffer which to read from
+     * @param fromIndex the index at which to begin reading
+     * @return the value that was read
+     */
+    public int readInt(StrippedCalamityBuf buf, int fromIndex) {
+        int value = Bytes.getInt(buf.byteStore(), fromIndex);
+        buf.idx(READER, fromIndex + SIZE);
+
+        return value;
+    }
+
+    @Override
+    public int sizeOf(Integer obj) {
+        return SIZE;
+    }
+
+    @Override
+    public int write(StrippedCalamityBuf buf, int toIndex, Integer from) {
+        return this.writeInt(buf, toIndex, from);
+    }
+
+    @Override
+    public Integer read(StrippedCalamityBuf buf, int fromIndex) {
+        return this.readInt(buf, fromIndex);
+    }
+}
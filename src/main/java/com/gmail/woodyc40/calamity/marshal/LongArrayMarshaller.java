@@ -0,0 +1,38 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Marshals {@code long} arrays using a
+ * {@link java.nio.LongBuffer} view of the buffer's bytes.
+ *
+ * @author caojohnny
+ */
+public class LongArrayMarshaller extends PrimitiveArrayMarshaller<long[]> {
+    /**
+     * Creates a new marshaller for {@code long} arrays.
+     */
+    public LongArrayMarshaller() {
+        super(Long.BYTES);
+    }
+
+    @Override
+    protected int length(long[] array) {
+        return array.length;
+    }
+
+    @Override
+    protected long[] newArray(int length) {
+        return new long[length];
+    }
+
+    @Override
+    protected void put(ByteBuffer bytes, long[] from, int fromIndex, int length) {
+        bytes.asLongBuffer().put(from, fromIndex, length);
+    }
+
+    @Override
+    protected void get(ByteBuffer bytes, long[] to, int toIndex, int length) {
+        bytes.asLongBuffer().get(to, toIndex, length);
+    }
+}
@@ -0,0 +1,66 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.util.Bytes;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Marshals {@code long} values, boxed or not, as 8 bytes
+ * in big-endian order.
+ *
+ * @author caojohnny
+ */
+public class LongMarshaller extends ValueMarshaller<Long> {
+    /**
+     * The number of bytes occupied by a marshalled value
+     */
+    public static final int SIZE = 8;
+
+    /**
+     * Writes the given value into the buffer without
+     * boxing it.
+     *
+     * @param buf the buffer which to write into
+     * @param toIndex the index at which to begin writing
+     * @param value the value to write
+     * @return the number of bytes written
+     */
+    public int writeLong(StrippedCalamityBuf buf, int toIndex, long value) {
+        buf.resizer().resize(buf, toIndex, SIZE);
+        Bytes.putLong(buf.byteStore(), toIndex, value);
+        buf.idx(WRITER, toIndex + SIZE);
+
+        return SIZE;
+    }
+
+    /**
+     * Reads a value from the buffer without boxing it.
+     *
+     * @param buf the buffer which to read from
+     * @param fromIndex the index at which to begin reading
+     * @return the value that was read
+     */
+    public long readLong(StrippedCalamityBuf buf, int fromIndex) {
+        long value = Bytes.getLong(buf.byteStore(), fromIndex);
+        buf.idx(READER, fromIndex + SIZE);
+
+        return value;
+    }
+
+    @Override
+    public int sizeOf(Long obj) {
+        return SIZE;
+    }
+
+    @Override
+    public int write(StrippedCalamityBuf buf, int toIndex, Long from) {
+        return this.writeLong(buf, toIndex, from);
+    }
+
+    @Override
+    public Long read(StrippedCalamityBuf buf, int fromIndex) {
+        return this.readLong(buf, fromIndex);
+    }
+}
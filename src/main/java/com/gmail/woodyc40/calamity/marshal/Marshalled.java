@@ -0,0 +1,38 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class for which a {@link GeneratedMarshaller}
+ * is generated at compile time by the annotation processor
+ * bundled with this library.
+ *
+ * <p>The generated marshaller is named after the class
+ * with the {@code Marshaller} suffix, e.g.
+ * {@code MessageMarshaller} for {@code Message}, is placed
+ * in the same package, and writes the same bytes as the
+ * marshaller created by {@link PojoMarshallerFactory}. It
+ * is listed as a service so that it may be registered
+ * using
+ * {@link RegistryMarshallingResolver.Builder#registerGenerated()}.
+ * </p>
+ *
+ * <p>Every marshalled field must be readable from the
+ * package, either directly or through a getter named
+ * {@code getX()}, {@code isX()} or {@code x()}. Objects
+ * are created using either a no-arg constructor, if every
+ * field is non-final and writable directly or through a
+ * setter named {@code setX(...)}, or otherwise a
+ * constructor taking every field in declaration order.</p>
+ *
+ * @author caojohnny
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Marshalled {
+}
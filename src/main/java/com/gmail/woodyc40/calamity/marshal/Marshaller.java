@@ -27,6 +27,42 @@ public interface Marshaller<T> extends Component {
      */
     int write(StrippedCalamityBuf buf, int toIndex, T from, int fromIndex, int length);
 
+    /**
+     * Converts the entirety of the given object into bytes
+     * and writes it to the byte storage defined by the
+     * given buffer.
+     *
+     * @implNote this method should be equivalent to
+     * writing
+     * {@code
+     *      write(buf, toIndex, from, 0, Integer.MAX_VALUE);
+     * }
+     *
+     * @param buf the buffer which to write bytes into
+     * @param toIndex the index at which to begin writing
+     * @param from the object which to marshal into bytes
+     * @return the number of bytes marshalled
+     */
+    default int write(StrippedCalamityBuf buf, int toIndex, T from) {
+        return this.write(buf, toIndex, from, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Computes the exact number of bytes that the given
+     * object will occupy once written by
+     * {@link #write(StrippedCalamityBuf, int, Object)}, so
+     * that space for several objects may be ensured at once.
+     *
+     * <p>By default, the size is unknown.</p>
+     *
+     * @param obj the object to be marshalled
+     * @return the number of bytes, or {@code -1} if the size
+     * is not known in advance
+     */
+    default int sizeOf(T obj) {
+        return -1;
+    }
+
     /**
      * Coerces the bytes stored in the given buffer's
      * {@link com.gmail.woodyc40.calamity.bytes.ByteStore}
@@ -44,4 +80,26 @@ public interface Marshaller<T> extends Component {
      * @return the number of bytes that are transferred
      */
     int read(StrippedCalamityBuf buf, int toIndex, T to, int fromIndex, int length);
+
+    /**
+     * Creates a new object of the form represented by
+     * {@code T} from the bytes stored in the given buffer's
+     * {@link com.gmail.woodyc40.calamity.bytes.ByteStore}.
+     *
+     * <p>As a result of this operation, the buffer's reader
+     * index should be moved past the bytes that were
+     * marshalled.</p>
+     *
+     * <p>By default, this operation is not supported, as
+     * marshallers may only be capable of transferring bytes
+     * into existing objects.</p>
+     *
+     * @param buf the buffer which to marshal bytes from
+     * @param fromIndex the index at which to begin marshal
+     *                  bytes from the buffer
+     * @return the object marshalled from the buffer
+     */
+    default T read(StrippedCalamityBuf buf, int fromIndex) {
+        throw new UnsupportedOperationException(this.getClass().getName() + " cannot create new objects");
+    }
 }
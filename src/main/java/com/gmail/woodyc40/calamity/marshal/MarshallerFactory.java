@@ -0,0 +1,26 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+/**
+ * A factory which creates marshallers on demand for types
+ * that have no marshaller registered for them.
+ *
+ * <p>Marshallers created by a factory are cached and
+ * shared by every buffer using the resolver, so they must
+ * be thread-safe.</p>
+ *
+ * @author caojohnny
+ */
+@FunctionalInterface
+public interface MarshallerFactory {
+    /**
+     * Creates a marshaller for the given type.
+     *
+     * @param type the type to create a marshaller for
+     * @param resolver the resolver which the marshaller may
+     * use to resolve the marshallers of other types
+     * @param <T> the marshalled type
+     * @return the new marshaller, or {@code null} if this
+     * factory does not support the type
+     */
+    <T> Marshaller<T> create(Class<T> type, MarshallingResolver resolver);
+}
@@ -0,0 +1,530 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.bytes.ByteStore;
+import com.gmail.woodyc40.calamity.util.Bytes;
+
+import java.lang.invoke.MethodHandle;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * A marshaller created by {@link PojoMarshallerFactory}
+ * which transfers the fields of an object in declaration
+ * order through pre-built {@link MethodHandle}s.
+ *
+ * <p>Primitive fields are written in big-endian order at
+ * their natural width, and reference fields are written as
+ * a presence byte followed by the bytes written by the
+ * marshaller resolved for the declared type of the field.
+ * The buffer is resized once for every run of fixed-width
+ * fields rather than once per field.</p>
+ *
+ * @param <T> the type that is marshalled
+ * @author caojohnny
+ */
+final class PojoMarshaller<T> implements Marshaller<T> {
+    /**
+     * The marshalled type
+     */
+    private final Class<T> type;
+    /**
+     * The fields of the type in declaration order
+     */
+    private final FieldCodec[] fields;
+    /**
+     * The number of fixed-width bytes occupied by each
+     * field and those which follow it
+     */
+    private final int[] fixedSizes;
+    /**
+     * The no-arg constructor of type {@code ()Object}, or
+     * {@code null} if objects are created using
+     * {@link #constructor}
+     */
+    private final MethodHandle factory;
+    /**
+     * The constructor taking every field, of type
+     * {@code (Object[])Object}, or {@code null} if objects
+     * are created using {@link #factory}
+     */
+    private final MethodHandle constructor;
+
+    /**
+     * Creates a new marshaller for the given type.
+     *
+     * @param type the marshalled type
+     * @param fields the fields of the type
+     * @param factory the no-arg constructor, or
+     * {@code null}
+     * @param constructor the constructor taking every
+     * field, or {@code null}
+     */
+    PojoMarshaller(Class<T> type, FieldCodec[] fields, MethodHandle factory, MethodHandle constructor) {
+        this.type = type;
+        this.fields = fields;
+        this.factory = factory;
+        this.constructor = constructor;
+
+        this.fixedSizes = new int[fields.length + 1];
+        for (int i = fields.length - 1; i >= 0; i--) {
+            this.fixedSizes[i] = this.fixedSizes[i + 1] + fields[i].fixedSize;
+        }
+    }
+
+    /**
+     * Creates the exception thrown when a checked exception
+     * is thrown by a method handle.
+     *
+     * @param t the exception that was thrown
+     * @return the exception to throw
+     */
+    private IllegalStateException failure(Throwable t) {
+        return new IllegalStateException("Failed to marshal " + this.type.getName(), t);
+    }
+
+    @Override
+    public int sizeOf(T obj) {
+        int size = this.fixedSizes[0];
+        try {
+            for (FieldCodec field : this.fields) {
+                if (field.isReference()) {
+                    int fieldSize = field.sizeOf(obj);
+                    if (fieldSize < 0) {
+                        return -1;
+                    }
+
+                    size += fieldSize;
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw this.failure(t);
+        }
+
+        return size;
+    }
+
+    @Override
+    public int write(StrippedCalamityBuf buf, int toIndex, T from, int fromIndex, int length) {
+        return this.write(buf, toIndex, from);
+    }
+
+    @Override
+    public int write(StrippedCalamityBuf buf, int toIndex, T from) {
+        int idx = toIndex;
+        try {
+            buf.resizer().resize(buf, idx, this.fixedSizes[0]);
+            for (int i = 0; i < this.fields.length; i++) {
+                FieldCodec field = this.fields[i];
+                idx = field.write(buf, idx, from);
+                if (field.isReference()) {
+                    buf.resizer().resize(buf, idx, this.fixedSizes[i + 1]);
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw this.failure(t);
+        }
+
+        buf.idx(WRITER, idx);
+        return idx - toIndex;
+    }
+
+    @Override
+    public int read(StrippedCalamityBuf buf, int toIndex, T to, int fromIndex, int length) {
+        if (this.factory == null) {
+            throw new UnsupportedOperationException(this.type.getName() + " has final fields");
+        }
+
+        int idx = fromIndex;
+        try {
+            for (FieldCodec field : this.fields) {
+                idx = field.read(buf, idx, to);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw this.failure(t);
+        }
+
+        buf.idx(READER, idx);
+        return idx - fromIndex;
+    }
+
+    @Override
+    public T read(StrippedCalamityBuf buf, int fromIndex) {
+        int idx = fromIndex;
+        Object result;
+        try {
+            if (this.factory != null) {
+                result = (Object) this.factory.invokeExact();
+                for (FieldCodec field : this.fields) {
+                    idx = field.read(buf, idx, result);
+                }
+            } else {
+                Object[] args = new Object[this.fields.length];
+                for (int i = 0; i < args.length; i++) {
+                    idx = this.fields[i].readArg(buf, idx, args, i);
+                }
+
+                result = (Object) this.constructor.invokeExact(args);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw this.failure(t);
+        }
+
+        buf.idx(READER, idx);
+        return this.type.cast(result);
+    }
+
+    @Override
+    public void init(CalamityBuf buf) {
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public void free() {
+    }
+
+    /**
+     * Transfers a single field of an object.
+     */
+    abstract static class FieldCodec {
+        /**
+         * The number of fixed-width bytes occupied by the
+         * field
+         */
+        final int fixedSize;
+
+        /**
+         * Creates a new codec.
+         *
+         * @param fixedSize the number of fixed-width bytes
+         * occupied by the field
+         */
+        FieldCodec(int fixedSize) {
+            this.fixedSize = fixedSize;
+        }
+
+        /**
+         * Determines whether the field is written by
+         * another marshaller, which may resize the buffer.
+         *
+         * @return {@code true} for reference fields
+         */
+        boolean isReference() {
+            return false;
+        }
+
+        /**
+         * Computes the number of bytes written for the
+         * field of the given object in addition to its
+         * fixed-width bytes.
+         *
+         * @param obj the object holding the field
+         * @return the number of bytes, or {@code -1} if it
+         * is not known in advance
+         * @throws Throwable if the accessor fails
+         */
+        int sizeOf(Object obj) throws Throwable {
+            return 0;
+        }
+
+        /**
+         * Writes the field of the given object.
+         *
+         * @param buf the buffer which to write into
+         * @param idx the index at which to begin writing
+         * @param obj the object holding the field
+         * @return the index after the written bytes
+         * @throws Throwable if the accessor fails
+         */
+        abstract int write(StrippedCalamityBuf buf, int idx, Object obj) throws Throwable;
+
+        /**
+         * Reads the field into the given object.
+         *
+         * @param buf the buffer which to read from
+         * @param idx the index at which to begin reading
+         * @param obj the object holding the field
+         * @return the index after the read bytes
+         * @throws Throwable if the accessor fails
+         */
+        abstract int read(StrippedCalamityBuf buf, int idx, Object obj) throws Throwable;
+
+        /**
+         * Reads the field as a constructor argument.
+         *
+         * @param buf the buffer which to read from
+         * @param idx the index at which to begin reading
+         * @param args the constructor arguments
+         * @param arg the index of this field's argument
+         * @return the index after the read bytes
+         */
+        abstract int readArg(StrippedCalamityBuf buf, int idx, Object[] args, int arg);
+    }
+
+    /**
+     * Transfers a primitive field of at most 4 bytes,
+     * accessed as an {@code int}.
+     */
+    static final class IntCodec extends FieldCodec {
+        /**
+         * The getter of type {@code (Object)int}
+         */
+        private final MethodHandle getter;
+        /**
+         * The setter of type {@code (Object,int)void}, or
+         * {@code null}
+         */
+        private final MethodHandle setter;
+
+        /**
+         * Creates a new codec.
+         *
+         * @param width the number of bytes occupied by the
+         * field
+         * @param getter the getter of the field
+         * @param setter the setter of the field, or
+         * {@code null}
+         */
+        IntCodec(int width, MethodHandle getter, MethodHandle setter) {
+            super(width);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        /**
+         * Reads the value of the field from the store.
+         *
+         * @param store the store to read from
+         * @param idx the index at which to begin reading
+         * @return the value, widened to an {@code int}
+         */
+        private int get(ByteStore store, int idx) {
+            switch (this.fixedSize) {
+                case 1:
+                    return store.read(idx);
+                case 2:
+                    return Bytes.getShort(store, idx);
+                default:
+                    return Bytes.getInt(store, idx);
+            }
+        }
+
+        @Override
+        int write(StrippedCalamityBuf buf, int idx, Object obj) throws Throwable {
+            int value = (int) this.getter.invokeExact(obj);
+            ByteStore store = buf.byteStore();
+            switch (this.fixedSize) {
+                case 1:
+                    store.write(idx, (byte) value);
+                    break;
+                case 2:
+                    Bytes.putShort(store, idx, (short) value);
+                    break;
+                default:
+                    Bytes.putInt(store, idx, value);
+            }
+
+            return idx + this.fixedSize;
+        }
+
+        @Override
+        int read(StrippedCalamityBuf buf, int idx, Object obj) throws Throwable {
+            this.setter.invokeExact(obj, this.get(buf.byteStore(), idx));
+            return idx + this.fixedSize;
+        }
+
+        @Override
+        int readArg(StrippedCalamityBuf buf, int idx, Object[] args, int arg) {
+            args[arg] = this.get(buf.byteStore(), idx);
+            return idx + this.fixedSize;
+        }
+    }
+
+    /**
+     * Transfers a primitive field of 8 bytes, accessed as a
+     * {@code long}.
+     */
+    static final class LongCodec extends FieldCodec {
+        /**
+         * The getter of type {@code (Object)long}
+         */
+        private final MethodHandle getter;
+        /**
+         * The setter of type {@code (Object,long)void}, or
+         * {@code null}
+         */
+        private final MethodHandle setter;
+
+        /**
+         * Creates a new codec.
+         *
+         * @param getter the getter of the field
+         * @param setter the setter of the field, or
+         * {@code null}
+         */
+        LongCodec(MethodHandle getter, MethodHandle setter) {
+            super(Long.BYTES);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        int write(StrippedCalamityBuf buf, int idx, Object obj) throws Throwable {
+            Bytes.putLong(buf.byteStore(), idx, (long) this.getter.invokeExact(obj));
+            return idx + Long.BYTES;
+        }
+
+        @Override
+        int read(StrippedCalamityBuf buf, int idx, Object obj) throws Throwable {
+            this.setter.invokeExact(obj, Bytes.getLong(buf.byteStore(), idx));
+            return idx + Long.BYTES;
+        }
+
+        @Override
+        int readArg(StrippedCalamityBuf buf, int idx, Object[] args, int arg) {
+            args[arg] = Bytes.getLong(buf.byteStore(), idx);
+            return idx + Long.BYTES;
+        }
+    }
+
+    /**
+     * Transfers a reference field using the marshaller
+     * resolved for its declared type.
+     */
+    static final class ReferenceCodec extends FieldCodec {
+        /**
+         * The name of the field
+         */
+        private final String name;
+        /**
+         * The declared type of the field
+         */
+        private final Class<?> type;
+        /**
+         * The resolver used to find the field's marshaller
+         */
+        private final MarshallingResolver resolver;
+        /**
+         * The getter of type {@code (Object)Object}
+         */
+        private final MethodHandle getter;
+        /**
+         * The setter of type {@code (Object,Object)void}, or
+         * {@code null}
+         */
+        private final MethodHandle setter;
+        /**
+         * The marshaller of the field, resolved on first use
+         * so that types may refer to each other
+         */
+        private Marshaller<Object> marshaller;
+
+        /**
+         * Creates a new codec.
+         *
+         * @param name the name of the field
+         * @param type the declared type of the field
+         * @param resolver the resolver used to find the
+         * field's marshaller
+         * @param getter the getter of the field
+         * @param setter the setter of the field, or
+         * {@code null}
+         */
+        ReferenceCodec(String name, Class<?> type, MarshallingResolver resolver,
+                       MethodHandle getter, MethodHandle setter) {
+            super(1);
+            this.name = name;
+            this.type = type;
+            this.resolver = resolver;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        /**
+         * Obtains the marshaller of the field, resolving it
+         * if this is the first use.
+         *
+         * @return the marshaller
+         */
+        private Marshaller<Object> marshaller() {
+            Marshaller<Object> marshaller = this.marshaller;
+            if (marshaller == null) {
+                marshaller = (Marshaller<Object>) this.resolver.resolveType(this.type);
+                if (marshaller == null) {
+                    throw new IllegalArgumentException(
+                            "No marshaller for field " + this.name + " of type " + this.type.getName());
+                }
+
+                this.marshaller = marshaller;
+            }
+
+            return marshaller;
+        }
+
+        /**
+         * Reads the value of the field from the buffer,
+         * moving its reader index past the value.
+         *
+         * @param buf the buffer which to read from
+         * @param idx the index of the presence byte
+         * @return the value, or {@code null}
+         */
+        private Object get(StrippedCalamityBuf buf, int idx) {
+            if (buf.byteStore().read(idx) == 0) {
+                buf.idx(READER, idx + 1);
+                return null;
+            }
+
+            return this.marshaller().read(buf, idx + 1);
+        }
+
+        @Override
+        boolean isReference() {
+            return true;
+        }
+
+        @Override
+        int sizeOf(Object obj) throws Throwable {
+            Object value = (Object) this.getter.invokeExact(obj);
+            return value == null ? 0 : this.marshaller().sizeOf(value);
+        }
+
+        @Override
+        int write(StrippedCalamityBuf buf, int idx, Object obj) throws Throwable {
+            Object value = (Object) this.getter.invokeExact(obj);
+            if (value == null) {
+                buf.byteStore().write(idx, (byte) 0);
+                return idx + 1;
+            }
+
+            buf.byteStore().write(idx, (byte) 1);
+            return idx + 1 + this.marshaller().write(buf, idx + 1, value);
+        }
+
+        @Override
+        int read(StrippedCalamityBuf buf, int idx, Object obj) throws Throwable {
+            this.setter.invokeExact(obj, this.get(buf, idx));
+            return buf.idx(READER);
+        }
+
+        @Override
+        int readArg(StrippedCalamityBuf buf, int idx, Object[] args, int arg) {
+            args[arg] = this.get(buf, idx);
+            return buf.idx(READER);
+        }
+    }
+}
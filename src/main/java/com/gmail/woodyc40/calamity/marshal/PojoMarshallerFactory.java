@@ -0,0 +1,346 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A factory which inspects a class once and creates a
+ * marshaller that transfers its instance fields in
+ * declaration order, beginning with the fields of its
+ * superclasses.
+ *
+ * <p>Fields are accessed through {@link MethodHandle}s
+ * which are adapted once to a small set of shapes when the
+ * marshaller is created, so no reflection is performed
+ * while marshalling. Static, transient and synthetic
+ * fields are skipped.</p>
+ *
+ * <p>Objects are created using either:</p>
+ * <ul>
+ *     <li>a no-arg constructor, if no field is final; or
+ *     </li>
+ *     <li>a constructor whose parameters are the types of
+ *     every field in declaration order, such as the
+ *     canonical constructor of a record.</li>
+ * </ul>
+ *
+ * <p>Reference fields are marshalled by the marshaller
+ * resolved for their declared type, which must be capable
+ * of creating objects using
+ * {@link Marshaller#read(com.gmail.woodyc40.calamity.StrippedCalamityBuf, int)}.
+ * </p>
+ *
+ * @author caojohnny
+ */
+public class PojoMarshallerFactory implements MarshallerFactory {
+    /**
+     * The lookup used to access fields and constructors
+     */
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    /**
+     * Converts {@code float} to its bits
+     */
+    private static final MethodHandle FLOAT_TO_BITS;
+    /**
+     * Converts bits to a {@code float}
+     */
+    private static final MethodHandle BITS_TO_FLOAT;
+    /**
+     * Converts {@code double} to its bits
+     */
+    private static final MethodHandle DOUBLE_TO_BITS;
+    /**
+     * Converts bits to a {@code double}
+     */
+    private static final MethodHandle BITS_TO_DOUBLE;
+
+    static {
+        try {
+            FLOAT_TO_BITS = LOOKUP.findStatic(Float.class, "floatToRawIntBits",
+                    MethodType.methodType(int.class, float.class));
+            BITS_TO_FLOAT = LOOKUP.findStatic(Float.class, "intBitsToFloat",
+                    MethodType.methodType(float.class, int.class));
+            DOUBLE_TO_BITS = LOOKUP.findStatic(Double.class, "doubleToRawLongBits",
+                    MethodType.methodType(long.class, double.class));
+            BITS_TO_DOUBLE = LOOKUP.findStatic(Double.class, "longBitsToDouble",
+                    MethodType.methodType(double.class, long.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The types which this factory supports
+     */
+    private final Predicate<Class<?>> filter;
+
+    /**
+     * Creates a new factory which supports every concrete
+     * class that is not part of the JDK.
+     */
+    public PojoMarshallerFactory() {
+        this(type -> true);
+    }
+
+    /**
+     * Creates a new factory which supports the concrete
+     * classes that are not part of the JDK and which match
+     * the given filter, e.g. the classes in a particular
+     * package.
+     *
+     * @param filter the types to support
+     */
+    public PojoMarshallerFactory(Predicate<Class<?>> filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Obtains the type through which a field of the given
+     * type is transferred.
+     *
+     * @param type the type of the field
+     * @return {@code int}, {@code long} or {@code Object}
+     */
+    private static Class<?> wireType(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return Object.class;
+        }
+
+        return type == long.class || type == double.class ? long.class : int.class;
+    }
+
+    /**
+     * Obtains the number of bytes occupied by a field of
+     * the given primitive type.
+     *
+     * @param type the type of the field
+     * @return the width of the field
+     */
+    private static int width(Class<?> type) {
+        if (type == boolean.class || type == byte.class) {
+            return 1;
+        }
+
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+
+        return type == long.class || type == double.class ? 8 : 4;
+    }
+
+    /**
+     * Collects the marshalled fields of the given type.
+     *
+     * @param type the type to inspect
+     * @return the fields in declaration order
+     */
+    static List<Field> fields(Class<?> type) {
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> cls = type; cls != Object.class; cls = cls.getSuperclass()) {
+            hierarchy.add(cls);
+        }
+
+        Collections.reverse(hierarchy);
+
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> cls : hierarchy) {
+            for (Field field : cls.getDeclaredFields()) {
+                int mod = field.getModifiers();
+                if (!Modifier.isStatic(mod) && !Modifier.isTransient(mod) && !field.isSynthetic()) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+        }
+
+        return fields;
+    }
+
+    /**
+     * Creates the getter of the given field, adapted to the
+     * type {@code (Object)int}, {@code (Object)long} or
+     * {@code (Object)Object}.
+     *
+     * @param field the field
+     * @return the getter
+     * @throws IllegalAccessException if the field cannot be
+     * accessed
+     */
+    static MethodHandle getter(Field field) throws IllegalAccessException {
+        Class<?> type = field.getType();
+        MethodHandle getter = LOOKUP.unreflectGetter(field);
+        if (type == float.class) {
+            getter = MethodHandles.filterReturnValue(getter, FLOAT_TO_BITS);
+        } else if (type == double.class) {
+            getter = MethodHandles.filterReturnValue(getter, DOUBLE_TO_BITS);
+        }
+
+        return MethodHandles.explicitCastArguments(getter, MethodType.methodType(wireType(type), Object.class));
+    }
+
+    /**
+     * Creates the setter of the given field, adapted to the
+     * type {@code (Object,int)void},
+     * {@code (Object,long)void} or
+     * {@code (Object,Object)void}.
+     *
+     * @param field the field
+     * @return the setter
+     * @throws IllegalAccessException if the field cannot be
+     * accessed
+     */
+    static MethodHandle setter(Field field) throws IllegalAccessException {
+        Class<?> type = field.getType();
+        MethodHandle setter = LOOKUP.unreflectSetter(field);
+        if (type == float.class) {
+            setter = MethodHandles.filterArguments(setter, 1, BITS_TO_FLOAT);
+        } else if (type == double.class) {
+            setter = MethodHandles.filterArguments(setter, 1, BITS_TO_DOUBLE);
+        }
+
+        return MethodHandles.explicitCastArguments(setter,
+                MethodType.methodType(void.class, Object.class, wireType(type)));
+    }
+
+    /**
+     * Creates the codec for a primitive field of the given
+     * type.
+     *
+     * @param type the type of the field
+     * @param getter the getter of the field
+     * @param setter the setter of the field, or
+     * {@code null}
+     * @return the codec
+     */
+    static PojoMarshaller.FieldCodec primitiveCodec(Class<?> type, MethodHandle getter, MethodHandle setter) {
+        if (wireType(type) == long.class) {
+            return new PojoMarshaller.LongCodec(getter, setter);
+        }
+
+        return new PojoMarshaller.IntCodec(width(type), getter, setter);
+    }
+
+    /**
+     * Creates the codec for the given field.
+     *
+     * @param field the field
+     * @param settable whether or not the field is set after
+     * the object is constructed
+     * @param resolver the resolver for reference fields
+     * @return the codec
+     * @throws IllegalAccessException if the field cannot be
+     * accessed
+     */
+    private static PojoMarshaller.FieldCodec codec(Field field, boolean settable, MarshallingResolver resolver)
+            throws IllegalAccessException {
+        Class<?> type = field.getType();
+        MethodHandle getter = getter(field);
+        MethodHandle setter = settable ? setter(field) : null;
+        if (!type.isPrimitive()) {
+            return new PojoMarshaller.ReferenceCodec(field.getName(), type, resolver, getter, setter);
+        }
+
+        return primitiveCodec(type, getter, setter);
+    }
+
+    /**
+     * Adapts the given constructor taking every field to
+     * the type {@code (Object[])Object}.
+     *
+     * @param constructor the constructor
+     * @return the adapted constructor
+     * @throws IllegalAccessException if the constructor
+     * cannot be accessed
+     */
+    private static MethodHandle spreadConstructor(Constructor<?> constructor) throws IllegalAccessException {
+        constructor.setAccessible(true);
+        MethodHandle handle = LOOKUP.unreflectConstructor(constructor);
+
+        Class<?>[] params = constructor.getParameterTypes();
+        Class<?>[] wires = new Class<?>[params.length];
+        for (int i = 0; i < params.length; i++) {
+            if (params[i] == float.class) {
+                handle = MethodHandles.filterArguments(handle, i, BITS_TO_FLOAT);
+            } else if (params[i] == double.class) {
+                handle = MethodHandles.filterArguments(handle, i, BITS_TO_DOUBLE);
+            }
+
+            wires[i] = wireType(params[i]);
+        }
+
+        handle = MethodHandles.explicitCastArguments(handle, MethodType.methodType(Object.class, wires));
+        return handle.asSpreader(Object[].class, params.length);
+    }
+
+    @Override
+    public <T> Marshaller<T> create(Class<T> type, MarshallingResolver resolver) {
+        int mod = type.getModifiers();
+        if (type.isPrimitive() || type.isArray() || type.isEnum() || Modifier.isAbstract(mod) ||
+                type.getClassLoader() == null || !this.filter.test(type)) {
+            return null;
+        }
+
+        List<Field> fields = fields(type);
+        Class<?>[] fieldTypes = new Class<?>[fields.size()];
+        boolean hasFinal = false;
+        for (int i = 0; i < fieldTypes.length; i++) {
+            Field field = fields.get(i);
+            fieldTypes[i] = field.getType();
+            hasFinal |= Modifier.isFinal(field.getModifiers());
+        }
+
+        try {
+            MethodHandle factory = null;
+            MethodHandle constructor = null;
+            Constructor<T> noArgs = findConstructor(type);
+            if (!hasFinal && noArgs != null) {
+                noArgs.setAccessible(true);
+                factory = LOOKUP.unreflectConstructor(noArgs)
+                        .asType(MethodType.methodType(Object.class));
+            } else {
+                Constructor<T> allArgs = findConstructor(type, fieldTypes);
+                if (allArgs == null) {
+                    throw new IllegalArgumentException(type.getName() + " must have either a no-arg constructor " +
+                            "and no final fields, or a constructor taking every field in declaration order");
+                }
+
+                constructor = spreadConstructor(allArgs);
+            }
+
+            PojoMarshaller.FieldCodec[] codecs = new PojoMarshaller.FieldCodec[fieldTypes.length];
+            for (int i = 0; i < codecs.length; i++) {
+                codecs[i] = codec(fields.get(i), factory != null, resolver);
+            }
+
+            return new PojoMarshaller<>(type, codecs, factory, constructor);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Finds the constructor of the given type with the
+     * given parameter types.
+     *
+     * @param type the type declaring the constructor
+     * @param params the parameter types
+     * @param <T> the declaring type
+     * @return the constructor, or {@code null} if there is
+     * none
+     */
+    private static <T> Constructor<T> findConstructor(Class<T> type, Class<?>... params) {
+        try {
+            return type.getDeclaredConstructor(params);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
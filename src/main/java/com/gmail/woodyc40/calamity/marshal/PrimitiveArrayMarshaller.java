@@ -0,0 +1,193 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.bytes.ByteStore;
+import com.gmail.woodyc40.calamity.util.Bytes;
+
+import java.nio.ByteBuffer;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * The base class of marshallers for arrays of primitives.
+ *
+ * <p>Arrays are marshalled as an int holding the number of
+ * elements, followed by the elements in big-endian order.
+ * The elements are converted in bulk through a view of a
+ * {@link ByteBuffer}, which wraps the store's raw array
+ * when it is available and a temporary array when it is
+ * not.</p>
+ *
+ * <p>The {@code fromIndex} and {@code length} passed to
+ * {@link #write(StrippedCalamityBuf, int, Object, int, int)}
+ * select a range of elements to write. Reading into an
+ * existing array always moves the buffer's reader index
+ * past the entire marshalled array, even if the array
+ * could not hold all of its elements.</p>
+ *
+ * @param <T> the array type that is marshalled
+ * @author caojohnny
+ */
+public abstract class PrimitiveArrayMarshaller<T> implements Marshaller<T> {
+    /**
+     * The number of bytes occupied by the length prefix
+     */
+    private static final int PREFIX = 4;
+
+    /**
+     * The number of bytes occupied by each element
+     */
+    private final int width;
+
+    /**
+     * Creates a new marshaller for arrays of elements of
+     * the given width.
+     *
+     * @param width the number of bytes occupied by each
+     * element
+     */
+    protected PrimitiveArrayMarshaller(int width) {
+        this.width = width;
+    }
+
+    /**
+     * Obtains the length of the given array.
+     *
+     * @param array the array
+     * @return the number of elements in the array
+     */
+    protected abstract int length(T array);
+
+    /**
+     * Creates a new array of the given length.
+     *
+     * @param length the number of elements
+     * @return the new array
+     */
+    protected abstract T newArray(int length);
+
+    /**
+     * Converts elements of the given array into the given
+     * bytes, beginning at the position of the bytes.
+     *
+     * @param bytes the bytes to write into
+     * @param from the array to convert
+     * @param fromIndex the first element to convert
+     * @param length the number of elements to convert
+     */
+    protected abstract void put(ByteBuffer bytes, T from, int fromIndex, int length);
+
+    /**
+     * Converts the given bytes into elements of the given
+     * array, beginning at the position of the bytes.
+     *
+     * @param bytes the bytes to read from
+     * @param to the array to convert into
+     * @param toIndex the first element to convert into
+     * @param length the number of elements to convert
+     */
+    protected abstract void get(ByteBuffer bytes, T to, int toIndex, int length);
+
+    @Override
+    public int sizeOf(T obj) {
+        return PREFIX + this.length(obj) * this.width;
+    }
+
+    @Override
+    public int write(StrippedCalamityBuf buf, int toIndex, T from, int fromIndex, int length) {
+        int count = Math.min(this.length(from) - fromIndex, length);
+        int size = count * this.width;
+        buf.resizer().resize(buf, toIndex, PREFIX + size);
+
+        ByteStore store = buf.byteStore();
+        Bytes.putInt(store, toIndex, count);
+
+        int dataIndex = toIndex + PREFIX;
+        if (store.isArrayRaw()) {
+            this.put(ByteBuffer.wrap(store.array(), dataIndex, size).slice(), from, fromIndex, count);
+        } else {
+            byte[] bytes = new byte[size];
+            this.put(ByteBuffer.wrap(bytes), from, fromIndex, count);
+            store.write(dataIndex, bytes, 0, size);
+        }
+
+        buf.idx(WRITER, dataIndex + size);
+        return PREFIX + size;
+    }
+
+    @Override
+    public int read(StrippedCalamityBuf buf, int toIndex, T to, int fromIndex, int length) {
+        ByteStore store = buf.byteStore();
+        int total = this.readCount(store, fromIndex);
+        int count = Math.min(Math.min(this.length(to) - toIndex, length), total);
+        this.readElements(store, fromIndex + PREFIX, to, toIndex, count);
+        buf.idx(READER, fromIndex + PREFIX + total * this.width);
+
+        return PREFIX + count * this.width;
+    }
+
+    @Override
+    public T read(StrippedCalamityBuf buf, int fromIndex) {
+        ByteStore store = buf.byteStore();
+        int count = this.readCount(store, fromIndex);
+        T array = this.newArray(count);
+        this.readElements(store, fromIndex + PREFIX, array, 0, count);
+        buf.idx(READER, fromIndex + PREFIX + count * this.width);
+
+        return array;
+    }
+
+    /**
+     * Reads the number of elements of the array marshalled
+     * at the given index.
+     *
+     * @param store the store to read from
+     * @param fromIndex the index of the length prefix
+     * @return the number of elements
+     */
+    private int readCount(ByteStore store, int fromIndex) {
+        int count = Bytes.getInt(store, fromIndex);
+        if (count < 0 || (long) count * this.width > store.length() - fromIndex - PREFIX) {
+            throw new IllegalStateException(String.format(
+                    "Invalid array length %d at index %d", count, fromIndex));
+        }
+
+        return count;
+    }
+
+    /**
+     * Converts the elements held at the given index of the
+     * store into the given array.
+     *
+     * @param store the store to read from
+     * @param dataIndex the index of the first element
+     * @param to the array to convert into
+     * @param toIndex the first element to convert into
+     * @param count the number of elements to convert
+     */
+    private void readElements(ByteStore store, int dataIndex, T to, int toIndex, int count) {
+        int size = count * this.width;
+        if (store.isArrayRaw()) {
+            this.get(ByteBuffer.wrap(store.array(), dataIndex, size).slice(), to, toIndex, count);
+        } else {
+            byte[] bytes = new byte[size];
+            store.read(0, bytes, dataIndex, size);
+            this.get(ByteBuffer.wrap(bytes), to, toIndex, count);
+        }
+    }
+
+    @Override
+    public void init(CalamityBuf buf) {
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public void free() {
+    }
+}
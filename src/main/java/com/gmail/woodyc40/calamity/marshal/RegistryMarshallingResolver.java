@@ -0,0 +1,367 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+/**
+ * A resolver which maps types to the marshallers that have
+ * been registered for them.
+ *
+ * <p>When no marshaller has been registered for a type,
+ * the marshaller registered for its closest superclass is
+ * used, followed by the marshaller registered for the
+ * closest of its interfaces, and finally a marshaller
+ * created by the first {@link MarshallerFactory} which
+ * supports the type. Lookups are cached per type
+ * in a {@link ClassValue}, so resolving a type is only
+ * slow the first time that it is resolved.</p>
+ *
+ * <p>Resolvers are immutable once built, and may be shared
+ * by any number of buffers, e.g. by passing
+ * {@code Constants.supplyConst(resolver)} to
+ * {@link com.gmail.woodyc40.calamity.CalamityOptions#marshaller}.
+ * Consequently, freeing a buffer does not free the
+ * resolver or its marshallers.</p>
+ *
+ * @author caojohnny
+ */
+public final class RegistryMarshallingResolver implements MarshallingResolver {
+    /**
+     * The marshallers registered for each type
+     */
+    private final Map<Class<?>, Marshaller<?>> types;
+    /**
+     * The registered marshallers, by implementing class
+     */
+    private final Map<Class<?>, Marshaller<?>> marshallers;
+    /**
+     * The marshaller used for byte arrays
+     */
+    private final Marshaller<byte[]> defaultMarshaller;
+    /**
+     * The factories used to create missing marshallers
+     */
+    private final List<MarshallerFactory> factories;
+    /**
+     * Whether or not all registered marshallers are
+     * thread-safe
+     */
+    private final boolean threadSafe;
+
+    /**
+     * The cache of resolved marshallers
+     */
+    private final ClassValue<Marshaller<?>> resolved = new ClassValue<Marshaller<?>>() {
+        @Override
+        protected Marshaller<?> computeValue(Class<?> type) {
+            return RegistryMarshallingResolver.this.lookup(type);
+        }
+    };
+
+    /**
+     * Creates a new resolver from the given builder.
+     *
+     * @param builder the builder holding the registered
+     * marshallers
+     */
+    private RegistryMarshallingResolver(Builder builder) {
+        this.types = Collections.unmodifiableMap(new HashMap<>(builder.types));
+
+        Map<Class<?>, Marshaller<?>> marshallers = new HashMap<>(builder.marshallers);
+        for (Marshaller<?> marshaller : this.types.values()) {
+            marshallers.put(marshaller.getClass(), marshaller);
+        }
+
+        marshallers.put(builder.defaultMarshaller.getClass(), builder.defaultMarshaller);
+
+        boolean threadSafe = true;
+        for (Marshaller<?> marshaller : marshallers.values()) {
+            threadSafe &= marshaller.isThreadSafe();
+        }
+
+        this.marshallers = Collections.unmodifiableMap(marshallers);
+        this.defaultMarshaller = builder.defaultMarshaller;
+        this.factories = Collections.unmodifiableList(new ArrayList<>(builder.factories));
+        this.threadSafe = threadSafe;
+    }
+
+    /**
+     * Creates a new builder used to register the
+     * marshallers of a new resolver.
+     *
+     * <p>The buffer's own byte array operations always use
+     * the {@link DefaultMarshaller}, which is not registered
+     * for {@code byte[]} because it does not record the
+     * length of the array.</p>
+     *
+     * @return the new builder
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Finds the marshaller registered for the given type or
+     * the closest of its supertypes, or creates one if none
+     * has been registered.
+     *
+     * @param type the type to find a marshaller for
+     * @return the marshaller, or {@code null} if none has
+     * been registered for the type or its supertypes and
+     * none of the factories support it
+     */
+    private Marshaller<?> lookup(Class<?> type) {
+        for (Class<?> cls = type; cls != null; cls = cls.getSuperclass()) {
+            Marshaller<?> marshaller = this.types.get(cls);
+            if (marshaller != null) {
+                return marshaller;
+            }
+        }
+
+        Set<Class<?>> visited = new HashSet<>();
+        Queue<Class<?>> interfaces = new ArrayDeque<>();
+        for (Class<?> cls = type; cls != null; cls = cls.getSuperclass()) {
+            Collections.addAll(interfaces, cls.getInterfaces());
+        }
+
+        while (!interfaces.isEmpty()) {
+            Class<?> iface = interfaces.poll();
+            if (!visited.add(iface)) {
+                continue;
+            }
+
+            Marshaller<?> marshaller = this.types.get(iface);
+            if (marshaller != null) {
+                return marshaller;
+            }
+
+            Collections.addAll(interfaces, iface.getInterfaces());
+        }
+
+        for (MarshallerFactory factory : this.factories) {
+            Marshaller<?> marshaller = factory.create(type, this);
+            if (marshaller != null) {
+                return marshaller;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public void init(CalamityBuf buf) {
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return this.threadSafe;
+    }
+
+    @Override
+    public void free() {
+    }
+
+    @Override
+    public <T> Marshaller<T> resolveType(Class<T> cls) {
+        return (Marshaller<T>) this.resolved.get(cls);
+    }
+
+    @Override
+    public <T, M extends Marshaller<T>> M resolveMarshal(Class<M> cls) {
+        return (M) this.marshallers.get(cls);
+    }
+
+    @Override
+    public Marshaller<byte[]> defaultMarshaller() {
+        return this.defaultMarshaller;
+    }
+
+    /**
+     * A builder used to register marshallers for a new
+     * {@link RegistryMarshallingResolver}.
+     */
+    public static final class Builder {
+        /**
+         * The marshallers registered for each type
+         */
+        private final Map<Class<?>, Marshaller<?>> types = new HashMap<>();
+        /**
+         * The marshallers registered without a type, by
+         * implementing class
+         */
+        private final Map<Class<?>, Marshaller<?>> marshallers = new HashMap<>();
+        /**
+         * The factories used to create missing marshallers
+         */
+        private final List<MarshallerFactory> factories = new ArrayList<>();
+        /**
+         * The marshaller used for the raw byte arrays of the
+         * buffer
+         */
+        private final Marshaller<byte[]> defaultMarshaller = new DefaultMarshaller();
+
+        /**
+         * Disables instantiation, use
+         * {@link RegistryMarshallingResolver#newBuilder()}
+         * instead.
+         */
+        private Builder() {
+        }
+
+        /**
+         * Registers the given marshaller for the given type
+         * and any of its subtypes which do not have a
+         * marshaller registered for them, replacing any
+         * marshaller previously registered for the type.
+         *
+         * @param type the type to register
+         * @param marshaller the marshaller for the type
+         * @param <T> the marshalled type
+         * @return the current instance of the builder
+         */
+        public <T> Builder register(Class<T> type, Marshaller<T> marshaller) {
+            this.types.put(type, Objects.requireNonNull(marshaller, "marshaller"));
+            return this;
+        }
+
+        /**
+         * Registers the given marshaller so that it may only
+         * be resolved by its implementing class, e.g. for
+         * alternate encodings of a type that already has a
+         * marshaller registered for it.
+         *
+         * @param marshaller the marshaller to register
+         * @return the current instance of the builder
+         */
+        public Builder register(Marshaller<?> marshaller) {
+            this.marshallers.put(marshaller.getClass(), marshaller);
+            return this;
+        }
+
+        /**
+         * Adds a factory used to create marshallers for types
+         * which have no marshaller registered for them or
+         * their supertypes. Factories are consulted in the
+         * order that they were added.
+         *
+         * @param factory the factory to add
+         * @return the current instance of the builder
+         */
+        public Builder factory(MarshallerFactory factory) {
+            this.factories.add(Objects.requireNonNull(factory, "factory"));
+            return this;
+        }
+
+        /**
+         * Registers every marshaller generated for classes
+         * annotated with {@link Marshalled} which is visible
+         * to the context class loader of the current thread.
+         *
+         * @return the current instance of the builder
+         */
+        public Builder registerGenerated() {
+            return this.registerGenerated(Thread.currentThread().getContextClassLoader());
+        }
+
+        /**
+         * Registers every marshaller generated for classes
+         * annotated with {@link Marshalled} which is visible
+         * to the given class loader.
+         *
+         * @param loader the class loader used to find the
+         * generated marshallers
+         * @return the current instance of the builder
+         */
+        public Builder registerGenerated(ClassLoader loader) {
+            for (GeneratedMarshaller<?> marshaller : ServiceLoader.load(GeneratedMarshaller.class, loader)) {
+                this.registerGenerated(marshaller);
+            }
+
+            return this;
+        }
+
+        /**
+         * Registers the given generated marshaller for the
+         * type that it was generated for.
+         *
+         * @param marshaller the marshaller to register
+         * @param <T> the marshalled type
+         */
+        private <T> void registerGenerated(GeneratedMarshaller<T> marshaller) {
+            this.register(marshaller.type(), marshaller);
+        }
+
+        /**
+         * Registers the built-in marshallers for primitives,
+         * their boxed types, arrays of primitives and
+         * character sequences, which are encoded in UTF-8.
+         * Byte arrays are preceded by their length, unlike
+         * the raw byte arrays of the buffer.
+         *
+         * <p>The varint and ZigZag marshallers are also
+         * registered, but may only be resolved by their
+         * implementing classes.</p>
+         *
+         * @return the current instance of the builder
+         */
+        public Builder registerDefaults() {
+            IntMarshaller intMarshaller = new IntMarshaller();
+            this.register(int.class, intMarshaller);
+            this.register(Integer.class, intMarshaller);
+
+            LongMarshaller longMarshaller = new LongMarshaller();
+            this.register(long.class, longMarshaller);
+            this.register(Long.class, longMarshaller);
+
+            DoubleMarshaller doubleMarshaller = new DoubleMarshaller();
+            this.register(double.class, doubleMarshaller);
+            this.register(Double.class, doubleMarshaller);
+
+            BooleanMarshaller booleanMarshaller = new BooleanMarshaller();
+            this.register(boolean.class, booleanMarshaller);
+            this.register(Boolean.class, booleanMarshaller);
+
+            CharMarshaller charMarshaller = new CharMarshaller();
+            this.register(char.class, charMarshaller);
+            this.register(Character.class, charMarshaller);
+
+            this.register(int[].class, new IntArrayMarshaller());
+            this.register(long[].class, new LongArrayMarshaller());
+            this.register(float[].class, new FloatArrayMarshaller());
+            this.register(double[].class, new DoubleArrayMarshaller());
+            this.register(short[].class, new ShortArrayMarshaller());
+            this.register(char[].class, new CharArrayMarshaller());
+            this.register(byte[].class, new ByteArrayMarshaller());
+
+            this.register(CharSequence.class, StringMarshaller.UTF_8);
+
+            this.register(new VarIntMarshaller());
+            this.register(new VarLongMarshaller());
+            this.register(new ZigZagIntMarshaller());
+            this.register(new ZigZagLongMarshaller());
+
+            return this;
+        }
+
+        /**
+         * Builds the resolver with the marshallers
+         * registered so far.
+         *
+         * @return the new resolver
+         */
+        public RegistryMarshallingResolver build() {
+            return new RegistryMarshallingResolver(this);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Marshals {@code short} arrays using a
+ * {@link java.nio.ShortBuffer} view of the buffer's bytes.
+ *
+ * @author caojohnny
+ */
+public class ShortArrayMarshaller extends PrimitiveArrayMarshaller<short[]> {
+    /**
+     * Creates a new marshaller for {@code short} arrays.
+     */
+    public ShortArrayMarshaller() {
+        super(Short.BYTES);
+    }
+
+    @Override
+    protected int length(short[] array) {
+        return array.length;
+    }
+
+    @Override
+    protected short[] newArray(int length) {
+        return new short[length];
+    }
+
+    @Override
+    protected void put(ByteBuffer bytes, short[] from, int fromIndex, int length) {
+        bytes.asShortBuffer().put(from, fromIndex, length);
+    }
+
+    @Override
+    protected void get(ByteBuffer bytes, short[] to, int toIndex, int length) {
+        bytes.asShortBuffer().get(to, toIndex, length);
+    }
+}
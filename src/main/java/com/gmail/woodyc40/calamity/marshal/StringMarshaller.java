@@ -0,0 +1,255 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.bytes.ByteStore;
+import com.gmail.woodyc40.calamity.util.Bytes;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Marshals character sequences as an int holding the
+ * number of encoded bytes, followed by the characters
+ * encoded in either UTF-8 or Latin-1.
+ *
+ * <p>Characters are encoded directly into the buffer's
+ * byte store without an intermediate array, and the
+ * encoded length is computed beforehand so that the buffer
+ * is only resized once. Characters which cannot be
+ * encoded, i.e. unpaired surrogates in UTF-8 and
+ * characters above {@code 0xFF} in Latin-1, are replaced
+ * with {@code '?'}, in the same manner as
+ * {@link String#getBytes(java.nio.charset.Charset)}.</p>
+ *
+ * <p>Sequences are always read back as {@link String}s,
+ * which are decoded directly from the store's raw array
+ * when it is available.</p>
+ *
+ * @author caojohnny
+ */
+public class StringMarshaller extends ValueMarshaller<CharSequence> {
+    /**
+     * The marshaller which encodes sequences in UTF-8
+     */
+    public static final StringMarshaller UTF_8 = new StringMarshaller(false);
+    /**
+     * The marshaller which encodes sequences in Latin-1
+     */
+    public static final StringMarshaller LATIN_1 = new StringMarshaller(true);
+
+    /**
+     * The number of bytes occupied by the length prefix
+     */
+    private static final int PREFIX = 4;
+
+    /**
+     * Whether or not sequences are encoded in Latin-1
+     * instead of UTF-8
+     */
+    private final boolean latin1;
+
+    /**
+     * Creates a new string marshaller.
+     *
+     * @param latin1 {@code true} to encode in Latin-1,
+     * {@code false} to encode in UTF-8
+     */
+    private StringMarshaller(boolean latin1) {
+        this.latin1 = latin1;
+    }
+
+    /**
+     * Computes the number of bytes needed to encode the
+     * given range of characters in UTF-8.
+     *
+     * @param seq the characters to encode
+     * @param fromIndex the first character to encode
+     * @param toIndex the index after the last character to
+     * encode
+     * @return the encoded length
+     */
+    public static int utf8Length(CharSequence seq, int fromIndex, int toIndex) {
+        int length = toIndex - fromIndex;
+        for (int i = fromIndex; i < toIndex; i++) {
+            char c = seq.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+
+            if (c < 0x800) {
+                length += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < toIndex &&
+                    Character.isLowSurrogate(seq.charAt(i + 1))) {
+                length += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                length += 2;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Determines whether the given bytes are all ASCII
+     * characters.
+     *
+     * @param array the array holding the bytes
+     * @param offset the index of the first byte
+     * @param length the number of bytes
+     * @return {@code true} if no byte has its high bit set
+     */
+    private static boolean isAscii(byte[] array, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            if (array[i] < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Writes a single encoded byte into the raw array if
+     * there is one, or into the store if there is not.
+     *
+     * @param store the store to write into
+     * @param array the raw array of the store, or
+     * {@code null}
+     * @param idx the index to write
+     * @param b the byte to write
+     */
+    private static void put(ByteStore store, byte[] array, int idx, int b) {
+        if (array != null) {
+            array[idx] = (byte) b;
+        } else {
+            store.write(idx, (byte) b);
+        }
+    }
+
+    /**
+     * Encodes characters which each occupy a single byte,
+     * replacing those above the given maximum.
+     *
+     * @param store the store to write into
+     * @param array the raw array of the store, or
+     * {@code null}
+     * @param idx the index at which to begin writing
+     * @param seq the characters to encode
+     * @param fromIndex the first character to encode
+     * @param toIndex the index after the last character to
+     * encode
+     * @param max the highest character which can be
+     * encoded
+     */
+    private static void encodeNarrow(ByteStore store, byte[] array, int idx,
+                                     CharSequence seq, int fromIndex, int toIndex, int max) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            char c = seq.charAt(i);
+            put(store, array, idx++, c <= max ? c : '?');
+        }
+    }
+
+    /**
+     * Encodes characters in UTF-8.
+     *
+     * @param store the store to write into
+     * @param array the raw array of the store, or
+     * {@code null}
+     * @param idx the index at which to begin writing
+     * @param seq the characters to encode
+     * @param fromIndex the first character to encode
+     * @param toIndex the index after the last character to
+     * encode
+     */
+    private static void encodeUtf8(ByteStore store, byte[] array, int idx,
+                                   CharSequence seq, int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            char c = seq.charAt(i);
+            if (c < 0x80) {
+                put(store, array, idx++, c);
+            } else if (c < 0x800) {
+                put(store, array, idx++, 0xC0 | c >> 6);
+                put(store, array, idx++, 0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < toIndex &&
+                    Character.isLowSurrogate(seq.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, seq.charAt(++i));
+                put(store, array, idx++, 0xF0 | cp >> 18);
+                put(store, array, idx++, 0x80 | cp >> 12 & 0x3F);
+                put(store, array, idx++, 0x80 | cp >> 6 & 0x3F);
+                put(store, array, idx++, 0x80 | cp & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                put(store, array, idx++, '?');
+            } else {
+                put(store, array, idx++, 0xE0 | c >> 12);
+                put(store, array, idx++, 0x80 | c >> 6 & 0x3F);
+                put(store, array, idx++, 0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    @Override
+    public int sizeOf(CharSequence obj) {
+        return PREFIX + (this.latin1 ? obj.length() : utf8Length(obj, 0, obj.length()));
+    }
+
+    @Override
+    public int write(StrippedCalamityBuf buf, int toIndex, CharSequence from) {
+        return this.write(buf, toIndex, from, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int write(StrippedCalamityBuf buf, int toIndex, CharSequence from, int fromIndex, int length) {
+        int end = fromIndex + Math.min(from.length() - fromIndex, length);
+        int chars = end - fromIndex;
+        int size = this.latin1 ? chars : utf8Length(from, fromIndex, end);
+        buf.resizer().resize(buf, toIndex, PREFIX + size);
+
+        ByteStore store = buf.byteStore();
+        Bytes.putInt(store, toIndex, size);
+
+        int dataIndex = toIndex + PREFIX;
+        byte[] array = store.isArrayRaw() ? store.array() : null;
+        if (this.latin1) {
+            encodeNarrow(store, array, dataIndex, from, fromIndex, end, 0xFF);
+        } else if (size == chars) {
+            encodeNarrow(store, array, dataIndex, from, fromIndex, end, 0x7F);
+        } else {
+            encodeUtf8(store, array, dataIndex, from, fromIndex, end);
+        }
+
+        buf.idx(WRITER, dataIndex + size);
+        return PREFIX + size;
+    }
+
+    @Override
+    public String read(StrippedCalamityBuf buf, int fromIndex) {
+        ByteStore store = buf.byteStore();
+        int size = Bytes.getInt(store, fromIndex);
+        int dataIndex = fromIndex + PREFIX;
+        if (size < 0 || size > store.length() - dataIndex) {
+            throw new IllegalStateException(String.format(
+                    "Invalid string length %d at index %d", size, fromIndex));
+        }
+
+        byte[] array;
+        int offset;
+        if (store.isArrayRaw()) {
+            array = store.array();
+            offset = dataIndex;
+        } else {
+            array = new byte[size];
+            offset = 0;
+            store.read(0, array, dataIndex, size);
+        }
+
+        String string = this.latin1 || isAscii(array, offset, size) ?
+                new String(array, offset, size, StandardCharsets.ISO_8859_1) :
+                new String(array, offset, size, StandardCharsets.UTF_8);
+        buf.idx(READER, dataIndex + size);
+
+        return string;
+    }
+}
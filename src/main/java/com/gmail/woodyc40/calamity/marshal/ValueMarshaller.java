@@ -0,0 +1,49 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+
+/**
+ * The base class of stateless marshallers for immutable
+ * values, such as boxed primitives.
+ *
+ * <p>Values are always written in their entirety, so the
+ * {@code fromIndex} and {@code length} passed to
+ * {@link #write(StrippedCalamityBuf, int, Object, int, int)}
+ * are ignored. As immutable values cannot be marshalled
+ * into, they must be read using
+ * {@link #read(StrippedCalamityBuf, int)}.</p>
+ *
+ * @param <T> the type that is marshalled
+ * @author caojohnny
+ */
+public abstract class ValueMarshaller<T> implements Marshaller<T> {
+    @Override
+    public int write(StrippedCalamityBuf buf, int toIndex, T from, int fromIndex, int length) {
+        return this.write(buf, toIndex, from);
+    }
+
+    @Override
+    public abstract int write(StrippedCalamityBuf buf, int toIndex, T from);
+
+    @Override
+    public int read(StrippedCalamityBuf buf, int toIndex, T to, int fromIndex, int length) {
+        throw new UnsupportedOperationException(this.getClass().getName() + " cannot read into immutable values");
+    }
+
+    @Override
+    public abstract T read(StrippedCalamityBuf buf, int fromIndex);
+
+    @Override
+    public void init(CalamityBuf buf) {
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public void free() {
+    }
+}
@@ -0,0 +1,126 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+
+/**
+ * Marshals {@code int} values, boxed or not, as unsigned
+ * LEB128 varints occupying between 1 and 5 bytes.
+ *
+ * <p>Small non-negative values are the most compact, while
+ * negative values always occupy 5 bytes. Values which are
+ * likely to be negative should be marshalled using
+ * {@link ZigZagIntMarshaller} instead.</p>
+ *
+ * @author caojohnny
+ */
+public class VarIntMarshaller extends ValueMarshaller<Integer> {
+    /**
+     * The largest number of bytes occupied by a value
+     */
+    public static final int MAX_SIZE = 5;
+
+    /**
+     * Converts the given value into the unsigned value that
+     * is encoded.
+     *
+     * @param value the value to marshal
+     * @return the unsigned value to encode
+     */
+    protected int encode(int value) {
+        return value;
+    }
+
+    /**
+     * Converts a decoded unsigned value back into the value
+     * that was marshalled.
+     *
+     * @param value the decoded value
+     * @return the marshalled value
+     */
+    protected int decode(int value) {
+        return value;
+    }
+
+    /**
+     * Computes the number of bytes that the given value
+     * will occupy once marshalled.
+     *
+     * @param value the value to marshal
+     * @return the marshalled length
+     */
+    public int size(int value) {
+        return VarInts.size(this.encode(value) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Writes the given value into the buffer without
+     * boxing it.
+     *
+     * @param buf the buffer which to write into
+     * @param toIndex the index at which to begin writing
+     * @param value the value to write
+     * @return the number of bytes written
+     */
+    public int writeInt(StrippedCalamityBuf buf, int toIndex, int value) {
+        return VarInts.write(buf, toIndex, this.encode(value) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Reads a value from the buffer without boxing it.
+     *
+     * @param buf the buffer which to read from
+     * @param fromIndex the index at which to begin reading
+     * @return the value that was read
+     * @throws IllegalStateException if the bytes do not
+     * hold a valid varint
+     */
+    public int readInt(StrippedCalamityBuf buf, int fromIndex) {
+        return this.decode((int) VarInts.read(buf, fromIndex, MAX_SIZE));
+    }
+
+    /**
+     * Writes the given non-negative value over exactly
+     * {@code width} bytes which have already been written,
+     * without resizing the buffer or moving its indexes.
+     *
+     * <p>The value is padded using continuation bytes, and
+     * is read back normally using {@link #readInt}. This
+     * allows a length to be filled in once it is known
+     * into space reserved before the data it describes.</p>
+     *
+     * @param buf the buffer which to write into
+     * @param toIndex the index at which to begin writing
+     * @param width the number of bytes to occupy, between
+     * {@code 1} and {@link #MAX_SIZE}
+     * @param value the value to write
+     * @throws IllegalArgumentException if the value does
+     * not fit into the given width
+     */
+    public static void writePadded(StrippedCalamityBuf buf, int toIndex, int width, int value) {
+        if (width < 1 || width > MAX_SIZE) {
+            throw new IllegalArgumentException("Invalid varint width: " + width);
+        }
+
+        long unsigned = value & 0xFFFFFFFFL;
+        if (VarInts.size(unsigned) > width) {
+            throw new IllegalArgumentException(String.format("Value %d does not fit into %d bytes", value, width));
+        }
+
+        VarInts.writePadded(buf.byteStore(), toIndex, width, unsigned);
+    }
+
+    @Override
+    public int sizeOf(Integer obj) {
+        return this.size(obj);
+    }
+
+    @Override
+    public int write(StrippedCalamityBuf buf, int toIndex, Integer from) {
+        return this.writeInt(buf, toIndex, from);
+    }
+
+    @Override
+    public Integer read(StrippedCalamityBuf buf, int fromIndex) {
+        return this.readInt(buf, fromIndex);
+    }
+}
@@ -0,0 +1,190 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.bytes.ByteStore;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Encoding and decoding functions shared by the LEB128
+ * varint marshallers.
+ *
+ * <p>Varints are decoded by reading 8 bytes at a time as a
+ * little-endian long, locating the terminating byte using
+ * the high bits of the word and compacting the 7-bit
+ * groups together without branching per byte.</p>
+ *
+ * @author caojohnny
+ */
+final class VarInts {
+    /**
+     * The continuation bits of each byte in a word
+     */
+    private static final long CONTINUATION_BITS = 0x8080808080808080L;
+
+    /**
+     * Construction disabled.
+     */
+    private VarInts() {
+    }
+
+    /**
+     * Computes the number of bytes needed to encode the
+     * given unsigned value.
+     *
+     * @param value the value to encode
+     * @return the encoded length
+     */
+    static int size(long value) {
+        int bits = Long.SIZE - Long.numberOfLeadingZeros(value);
+        return bits == 0 ? 1 : (bits + 6) / 7;
+    }
+
+    /**
+     * Encodes the given unsigned value into the buffer,
+     * resizing it once beforehand.
+     *
+     * @param buf the buffer which to write into
+     * @param toIndex the index at which to begin writing
+     * @param value the value to write
+     * @return the number of bytes written
+     */
+    static int write(StrippedCalamityBuf buf, int toIndex, long value) {
+        int size = size(value);
+        buf.resizer().resize(buf, toIndex, size);
+
+        ByteStore store = buf.byteStore();
+        int last = toIndex + size - 1;
+        if (store.isArrayRaw()) {
+            byte[] array = store.array();
+            for (int i = toIndex; i < last; i++) {
+                array[i] = (byte) (value | 0x80);
+                value >>>= 7;
+            }
+
+            array[last] = (byte) value;
+        } else {
+            for (int i = toIndex; i < last; i++) {
+                store.write(i, (byte) (value | 0x80));
+                value >>>= 7;
+            }
+
+            store.write(last, (byte) value);
+        }
+
+        buf.idx(WRITER, last + 1);
+        return size;
+    }
+
+    /**
+     * Encodes the given unsigned value into exactly the
+     * given number of bytes, padding it with continuation
+     * bytes, without resizing the buffer or moving its
+     * indexes.
+     *
+     * @param store the store which to write into
+     * @param toIndex the index at which to begin writing
+     * @param width the number of bytes to occupy
+     * @param value the value to write
+     */
+    static void writePadded(ByteStore store, int toIndex, int width, long value) {
+        int last = toIndex + width - 1;
+        for (int i = toIndex; i < last; i++) {
+            store.write(i, (byte) (value | 0x80));
+            value >>>= 7;
+        }
+
+        store.write(last, (byte) value);
+    }
+
+    /**
+     * Decodes an unsigned value from the buffer, moving its
+     * reader index past the encoded bytes.
+     *
+     * @param buf the buffer which to read from
+     * @param fromIndex the index at which to begin reading
+     * @param maxSize the largest number of bytes which the
+     * value may occupy
+     * @return the value that was read
+     * @throws IllegalStateException if the bytes do not
+     * hold a valid varint
+     */
+    static long read(StrippedCalamityBuf buf, int fromIndex, int maxSize) {
+        ByteStore store = buf.byteStore();
+        if (store.isArrayRaw()) {
+            byte[] array = store.array();
+            if (fromIndex + Long.BYTES <= array.length) {
+                long word = getLongLE(array, fromIndex);
+                long stops = ~word & CONTINUATION_BITS;
+                if (stops != 0) {
+                    int size = (Long.numberOfTrailingZeros(stops) + 1) >>> 3;
+                    if (size > maxSize) {
+                        throw malformed(fromIndex);
+                    }
+
+                    long lowest = stops & -stops;
+                    buf.idx(READER, fromIndex + size);
+                    return compact(word & (lowest << 1) - 1);
+                }
+            }
+        }
+
+        int limit = Math.min(maxSize, store.length() - fromIndex);
+        long value = 0;
+        for (int i = 0; i < limit; i++) {
+            byte b = store.read(fromIndex + i);
+            value |= (long) (b & 0x7F) << 7 * i;
+            if (b >= 0) {
+                buf.idx(READER, fromIndex + i + 1);
+                return value;
+            }
+        }
+
+        throw malformed(fromIndex);
+    }
+
+    /**
+     * Reads 8 bytes from the given array in little-endian
+     * order.
+     *
+     * @param array the array to read from
+     * @param idx the index of the first byte
+     * @return the word that was read
+     */
+    private static long getLongLE(byte[] array, int idx) {
+        return array[idx] & 0xFFL |
+                (array[idx + 1] & 0xFFL) << 8 |
+                (array[idx + 2] & 0xFFL) << 16 |
+                (array[idx + 3] & 0xFFL) << 24 |
+                (array[idx + 4] & 0xFFL) << 32 |
+                (array[idx + 5] & 0xFFL) << 40 |
+                (array[idx + 6] & 0xFFL) << 48 |
+                (array[idx + 7] & 0xFFL) << 56;
+    }
+
+    /**
+     * Packs the 7-bit groups held in each byte of the given
+     * word into a single value.
+     *
+     * @param word the little-endian groups
+     * @return the packed value
+     */
+    private static long compact(long word) {
+        word &= 0x7F7F7F7F7F7F7F7FL;
+        word = word & 0x007F007F007F007FL | (word & 0x7F007F007F007F00L) >>> 1;
+        word = word & 0x00003FFF00003FFFL | (word & 0x3FFF00003FFF0000L) >>> 2;
+        return word & 0x000000000FFFFFFFL | (word & 0x0FFFFFFF00000000L) >>> 4;
+    }
+
+    /**
+     * Creates the exception thrown when a varint cannot be
+     * decoded.
+     *
+     * @param fromIndex the index of the varint
+     * @return the exception
+     */
+    private static IllegalStateException malformed(int fromIndex) {
+        return new IllegalStateException("Malformed varint at index " + fromIndex);
+    }
+}
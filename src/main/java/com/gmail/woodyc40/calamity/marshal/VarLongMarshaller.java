@@ -0,0 +1,95 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+
+/**
+ * Marshals {@code long} values, boxed or not, as unsigned
+ * LEB128 varints occupying between 1 and 10 bytes.
+ *
+ * <p>Small non-negative values are the most compact, while
+ * negative values always occupy 10 bytes. Values which are
+ * likely to be negative should be marshalled using
+ * {@link ZigZagLongMarshaller} instead.</p>
+ *
+ * @author caojohnny
+ */
+public class VarLongMarshaller extends ValueMarshaller<Long> {
+    /**
+     * The largest number of bytes occupied by a value
+     */
+    public static final int MAX_SIZE = 10;
+
+    /**
+     * Converts the given value into the unsigned value that
+     * is encoded.
+     *
+     * @param value the value to marshal
+     * @return the unsigned value to encode
+     */
+    protected long encode(long value) {
+        return value;
+    }
+
+    /**
+     * Converts a decoded unsigned value back into the value
+     * that was marshalled.
+     *
+     * @param value the decoded value
+     * @return the marshalled value
+     */
+    protected long decode(long value) {
+        return value;
+    }
+
+    /**
+     * Computes the number of bytes that the given value
+     * will occupy once marshalled.
+     *
+     * @param value the value to marshal
+     * @return the marshalled length
+     */
+    public int size(long value) {
+        return VarInts.size(this.encode(value));
+    }
+
+    /**
+     * Writes the given value into the buffer without
+     * boxing it.
+     *
+     * @param buf the buffer which to write into
+     * @param toIndex the index at which to begin writing
+     * @param value the value to write
+     * @return the number of bytes written
+     */
+    public int writeLong(StrippedCalamityBuf buf, int toIndex, long value) {
+        return VarInts.write(buf, toIndex, this.encode(value));
+    }
+
+    /**
+     * Reads a value from the buffer without boxing it.
+     *
+     * @param buf the buffer which to read from
+     * @param fromIndex the index at which to begin reading
+     * @return the value that was read
+     * @throws IllegalStateException if the bytes do not
+     * hold a valid varint
+     */
+    public long readLong(StrippedCalamityBuf buf, int fromIndex) {
+        return this.decode(VarInts.read(buf, fromIndex, MAX_SIZE));
+    }
+
+    @Override
+    public int sizeOf(Long obj) {
+        return this.size(obj);
+    }
+
+    @Override
+    public int write(StrippedCalamityBuf buf, int toIndex, Long from) {
+        return this.writeLong(buf, toIndex, from);
+    }
+
+    @Override
+    public Long read(StrippedCalamityBuf buf, int fromIndex) {
+        return this.readLong(buf, fromIndex);
+    }
+}
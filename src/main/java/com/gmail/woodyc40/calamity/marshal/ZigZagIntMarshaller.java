@@ -0,0 +1,20 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+/**
+ * Marshals {@code int} values, boxed or not, as ZigZag
+ * encoded varints, such that values of a small magnitude
+ * are compact regardless of their sign.
+ *
+ * @author caojohnny
+ */
+public class ZigZagIntMarshaller extends VarIntMarshaller {
+    @Override
+    protected int encode(int value) {
+        return value << 1 ^ value >> 31;
+    }
+
+    @Override
+    protected int decode(int value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+}
@@ -0,0 +1,20 @@
+package com.gmail.woodyc40.calamity.marshal;
+
+/**
+ * Marshals {@code long} values, boxed or not, as ZigZag
+ * encoded varints, such that values of a small magnitude
+ * are compact regardless of their sign.
+ *
+ * @author caojohnny
+ */
+public class ZigZagLongMarshaller extends VarLongMarshaller {
+    @Override
+    protected long encode(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    @Override
+    protected long decode(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+}
@@ -0,0 +1,683 @@
+package com.gmail.woodyc40.calamity.marshal.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates a {@code GeneratedMarshaller} for every class
+ * annotated with {@code Marshalled}, along with the service
+ * file listing the generated marshallers.
+ *
+ * <p>The generated code accesses fields, getters, setters
+ * and constructors directly, so no reflection is performed
+ * at runtime.</p>
+ *
+ * @author caojohnny
+ */
+@SupportedAnnotationTypes(MarshalledProcessor.ANNOTATION)
+public class MarshalledProcessor extends AbstractProcessor {
+    /**
+     * The name of the annotation which is processed
+     */
+    static final String ANNOTATION = "com.gmail.woodyc40.calamity.marshal.Marshalled";
+    /**
+     * The name of the base class of generated marshallers
+     */
+    private static final String BASE = "com.gmail.woodyc40.calamity.marshal.GeneratedMarshaller";
+    /**
+     * The path of the service file listing the generated
+     * marshallers
+     */
+    private static final String SERVICE_FILE = "META-INF/services/" + BASE;
+
+    /**
+     * The names of the marshallers generated so far
+     */
+    private final Set<String> generated = new TreeSet<>();
+
+    /**
+     * The element utilities of the environment
+     */
+    private Elements elements;
+    /**
+     * The type utilities of the environment
+     */
+    private Types types;
+    /**
+     * The filer used to write generated files
+     */
+    private Filer filer;
+    /**
+     * The messager used to report errors
+     */
+    private Messager messager;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment env) {
+        super.init(env);
+        this.elements = env.getElementUtils();
+        this.types = env.getTypeUtils();
+        this.filer = env.getFiler();
+        this.messager = env.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        if (round.processingOver()) {
+            this.writeServiceFile();
+            return false;
+        }
+
+        TypeElement annotation = this.elements.getTypeElement(ANNOTATION);
+        if (annotation == null) {
+            return false;
+        }
+
+        for (Element element : round.getElementsAnnotatedWith(annotation)) {
+            try {
+                this.generate(element);
+            } catch (InvalidTypeException e) {
+                this.messager.printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.element);
+            } catch (IOException e) {
+                this.messager.printMessage(Diagnostic.Kind.ERROR,
+                        "Failed to write marshaller: " + e.getMessage(), element);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Generates the marshaller of the given annotated
+     * element.
+     *
+     * @param element the annotated element
+     * @throws InvalidTypeException if the element cannot be
+     * marshalled
+     * @throws IOException if the marshaller could not be
+     * written
+     */
+    private void generate(Element element) throws InvalidTypeException, IOException {
+        if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new InvalidTypeException(element, "@Marshalled may only be applied to concrete classes");
+        }
+
+        TypeElement type = (TypeElement) element;
+        for (Element e = type; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE) ||
+                    e != type && e.getKind().isClass() && !type.getModifiers().contains(Modifier.STATIC)) {
+                throw new InvalidTypeException(element, "@Marshalled classes must be accessible from their " +
+                        "package and must not be inner classes");
+            }
+        }
+
+        PackageElement pkg = this.elements.getPackageOf(type);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String simpleName = marshallerName(type);
+
+        List<FieldInfo> fields = this.fields(type, pkg);
+        ExecutableElement constructor = this.constructor(type, pkg, fields);
+
+        String source = this.source(type, packageName, simpleName, fields, constructor);
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + '.' + simpleName;
+        try (Writer writer = this.filer.createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source);
+        }
+
+        this.generated.add(qualifiedName);
+    }
+
+    /**
+     * Obtains the simple name of the marshaller generated
+     * for the given type, which includes the names of its
+     * enclosing classes.
+     *
+     * @param type the marshalled type
+     * @return the name of the marshaller
+     */
+    private static String marshallerName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element e = type.getEnclosingElement(); e.getKind() != ElementKind.PACKAGE;
+             e = e.getEnclosingElement()) {
+            name.insert(0, '_').insert(0, e.getSimpleName());
+        }
+
+        return name.append("Marshaller").toString();
+    }
+
+    /**
+     * Determines whether the given member may be accessed
+     * by a class in the given package.
+     *
+     * @param member the member
+     * @param pkg the package of the generated marshaller
+     * @return {@code true} if the member is accessible
+     */
+    private boolean isAccessible(Element member, PackageElement pkg) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+
+        return !modifiers.contains(Modifier.PRIVATE) && this.elements.getPackageOf(member).equals(pkg);
+    }
+
+    /**
+     * Collects the marshalled fields of the given type, in
+     * declaration order beginning with the fields of its
+     * superclasses.
+     *
+     * @param type the marshalled type
+     * @param pkg the package of the generated marshaller
+     * @return the fields
+     * @throws InvalidTypeException if a field cannot be
+     * read
+     */
+    private List<FieldInfo> fields(TypeElement type, PackageElement pkg) throws InvalidTypeException {
+        List<TypeElement> hierarchy = new ArrayList<>();
+        for (TypeElement cls = type; cls != null; cls = this.superclass(cls)) {
+            hierarchy.add(cls);
+        }
+
+        Collections.reverse(hierarchy);
+
+        List<ExecutableElement> methods = ElementFilter.methodsIn(this.elements.getAllMembers(type));
+        List<FieldInfo> fields = new ArrayList<>();
+        for (TypeElement cls : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(cls.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+
+                fields.add(this.field(field, methods, pkg));
+            }
+        }
+
+        return fields;
+    }
+
+    /**
+     * Obtains the superclass of the given type.
+     *
+     * @param type the type
+     * @return the superclass, or {@code null} if it is
+     * {@link Object}
+     */
+    private TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+    }
+
+    /**
+     * Determines how the given field is accessed.
+     *
+     * @param field the field
+     * @param methods the methods of the marshalled type
+     * @param pkg the package of the generated marshaller
+     * @return the field information
+     * @throws InvalidTypeException if the field cannot be
+     * read
+     */
+    private FieldInfo field(VariableElement field, List<ExecutableElement> methods, PackageElement pkg)
+            throws InvalidTypeException {
+        String name = field.getSimpleName().toString();
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        TypeMirror type = field.asType();
+        boolean accessible = this.isAccessible(field, pkg);
+
+        String getter = accessible ? name : null;
+        String setter = accessible && !field.getModifiers().contains(Modifier.FINAL) ? name + " = %s" : null;
+        for (ExecutableElement method : methods) {
+            if (!this.isAccessible(method, pkg) || method.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+
+            String methodName = method.getSimpleName().toString();
+            List<? extends VariableElement> params = method.getParameters();
+            if (getter == null && params.isEmpty() && this.types.isSameType(method.getReturnType(), type) &&
+                    (methodName.equals("get" + capitalized) || methodName.equals("is" + capitalized) ||
+                            methodName.equals(name))) {
+                getter = methodName + "()";
+            } else if (setter == null && params.size() == 1 && methodName.equals("set" + capitalized) &&
+                    this.types.isSameType(params.get(0).asType(), type)) {
+                setter = methodName + "(%s)";
+            }
+        }
+
+        if (getter == null) {
+            throw new InvalidTypeException(field, "Field " + name + " is not accessible and has no getter");
+        }
+
+        return new FieldInfo(type, this.types.erasure(type).toString(), getter, setter);
+    }
+
+    /**
+     * Finds the constructor taking every field, if objects
+     * cannot be created with the no-arg constructor.
+     *
+     * @param type the marshalled type
+     * @param pkg the package of the generated marshaller
+     * @param fields the marshalled fields
+     * @return the constructor taking every field, or
+     * {@code null} if the no-arg constructor is used
+     * @throws InvalidTypeException if there is no usable
+     * constructor
+     */
+    private ExecutableElement constructor(TypeElement type, PackageElement pkg, List<FieldInfo> fields)
+            throws InvalidTypeException {
+        boolean settable = true;
+        for (FieldInfo field : fields) {
+            settable &= field.setter != null;
+        }
+
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        for (ExecutableElement constructor : constructors) {
+            if (settable && constructor.getParameters().isEmpty() && this.isAccessible(constructor, pkg)) {
+                return null;
+            }
+        }
+
+        for (ExecutableElement constructor : constructors) {
+            List<? extends VariableElement> params = constructor.getParameters();
+            if (params.size() != fields.size() || !this.isAccessible(constructor, pkg)) {
+                continue;
+            }
+
+            boolean matches = true;
+            for (int i = 0; i < params.size(); i++) {
+                matches &= this.types.isSameType(params.get(i).asType(), fields.get(i).type);
+            }
+
+            if (matches) {
+                return constructor;
+            }
+        }
+
+        throw new InvalidTypeException(type, "@Marshalled classes must have either an accessible no-arg " +
+                "constructor and writable fields, or an accessible constructor taking every field in " +
+                "declaration order");
+    }
+
+    /**
+     * Generates the source of the marshaller.
+     *
+     * @param type the marshalled type
+     * @param packageName the package of the marshaller
+     * @param simpleName the name of the marshaller
+     * @param fields the marshalled fields
+     * @param constructor the constructor taking every
+     * field, or {@code null} to use the no-arg constructor
+     * @return the source code
+     */
+    private String source(TypeElement type, String packageName, String simpleName,
+                          List<FieldInfo> fields, ExecutableElement constructor) {
+        String typeName = this.types.erasure(type.asType()).toString();
+        int[] fixedSizes = new int[fields.size() + 1];
+        for (int i = fields.size() - 1; i >= 0; i--) {
+            fixedSizes[i] = fixedSizes[i + 1] + fields.get(i).fixedSize();
+        }
+
+        StringBuilder src = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            src.append("package ").append(packageName).append(";\n\n");
+        }
+
+        src.append("import com.gmail.woodyc40.calamity.StrippedCalamityBuf;\n")
+                .append("import com.gmail.woodyc40.calamity.bytes.ByteStore;\n")
+                .append("import com.gmail.woodyc40.calamity.util.Bytes;\n\n")
+                .append("import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;\n")
+                .append("import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;\n\n")
+                .append("/**\n * Marshals {@link ").append(typeName).append("}, generated from its fields.\n")
+                .append(" * Do not edit.\n */\n")
+                .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("public final class ").append(simpleName).append(" extends ").append(BASE)
+                .append('<').append(typeName).append("> {\n");
+
+        src.append("    @Override\n")
+                .append("    public Class<").append(typeName).append("> type() {\n")
+                .append("        return ").append(typeName).append(".class;\n")
+                .append("    }\n\n");
+
+        boolean fixed = true;
+        for (FieldInfo field : fields) {
+            fixed &= !field.isReference();
+        }
+
+        if (fixed) {
+            src.append("    @Override\n")
+                    .append("    public int sizeOf(").append(typeName).append(" obj) {\n")
+                    .append("        return ").append(fixedSizes[0]).append(";\n")
+                    .append("    }\n\n");
+        }
+
+        src.append("    @Override\n")
+                .append("    public int write(StrippedCalamityBuf buf, int toIndex, ").append(typeName)
+                .append(" from) {\n")
+                .append("        ByteStore store = buf.byteStore();\n")
+                .append("        int idx = toIndex;\n")
+                .append("        buf.resizer().resize(buf, idx, ").append(fixedSizes[0]).append(");\n");
+        for (int i = 0; i < fields.size(); i++) {
+            FieldInfo field = fields.get(i);
+            field.appendWrite(src, "from." + field.getter);
+            if (field.isReference() && fixedSizes[i + 1] > 0) {
+                src.append("        buf.resizer().resize(buf, idx, ").append(fixedSizes[i + 1]).append(");\n");
+            }
+        }
+
+        src.append("        buf.idx(WRITER, idx);\n")
+                .append("        return idx - toIndex;\n")
+                .append("    }\n\n");
+
+        if (constructor == null) {
+            src.append("    @Override\n")
+                    .append("    public int read(StrippedCalamityBuf buf, int toIndex, ").append(typeName)
+                    .append(" to, int fromIndex, int length) {\n")
+                    .append("        ByteStore store = buf.byteStore();\n")
+                    .append("        int idx = fromIndex;\n");
+            for (int i = 0; i < fields.size(); i++) {
+                FieldInfo field = fields.get(i);
+                field.appendRead(src, "v" + i);
+                src.append("        to.").append(String.format(field.setter, "v" + i)).append(";\n");
+            }
+
+            src.append("        buf.idx(READER, idx);\n")
+                    .append("        return idx - fromIndex;\n")
+                    .append("    }\n\n");
+
+            src.append("    @Override\n")
+                    .append("    public ").append(typeName).append(" read(StrippedCalamityBuf buf, int fromIndex) {\n")
+                    .append("        ").append(typeName).append(" result = new ").append(typeName).append("();\n")
+                    .append("        this.read(buf, 0, result, fromIndex, Integer.MAX_VALUE);\n")
+                    .append("        return result;\n")
+                    .append("    }\n");
+        } else {
+            src.append("    @Override\n")
+                    .append("    public ").append(typeName).append(" read(StrippedCalamityBuf buf, int fromIndex) {\n")
+                    .append("        ByteStore store = buf.byteStore();\n")
+                    .append("        int idx = fromIndex;\n");
+            StringBuilder args = new StringBuilder();
+            for (int i = 0; i < fields.size(); i++) {
+                fields.get(i).appendRead(src, "v" + i);
+                args.append(i == 0 ? "" : ", ").append('v').append(i);
+            }
+
+            src.append("        buf.idx(READER, idx);\n")
+                    .append("        return new ").append(typeName).append('(').append(args).append(");\n")
+                    .append("    }\n");
+        }
+
+        return src.append("}\n").toString();
+    }
+
+    /**
+     * Writes the service file listing every marshaller that
+     * has been generated, including those listed by the
+     * existing file from a previous incremental build.
+     */
+    private void writeServiceFile() {
+        if (this.generated.isEmpty()) {
+            return;
+        }
+
+        Set<String> services = new TreeSet<>(this.generated);
+        try {
+            FileObject existing = this.filer.getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.trim().isEmpty()) {
+                        services.add(line.trim());
+                    }
+                }
+            }
+        } catch (IOException ignored) {
+            // No existing file
+        }
+
+        try {
+            FileObject file = this.filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Writer writer = file.openWriter()) {
+                for (String service : services) {
+                    writer.write(service);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            this.messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write " + SERVICE_FILE + ": " + e);
+        }
+    }
+
+    /**
+     * Describes how a marshalled field is accessed.
+     */
+    private static final class FieldInfo {
+        /**
+         * The type of the field
+         */
+        final TypeMirror type;
+        /**
+         * The name of the erased type of the field
+         */
+        final String typeName;
+        /**
+         * The expression which reads the field from an
+         * object
+         */
+        final String getter;
+        /**
+         * The format of the statement which writes the field
+         * into an object, or {@code null} if it cannot be
+         * written
+         */
+        final String setter;
+
+        /**
+         * Creates a new field description.
+         *
+         * @param type the type of the field
+         * @param typeName the name of the erased type
+         * @param getter the expression reading the field
+         * @param setter the format of the statement writing
+         * the field, or {@code null}
+         */
+        FieldInfo(TypeMirror type, String typeName, String getter, String setter) {
+            this.type = type;
+            this.typeName = typeName;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        /**
+         * Determines whether the field is written by
+         * another marshaller.
+         *
+         * @return {@code true} for reference fields
+         */
+        boolean isReference() {
+            return !this.type.getKind().isPrimitive();
+        }
+
+        /**
+         * Obtains the number of fixed-width bytes occupied by
+         * the field.
+         *
+         * @return the width of primitive fields, or
+         * {@code 1} for the presence byte of reference
+         * fields
+         */
+        int fixedSize() {
+            switch (this.type.getKind()) {
+                case BOOLEAN:
+                case BYTE:
+                    return 1;
+                case SHORT:
+                case CHAR:
+                    return 2;
+                case INT:
+                case FLOAT:
+                    return 4;
+                case LONG:
+                case DOUBLE:
+                    return 8;
+                default:
+                    return 1;
+            }
+        }
+
+        /**
+         * Appends the statements writing the given value of
+         * this field.
+         *
+         * @param src the source being generated
+         * @param value the expression of the value
+         */
+        void appendWrite(StringBuilder src, String value) {
+            String statement;
+            switch (this.type.getKind()) {
+                case BOOLEAN:
+                    statement = "store.write(idx, (byte) (" + value + " ? 1 : 0))";
+                    break;
+                case BYTE:
+                    statement = "store.write(idx, " + value + ")";
+                    break;
+                case SHORT:
+                    statement = "Bytes.putShort(store, idx, " + value + ")";
+                    break;
+                case CHAR:
+                    statement = "Bytes.putShort(store, idx, (short) " + value + ")";
+                    break;
+                case INT:
+                    statement = "Bytes.putInt(store, idx, " + value + ")";
+                    break;
+                case FLOAT:
+                    statement = "Bytes.putInt(store, idx, Float.floatToRawIntBits(" + value + "))";
+                    break;
+                case LONG:
+                    statement = "Bytes.putLong(store, idx, " + value + ")";
+                    break;
+                case DOUBLE:
+                    statement = "Bytes.putLong(store, idx, Double.doubleToRawLongBits(" + value + "))";
+                    break;
+                default:
+                    src.append("        idx = writeReference(buf, idx, ").append(this.typeName)
+                            .append(".class, ").append(value).append(");\n");
+                    return;
+            }
+
+            src.append("        ").append(statement).append(";\n")
+                    .append("        idx += ").append(this.fixedSize()).append(";\n");
+        }
+
+        /**
+         * Appends the statements reading this field into a
+         * new local variable.
+         *
+         * @param src the source being generated
+         * @param local the name of the local variable
+         */
+        void appendRead(StringBuilder src, String local) {
+            String expression;
+            switch (this.type.getKind()) {
+                case BOOLEAN:
+                    expression = "(store.read(idx) & 1) != 0";
+                    break;
+                case BYTE:
+                    expression = "store.read(idx)";
+                    break;
+                case SHORT:
+                    expression = "Bytes.getShort(store, idx)";
+                    break;
+                case CHAR:
+                    expression = "(char) Bytes.getShort(store, idx)";
+                    break;
+                case INT:
+                    expression = "Bytes.getInt(store, idx)";
+                    break;
+                case FLOAT:
+                    expression = "Float.intBitsToFloat(Bytes.getInt(store, idx))";
+                    break;
+                case LONG:
+                    expression = "Bytes.getLong(store, idx)";
+                    break;
+                case DOUBLE:
+                    expression = "Double.longBitsToDouble(Bytes.getLong(store, idx))";
+                    break;
+                default:
+                    src.append("        ").append(this.typeName).append(' ').append(local)
+                            .append(" = readReference(buf, idx, ").append(this.typeName).append(".class);\n")
+                            .append("        idx = buf.idx(READER);\n");
+                    return;
+            }
+
+            src.append("        ").append(this.typeName).append(' ').append(local).append(" = ")
+                    .append(expression).append(";\n")
+                    .append("        idx += ").append(this.fixedSize()).append(";\n");
+        }
+    }
+
+    /**
+     * Thrown when an annotated type cannot be marshalled.
+     */
+    private static final class InvalidTypeException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The element which caused the error
+         */
+        final transient Element element;
+
+        /**
+         * Creates a new exception.
+         *
+         * @param element the element which caused the error
+         * @param message the error message
+         */
+        InvalidTypeException(Element element, String message) {
+            super(message);
+            this.element = element;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * The annotation processor which generates marshallers for
+ * classes annotated with
+ * {@link com.gmail.woodyc40.calamity.marshal.Marshalled}.
+ *
+ * <p>The processor is registered as a service in the
+ * library's jar, so it runs automatically when the library
+ * is on the compile classpath.</p>
+ */
+package com.gmail.woodyc40.calamity.marshal.processor;
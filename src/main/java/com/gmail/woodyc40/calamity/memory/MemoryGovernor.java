@@ -0,0 +1,299 @@
+package com.gmail.woodyc40.calamity.memory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accounts for the memory held by the byte stores of all
+ * buffers that share it, enforcing a soft and a hard
+ * limit.
+ *
+ * <p>Once the memory in use reaches the soft limit, the
+ * governor is under pressure: its listeners are notified,
+ * and the future returned by {@link #relief()} will not
+ * complete until usage falls back below the soft limit.
+ * Allocations still succeed while under pressure, so that
+ * callers may apply backpressure without blocking.</p>
+ *
+ * <p>Allocations that would exceed the hard limit are
+ * refused with a {@link MemoryLimitException} before any
+ * memory is allocated.</p>
+ *
+ * <p>Buffers are not governed unless a governor is set
+ * in their options, so that unlimited buffers do not
+ * contend on the shared counter. The {@link #global()}
+ * governor may be set to account for every buffer in the
+ * process, and has no limits until they are set using
+ * {@link #limits(long, long)}.</p>
+ *
+ * @author caojohnny
+ */
+public final class MemoryGovernor {
+    /**
+     * The process-wide governor
+     */
+    private static final MemoryGovernor GLOBAL = new MemoryGovernor(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    /**
+     * The number of bytes currently in use
+     */
+    private final AtomicLong used = new AtomicLong();
+    /**
+     * The listeners notified of pressure changes
+     */
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The number of bytes at which backpressure is applied
+     */
+    private volatile long softLimit;
+    /**
+     * The number of bytes which may never be exceeded
+     */
+    private volatile long hardLimit;
+    /**
+     * Whether or not the governor is under pressure, only
+     * modified while holding the governor's lock
+     */
+    private volatile boolean underPressure;
+    /**
+     * The future completed once pressure is relieved
+     */
+    private volatile CompletableFuture<Void> relief = CompletableFuture.completedFuture(null);
+
+    /**
+     * Creates a new governor with the given limits.
+     *
+     * @param softLimit the number of bytes at which
+     * backpressure is applied
+     * @param hardLimit the number of bytes which may never
+     * be exceeded
+     */
+    public MemoryGovernor(long softLimit, long hardLimit) {
+        this.limits(softLimit, hardLimit);
+    }
+
+    /**
+     * Obtains the process-wide governor, which buffers
+     * report to when it is set in their options.
+     *
+     * @return the global governor
+     */
+    public static MemoryGovernor global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Changes the limits enforced by this governor.
+     *
+     * <p>Memory that is already in use is not affected by
+     * a decrease of the hard limit, however further
+     * allocations will be refused.</p>
+     *
+     * @param softLimit the number of bytes at which
+     * backpressure is applied
+     * @param hardLimit the number of bytes which may never
+     * be exceeded
+     */
+    public void limits(long softLimit, long hardLimit) {
+        if (softLimit < 0 || hardLimit < softLimit) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid limits (softLimit = %d, hardLimit = %d)", softLimit, hardLimit));
+        }
+
+        this.softLimit = softLimit;
+        this.hardLimit = hardLimit;
+        this.updatePressure();
+    }
+
+    /**
+     * Obtains the number of bytes at which backpressure is
+     * applied.
+     *
+     * @return the soft limit
+     */
+    public long softLimit() {
+        return this.softLimit;
+    }
+
+    /**
+     * Obtains the number of bytes which may never be
+     * exceeded.
+     *
+     * @return the hard limit
+     */
+    public long hardLimit() {
+        return this.hardLimit;
+    }
+
+    /**
+     * Obtains the number of bytes currently in use.
+     *
+     * @return the used bytes
+     */
+    public long used() {
+        return this.used.get();
+    }
+
+    /**
+     * Reserves the given number of bytes before they are
+     * allocated.
+     *
+     * @param bytes the number of bytes to reserve
+     * @throws MemoryLimitException if the hard limit would
+     * be exceeded
+     */
+    public void reserve(long bytes) {
+        long used;
+        long newUsed;
+        do {
+            used = this.used.get();
+            newUsed = used + bytes;
+            if (newUsed > this.hardLimit || newUsed < 0) {
+                throw new MemoryLimitException(bytes, used, this.hardLimit);
+            }
+        } while (!this.used.compareAndSet(used, newUsed));
+
+        if (newUsed >= this.softLimit && !this.underPressure) {
+            this.updatePressure();
+        }
+    }
+
+    /**
+     * Returns bytes which have been reserved once they are
+     * no longer in use.
+     *
+     * @param bytes the number of bytes to release
+     */
+    public void release(long bytes) {
+        long newUsed = this.used.addAndGet(-bytes);
+        if (newUsed < this.softLimit && this.underPressure) {
+            this.updatePressure();
+        }
+    }
+
+    /**
+     * Reserves or releases bytes depending on the sign of
+     * the given change in allocated memory.
+     *
+     * @param delta the number of bytes allocated, or
+     * negative for the number of bytes released
+     * @throws MemoryLimitException if the hard limit would
+     * be exceeded
+     */
+    public void adjust(long delta) {
+        if (delta > 0) {
+            this.reserve(delta);
+        } else if (delta < 0) {
+            this.release(-delta);
+        }
+    }
+
+    /**
+     * Determines whether or not the memory in use has
+     * reached the soft limit.
+     *
+     * @return {@code true} if backpressure should be
+     * applied
+     */
+    public boolean isUnderPressure() {
+        return this.underPressure;
+    }
+
+    /**
+     * Obtains a future which completes once the memory in
+     * use has fallen below the soft limit.
+     *
+     * @return a completed future if the governor is not
+     * under pressure, or a future which will be completed
+     * once pressure is relieved
+     */
+    public CompletableFuture<Void> relief() {
+        return this.relief;
+    }
+
+    /**
+     * Adds a listener which will be notified whenever the
+     * governor comes under or is relieved of pressure.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(Listener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener that was previously added.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(Listener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Re-evaluates whether or not the governor is under
+     * pressure, notifying listeners of any change.
+     */
+    private void updatePressure() {
+        boolean pressure;
+        CompletableFuture<Void> relieved = null;
+        synchronized (this) {
+            pressure = this.used.get() >= this.softLimit;
+            if (pressure == this.underPressure) {
+                return;
+            }
+
+            if (pressure) {
+                this.relief = new CompletableFuture<>();
+            } else {
+                relieved = this.relief;
+            }
+
+            this.underPressure = pressure;
+        }
+
+        long used = this.used.get();
+        for (Listener listener : this.listeners) {
+            if (pressure) {
+                listener.onPressure(this, used);
+            } else {
+                listener.onRelief(this, used);
+            }
+        }
+
+        if (relieved != null) {
+            relieved.complete(null);
+        }
+    }
+
+    /**
+     * A listener which is notified of changes in pressure
+     * on a governor.
+     *
+     * <p>Listeners are called on the thread that caused
+     * the change and must not block.</p>
+     */
+    public interface Listener {
+        /**
+         * Called when the memory in use reaches the soft
+         * limit.
+         *
+         * @param governor the governor under pressure
+         * @param used the number of bytes in use
+         */
+        void onPressure(MemoryGovernor governor, long used);
+
+        /**
+         * Called when the memory in use falls back below
+         * the soft limit.
+         *
+         * @param governor the relieved governor
+         * @param used the number of bytes in use
+         */
+        default void onRelief(MemoryGovernor governor, long used) {
+        }
+    }
+}
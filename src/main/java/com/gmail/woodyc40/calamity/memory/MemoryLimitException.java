@@ -0,0 +1,74 @@
+package com.gmail.woodyc40.calamity.memory;
+
+/**
+ * Thrown when an allocation would take the memory held by
+ * buffers beyond the hard limit of a
+ * {@link MemoryGovernor}.
+ *
+ * <p>The allocation is refused before any memory is
+ * actually allocated, so the buffer which requested it
+ * remains usable with its previous capacity.</p>
+ *
+ * @author caojohnny
+ */
+public class MemoryLimitException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of bytes that were requested
+     */
+    private final long requested;
+    /**
+     * The number of bytes in use when the request was made
+     */
+    private final long used;
+    /**
+     * The hard limit that would have been exceeded
+     */
+    private final long hardLimit;
+
+    /**
+     * Creates a new exception describing the refused
+     * allocation.
+     *
+     * @param requested the number of bytes requested
+     * @param used the number of bytes already in use
+     * @param hardLimit the hard limit of the governor
+     */
+    public MemoryLimitException(long requested, long used, long hardLimit) {
+        super(String.format("Buffer memory limit exceeded (requested = %d, used = %d, hardLimit = %d)",
+                requested, used, hardLimit));
+        this.requested = requested;
+        this.used = used;
+        this.hardLimit = hardLimit;
+    }
+
+    /**
+     * Obtains the number of bytes that were requested.
+     *
+     * @return the requested bytes
+     */
+    public long requested() {
+        return this.requested;
+    }
+
+    /**
+     * Obtains the number of bytes that were in use when
+     * the allocation was refused.
+     *
+     * @return the used bytes
+     */
+    public long used() {
+        return this.used;
+    }
+
+    /**
+     * Obtains the hard limit which would have been
+     * exceeded.
+     *
+     * @return the hard limit
+     */
+    public long hardLimit() {
+        return this.hardLimit;
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * Process-wide accounting of the memory held by buffers.
+ *
+ * <p>Every {@link com.gmail.woodyc40.calamity.bytes.ByteStore}
+ * shipped with Calamity buffers reports the memory that it
+ * allocates and releases to the
+ * {@link com.gmail.woodyc40.calamity.memory.MemoryGovernor}
+ * of its buffer's options. Governors allow applications to
+ * react to memory pressure before it turns into an
+ * {@link java.lang.OutOfMemoryError}, by applying
+ * backpressure once the soft limit is reached and failing
+ * allocations fast once the hard limit is reached.</p>
+ */
+package com.gmail.woodyc40.calamity.memory;
@@ -0,0 +1,327 @@
+package com.gmail.woodyc40.calamity.metrics;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Diagnoses which code paths are holding on to buffer
+ * capacity by tagging a sample of live buffers with the
+ * stack which allocated them.
+ *
+ * <p>One in every {@link #sampleInterval()} buffers built
+ * with the profiler captures its allocating stack, trimmed
+ * of the library's own frames to at most
+ * {@link #depth()} frames. Buffers which share the same
+ * frames are grouped into one site, and snapshots sum the
+ * byte store lengths and the capacity past the writer
+ * index of each site's live buffers, e.g. to find the
+ * buffers which a {@code DoublingResizer} grew well past
+ * what was written. Sampled buffers are only weakly
+ * referenced, and those collected without being freed are
+ * counted as leaked.</p>
+ *
+ * <p>Capturing a stack is expensive, so the profiler is
+ * meant to be enabled while diagnosing a problem. Since
+ * snapshots read the indexes of buffers which may be in
+ * use by other threads, they are only estimates.</p>
+ *
+ * <p>The profiler is enabled using
+ * {@link com.gmail.woodyc40.calamity.CalamityOptions#profiler(AllocationProfiler)}.</p>
+ *
+ * @author caojohnny
+ */
+public final class AllocationProfiler {
+    /**
+     * The default number of allocations per sample
+     */
+    public static final int DEFAULT_SAMPLE_INTERVAL = 16;
+    /**
+     * The default number of frames kept per site
+     */
+    public static final int DEFAULT_DEPTH = 8;
+    /**
+     * The package prefix of the frames that are trimmed
+     */
+    private static final String LIBRARY_PACKAGE = "com.gmail.woodyc40.calamity.";
+
+    /**
+     * The number of allocations per sample
+     */
+    private final int sampleInterval;
+    /**
+     * The maximum number of frames kept per site
+     */
+    private final int depth;
+    /**
+     * The interned allocation sites
+     */
+    private final Map<Site, Site> sites = new ConcurrentHashMap<>();
+    /**
+     * The samples of buffers which have not been freed
+     */
+    private final Set<Sample> live = ConcurrentHashMap.newKeySet();
+    /**
+     * The queue which collected buffers are enqueued to
+     */
+    private final ReferenceQueue<CalamityBuf> collected = new ReferenceQueue<>();
+
+    /**
+     * Creates a new profiler with the default sample
+     * interval and depth.
+     */
+    public AllocationProfiler() {
+        this(DEFAULT_SAMPLE_INTERVAL, DEFAULT_DEPTH);
+    }
+
+    /**
+     * Creates a new profiler.
+     *
+     * @param sampleInterval the average number of
+     * allocations per sample, {@code 1} to sample every
+     * buffer
+     * @param depth the maximum number of frames kept per
+     * site
+     */
+    public AllocationProfiler(int sampleInterval, int depth) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("Sample interval must be positive: " + sampleInterval);
+        }
+
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be positive: " + depth);
+        }
+
+        this.sampleInterval = sampleInterval;
+        this.depth = depth;
+    }
+
+    /**
+     * Obtains the average number of allocations per sample.
+     *
+     * @return the sample interval
+     */
+    public int sampleInterval() {
+        return this.sampleInterval;
+    }
+
+    /**
+     * Obtains the maximum number of frames kept per site.
+     *
+     * @return the depth
+     */
+    public int depth() {
+        return this.depth;
+    }
+
+    /**
+     * Records the allocation of a buffer, sampling it if it
+     * is chosen.
+     *
+     * @param buf the allocated buffer
+     * @return the sample, which must be passed to
+     * {@link #recordFree(Sample)} when the buffer is freed,
+     * or {@code null} if the buffer was not sampled
+     */
+    public Sample recordAllocate(CalamityBuf buf) {
+        if (this.sampleInterval > 1 && ThreadLocalRandom.current().nextInt(this.sampleInterval) != 0) {
+            return null;
+        }
+
+        this.drain();
+
+        StackTraceElement[] stack = new Throwable().getStackTrace();
+        int from = 0;
+        while (from < stack.length - 1 && stack[from].getClassName().startsWith(LIBRARY_PACKAGE)) {
+            from++;
+        }
+
+        StackTraceElement[] frames = Arrays.copyOfRange(stack, from, Math.min(stack.length, from + this.depth));
+        Site site = this.sites.computeIfAbsent(new Site(frames), key -> key);
+
+        Sample sample = new Sample(buf, site, this.collected);
+        this.live.add(sample);
+        return sample;
+    }
+
+    /**
+     * Records that a sampled buffer has been freed.
+     *
+     * @param sample the sample returned upon allocation
+     */
+    public void recordFree(Sample sample) {
+        this.live.remove(sample);
+        sample.clear();
+    }
+
+    /**
+     * Takes a snapshot of every site which has live or
+     * leaked buffers.
+     *
+     * @return the sites, in no particular order
+     */
+    public List<AllocationSite> snapshot() {
+        this.drain();
+
+        Map<Site, long[]> totals = new HashMap<>();
+        for (Sample sample : this.live) {
+            CalamityBuf buf = sample.get();
+            if (buf == null) {
+                continue;
+            }
+
+            int length;
+            int writer;
+            try {
+                length = buf.byteStore().length();
+                writer = buf.idx(WRITER);
+            } catch (RuntimeException e) {
+                // Freed concurrently
+                continue;
+            }
+
+            long[] total = totals.computeIfAbsent(sample.site, key -> new long[3]);
+            total[0]++;
+            total[1] += length;
+            total[2] += Math.max(0, length - writer);
+        }
+
+        List<AllocationSite> snapshot = new ArrayList<>(totals.size());
+        for (Site site : this.sites.values()) {
+            long[] total = totals.get(site);
+            long leaked = site.leaked.sum();
+            if (total != null || leaked > 0) {
+                snapshot.add(total == null ?
+                        new AllocationSite(site.frames, 0, 0, 0, leaked) :
+                        new AllocationSite(site.frames, (int) total[0], total[1], total[2], leaked));
+            }
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Takes a snapshot of the sites retaining the most byte
+     * store capacity.
+     *
+     * @param limit the maximum number of sites
+     * @return the sites, in descending order of retained
+     * capacity
+     */
+    public List<AllocationSite> topByRetainedCapacity(int limit) {
+        return this.top(AllocationSite.BY_RETAINED, limit);
+    }
+
+    /**
+     * Takes a snapshot of the sites wasting the most byte
+     * store capacity past the writer index.
+     *
+     * @param limit the maximum number of sites
+     * @return the sites, in descending order of wasted
+     * capacity
+     */
+    public List<AllocationSite> topByWastedCapacity(int limit) {
+        return this.top(AllocationSite.BY_WASTED, limit);
+    }
+
+    /**
+     * Takes a sorted snapshot.
+     *
+     * @param order the order of the sites
+     * @param limit the maximum number of sites
+     * @return the first sites in the given order
+     */
+    private List<AllocationSite> top(Comparator<AllocationSite> order, int limit) {
+        List<AllocationSite> snapshot = this.snapshot();
+        snapshot.sort(order);
+        return snapshot.size() > limit ? new ArrayList<>(snapshot.subList(0, limit)) : snapshot;
+    }
+
+    /**
+     * Counts the samples of buffers which were collected
+     * without having been freed.
+     */
+    private void drain() {
+        for (Reference<? extends CalamityBuf> ref; (ref = this.collected.poll()) != null; ) {
+            Sample sample = (Sample) ref;
+            if (this.live.remove(sample)) {
+                sample.site.leaked.increment();
+            }
+        }
+    }
+
+    /**
+     * A sampled buffer.
+     */
+    public static final class Sample extends WeakReference<CalamityBuf> {
+        /**
+         * The site which allocated the buffer
+         */
+        private final Site site;
+
+        /**
+         * Creates a new sample.
+         *
+         * @param buf the sampled buffer
+         * @param site the allocating site
+         * @param queue the queue to enqueue to once the
+         * buffer is collected
+         */
+        Sample(CalamityBuf buf, Site site, ReferenceQueue<CalamityBuf> queue) {
+            super(buf, queue);
+            this.site = site;
+        }
+    }
+
+    /**
+     * The identity of a code path which allocates buffers.
+     */
+    private static final class Site {
+        /**
+         * The allocating frames
+         */
+        private final StackTraceElement[] frames;
+        /**
+         * The hash of the frames
+         */
+        private final int hash;
+        /**
+         * The number of buffers leaked from this site
+         */
+        private final LongAdder leaked = new LongAdder();
+
+        /**
+         * Creates a new site.
+         *
+         * @param frames the allocating frames
+         */
+        Site(StackTraceElement[] frames) {
+            this.frames = frames;
+            this.hash = Arrays.hashCode(frames);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Site && Arrays.equals(this.frames, ((Site) obj).frames);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
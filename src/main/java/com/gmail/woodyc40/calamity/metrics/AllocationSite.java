@@ -0,0 +1,130 @@
+package com.gmail.woodyc40.calamity.metrics;
+
+import java.util.Comparator;
+
+/**
+ * A snapshot of the buffers allocated from one code path,
+ * taken by an {@link AllocationProfiler}.
+ *
+ * @author caojohnny
+ */
+public final class AllocationSite {
+    /**
+     * Orders sites by descending retained capacity
+     */
+    public static final Comparator<AllocationSite> BY_RETAINED =
+            Comparator.comparingLong(AllocationSite::retainedCapacity).reversed();
+    /**
+     * Orders sites by descending wasted capacity
+     */
+    public static final Comparator<AllocationSite> BY_WASTED =
+            Comparator.comparingLong(AllocationSite::wastedCapacity).reversed();
+
+    /**
+     * The frames of the allocating code path, innermost
+     * first
+     */
+    private final StackTraceElement[] frames;
+    /**
+     * The number of sampled buffers still live
+     */
+    private final int liveBuffers;
+    /**
+     * The byte store length of the live buffers
+     */
+    private final long retainedCapacity;
+    /**
+     * The bytes past the writer index of the live buffers
+     */
+    private final long wastedCapacity;
+    /**
+     * The number of sampled buffers collected without
+     * having been freed
+     */
+    private final long leaked;
+
+    /**
+     * Creates a new site snapshot.
+     *
+     * @param frames the allocating frames
+     * @param liveBuffers the live buffers
+     * @param retainedCapacity the retained capacity
+     * @param wastedCapacity the wasted capacity
+     * @param leaked the leaked buffers
+     */
+    AllocationSite(StackTraceElement[] frames, int liveBuffers, long retainedCapacity, long wastedCapacity,
+                   long leaked) {
+        this.frames = frames;
+        this.liveBuffers = liveBuffers;
+        this.retainedCapacity = retainedCapacity;
+        this.wastedCapacity = wastedCapacity;
+        this.leaked = leaked;
+    }
+
+    /**
+     * Obtains the frames of the code path which allocated
+     * the buffers, innermost first, excluding the frames
+     * of the library itself.
+     *
+     * @return a copy of the allocating frames
+     */
+    public StackTraceElement[] frames() {
+        return this.frames.clone();
+    }
+
+    /**
+     * Obtains the number of sampled buffers which have not
+     * yet been freed.
+     *
+     * @return the live buffers
+     */
+    public int liveBuffers() {
+        return this.liveBuffers;
+    }
+
+    /**
+     * Obtains the sum of the byte store lengths of the live
+     * buffers.
+     *
+     * @return the retained capacity
+     */
+    public long retainedCapacity() {
+        return this.retainedCapacity;
+    }
+
+    /**
+     * Obtains the sum of the bytes past the writer index of
+     * the live buffers, i.e. the capacity which was grown
+     * but never written.
+     *
+     * @return the wasted capacity
+     */
+    public long wastedCapacity() {
+        return this.wastedCapacity;
+    }
+
+    /**
+     * Obtains the number of sampled buffers which were
+     * garbage collected without having been freed.
+     *
+     * @return the leaked buffers
+     */
+    public long leaked() {
+        return this.leaked;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder()
+                .append("AllocationSite{live=").append(this.liveBuffers)
+                .append(", retained=").append(this.retainedCapacity)
+                .append(", wasted=").append(this.wastedCapacity)
+                .append(", leaked=").append(this.leaked)
+                .append('}');
+        for (StackTraceElement frame : this.frames) {
+            builder.append("\n\tat ").append(frame);
+        }
+
+        return builder.toString();
+    }
+}
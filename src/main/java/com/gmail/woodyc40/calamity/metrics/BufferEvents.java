@@ -0,0 +1,156 @@
+package com.gmail.woodyc40.calamity.metrics;
+
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.bytes.ByteStore;
+import com.gmail.woodyc40.calamity.marshal.Marshaller;
+import com.gmail.woodyc40.calamity.util.Constants;
+
+/**
+ * Emits Java Flight Recorder events for resizes, large
+ * allocations and slow marshalling, each carrying the stack
+ * of the thread which caused it.
+ *
+ * <p>The events are only emitted when they are enabled in a
+ * recording, and are otherwise skipped after JFR's own
+ * {@code isEnabled()} check. On JVMs without the JFR API,
+ * these methods perform the operation without any events
+ * and the event classes are never loaded.</p>
+ *
+ * <p>Resizes are recorded by the shipped resizers, and
+ * marshalling is recorded by the buffer's {@code marshal}
+ * and {@code unmarshal} methods. Custom resizers may call
+ * {@link #setLength(ByteStore, int)} in order to be
+ * recorded in the same manner.</p>
+ *
+ * @author caojohnny
+ */
+public final class BufferEvents {
+    /**
+     * Whether or not the JFR API is available
+     */
+    private static final boolean AVAILABLE = detect();
+
+    /**
+     * The length at which an allocation is large, or
+     * {@code 0} to use the humongous allocation threshold
+     */
+    private static volatile int largeAllocationThreshold;
+
+    /**
+     * Construction disabled.
+     */
+    private BufferEvents() {
+    }
+
+    private static boolean detect() {
+        try {
+            Class.forName("jdk.jfr.Event", false, BufferEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError ignored) {
+            // Running on a JVM without JFR
+            return false;
+        }
+    }
+
+    /**
+     * Determines whether or not events may be emitted by
+     * the running JVM.
+     *
+     * @return {@code true} if the JFR API is available
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Obtains the length at or above which the allocation
+     * of a byte store is recorded as a large allocation.
+     *
+     * <p>By default, this is the
+     * {@link Constants#humongousThreshold()}.</p>
+     *
+     * @return the large allocation threshold
+     */
+    public static int largeAllocationThreshold() {
+        int threshold = largeAllocationThreshold;
+        return threshold == 0 ? Constants.humongousThreshold() : threshold;
+    }
+
+    /**
+     * Sets the length at or above which the allocation of a
+     * byte store is recorded as a large allocation.
+     *
+     * @param threshold the threshold, or {@code 0} to
+     * restore the default
+     */
+    public static void largeAllocationThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Negative threshold: " + threshold);
+        }
+
+        largeAllocationThreshold = threshold;
+    }
+
+    /**
+     * Changes the length of the given store, recording the
+     * time taken as a resize event.
+     *
+     * @param store the store to resize
+     * @param newLength the new length of the store
+     */
+    public static void setLength(ByteStore store, int newLength) {
+        if (AVAILABLE) {
+            FlightEvents.setLength(store, newLength);
+        } else {
+            store.setLength(newLength);
+        }
+    }
+
+    /**
+     * Records the initial allocation of the given store if
+     * it is large.
+     *
+     * @param store the allocated store
+     */
+    public static void allocated(ByteStore store) {
+        if (AVAILABLE) {
+            FlightEvents.largeAllocation(store, store.length());
+        }
+    }
+
+    /**
+     * Writes the given object using the given marshaller,
+     * recording the call if it is slow.
+     *
+     * @param marshaller the marshaller to write with
+     * @param buf the buffer to write into
+     * @param toIndex the index at which to write
+     * @param obj the object to write
+     * @return the number of bytes written
+     */
+    public static int write(Marshaller<Object> marshaller, StrippedCalamityBuf buf, int toIndex, Object obj) {
+        if (AVAILABLE) {
+            return FlightEvents.write(marshaller, buf, toIndex, obj);
+        }
+
+        return marshaller.write(buf, toIndex, obj);
+    }
+
+    /**
+     * Reads an object using the given marshaller, recording
+     * the call if it is slow.
+     *
+     * @param marshaller the marshaller to read with
+     * @param buf the buffer to read from
+     * @param fromIndex the index at which to read
+     * @param <T> the type of object read
+     * @return the object that was read
+     */
+    public static <T> T read(Marshaller<T> marshaller, StrippedCalamityBuf buf, int fromIndex) {
+        if (AVAILABLE) {
+            return FlightEvents.read(marshaller, buf, fromIndex);
+        }
+
+        return marshaller.read(buf, fromIndex);
+    }
+}
@@ -0,0 +1,288 @@
+package com.gmail.woodyc40.calamity.metrics;
+
+import com.gmail.woodyc40.calamity.bytes.ByteStore;
+import com.gmail.woodyc40.calamity.resize.Resizer;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates counters recorded by every buffer built from
+ * the options which hold it.
+ *
+ * <p>Each counter is a {@link LongAdder}, or a
+ * {@link LongAccumulator} for the peak, so that buffers on
+ * different threads record into separate cells rather than
+ * contending on a single value. Reading a counter sums its
+ * cells, and is therefore only a moment-in-time estimate
+ * while buffers are recording into it.</p>
+ *
+ * <p>Metrics are enabled using
+ * {@link com.gmail.woodyc40.calamity.CalamityOptions#metrics(BufferMetrics)}.
+ * Buffers that are built with metrics have their resizer
+ * wrapped in order to count its invocations, so the
+ * buffer's {@code resizer()} is not the instance created by
+ * the options.</p>
+ *
+ * @author caojohnny
+ */
+public final class BufferMetrics {
+    /**
+     * The name identifying the options template
+     */
+    private final String name;
+
+    /**
+     * The number of buffers allocated
+     */
+    private final LongAdder allocated = new LongAdder();
+    /**
+     * The number of buffers freed
+     */
+    private final LongAdder freed = new LongAdder();
+    /**
+     * The number of bytes held by the byte stores of live
+     * buffers
+     */
+    private final LongAdder liveBytes = new LongAdder();
+    /**
+     * The number of resizer invocations
+     */
+    private final LongAdder resizes = new LongAdder();
+    /**
+     * The number of resizer invocations which changed the
+     * length of the byte store
+     */
+    private final LongAdder growths = new LongAdder();
+    /**
+     * The number of bytes copied by byte stores when their
+     * length is changed
+     */
+    private final LongAdder bytesCopied = new LongAdder();
+    /**
+     * The largest length held by any byte store
+     */
+    private final LongAccumulator peakCapacity = new LongAccumulator(Math::max, 0);
+    /**
+     * The number of bytes past the writer index held by
+     * byte stores when their buffers were freed
+     */
+    private final LongAdder wastedCapacity = new LongAdder();
+    /**
+     * The simple name of the type of the first byte store
+     * allocated
+     */
+    private volatile String storeType;
+
+    /**
+     * Creates a new set of metrics.
+     *
+     * @param name the name identifying the options template
+     * which the metrics are recorded for
+     */
+    public BufferMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Obtains the name identifying the options template
+     * which these metrics are recorded for.
+     *
+     * @return the name of the metrics
+     */
+    public String name() {
+        return this.name;
+    }
+
+    // RECORDING -------------------------------------------
+
+    /**
+     * Records the allocation of a buffer.
+     *
+     * @param store the buffer's byte store, once it has been
+     * initialized
+     */
+    public void recordAllocate(ByteStore store) {
+        if (this.storeType == null) {
+            this.storeType = store.getClass().getSimpleName();
+        }
+
+        int capacity = store.length();
+        this.allocated.increment();
+        this.liveBytes.add(capacity);
+        this.peakCapacity.accumulate(capacity);
+    }
+
+    /**
+     * Records that a buffer has been freed.
+     *
+     * @param capacity the length of the buffer's byte store
+     * @param writerIndex the buffer's writer index
+     */
+    public void recordFree(int capacity, int writerIndex) {
+        this.freed.increment();
+        this.liveBytes.add(-capacity);
+        this.wastedCapacity.add(Math.max(0, capacity - writerIndex));
+    }
+
+    /**
+     * Records an invocation of a buffer's resizer.
+     *
+     * @param oldCapacity the length of the byte store before
+     * the invocation
+     * @param newCapacity the length of the byte store after
+     * the invocation
+     */
+    public void recordResize(int oldCapacity, int newCapacity) {
+        this.resizes.increment();
+        if (newCapacity != oldCapacity) {
+            this.growths.increment();
+            this.liveBytes.add(newCapacity - oldCapacity);
+            this.peakCapacity.accumulate(newCapacity);
+        }
+    }
+
+    /**
+     * Records a change in the length of a byte store which
+     * was not caused by resizing, e.g. when a buffer is
+     * reset.
+     *
+     * @param oldCapacity the old length of the byte store
+     * @param newCapacity the new length of the byte store
+     */
+    void recordShrink(int oldCapacity, int newCapacity) {
+        this.liveBytes.add(newCapacity - oldCapacity);
+    }
+
+    /**
+     * Records bytes that have been copied by a byte store
+     * in order to change its length.
+     *
+     * @param bytes the number of bytes copied
+     */
+    public void recordCopy(long bytes) {
+        this.bytesCopied.add(bytes);
+    }
+
+    /**
+     * Wraps the given resizer so that its invocations are
+     * recorded into these metrics.
+     *
+     * @param resizer the resizer to wrap
+     * @return the wrapped resizer
+     */
+    public Resizer wrap(Resizer resizer) {
+        return new MeteredResizer(resizer, this);
+    }
+
+    // COUNTERS --------------------------------------------
+
+    /**
+     * Obtains the number of buffers allocated.
+     *
+     * @return the allocated buffers
+     */
+    public long allocated() {
+        return this.allocated.sum();
+    }
+
+    /**
+     * Obtains the number of buffers freed.
+     *
+     * @return the freed buffers
+     */
+    public long freed() {
+        return this.freed.sum();
+    }
+
+    /**
+     * Obtains the number of buffers which have been
+     * allocated but not yet freed.
+     *
+     * @return the live buffers
+     */
+    public long live() {
+        return this.allocated.sum() - this.freed.sum();
+    }
+
+    /**
+     * Obtains the number of bytes held by the byte stores of
+     * buffers which have not yet been freed.
+     *
+     * @return the live bytes
+     */
+    public long liveBytes() {
+        return this.liveBytes.sum();
+    }
+
+    /**
+     * Obtains the simple name of the type of byte store
+     * used by the buffers.
+     *
+     * @return the store type, or {@code null} if no buffer
+     * has been allocated
+     */
+    public String storeType() {
+        return this.storeType;
+    }
+
+    /**
+     * Obtains the number of times that resizers have been
+     * invoked, whether or not they changed the length of
+     * the byte store.
+     *
+     * @return the resizer invocations
+     */
+    public long resizes() {
+        return this.resizes.sum();
+    }
+
+    /**
+     * Obtains the number of resizer invocations which
+     * changed the length of the byte store.
+     *
+     * @return the number of growths
+     */
+    public long growths() {
+        return this.growths.sum();
+    }
+
+    /**
+     * Obtains the number of bytes copied by byte stores in
+     * order to change their length.
+     *
+     * @return the copied bytes
+     */
+    public long bytesCopied() {
+        return this.bytesCopied.sum();
+    }
+
+    /**
+     * Obtains the largest length held by the byte store of
+     * any buffer.
+     *
+     * @return the peak capacity
+     */
+    public long peakCapacity() {
+        return this.peakCapacity.get();
+    }
+
+    /**
+     * Obtains the total number of bytes which were held by
+     * byte stores beyond their writer index when their
+     * buffers were freed.
+     *
+     * @return the wasted capacity
+     */
+    public long wastedCapacity() {
+        return this.wastedCapacity.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BufferMetrics{name=%s, storeType=%s, allocated=%d, freed=%d, liveBytes=%d, " +
+                        "resizes=%d, growths=%d, bytesCopied=%d, peakCapacity=%d, wastedCapacity=%d}",
+                this.name, this.storeType, this.allocated(), this.freed(), this.liveBytes(),
+                this.resizes(), this.growths(), this.bytesCopied(), this.peakCapacity(), this.wastedCapacity());
+    }
+}
@@ -0,0 +1,92 @@
+package com.gmail.woodyc40.calamity.metrics;
+
+/**
+ * The management interface of {@link BufferMetrics},
+ * registered using {@link CalamityMBeans#register(BufferMetrics)}.
+ *
+ * @author caojohnny
+ */
+public interface BufferMetricsMXBean {
+    /**
+     * Obtains the name identifying the options template.
+     *
+     * @return the name of the metrics
+     */
+    String getName();
+
+    /**
+     * Obtains the number of buffers allocated.
+     *
+     * @return the allocated buffers
+     */
+    long getAllocated();
+
+    /**
+     * Obtains the number of buffers freed.
+     *
+     * @return the freed buffers
+     */
+    long getFreed();
+
+    /**
+     * Obtains the number of buffers which have not yet been
+     * freed.
+     *
+     * @return the live buffers
+     */
+    long getLive();
+
+    /**
+     * Obtains the number of bytes held by the byte stores of
+     * live buffers.
+     *
+     * @return the live bytes
+     */
+    long getLiveBytes();
+
+    /**
+     * Obtains the simple name of the type of byte store
+     * used by the buffers.
+     *
+     * @return the store type
+     */
+    String getStoreType();
+
+    /**
+     * Obtains the number of resizer invocations.
+     *
+     * @return the resizer invocations
+     */
+    long getResizes();
+
+    /**
+     * Obtains the number of resizer invocations which
+     * changed the length of the byte store.
+     *
+     * @return the number of growths
+     */
+    long getGrowths();
+
+    /**
+     * Obtains the number of bytes copied by byte stores in
+     * order to change their length.
+     *
+     * @return the copied bytes
+     */
+    long getBytesCopied();
+
+    /**
+     * Obtains the largest length held by any byte store.
+     *
+     * @return the peak capacity
+     */
+    long getPeakCapacity();
+
+    /**
+     * Obtains the number of bytes held past the writer
+     * index by byte stores when their buffers were freed.
+     *
+     * @return the wasted capacity
+     */
+    long getWastedCapacity();
+}
@@ -0,0 +1,228 @@
+package com.gmail.woodyc40.calamity.metrics;
+
+import com.gmail.woodyc40.calamity.memory.MemoryGovernor;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Registers buffer metrics and memory governors with the
+ * platform MBean server, so that they may be watched using
+ * JConsole, JMC or any other JMX client.
+ *
+ * <p>Beans are registered under the
+ * {@value #DOMAIN} domain as
+ * {@code type=BufferMetrics,name=<name>} and
+ * {@code type=MemoryGovernor,name=<name>}. Attributes are
+ * read from the metrics or governor whenever they are
+ * requested, and are never cached.</p>
+ *
+ * @author caojohnny
+ */
+public final class CalamityMBeans {
+    /**
+     * The domain of the object names of registered beans
+     */
+    public static final String DOMAIN = "com.gmail.woodyc40.calamity";
+
+    /**
+     * Construction disabled.
+     */
+    private CalamityMBeans() {
+    }
+
+    /**
+     * Registers the given metrics under their name.
+     *
+     * @param metrics the metrics to register
+     * @return the name which the bean was registered under
+     * @throws IllegalArgumentException if a bean is already
+     * registered under the same name
+     */
+    public static ObjectName register(BufferMetrics metrics) {
+        return register(objectName("BufferMetrics", metrics.name()), new BufferMetricsBean(metrics));
+    }
+
+    /**
+     * Registers the given governor under the given name.
+     *
+     * @param name the name of the governor
+     * @param governor the governor to register
+     * @return the name which the bean was registered under
+     * @throws IllegalArgumentException if a bean is already
+     * registered under the same name
+     */
+    public static ObjectName register(String name, MemoryGovernor governor) {
+        return register(objectName("MemoryGovernor", name), new MemoryGovernorBean(governor));
+    }
+
+    /**
+     * Unregisters the bean with the given name, if it is
+     * registered.
+     *
+     * @param name the name returned upon registration
+     */
+    public static void unregister(ObjectName name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (InstanceNotFoundException ignored) {
+            // Already unregistered
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to unregister " + name, e);
+        }
+    }
+
+    /**
+     * Creates the object name of a bean.
+     *
+     * @param type the type of the bean
+     * @param name the name of the bean
+     * @return the object name
+     */
+    private static ObjectName objectName(String type, String name) {
+        try {
+            return new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid bean name: " + name, e);
+        }
+    }
+
+    /**
+     * Registers the given bean with the platform MBean
+     * server.
+     *
+     * @param name the name of the bean
+     * @param bean the bean to register
+     * @return the name of the bean
+     */
+    private static ObjectName register(ObjectName name, Object bean) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(bean, name);
+        } catch (InstanceAlreadyExistsException e) {
+            throw new IllegalArgumentException("A bean is already registered as " + name, e);
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register " + name, e);
+        }
+
+        return name;
+    }
+
+    /**
+     * Exposes buffer metrics.
+     */
+    private static final class BufferMetricsBean implements BufferMetricsMXBean {
+        /**
+         * The exposed metrics
+         */
+        private final BufferMetrics metrics;
+
+        /**
+         * Creates a new bean.
+         *
+         * @param metrics the metrics to expose
+         */
+        BufferMetricsBean(BufferMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public String getName() {
+            return this.metrics.name();
+        }
+
+        @Override
+        public long getAllocated() {
+            return this.metrics.allocated();
+        }
+
+        @Override
+        public long getFreed() {
+            return this.metrics.freed();
+        }
+
+        @Override
+        public long getLive() {
+            return this.metrics.live();
+        }
+
+        @Override
+        public long getLiveBytes() {
+            return this.metrics.liveBytes();
+        }
+
+        @Override
+        public String getStoreType() {
+            return this.metrics.storeType();
+        }
+
+        @Override
+        public long getResizes() {
+            return this.metrics.resizes();
+        }
+
+        @Override
+        public long getGrowths() {
+            return this.metrics.growths();
+        }
+
+        @Override
+        public long getBytesCopied() {
+            return this.metrics.bytesCopied();
+        }
+
+        @Override
+        public long getPeakCapacity() {
+            return this.metrics.peakCapacity();
+        }
+
+        @Override
+        public long getWastedCapacity() {
+            return this.metrics.wastedCapacity();
+        }
+    }
+
+    /**
+     * Exposes a memory governor.
+     */
+    private static final class MemoryGovernorBean implements MemoryGovernorMXBean {
+        /**
+         * The exposed governor
+         */
+        private final MemoryGovernor governor;
+
+        /**
+         * Creates a new bean.
+         *
+         * @param governor the governor to expose
+         */
+        MemoryGovernorBean(MemoryGovernor governor) {
+            this.governor = governor;
+        }
+
+        @Override
+        public long getUsed() {
+            return this.governor.used();
+        }
+
+        @Override
+        public long getSoftLimit() {
+            return this.governor.softLimit();
+        }
+
+        @Override
+        public long getHardLimit() {
+            return this.governor.hardLimit();
+        }
+
+        @Override
+        public boolean isUnderPressure() {
+            return this.governor.isUnderPressure();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.gmail.woodyc40.calamity.metrics;
+
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.bytes.ByteStore;
+import com.gmail.woodyc40.calamity.marshal.Marshaller;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+
+/**
+ * The implementation of {@link BufferEvents}, which is only
+ * loaded once the JFR API is known to be available.
+ *
+ * @author caojohnny
+ */
+final class FlightEvents {
+    /**
+     * Construction disabled.
+     */
+    private FlightEvents() {
+    }
+
+    /**
+     * Resizes the store, emitting a resize event and, if
+     * the store grew, a large allocation event if they are
+     * enabled.
+     *
+     * @param store the store to resize
+     * @param newLength the new length of the store
+     */
+    static void setLength(ByteStore store, int newLength) {
+        int oldLength = store.length();
+        ResizeEvent event = new ResizeEvent();
+        if (!event.isEnabled()) {
+            store.setLength(newLength);
+        } else {
+            event.begin();
+            store.setLength(newLength);
+            event.end();
+
+            if (event.shouldCommit()) {
+                event.store = store.getClass().getName();
+                event.oldLength = oldLength;
+                event.newLength = newLength;
+                event.commit();
+            }
+        }
+
+        if (newLength > oldLength) {
+            largeAllocation(store, newLength);
+        }
+    }
+
+    /**
+     * Emits a large allocation event if it is enabled and
+     * the given length reaches the threshold.
+     *
+     * @param store the allocated store
+     * @param length the allocated length
+     */
+    static void largeAllocation(ByteStore store, int length) {
+        LargeAllocationEvent event = new LargeAllocationEvent();
+        if (!event.isEnabled() || length < BufferEvents.largeAllocationThreshold()) {
+            return;
+        }
+
+        if (event.shouldCommit()) {
+            event.store = store.getClass().getName();
+            event.length = length;
+            event.commit();
+        }
+    }
+
+    /**
+     * Writes the object, emitting a slow marshalling event
+     * if it is enabled and the threshold is exceeded.
+     *
+     * @param marshaller the marshaller to write with
+     * @param buf the buffer to write into
+     * @param toIndex the index at which to write
+     * @param obj the object to write
+     * @return the number of bytes written
+     */
+    static int write(Marshaller<Object> marshaller, StrippedCalamityBuf buf, int toIndex, Object obj) {
+        SlowMarshalEvent event = new SlowMarshalEvent();
+        if (!event.isEnabled()) {
+            return marshaller.write(buf, toIndex, obj);
+        }
+
+        event.begin();
+        int written = marshaller.write(buf, toIndex, obj);
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.marshaller = marshaller.getClass().getName();
+            event.type = obj.getClass().getName();
+            event.write = true;
+            event.bytes = written;
+            event.commit();
+        }
+
+        return written;
+    }
+
+    /**
+     * Reads an object, emitting a slow marshalling event if
+     * it is enabled and the threshold is exceeded.
+     *
+     * @param marshaller the marshaller to read with
+     * @param buf the buffer to read from
+     * @param fromIndex the index at which to read
+     * @param <T> the type of object read
+     * @return the object that was read
+     */
+    static <T> T read(Marshaller<T> marshaller, StrippedCalamityBuf buf, int fromIndex) {
+        SlowMarshalEvent event = new SlowMarshalEvent();
+        if (!event.isEnabled()) {
+            return marshaller.read(buf, fromIndex);
+        }
+
+        event.begin();
+        T read = marshaller.read(buf, fromIndex);
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.marshaller = marshaller.getClass().getName();
+            event.type = read == null ? null : read.getClass().getName();
+            event.bytes = buf.idx(READER) - fromIndex;
+            event.commit();
+        }
+
+        return read;
+    }
+}
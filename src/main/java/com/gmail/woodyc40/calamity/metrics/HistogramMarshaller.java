@@ -0,0 +1,107 @@
+package com.gmail.woodyc40.calamity.metrics;
+
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.marshal.ValueMarshaller;
+import com.gmail.woodyc40.calamity.marshal.VarIntMarshaller;
+import com.gmail.woodyc40.calamity.marshal.VarLongMarshaller;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+
+/**
+ * Marshals {@link HistogramSnapshot}s sparsely, so that
+ * the size of a snapshot depends on the number of buckets
+ * which counted values rather than on its precision.
+ *
+ * <p>A snapshot is written as varints holding its
+ * precision and the number of non-empty buckets, followed
+ * by the gap to each non-empty bucket from the previous
+ * one and its count. A snapshot of a few hundred distinct
+ * latencies occupies a few hundred bytes.</p>
+ *
+ * @author caojohnny
+ */
+public class HistogramMarshaller extends ValueMarshaller<HistogramSnapshot> {
+    /**
+     * The marshaller of the precision, bucket gaps and
+     * number of buckets
+     */
+    private static final VarIntMarshaller INTS = new VarIntMarshaller();
+    /**
+     * The marshaller of bucket counts
+     */
+    private static final VarLongMarshaller LONGS = new VarLongMarshaller();
+
+    @Override
+    public int sizeOf(HistogramSnapshot obj) {
+        int buckets = 0;
+        int size = 0;
+        int last = -1;
+        for (int i = 0, j = obj.bucketCount(); i < j; i++) {
+            long count = obj.count(i);
+            if (count != 0) {
+                buckets++;
+                size += INTS.size(i - last - 1) + LONGS.size(count);
+                last = i;
+            }
+        }
+
+        return INTS.size(obj.precisionBits()) + INTS.size(buckets) + size;
+    }
+
+    @Override
+    public int write(StrippedCalamityBuf buf, int toIndex, HistogramSnapshot from) {
+        int buckets = 0;
+        for (int i = 0, j = from.bucketCount(); i < j; i++) {
+            if (from.count(i) != 0) {
+                buckets++;
+            }
+        }
+
+        int idx = toIndex;
+        idx += INTS.writeInt(buf, idx, from.precisionBits());
+        idx += INTS.writeInt(buf, idx, buckets);
+
+        int last = -1;
+        for (int i = 0, j = from.bucketCount(); i < j; i++) {
+            long count = from.count(i);
+            if (count != 0) {
+                idx += INTS.writeInt(buf, idx, i - last - 1);
+                idx += LONGS.writeLong(buf, idx, count);
+                last = i;
+            }
+        }
+
+        return idx - toIndex;
+    }
+
+    @Override
+    public HistogramSnapshot read(StrippedCalamityBuf buf, int fromIndex) {
+        int precisionBits = INTS.readInt(buf, fromIndex);
+        if (precisionBits < 1 || precisionBits > LatencyHistogram.MAX_PRECISION_BITS) {
+            throw new IllegalStateException(String.format(
+                    "Invalid histogram precision %d at index %d", precisionBits, fromIndex));
+        }
+
+        long[] counts = new long[LatencyHistogram.bucketCount(precisionBits)];
+        int buckets = INTS.readInt(buf, buf.idx(READER));
+        if (buckets < 0 || buckets > counts.length) {
+            throw new IllegalStateException(String.format(
+                    "Invalid histogram bucket count %d at index %d", buckets, fromIndex));
+        }
+
+        int bucket = -1;
+        for (int i = 0; i < buckets; i++) {
+            int gap = INTS.readInt(buf, buf.idx(READER));
+            long count = LONGS.readLong(buf, buf.idx(READER));
+            if (gap < 0 || gap >= counts.length - bucket - 1 || count <= 0) {
+                throw new IllegalStateException(String.format(
+                        "Invalid histogram bucket at index %d", buf.idx(READER)));
+            }
+
+            bucket += gap + 1;
+            counts[bucket] = count;
+        }
+
+        return new HistogramSnapshot(precisionBits, counts);
+    }
+}
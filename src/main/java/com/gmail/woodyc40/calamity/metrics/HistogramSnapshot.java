@@ -0,0 +1,233 @@
+package com.gmail.woodyc40.calamity.metrics;
+
+import java.util.Arrays;
+
+/**
+ * An immutable copy of the bucket counts of a
+ * {@link LatencyHistogram}.
+ *
+ * <p>Values computed from a snapshot are only as precise
+ * as its buckets. Percentiles and the maximum are reported
+ * as the highest value counted by their bucket, while the
+ * minimum is reported as the lowest.</p>
+ *
+ * @author caojohnny
+ */
+public final class HistogramSnapshot {
+    /**
+     * The number of bits of precision
+     */
+    private final int precisionBits;
+    /**
+     * The count of each bucket
+     */
+    private final long[] counts;
+    /**
+     * The sum of the counts
+     */
+    private final long totalCount;
+
+    /**
+     * Creates a new snapshot.
+     *
+     * @param precisionBits the number of bits of precision
+     * @param counts the count of each bucket, which is not
+     * copied
+     */
+    HistogramSnapshot(int precisionBits, long[] counts) {
+        this.precisionBits = precisionBits;
+        this.counts = counts;
+
+        long totalCount = 0;
+        for (long count : counts) {
+            totalCount += count;
+        }
+
+        this.totalCount = totalCount;
+    }
+
+    /**
+     * Obtains the number of bits of precision.
+     *
+     * @return the precision
+     */
+    public int precisionBits() {
+        return this.precisionBits;
+    }
+
+    /**
+     * Obtains the number of recorded values.
+     *
+     * @return the total count
+     */
+    public long totalCount() {
+        return this.totalCount;
+    }
+
+    /**
+     * Obtains the number of buckets.
+     *
+     * @return the bucket count
+     */
+    public int bucketCount() {
+        return this.counts.length;
+    }
+
+    /**
+     * Obtains the count of the given bucket.
+     *
+     * @param index the bucket index
+     * @return the count
+     */
+    public long count(int index) {
+        return this.counts[index];
+    }
+
+    /**
+     * Obtains the lowest value counted by the given bucket.
+     *
+     * @param index the bucket index
+     * @return the lowest value
+     */
+    public long lowestValue(int index) {
+        return LatencyHistogram.lowestValue(this.precisionBits, index);
+    }
+
+    /**
+     * Obtains the highest value counted by the given
+     * bucket.
+     *
+     * @param index the bucket index
+     * @return the highest value
+     */
+    public long highestValue(int index) {
+        return LatencyHistogram.highestValue(this.precisionBits, index);
+    }
+
+    /**
+     * Obtains the smallest recorded value.
+     *
+     * @return the minimum, or {@code 0} if nothing was
+     * recorded
+     */
+    public long min() {
+        for (int i = 0; i < this.counts.length; i++) {
+            if (this.counts[i] != 0) {
+                return this.lowestValue(i);
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Obtains the largest recorded value.
+     *
+     * @return the maximum, or {@code 0} if nothing was
+     * recorded
+     */
+    public long max() {
+        for (int i = this.counts.length - 1; i >= 0; i--) {
+            if (this.counts[i] != 0) {
+                return this.highestValue(i);
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Obtains the mean of the recorded values, taking the
+     * midpoint of each bucket.
+     *
+     * @return the mean, or {@code 0} if nothing was
+     * recorded
+     */
+    public double mean() {
+        if (this.totalCount == 0) {
+            return 0;
+        }
+
+        double sum = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            long count = this.counts[i];
+            if (count != 0) {
+                sum += count * ((this.lowestValue(i) + (double) this.highestValue(i)) / 2);
+            }
+        }
+
+        return sum / this.totalCount;
+    }
+
+    /**
+     * Obtains the value below which the given percentage of
+     * recorded values fall.
+     *
+     * @param percentile the percentile, between {@code 0}
+     * and {@code 100}
+     * @return the value at the percentile, or {@code 0} if
+     * nothing was recorded
+     */
+    public long valueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Invalid percentile: " + percentile);
+        }
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * this.totalCount));
+        long seen = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            seen += this.counts[i];
+            if (seen >= target) {
+                return this.highestValue(i);
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Combines this snapshot with another of the same
+     * precision, e.g. to aggregate intervals.
+     *
+     * @param other the other snapshot
+     * @return a new snapshot holding the counts of both
+     */
+    public HistogramSnapshot add(HistogramSnapshot other) {
+        if (other.precisionBits != this.precisionBits) {
+            throw new IllegalArgumentException(String.format("Precision mismatch: %d != %d",
+                    this.precisionBits, other.precisionBits));
+        }
+
+        long[] counts = this.counts.clone();
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+
+        return new HistogramSnapshot(this.precisionBits, counts);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof HistogramSnapshot)) {
+            return false;
+        }
+
+        HistogramSnapshot other = (HistogramSnapshot) obj;
+        return this.precisionBits == other.precisionBits && Arrays.equals(this.counts, other.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.precisionBits + Arrays.hashCode(this.counts);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HistogramSnapshot{count=%d, min=%d, p50=%d, p99=%d, max=%d}",
+                this.totalCount, this.min(), this.valueAtPercentile(50), this.valueAtPercentile(99), this.max());
+    }
+}
@@ -0,0 +1,28 @@
+package com.gmail.woodyc40.calamity.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted when a byte store is allocated or resized to a
+ * length at or above
+ * {@link BufferEvents#largeAllocationThreshold()}.
+ *
+ * @author caojohnny
+ */
+@Name("com.gmail.woodyc40.calamity.LargeAllocation")
+@Label("Large Buffer Allocation")
+@Category({ "Calamity", "Buffer" })
+@Description("Allocation of a byte store at or above the large allocation threshold")
+@StackTrace
+final class LargeAllocationEvent extends jdk.jfr.Event {
+    @Label("Store")
+    String store;
+    @Label("Length")
+    @DataAmount
+    long length;
+}
@@ -0,0 +1,235 @@
+package com.gmail.woodyc40.calamity.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records the distribution of non-negative values, such as
+ * latencies in nanoseconds, into log-linear buckets.
+ *
+ * <p>Values below {@code 2^precisionBits} are counted
+ * exactly. Above that, every power of two is divided into
+ * {@code 2^(precisionBits - 1)} equally sized buckets, so
+ * the relative error of any recorded value is at most
+ * {@code 2^-(precisionBits - 1)}, e.g. about 3% for the
+ * default of {@value #DEFAULT_PRECISION_BITS} bits. Every
+ * non-negative {@code long} can be recorded.</p>
+ *
+ * <p>Recording is a single atomic add on a primitive
+ * array, which is wait-free where the platform supports an
+ * atomic fetch-and-add, so recording threads never wait on
+ * each other or on snapshots. Counts are never reset;
+ * {@link #intervalSnapshot()} instead subtracts the counts
+ * seen by the previous interval snapshot.</p>
+ *
+ * <p>Snapshots are written into a buffer using the
+ * {@link HistogramMarshaller}.</p>
+ *
+ * @author caojohnny
+ */
+public final class LatencyHistogram {
+    /**
+     * The default number of bits of precision
+     */
+    public static final int DEFAULT_PRECISION_BITS = 6;
+    /**
+     * The largest number of bits of precision
+     */
+    public static final int MAX_PRECISION_BITS = 12;
+
+    /**
+     * The number of bits of precision
+     */
+    private final int precisionBits;
+    /**
+     * The count of each bucket
+     */
+    private final AtomicLongArray counts;
+    /**
+     * The counts seen by the last interval snapshot
+     */
+    private long[] lastInterval;
+
+    /**
+     * Creates a new histogram with the default precision.
+     */
+    public LatencyHistogram() {
+        this(DEFAULT_PRECISION_BITS);
+    }
+
+    /**
+     * Creates a new histogram.
+     *
+     * @param precisionBits the number of bits of precision,
+     * between {@code 1} and {@value #MAX_PRECISION_BITS}
+     */
+    public LatencyHistogram(int precisionBits) {
+        checkPrecision(precisionBits);
+        this.precisionBits = precisionBits;
+        this.counts = new AtomicLongArray(bucketCount(precisionBits));
+        this.lastInterval = new long[this.counts.length()];
+    }
+
+    /**
+     * Obtains the number of bits of precision.
+     *
+     * @return the precision
+     */
+    public int precisionBits() {
+        return this.precisionBits;
+    }
+
+    /**
+     * Records a single value.
+     *
+     * @param value the value to record
+     * @throws IllegalArgumentException if the value is
+     * negative
+     */
+    public void record(long value) {
+        this.record(value, 1);
+    }
+
+    /**
+     * Records a value several times.
+     *
+     * @param value the value to record
+     * @param count the number of times to record it
+     * @throws IllegalArgumentException if the value or the
+     * count is negative
+     */
+    public void record(long value, long count) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative count: " + count);
+        }
+
+        this.counts.getAndAdd(bucketIndex(this.precisionBits, value), count);
+    }
+
+    /**
+     * Takes a snapshot of every value recorded since the
+     * histogram was created.
+     *
+     * @return the snapshot
+     */
+    public HistogramSnapshot snapshot() {
+        return new HistogramSnapshot(this.precisionBits, this.read());
+    }
+
+    /**
+     * Takes a snapshot of the values recorded since the
+     * last interval snapshot, or since the histogram was
+     * created if this is the first.
+     *
+     * <p>Values recorded while the snapshot is being taken
+     * fall into either this interval or the next, but are
+     * never lost or counted twice.</p>
+     *
+     * @return the snapshot
+     */
+    public synchronized HistogramSnapshot intervalSnapshot() {
+        long[] current = this.read();
+        long[] interval = new long[current.length];
+        for (int i = 0; i < current.length; i++) {
+            interval[i] = current[i] - this.lastInterval[i];
+        }
+
+        this.lastInterval = current;
+        return new HistogramSnapshot(this.precisionBits, interval);
+    }
+
+    /**
+     * Copies the current counts.
+     *
+     * @return the counts
+     */
+    private long[] read() {
+        long[] counts = new long[this.counts.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = this.counts.get(i);
+        }
+
+        return counts;
+    }
+
+    /**
+     * Ensures that the given precision is supported.
+     *
+     * @param precisionBits the number of bits of precision
+     */
+    static void checkPrecision(int precisionBits) {
+        if (precisionBits < 1 || precisionBits > MAX_PRECISION_BITS) {
+            throw new IllegalArgumentException("Invalid precision: " + precisionBits);
+        }
+    }
+
+    /**
+     * Computes the number of buckets needed to cover every
+     * non-negative {@code long}.
+     *
+     * @param precisionBits the number of bits of precision
+     * @return the bucket count
+     */
+    static int bucketCount(int precisionBits) {
+        int linear = 1 << precisionBits;
+        return linear + (Long.SIZE - 1 - precisionBits) * (linear >>> 1);
+    }
+
+    /**
+     * Computes the bucket which counts the given value.
+     *
+     * @param precisionBits the number of bits of precision
+     * @param value the non-negative value
+     * @return the bucket index
+     */
+    static int bucketIndex(int precisionBits, long value) {
+        int linear = 1 << precisionBits;
+        if (value < linear) {
+            return (int) value;
+        }
+
+        int half = linear >>> 1;
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - precisionBits;
+        return linear + (shift - 1) * half + (int) (value >>> shift) - half;
+    }
+
+    /**
+     * Computes the smallest value counted by the given
+     * bucket.
+     *
+     * @param precisionBits the number of bits of precision
+     * @param index the bucket index
+     * @return the lowest value
+     */
+    static long lowestValue(int precisionBits, int index) {
+        int linear = 1 << precisionBits;
+        if (index < linear) {
+            return index;
+        }
+
+        int half = linear >>> 1;
+        int offset = index - linear;
+        return (long) (offset % half + half) << offset / half + 1;
+    }
+
+    /**
+     * Computes the largest value counted by the given
+     * bucket.
+     *
+     * @param precisionBits the number of bits of precision
+     * @param index the bucket index
+     * @return the highest value
+     */
+    static long highestValue(int precisionBits, int index) {
+        int linear = 1 << precisionBits;
+        if (index < linear) {
+            return index;
+        }
+
+        int shift = (index - linear) / (linear >>> 1) + 1;
+        return lowestValue(precisionBits, index) + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,42 @@
+package com.gmail.woodyc40.calamity.metrics;
+
+/**
+ * The management interface of a
+ * {@link com.gmail.woodyc40.calamity.memory.MemoryGovernor},
+ * registered using
+ * {@link CalamityMBeans#register(String, com.gmail.woodyc40.calamity.memory.MemoryGovernor)}.
+ *
+ * @author caojohnny
+ */
+public interface MemoryGovernorMXBean {
+    /**
+     * Obtains the number of bytes currently in use.
+     *
+     * @return the used bytes
+     */
+    long getUsed();
+
+    /**
+     * Obtains the number of bytes at which backpressure is
+     * applied.
+     *
+     * @return the soft limit
+     */
+    long getSoftLimit();
+
+    /**
+     * Obtains the number of bytes which may never be
+     * exceeded.
+     *
+     * @return the hard limit
+     */
+    long getHardLimit();
+
+    /**
+     * Determines whether or not the memory in use has
+     * reached the soft limit.
+     *
+     * @return {@code true} if backpressure is applied
+     */
+    boolean isUnderPressure();
+}
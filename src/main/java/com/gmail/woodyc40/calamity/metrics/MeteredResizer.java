@@ -0,0 +1,65 @@
+package com.gmail.woodyc40.calamity.metrics;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.bytes.ByteStore;
+import com.gmail.woodyc40.calamity.resize.Resizer;
+
+/**
+ * A resizer which records each invocation of the resizer
+ * that it wraps.
+ *
+ * @author caojohnny
+ */
+final class MeteredResizer implements Resizer {
+    /**
+     * The resizer which performs the resizing
+     */
+    private final Resizer resizer;
+    /**
+     * The metrics which invocations are recorded into
+     */
+    private final BufferMetrics metrics;
+
+    /**
+     * Creates a new metered resizer.
+     *
+     * @param resizer the resizer to wrap
+     * @param metrics the metrics to record into
+     */
+    MeteredResizer(Resizer resizer, BufferMetrics metrics) {
+        this.resizer = resizer;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void resize(StrippedCalamityBuf buf, int beginIndex, int length) {
+        ByteStore store = buf.byteStore();
+        int oldLength = store.length();
+        this.resizer.resize(buf, beginIndex, length);
+        this.metrics.recordResize(oldLength, store.length());
+    }
+
+    @Override
+    public void shrink(StrippedCalamityBuf buf) {
+        ByteStore store = buf.byteStore();
+        int oldLength = store.length();
+        this.resizer.shrink(buf);
+        this.metrics.recordShrink(oldLength, store.length());
+    }
+
+    @Override
+    public void init(CalamityBuf buf) {
+        this.resizer.init(buf);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return this.resizer.isThreadSafe();
+    }
+
+    @Override
+    public void free() {
+        this.resizer.free();
+    }
+}
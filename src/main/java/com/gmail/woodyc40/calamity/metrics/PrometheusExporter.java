@@ -0,0 +1,498 @@
+package com.gmail.woodyc40.calamity.metrics;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.bytes.ArrayByteStore;
+import com.gmail.woodyc40.calamity.memory.MemoryGovernor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Serves buffer metrics and memory governors over HTTP in
+ * the Prometheus text exposition format.
+ *
+ * <p>The exporter listens on {@code /metrics} using the
+ * JDK's built-in HTTP server, handling scrapes on a single
+ * daemon thread. Each scrape renders every metric which
+ * has been added into the same reused buffer, so that
+ * scraping allocates very little once the buffer has grown
+ * to fit. Metrics are only summed when they are scraped,
+ * and buffers recording into them are never blocked by the
+ * exporter.</p>
+ *
+ * @author caojohnny
+ */
+public final class PrometheusExporter implements Closeable {
+    /**
+     * The content type of the text exposition format
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    /**
+     * The path which metrics are served on
+     */
+    public static final String PATH = "/metrics";
+
+    /**
+     * The metrics to render
+     */
+    private final List<Template> templates = new CopyOnWriteArrayList<>();
+    /**
+     * The governors to render
+     */
+    private final List<Governor> governors = new CopyOnWriteArrayList<>();
+    /**
+     * The buffer which every scrape is rendered into
+     */
+    private final CalamityBuf buf = CalamityOptions.newBuilder()
+            .initialLength(4096)
+            .byteStore(ArrayByteStore::new)
+            .newBuf();
+    /**
+     * The server handling scrapes, or {@code null} if the
+     * exporter is not serving
+     */
+    private final HttpServer server;
+    /**
+     * The executor running the server's handler
+     */
+    private final ExecutorService executor;
+    /**
+     * Whether or not the exporter has been closed, only
+     * accessed while holding the exporter's lock
+     */
+    private boolean closed;
+
+    /**
+     * Creates an exporter which is not served, and may only
+     * be rendered using {@link #render(CalamityBuf)}.
+     */
+    public PrometheusExporter() {
+        this.server = null;
+        this.executor = null;
+    }
+
+    /**
+     * Creates an exporter and begins serving metrics on the
+     * given address.
+     *
+     * @param address the address to bind, which may use
+     * port {@code 0} to bind an ephemeral port
+     * @throws IOException if the server could not be bound
+     */
+    public PrometheusExporter(InetSocketAddress address) throws IOException {
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "calamity-prometheus-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.server.createContext(PATH, this::handle);
+        this.server.setExecutor(this.executor);
+        this.server.start();
+    }
+
+    /**
+     * Obtains the address which metrics are served on.
+     *
+     * @return the bound address
+     * @throws IllegalStateException if the exporter is not
+     * served
+     */
+    public InetSocketAddress address() {
+        if (this.server == null) {
+            throw new IllegalStateException("Exporter is not served");
+        }
+
+        return this.server.getAddress();
+    }
+
+    /**
+     * Adds metrics to be rendered, labelled with their name
+     * as the {@code template}.
+     *
+     * @param metrics the metrics to add
+     * @return the current instance of the exporter
+     */
+    public PrometheusExporter add(BufferMetrics metrics) {
+        this.templates.add(new Template(metrics));
+        return this;
+    }
+
+    /**
+     * Adds a governor to be rendered, labelled with the
+     * given name as the {@code governor}.
+     *
+     * @param name the name of the governor
+     * @param governor the governor to add
+     * @return the current instance of the exporter
+     */
+    public PrometheusExporter add(String name, MemoryGovernor governor) {
+        this.governors.add(new Governor(name, governor));
+        return this;
+    }
+
+    /**
+     * Renders every metric into the given buffer, beginning
+     * at its writer index.
+     *
+     * @param to the buffer which to write the metrics into
+     * @return the number of bytes written
+     * @throws IllegalStateException if the exporter has
+     * been closed
+     */
+    public synchronized int render(CalamityBuf to) {
+        CalamityBuf buf = this.render();
+        int start = buf.idx(READER);
+        return to.write(to.idx(WRITER), buf.byteStore().array(), start, buf.idx(WRITER) - start);
+    }
+
+    /**
+     * Renders every metric into the reused buffer, which
+     * is only valid until the next render and must be read
+     * while holding the exporter's lock.
+     *
+     * @return the buffer containing the rendered metrics
+     * between the reader and writer indexes
+     */
+    private CalamityBuf render() {
+        if (this.closed) {
+            throw new IllegalStateException("Exporter is closed");
+        }
+
+        CalamityBuf buf = this.buf;
+        buf.reset();
+
+        this.header("calamity_buffers_allocated_total", "counter", "Buffers allocated");
+        for (Template template : this.templates) {
+            this.sample("calamity_buffers_allocated_total", template, template.metrics.allocated());
+        }
+
+        this.header("calamity_buffers_freed_total", "counter", "Buffers freed");
+        for (Template template : this.templates) {
+            this.sample("calamity_buffers_freed_total", template, template.metrics.freed());
+        }
+
+        this.header("calamity_buffers_live", "gauge", "Buffers allocated but not yet freed");
+        for (Template template : this.templates) {
+            this.sample("calamity_buffers_live", template, template.metrics.live());
+        }
+
+        this.header("calamity_buffer_live_bytes", "gauge", "Bytes held by the stores of live buffers");
+        for (Template template : this.templates) {
+            this.ascii("calamity_buffer_live_bytes");
+            this.ascii("{template=\"");
+            this.bytes(template.label);
+            this.ascii("\",store=\"");
+            String storeType = template.metrics.storeType();
+            this.label(storeType == null ? "" : storeType);
+            this.ascii("\"} ");
+            this.value(template.metrics.liveBytes());
+        }
+
+        this.header("calamity_buffer_resizes_total", "counter", "Resizer invocations");
+        for (Template template : this.templates) {
+            this.sample("calamity_buffer_resizes_total", template, template.metrics.resizes());
+        }
+
+        this.header("calamity_buffer_growths_total", "counter", "Resizes which changed the store length");
+        for (Template template : this.templates) {
+            this.sample("calamity_buffer_growths_total", template, template.metrics.growths());
+        }
+
+        this.header("calamity_buffer_copied_bytes_total", "counter", "Bytes copied by store reallocation");
+        for (Template template : this.templates) {
+            this.sample("calamity_buffer_copied_bytes_total", template, template.metrics.bytesCopied());
+        }
+
+        this.header("calamity_buffer_peak_capacity_bytes", "gauge", "Largest store length reached");
+        for (Template template : this.templates) {
+            this.sample("calamity_buffer_peak_capacity_bytes", template, template.metrics.peakCapacity());
+        }
+
+        this.header("calamity_buffer_wasted_capacity_bytes_total", "counter", "Unwritten capacity of freed buffers");
+        for (Template template : this.templates) {
+            this.sample("calamity_buffer_wasted_capacity_bytes_total", template,
+                    template.metrics.wastedCapacity());
+        }
+
+        this.header("calamity_governor_used_bytes", "gauge", "Bytes reserved from the governor");
+        for (Governor governor : this.governors) {
+            this.sample("calamity_governor_used_bytes", governor, governor.governor.used());
+        }
+
+        this.header("calamity_governor_soft_limit_bytes", "gauge", "Soft limit of the governor");
+        for (Governor governor : this.governors) {
+            this.sample("calamity_governor_soft_limit_bytes", governor, governor.governor.softLimit());
+        }
+
+        this.header("calamity_governor_hard_limit_bytes", "gauge", "Hard limit of the governor");
+        for (Governor governor : this.governors) {
+            this.sample("calamity_governor_hard_limit_bytes", governor, governor.governor.hardLimit());
+        }
+
+        this.header("calamity_governor_under_pressure", "gauge", "1 if usage is above the soft limit");
+        for (Governor governor : this.governors) {
+            this.sample("calamity_governor_under_pressure", governor, governor.governor.isUnderPressure() ? 1 : 0);
+        }
+
+        return buf;
+    }
+
+    @Override
+    public void close() {
+        if (this.server != null) {
+            this.server.stop(0);
+            this.executor.shutdown();
+        }
+
+        synchronized (this) {
+            if (!this.closed) {
+                this.closed = true;
+                this.buf.free();
+            }
+        }
+    }
+
+    /**
+     * Responds to a scrape.
+     *
+     * @param exchange the scrape
+     * @throws IOException if the response could not be
+     * written
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            boolean head = "HEAD".equals(method);
+            if (!head && !"GET".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            synchronized (this) {
+                CalamityBuf buf = this.render();
+                int start = buf.idx(READER);
+                int length = buf.idx(WRITER) - start;
+                if (head) {
+                    exchange.sendResponseHeaders(200, -1);
+                    return;
+                }
+
+                exchange.sendResponseHeaders(200, length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(buf.byteStore().array(), start, length);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Renders the {@code HELP} and {@code TYPE} lines of a
+     * metric family.
+     *
+     * @param name the name of the family
+     * @param type the type of the family
+     * @param help the help text
+     */
+    private void header(String name, String type, String help) {
+        this.ascii("# HELP ");
+        this.ascii(name);
+        this.write((byte) ' ');
+        this.ascii(help);
+        this.ascii("\n# TYPE ");
+        this.ascii(name);
+        this.write((byte) ' ');
+        this.ascii(type);
+        this.write((byte) '\n');
+    }
+
+    /**
+     * Renders a sample labelled with the template name.
+     *
+     * @param name the name of the metric
+     * @param template the labelled template
+     * @param value the value of the sample
+     */
+    private void sample(String name, Template template, long value) {
+        this.ascii(name);
+        this.ascii("{template=\"");
+        this.bytes(template.label);
+        this.ascii("\"} ");
+        this.value(value);
+    }
+
+    /**
+     * Renders a sample labelled with the governor name.
+     *
+     * @param name the name of the metric
+     * @param governor the labelled governor
+     * @param value the value of the sample
+     */
+    private void sample(String name, Governor governor, long value) {
+        this.ascii(name);
+        this.ascii("{governor=\"");
+        this.bytes(governor.label);
+        this.ascii("\"} ");
+        this.value(value);
+    }
+
+    /**
+     * Renders a value followed by the end of the line.
+     *
+     * @param value the value
+     */
+    private void value(long value) {
+        if (value < 0) {
+            this.write((byte) '-');
+            value = -value;
+        }
+
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+
+        while (divisor > 0) {
+            this.write((byte) ('0' + value / divisor % 10));
+            divisor /= 10;
+        }
+
+        this.write((byte) '\n');
+    }
+
+    /**
+     * Renders an escaped label value, replacing characters
+     * that are not ASCII.
+     *
+     * @param value the label value
+     */
+    private void label(String value) {
+        for (int i = 0, j = value.length(); i < j; i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                this.write((byte) '\\');
+                this.write((byte) c);
+            } else if (c == '\n') {
+                this.write((byte) '\\');
+                this.write((byte) 'n');
+            } else {
+                this.write(c < 0x80 ? (byte) c : (byte) '?');
+            }
+        }
+    }
+
+    /**
+     * Renders an ASCII string.
+     *
+     * @param string the string
+     */
+    private void ascii(String string) {
+        for (int i = 0, j = string.length(); i < j; i++) {
+            this.write((byte) string.charAt(i));
+        }
+    }
+
+    /**
+     * Renders raw bytes.
+     *
+     * @param bytes the bytes
+     */
+    private void bytes(byte[] bytes) {
+        for (byte b : bytes) {
+            this.write(b);
+        }
+    }
+
+    /**
+     * Appends a byte to the buffer, resizing it if needed.
+     *
+     * @param b the byte
+     */
+    private void write(byte b) {
+        CalamityBuf buf = this.buf;
+        int idx = buf.idx(WRITER);
+        buf.resizer().resize(buf, idx, 1);
+        buf.write(idx, b);
+        buf.idx(WRITER, idx + 1);
+    }
+
+    /**
+     * Encodes an escaped label value ahead of time.
+     *
+     * @param value the label value
+     * @return the UTF-8 encoding of the escaped value
+     */
+    private static byte[] encodeLabel(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Metrics which have been added to the exporter.
+     */
+    private static final class Template {
+        /**
+         * The metrics
+         */
+        private final BufferMetrics metrics;
+        /**
+         * The encoded name of the metrics
+         */
+        private final byte[] label;
+
+        /**
+         * Creates a new template entry.
+         *
+         * @param metrics the metrics
+         */
+        Template(BufferMetrics metrics) {
+            this.metrics = metrics;
+            this.label = encodeLabel(metrics.name());
+        }
+    }
+
+    /**
+     * A governor which has been added to the exporter.
+     */
+    private static final class Governor {
+        /**
+         * The governor
+         */
+        private final MemoryGovernor governor;
+        /**
+         * The encoded name of the governor
+         */
+        private final byte[] label;
+
+        /**
+         * Creates a new governor entry.
+         *
+         * @param name the name of the governor
+         * @param governor the governor
+         */
+        Governor(String name, MemoryGovernor governor) {
+            this.governor = governor;
+            this.label = encodeLabel(name);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.gmail.woodyc40.calamity.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted when a resizer changes the length of a byte
+ * store, timing the reallocation and copy.
+ *
+ * @author caojohnny
+ */
+@Name("com.gmail.woodyc40.calamity.Resize")
+@Label("Buffer Resize")
+@Category({ "Calamity", "Buffer" })
+@Description("Change of the length of a byte store, including the time spent copying its bytes")
+@StackTrace
+final class ResizeEvent extends jdk.jfr.Event {
+    @Label("Store")
+    String store;
+    @Label("Old Length")
+    @DataAmount
+    long oldLength;
+    @Label("New Length")
+    @DataAmount
+    long newLength;
+}
@@ -0,0 +1,35 @@
+package com.gmail.woodyc40.calamity.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Emitted when marshalling an object through a buffer
+ * takes longer than the event's threshold, which is
+ * {@code 1 ms} unless configured otherwise.
+ *
+ * @author caojohnny
+ */
+@Name("com.gmail.woodyc40.calamity.SlowMarshal")
+@Label("Slow Marshalling")
+@Category({ "Calamity", "Marshalling" })
+@Description("Marshaller call which exceeded the duration threshold")
+@StackTrace
+@Threshold("1 ms")
+final class SlowMarshalEvent extends jdk.jfr.Event {
+    @Label("Marshaller")
+    String marshaller;
+    @Label("Type")
+    String type;
+    @Label("Write")
+    @Description("Whether the object was written rather than read")
+    boolean write;
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+}
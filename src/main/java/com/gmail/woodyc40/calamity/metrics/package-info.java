@@ -0,0 +1,32 @@
+/**
+ * Optional instrumentation of buffers.
+ *
+ * <p>Buffers built from a
+ * {@link com.gmail.woodyc40.calamity.CalamityOptions}
+ * template with a
+ * {@link com.gmail.woodyc40.calamity.metrics.BufferMetrics}
+ * record their allocations, resizes and copies into it.
+ * The counters are striped so that they may be left
+ * enabled in production, and buffers built without metrics
+ * do not record anything at all.</p>
+ *
+ * <p>Metrics and memory governors may be exposed over JMX
+ * using {@link com.gmail.woodyc40.calamity.metrics.CalamityMBeans},
+ * or scraped by Prometheus from a
+ * {@link com.gmail.woodyc40.calamity.metrics.PrometheusExporter}.
+ * Independently of the metrics, resizes, large
+ * allocations and slow marshalling are emitted as Flight
+ * Recorder events by
+ * {@link com.gmail.woodyc40.calamity.metrics.BufferEvents}.</p>
+ *
+ * <p>To find the code paths which retain the most buffer
+ * capacity, an
+ * {@link com.gmail.woodyc40.calamity.metrics.AllocationProfiler}
+ * samples the stacks which allocate buffers.</p>
+ *
+ * <p>Latency distributions are recorded by a
+ * {@link com.gmail.woodyc40.calamity.metrics.LatencyHistogram},
+ * whose snapshots are marshalled into buffers by the
+ * {@link com.gmail.woodyc40.calamity.metrics.HistogramMarshaller}.</p>
+ */
+package com.gmail.woodyc40.calamity.metrics;
@@ -3,6 +3,7 @@ package com.gmail.woodyc40.calamity.resize;
 import com.gmail.woodyc40.calamity.CalamityBuf;
 import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
 import com.gmail.woodyc40.calamity.bytes.ByteStore;
+import com.gmail.woodyc40.calamity.metrics.BufferEvents;
 import com.gmail.woodyc40.calamity.util.Constants;
 
 import java.util.function.Supplier;
@@ -37,7 +38,7 @@ public class DoublingResizer implements Resizer {
             throw new OutOfMemoryError(String.format("Buffer length overflow (newLength = %d)", newLength));
         }
 
-        byteStore.setLength(newLength);
+        BufferEvents.setLength(byteStore, newLength);
     }
 
     @Override
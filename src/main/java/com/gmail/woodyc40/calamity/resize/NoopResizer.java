@@ -0,0 +1,48 @@
+package com.gmail.woodyc40.calamity.resize;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.util.Constants;
+
+import java.util.function.Supplier;
+
+/**
+ * A resizing policy that never resizes the buffer.
+ *
+ * <p>This is used when the space that will be written has
+ * already been ensured using another resizer, so that
+ * components writing into the buffer may skip their
+ * capacity checks.</p>
+ *
+ * @author caojohnny
+ */
+public final class NoopResizer implements Resizer {
+    /**
+     * The shared instance of this resizer
+     */
+    public static final NoopResizer INSTANCE = new NoopResizer();
+    public static final Supplier<Resizer> SUPPLIER = Constants.supplyConst(INSTANCE);
+
+    /**
+     * Disables instantiation, use {@link #INSTANCE} instead.
+     */
+    private NoopResizer() {
+    }
+
+    @Override
+    public void resize(StrippedCalamityBuf buf, int beginIndex, int length) {
+    }
+
+    @Override
+    public void init(CalamityBuf buf) {
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public void free() {
+    }
+}
@@ -15,7 +15,10 @@ import com.gmail.woodyc40.calamity.comp.Component;
  * implementors should call
  * {@link com.gmail.woodyc40.calamity.bytes.ByteStore#setLength(int)}
  * whenever necessary to achieve the desired effects of the
- * resizing operation.</p>
+ * resizing operation. Calling
+ * {@link com.gmail.woodyc40.calamity.metrics.BufferEvents#setLength(com.gmail.woodyc40.calamity.bytes.ByteStore, int)}
+ * instead records the resize as a Flight Recorder
+ * event.</p>
  *
  * <p>Resizing need not be done on every invocation of this
  * method, in fact, it is highly discouraged as it may not
@@ -39,4 +42,17 @@ public interface Resizer extends Component {
      * starting at the {@code beginIndex}
      */
     void resize(StrippedCalamityBuf buf, int beginIndex, int length);
+
+    /**
+     * Gives the resizer an opportunity to trim the memory
+     * space held by the given buffer once it has been
+     * reset.
+     *
+     * <p>By default, no trimming is performed and the
+     * capacity of the buffer is retained.</p>
+     *
+     * @param buf the buffer that has been reset
+     */
+    default void shrink(StrippedCalamityBuf buf) {
+    }
 }
\ No newline at end of file
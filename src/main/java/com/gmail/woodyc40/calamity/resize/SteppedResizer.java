@@ -0,0 +1,222 @@
+package com.gmail.woodyc40.calamity.resize;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.bytes.ByteStore;
+import com.gmail.woodyc40.calamity.metrics.BufferEvents;
+import com.gmail.woodyc40.calamity.util.Constants;
+
+import java.util.function.Supplier;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * A resizing policy that will double the length of the
+ * {@link ByteStore} until a threshold is reached, and then
+ * grow it in fixed-size steps in order to bound the amount
+ * of unused capacity held by large buffers.
+ *
+ * <p>Lengths beyond the threshold are always rounded up to
+ * a multiple of the step size, so a step of
+ * {@link Constants#PAGE_SIZE} will produce page-aligned
+ * memory spaces.</p>
+ *
+ * <p>Buffers that have grown beyond the retained length
+ * will be trimmed back down to it when they are reset,
+ * releasing the memory left behind by a spike in
+ * usage.</p>
+ *
+ * @author caojohnny
+ */
+public class SteppedResizer implements Resizer {
+    /**
+     * The default length at which doubling stops, 4 MiB
+     */
+    public static final int DEFAULT_THRESHOLD = 4 << 20;
+    /**
+     * The default step size once the threshold has been
+     * reached, 1 MiB
+     */
+    public static final int DEFAULT_STEP = 1 << 20;
+    /**
+     * The largest step accepted by {@link #mibSteps}, the
+     * most whole MiB which fit into an {@code int}
+     */
+    public static final int MAX_STEP_MIB = Integer.MAX_VALUE >> 20;
+    public static final Supplier<Resizer> SUPPLIER =
+            supplier(DEFAULT_THRESHOLD, DEFAULT_STEP, DEFAULT_THRESHOLD);
+
+    /**
+     * The length up to which the store is doubled
+     */
+    private final int threshold;
+    /**
+     * The number of bytes added per step past the threshold
+     */
+    private final int step;
+    /**
+     * The length which the store is trimmed to on reset
+     */
+    private final int retainLength;
+
+    /**
+     * Creates a new stepped resizing policy.
+     *
+     * @param threshold the length up to which the store is
+     * doubled
+     * @param step the number of bytes which to grow the
+     * store by once the threshold is reached
+     * @param retainLength the maximum length that the
+     * store may keep once the buffer is reset
+     */
+    public SteppedResizer(int threshold, int step, int retainLength) {
+        if (threshold <= 0 || step <= 0 || retainLength < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid growth policy (threshold = %d, step = %d, retainLength = %d)",
+                    threshold, step, retainLength));
+        }
+
+        this.threshold = threshold;
+        this.step = step;
+        this.retainLength = retainLength;
+    }
+
+    /**
+     * Obtains a supplier for a resizer that grows in
+     * {@link Constants#PAGE_SIZE} steps after the given
+     * threshold, and trims back to the threshold on reset.
+     *
+     * @param threshold the length up to which the store is
+     * doubled
+     * @return the resizer supplier
+     */
+    public static Supplier<Resizer> pageSteps(int threshold) {
+        return supplier(threshold, Constants.PAGE_SIZE, threshold);
+    }
+
+    /**
+     * Obtains a supplier for a resizer that grows in steps
+     * of the given number of mebibytes after the given
+     * threshold, and trims back to the threshold on reset.
+     *
+     * @param threshold the length up to which the store is
+     * doubled
+     * @param stepMiB the size of each step, in MiB, between
+     * {@code 1} and {@value #MAX_STEP_MIB}
+     * @return the resizer supplier
+     */
+    public static Supplier<Resizer> mibSteps(int threshold, int stepMiB) {
+        if (stepMiB <= 0 || stepMiB > MAX_STEP_MIB) {
+            throw new IllegalArgumentException(String.format(
+                    "Step must be between 1 and %d MiB (stepMiB = %d)", MAX_STEP_MIB, stepMiB));
+        }
+
+        return supplier(threshold, stepMiB << 20, threshold);
+    }
+
+    /**
+     * Obtains a supplier for a resizer using the given
+     * policy. As the resizer holds no state, the same
+     * instance is shared by all buffers.
+     *
+     * @param threshold the length up to which the store is
+     * doubled
+     * @param step the number of bytes which to grow the
+     * store by once the threshold is reached
+     * @param retainLength the maximum length that the
+     * store may keep once the buffer is reset
+     * @return the resizer supplier
+     */
+    public static Supplier<Resizer> supplier(int threshold, int step, int retainLength) {
+        return Constants.supplyConst(new SteppedResizer(threshold, step, retainLength));
+    }
+
+    /**
+     * Obtains the length up to which the store is doubled.
+     *
+     * @return the doubling threshold
+     */
+    public int threshold() {
+        return this.threshold;
+    }
+
+    /**
+     * Obtains the number of bytes which the store grows by
+     * once the threshold has been reached.
+     *
+     * @return the step size
+     */
+    public int step() {
+        return this.step;
+    }
+
+    /**
+     * Obtains the maximum length which the store may keep
+     * after the buffer is reset.
+     *
+     * @return the retained length
+     */
+    public int retainLength() {
+        return this.retainLength;
+    }
+
+    @Override
+    public void resize(StrippedCalamityBuf buf, int beginIndex, int length) {
+        ByteStore byteStore = buf.byteStore();
+
+        int currentLength = byteStore.length();
+        long requiredLength = (long) beginIndex + length;
+        if (requiredLength <= currentLength) {
+            return;
+        }
+
+        long newLength;
+        if (currentLength < this.threshold) {
+            newLength = Math.min((long) currentLength << 1, this.threshold);
+        } else {
+            newLength = (long) currentLength + this.step;
+        }
+
+        if (requiredLength > newLength) {
+            newLength = requiredLength;
+        }
+
+        if (newLength > this.threshold) {
+            newLength = (newLength + this.step - 1) / this.step * this.step;
+        }
+
+        int maxLength = buf.options().maxLength();
+        if (newLength > maxLength) {
+            if (requiredLength > maxLength) {
+                throw new OutOfMemoryError(String.format("Buffer length overflow (newLength = %d)", requiredLength));
+            }
+
+            newLength = maxLength;
+        }
+
+        BufferEvents.setLength(byteStore, (int) newLength);
+    }
+
+    @Override
+    public void shrink(StrippedCalamityBuf buf) {
+        ByteStore byteStore = buf.byteStore();
+
+        int targetLength = Math.max(this.retainLength, buf.options().initialLength());
+        if (byteStore.length() > targetLength && buf.idx(WRITER) <= targetLength) {
+            BufferEvents.setLength(byteStore, targetLength);
+        }
+    }
+
+    @Override
+    public void init(CalamityBuf buf) {
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public void free() {
+    }
+}
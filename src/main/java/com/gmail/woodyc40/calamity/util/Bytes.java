@@ -0,0 +1,126 @@
+package com.gmail.woodyc40.calamity.util;
+
+import com.gmail.woodyc40.calamity.bytes.ByteStore;
+
+/**
+ * Functions used to transfer multi-byte values to and from
+ * a {@link ByteStore} in big-endian order.
+ *
+ * <p>When the store exposes its raw array, values are
+ * assembled directly in the array rather than through
+ * one {@link ByteStore#write(int, byte)} call per byte.
+ * None of these functions resize the store, so callers
+ * must ensure that there is enough space beforehand.</p>
+ *
+ * @author caojohnny
+ */
+public final class Bytes {
+    /**
+     * Construction disabled.
+     */
+    private Bytes() {
+    }
+
+    /**
+     * Writes the given short at the given index.
+     *
+     * @param store the store to write into
+     * @param idx the index of the first byte
+     * @param value the value to write
+     */
+    public static void putShort(ByteStore store, int idx, short value) {
+        if (store.isArrayRaw()) {
+            byte[] array = store.array();
+            array[idx] = (byte) (value >> 8);
+            array[idx + 1] = (byte) value;
+            return;
+        }
+
+        store.write(idx, (byte) (value >> 8));
+        store.write(idx + 1, (byte) value);
+    }
+
+    /**
+     * Reads a short from the given index.
+     *
+     * @param store the store to read from
+     * @param idx the index of the first byte
+     * @return the value that was read
+     */
+    public static short getShort(ByteStore store, int idx) {
+        if (store.isArrayRaw()) {
+            byte[] array = store.array();
+            return (short) (array[idx] << 8 | array[idx + 1] & 0xFF);
+        }
+
+        return (short) (store.read(idx) << 8 | store.read(idx + 1) & 0xFF);
+    }
+
+    /**
+     * Writes the given int at the given index.
+     *
+     * @param store the store to write into
+     * @param idx the index of the first byte
+     * @param value the value to write
+     */
+    public static void putInt(ByteStore store, int idx, int value) {
+        if (store.isArrayRaw()) {
+            byte[] array = store.array();
+            array[idx] = (byte) (value >> 24);
+            array[idx + 1] = (byte) (value >> 16);
+            array[idx + 2] = (byte) (value >> 8);
+            array[idx + 3] = (byte) value;
+            return;
+        }
+
+        store.write(idx, (byte) (value >> 24));
+        store.write(idx + 1, (byte) (value >> 16));
+        store.write(idx + 2, (byte) (value >> 8));
+        store.write(idx + 3, (byte) value);
+    }
+
+    /**
+     * Reads an int from the given index.
+     *
+     * @param store the store to read from
+     * @param idx the index of the first byte
+     * @return the value that was read
+     */
+    public static int getInt(ByteStore store, int idx) {
+        if (store.isArrayRaw()) {
+            byte[] array = store.array();
+            return array[idx] << 24 |
+                    (array[idx + 1] & 0xFF) << 16 |
+                    (array[idx + 2] & 0xFF) << 8 |
+                    array[idx + 3] & 0xFF;
+        }
+
+        return store.read(idx) << 24 |
+                (store.read(idx + 1) & 0xFF) << 16 |
+                (store.read(idx + 2) & 0xFF) << 8 |
+                store.read(idx + 3) & 0xFF;
+    }
+
+    /**
+     * Writes the given long at the given index.
+     *
+     * @param store the store to write into
+     * @param idx the index of the first byte
+     * @param value the value to write
+     */
+    public static void putLong(ByteStore store, int idx, long value) {
+        putInt(store, idx, (int) (value >>> 32));
+        putInt(store, idx + 4, (int) value);
+    }
+
+    /**
+     * Reads a long from the given index.
+     *
+     * @param store the store to read from
+     * @param idx the index of the first byte
+     * @return the value that was read
+     */
+    public static long getLong(ByteStore store, int idx) {
+        return (long) getInt(store, idx) << 32 | getInt(store, idx + 4) & 0xFFFFFFFFL;
+    }
+}
@@ -1,5 +1,8 @@
 package com.gmail.woodyc40.calamity.util;
 
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.ManagementFactory;
 import java.util.function.Supplier;
 
 /**
@@ -13,6 +16,17 @@ public final class Constants {
      * data.
      */
     public static final int ARRAY_MAX_SIZE = Integer.MAX_VALUE - 8;
+    /**
+     * The size of a memory page on most platforms, used to
+     * align large allocations.
+     */
+    public static final int PAGE_SIZE = 4096;
+    /**
+     * The smallest heap region size used by the G1 garbage
+     * collector, assumed when the region size of the
+     * running JVM cannot be determined.
+     */
+    public static final int MIN_REGION_SIZE = 1 << 20;
 
     /**
      * Construction disabled.
@@ -30,4 +44,44 @@ public final class Constants {
     public static <T> Supplier<T> supplyConst(T t) {
         return () -> t;
     }
+
+    /**
+     * Obtains the size, in bytes, at which an array
+     * allocation becomes a humongous allocation for the G1
+     * garbage collector, i.e. half of the heap region size
+     * of the running JVM.
+     *
+     * <p>The region size is only detected once, the first
+     * time this method is called.</p>
+     *
+     * @return the humongous allocation threshold
+     */
+    public static int humongousThreshold() {
+        return HumongousThreshold.VALUE;
+    }
+
+    /**
+     * Lazy holder for the humongous allocation threshold,
+     * so that the management beans are not loaded unless
+     * the threshold is actually needed.
+     */
+    private static final class HumongousThreshold {
+        static final int VALUE = detect();
+
+        private static int detect() {
+            long regionSize = 0;
+            try {
+                HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+                regionSize = Long.parseLong(bean.getVMOption("G1HeapRegionSize").getValue());
+            } catch (RuntimeException | LinkageError ignored) {
+                // Not a HotSpot VM, or G1 is not available
+            }
+
+            if (regionSize <= 0) {
+                regionSize = MIN_REGION_SIZE;
+            }
+
+            return (int) Math.min(regionSize >>> 1, ARRAY_MAX_SIZE);
+        }
+    }
 }
\ No newline at end of file
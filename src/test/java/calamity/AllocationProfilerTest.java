@@ -0,0 +1,132 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.metrics.AllocationProfiler;
+import com.gmail.woodyc40.calamity.metrics.AllocationSite;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AllocationProfilerTest {
+    private AllocationProfiler profiler;
+    private CalamityOptions options;
+    private final List<CalamityBuf> bufs = new ArrayList<>();
+
+    @Given("^an allocation profiler sampling every buffer$")
+    public void anAllocationProfilerSamplingEveryBuffer() {
+        this.profiler = new AllocationProfiler(1, 4);
+        this.options = CalamityOptions.newBuilder().profiler(this.profiler);
+    }
+
+    @When("^(\\d+) small buffers are filled from one site$")
+    public void smallBuffersAreFilledFromOneSite(int count) {
+        for (int i = 0; i < count; i++) {
+            this.bufs.add(fill(this.small(), 16));
+        }
+    }
+
+    @And("^(\\d+) oversized buffers are filled from another site$")
+    public void oversizedBuffersAreFilledFromAnotherSite(int count) {
+        for (int i = 0; i < count; i++) {
+            this.bufs.add(fill(this.oversized(), 1025));
+        }
+    }
+
+    @When("^a small buffer is filled and dropped without being freed$")
+    public void aSmallBufferIsFilledAndDropped() {
+        fill(this.leaked(), 16);
+    }
+
+    @And("^the profiled buffers are freed$")
+    public void theProfiledBuffersAreFreed() {
+        for (CalamityBuf buf : this.bufs) {
+            buf.free();
+        }
+    }
+
+    @Then("^the top site by retained capacity should be \"([^\"]*)\" with (\\d+) live buffers retaining (\\d+) bytes$")
+    public void theTopSiteByRetainedCapacityShouldBe(String method, int live, long retained) {
+        AllocationSite site = this.profiler.topByRetainedCapacity(1).get(0);
+        assertEquals(method, site.frames()[0].getMethodName());
+        assertEquals(live, site.liveBuffers());
+        assertEquals(retained, site.retainedCapacity());
+    }
+
+    @And("^the top site by wasted capacity should be \"([^\"]*)\" wasting (\\d+) bytes$")
+    public void theTopSiteByWastedCapacityShouldBe(String method, long wasted) {
+        AllocationSite site = this.profiler.topByWastedCapacity(1).get(0);
+        assertEquals(method, site.frames()[0].getMethodName());
+        assertEquals(wasted, site.wastedCapacity());
+    }
+
+    @And("^the site \"([^\"]*)\" should retain (\\d+) bytes and waste (\\d+) bytes$")
+    public void theSiteShouldRetainAndWaste(String method, long retained, long wasted) {
+        AllocationSite site = this.site(method);
+        assertEquals(retained, site.retainedCapacity());
+        assertEquals(wasted, site.wastedCapacity());
+    }
+
+    @Then("^the profiler should report no sites$")
+    public void theProfilerShouldReportNoSites() {
+        assertTrue(this.profiler.snapshot().isEmpty());
+    }
+
+    @Then("^the site \"([^\"]*)\" should eventually report (\\d+) leaked buffers?$")
+    public void theSiteShouldEventuallyReportLeakedBuffers(String method, long leaked) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            System.gc();
+            for (AllocationSite site : this.profiler.snapshot()) {
+                if (site.frames()[0].getMethodName().equals(method) && site.leaked() == leaked) {
+                    assertEquals(0, site.liveBuffers());
+                    return;
+                }
+            }
+
+            Thread.sleep(20);
+        }
+
+        fail("Leak was not detected: " + this.profiler.snapshot());
+    }
+
+    private AllocationSite site(String method) {
+        for (AllocationSite site : this.profiler.snapshot()) {
+            if (site.frames()[0].getMethodName().equals(method)) {
+                return site;
+            }
+        }
+
+        throw new AssertionError("No site " + method + " in " + this.profiler.snapshot());
+    }
+
+    private CalamityBuf small() {
+        return this.options.newBuf();
+    }
+
+    private CalamityBuf oversized() {
+        return this.options.newBuf();
+    }
+
+    private CalamityBuf leaked() {
+        return this.options.newBuf();
+    }
+
+    private static CalamityBuf fill(CalamityBuf buf, int length) {
+        for (int i = 0; i < length; i++) {
+            buf.resizer().resize(buf, i, 1);
+            buf.write(i, (byte) i);
+        }
+
+        buf.idx(WRITER, length);
+        return buf;
+    }
+}
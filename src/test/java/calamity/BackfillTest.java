@@ -0,0 +1,116 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.WriteBatch;
+import com.gmail.woodyc40.calamity.marshal.RegistryMarshallingResolver;
+import com.gmail.woodyc40.calamity.marshal.VarIntMarshaller;
+import com.gmail.woodyc40.calamity.util.Constants;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class BackfillTest {
+    private CalamityBuf buf;
+    private WriteBatch batch;
+    private int lengthIdx;
+    private int bodyLength;
+    private String body;
+
+    @Given("^a buffer for backfilling$")
+    public void aBufferForBackfilling() {
+        RegistryMarshallingResolver resolver = RegistryMarshallingResolver.newBuilder()
+                .registerDefaults()
+                .build();
+        this.buf = CalamityOptions.newBuilder()
+                .marshaller(Constants.supplyConst(resolver))
+                .newBuf();
+    }
+
+    @When("^an int length is reserved before marshalling \"([^\"]*)\"$")
+    public void anIntLengthIsReserved(String body) {
+        this.body = body;
+        this.lengthIdx = this.buf.reserve(Integer.BYTES);
+        this.bodyLength = this.buf.marshal(body);
+        this.buf.backfillInt(this.lengthIdx, this.bodyLength);
+    }
+
+    @When("^a (\\d+) byte varint length is reserved before marshalling \"([^\"]*)\"$")
+    public void aVarIntLengthIsReserved(int width, String body) {
+        this.body = body;
+        this.lengthIdx = this.buf.reserve(width);
+        this.bodyLength = this.buf.marshal(body);
+        this.buf.backfillVarInt(this.lengthIdx, width, this.bodyLength);
+    }
+
+    @When("^a batch reserves a long before marshalling \"([^\"]*)\"$")
+    public void aBatchReservesALong(String body) {
+        this.body = body;
+        this.batch = this.buf.beginWrite(64);
+        this.lengthIdx = this.batch.reserve(Long.BYTES);
+        this.bodyLength = this.batch.marshal(body);
+    }
+
+    @And("^the batch is committed after backfilling$")
+    public void theBatchIsCommittedAfterBackfilling() {
+        this.batch.backfillLong(this.lengthIdx, this.bodyLength);
+        this.batch.commit();
+    }
+
+    @Then("^the buffer should hold (\\d+) bytes of length followed by the body$")
+    public void theBufferShouldHoldTheFrame(int width) {
+        assertEquals(0, this.lengthIdx);
+        assertEquals(Integer.BYTES + this.body.length(), this.bodyLength);
+        assertEquals(width + this.bodyLength, this.buf.idx(WRITER));
+    }
+
+    @And("^the body length should read back as an int$")
+    public void theBodyLengthShouldReadBackAsAnInt() {
+        assertEquals(this.bodyLength, (int) this.buf.unmarshal(Integer.class));
+        this.assertBody();
+    }
+
+    @And("^the body length should read back as a varint$")
+    public void theBodyLengthShouldReadBackAsAVarInt() {
+        VarIntMarshaller marshaller = new VarIntMarshaller();
+        assertEquals(this.bodyLength, marshaller.readInt(this.buf, this.buf.idx(READER)));
+        this.assertBody();
+    }
+
+    @And("^the body length should read back as a long$")
+    public void theBodyLengthShouldReadBackAsALong() {
+        assertEquals(this.bodyLength, (long) this.buf.unmarshal(Long.class));
+        this.assertBody();
+    }
+
+    @Then("^backfilling an int at the writer index should fail$")
+    public void backfillingAnIntAtTheWriterIndexShouldFail() {
+        try {
+            this.buf.backfillInt(this.buf.idx(WRITER), 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    @And("^backfilling a varint too large for its width should fail$")
+    public void backfillingAVarIntTooLargeShouldFail() {
+        try {
+            this.buf.backfillVarInt(this.lengthIdx, 1, 128);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    private void assertBody() {
+        assertEquals(this.body, this.buf.unmarshal(CharSequence.class).toString());
+        assertEquals(this.buf.idx(WRITER), this.buf.idx(READER));
+    }
+}
@@ -0,0 +1,134 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.marshal.MarshallingResolver;
+import com.gmail.woodyc40.calamity.marshal.RegistryMarshallingResolver;
+import com.gmail.woodyc40.calamity.metrics.BufferEvents;
+import com.gmail.woodyc40.calamity.resize.SteppedResizer;
+import com.gmail.woodyc40.calamity.util.Constants;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class BufferEventsTest {
+    private static final String RESIZE = "com.gmail.woodyc40.calamity.Resize";
+    private static final String LARGE_ALLOCATION = "com.gmail.woodyc40.calamity.LargeAllocation";
+    private static final String SLOW_MARSHAL = "com.gmail.woodyc40.calamity.SlowMarshal";
+
+    private Recording recording;
+    private CalamityBuf buf;
+    private List<RecordedEvent> events;
+
+    @Given("^a flight recording of buffer events$")
+    public void aFlightRecordingOfBufferEvents() {
+        assertTrue(BufferEvents.isAvailable());
+
+        this.recording = new Recording();
+        this.recording.enable(RESIZE);
+        this.recording.enable(LARGE_ALLOCATION);
+        this.recording.enable(SLOW_MARSHAL).withThreshold(Duration.ZERO);
+        this.recording.start();
+    }
+
+    @And("^a large allocation threshold of (\\d+) bytes$")
+    public void aLargeAllocationThresholdOfBytes(int threshold) {
+        BufferEvents.largeAllocationThreshold(threshold);
+    }
+
+    @When("^(\\d+) bytes are written to a recorded buffer$")
+    public void bytesAreWrittenToARecordedBuffer(int length) {
+        MarshallingResolver resolver = RegistryMarshallingResolver.newBuilder().registerDefaults().build();
+        this.buf = CalamityOptions.newBuilder()
+                .marshaller(Constants.supplyConst(resolver))
+                .newBuf();
+        this.buf.write(new byte[length]);
+    }
+
+    @And("^(\\d+) bytes are written to a recorded buffer with a stepped resizer of threshold (\\d+)$")
+    public void bytesAreWrittenToASteppedRecordedBuffer(int length, int threshold) {
+        this.buf = CalamityOptions.newBuilder()
+                .resizer(SteppedResizer.supplier(threshold, threshold, threshold))
+                .newBuf();
+        this.buf.write(new byte[length]);
+    }
+
+    @When("^the recorded buffer is reset$")
+    public void theRecordedBufferIsReset() {
+        this.buf.reset();
+    }
+
+    @And("^a string is marshalled into the recorded buffer$")
+    public void aStringIsMarshalledIntoTheRecordedBuffer() {
+        this.buf.marshal("recorded");
+    }
+
+    @And("^the flight recording is stopped$")
+    public void theFlightRecordingIsStopped() throws IOException {
+        BufferEvents.largeAllocationThreshold(0);
+        this.recording.stop();
+
+        Path file = Files.createTempFile("buffer-events", ".jfr");
+        try {
+            this.recording.dump(file);
+            this.events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().startsWith("com.gmail.woodyc40.calamity."))
+                    .collect(Collectors.toList());
+        } finally {
+            this.recording.close();
+            Files.delete(file);
+        }
+    }
+
+    @Then("^a resize event from (\\d+) to (\\d+) bytes should be recorded$")
+    public void aResizeEventShouldBeRecorded(long oldLength, long newLength) {
+        assertTrue(this.events.stream().anyMatch(event -> event.getEventType().getName().equals(RESIZE) &&
+                event.getLong("oldLength") == oldLength && event.getLong("newLength") == newLength));
+    }
+
+    @And("^a large allocation event of (\\d+) bytes should be recorded$")
+    public void aLargeAllocationEventShouldBeRecorded(long length) {
+        assertTrue(this.events.stream().anyMatch(event -> event.getEventType().getName().equals(LARGE_ALLOCATION) &&
+                event.getLong("length") == length));
+    }
+
+    @Then("^a resize event to (\\d+) bytes should be recorded$")
+    public void aResizeEventToShouldBeRecorded(long newLength) {
+        assertTrue(this.events.stream().anyMatch(event -> event.getEventType().getName().equals(RESIZE) &&
+                event.getLong("newLength") == newLength));
+    }
+
+    @And("^no large allocation event should be recorded$")
+    public void noLargeAllocationEventShouldBeRecorded() {
+        assertTrue(this.events.stream().noneMatch(event -> event.getEventType().getName().equals(LARGE_ALLOCATION)));
+    }
+
+    @And("^a slow marshalling event for \"([^\"]*)\" should be recorded$")
+    public void aSlowMarshallingEventShouldBeRecorded(String type) {
+        assertTrue(this.events.stream().anyMatch(event -> event.getEventType().getName().equals(SLOW_MARSHAL) &&
+                type.equals(event.getString("type")) && event.getBoolean("write") && event.getLong("bytes") > 0));
+    }
+
+    @And("^every recorded buffer event should carry a stack trace$")
+    public void everyRecordedBufferEventShouldCarryAStackTrace() {
+        assertFalse(this.events.isEmpty());
+        for (RecordedEvent event : this.events) {
+            assertNotNull(event.getStackTrace());
+        }
+    }
+}
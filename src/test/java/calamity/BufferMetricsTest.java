@@ -0,0 +1,89 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.metrics.BufferMetrics;
+import com.gmail.woodyc40.calamity.resize.DoublingResizer;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class BufferMetricsTest {
+    private final List<CalamityBuf> bufs = new ArrayList<>();
+    private CalamityOptions options;
+    private BufferMetrics metrics;
+
+    @Given("^options with metrics named \"([^\"]*)\"$")
+    public void optionsWithMetricsNamed(String name) {
+        this.metrics = new BufferMetrics(name);
+        this.options = CalamityOptions.newBuilder().metrics(this.metrics);
+        assertEquals(name, this.options.metrics().name());
+    }
+
+    @Given("^options without metrics$")
+    public void optionsWithoutMetrics() {
+        this.options = CalamityOptions.newBuilder();
+        assertNull(this.options.metrics());
+    }
+
+    @When("^(\\d+) metered buffers are built$")
+    public void meteredBuffersAreBuilt(int count) {
+        for (int i = 0; i < count; i++) {
+            this.bufs.add(this.options.newBuf());
+        }
+    }
+
+    @And("^(\\d+) bytes are written to the first metered buffer$")
+    public void bytesAreWrittenToTheFirstMeteredBuffer(int length) {
+        this.bufs.get(0).write(new byte[length]);
+    }
+
+    @And("^the metered buffers are freed twice$")
+    public void theMeteredBuffersAreFreedTwice() {
+        for (CalamityBuf buf : this.bufs) {
+            buf.free();
+            buf.free();
+        }
+    }
+
+    @Then("^the metrics should count (\\d+) allocated and (\\d+) freed buffers$")
+    public void theMetricsShouldCountAllocatedAndFreedBuffers(long allocated, long freed) {
+        assertEquals(allocated, this.metrics.allocated());
+        assertEquals(freed, this.metrics.freed());
+        assertEquals(allocated - freed, this.metrics.live());
+    }
+
+    @And("^the metrics should count (\\d+) resizes and (\\d+) growths$")
+    public void theMetricsShouldCountResizesAndGrowths(long resizes, long growths) {
+        assertEquals(resizes, this.metrics.resizes());
+        assertEquals(growths, this.metrics.growths());
+    }
+
+    @And("^the metrics should count (\\d+) copied bytes$")
+    public void theMetricsShouldCountCopiedBytes(long copied) {
+        assertEquals(copied, this.metrics.bytesCopied());
+    }
+
+    @And("^the metrics peak capacity should be (\\d+)$")
+    public void theMetricsPeakCapacityShouldBe(long capacity) {
+        assertEquals(capacity, this.metrics.peakCapacity());
+    }
+
+    @And("^the metrics wasted capacity should be (\\d+)$")
+    public void theMetricsWastedCapacityShouldBe(long wasted) {
+        assertEquals(wasted, this.metrics.wastedCapacity());
+    }
+
+    @Then("^the first metered buffer should use the configured resizer$")
+    public void theFirstMeteredBufferShouldUseTheConfiguredResizer() {
+        assertSame(DoublingResizer.SUPPLIER.get(), this.bufs.get(0).resizer());
+    }
+}
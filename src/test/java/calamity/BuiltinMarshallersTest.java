@@ -0,0 +1,111 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.bytes.ChunkedByteStore;
+import com.gmail.woodyc40.calamity.marshal.RegistryMarshallingResolver;
+import com.gmail.woodyc40.calamity.util.Constants;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class BuiltinMarshallersTest {
+    private final RegistryMarshallingResolver resolver = RegistryMarshallingResolver.newBuilder()
+            .registerDefaults()
+            .build();
+    private CalamityBuf buf;
+    private int[] ints;
+    private double[] doubles;
+    private byte[] bytes;
+
+    @Given("^a buffer with the default marshallers$")
+    public void aBufferWithTheDefaultMarshallers() {
+        this.buf = CalamityOptions.newBuilder()
+                .marshaller(Constants.supplyConst(this.resolver))
+                .newBuf();
+    }
+
+    @Given("^a chunked buffer with the default marshallers$")
+    public void aChunkedBufferWithTheDefaultMarshallers() {
+        this.buf = CalamityOptions.newBuilder()
+                .byteStore(() -> new ChunkedByteStore(1024))
+                .marshaller(Constants.supplyConst(this.resolver))
+                .newBuf();
+    }
+
+    @When("^the values 42, -7L, 2.5, true and 'x' are marshalled$")
+    public void theValuesAreMarshalled() {
+        this.buf.marshal(42);
+        this.buf.marshal(-7L);
+        this.buf.marshal(2.5);
+        this.buf.marshal(true);
+        this.buf.marshal('x');
+        assertEquals(4 + 8 + 8 + 1 + 2, this.buf.idx(WRITER));
+    }
+
+    @Then("^the values 42, -7L, 2.5, true and 'x' should be unmarshalled$")
+    public void theValuesShouldBeUnmarshalled() {
+        assertEquals(42, (int) this.buf.unmarshal(int.class));
+        assertEquals(-7L, (long) this.buf.unmarshal(Long.class));
+        assertEquals(2.5, this.buf.unmarshal(double.class), 0);
+        assertEquals(true, this.buf.unmarshal(Boolean.class));
+        assertEquals('x', (char) this.buf.unmarshal(char.class));
+        assertEquals(this.buf.idx(WRITER), this.buf.idx(READER));
+    }
+
+    @When("^an int array and a double array of (\\d+) elements are marshalled$")
+    public void arraysAreMarshalled(int length) {
+        this.ints = new int[length];
+        this.doubles = new double[length];
+        for (int i = 0; i < length; i++) {
+            this.ints[i] = i * 31 - length;
+            this.doubles[i] = i / 3.0;
+        }
+
+        this.buf.marshal(this.ints);
+        this.buf.marshal(this.doubles);
+    }
+
+    @Then("^the int array and the double array should be unmarshalled$")
+    public void arraysShouldBeUnmarshalled() {
+        assertArrayEquals(this.ints, this.buf.unmarshal(int[].class));
+        assertArrayEquals(this.doubles, this.buf.unmarshal(double[].class), 0);
+        assertEquals(this.buf.idx(WRITER), this.buf.idx(READER));
+    }
+
+    @When("^a byte array of (\\d+) elements is marshalled between two ints$")
+    public void aByteArrayIsMarshalled(int length) {
+        this.bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            this.bytes[i] = (byte) (i * 7);
+        }
+
+        this.buf.marshal(1);
+        this.buf.marshal(this.bytes);
+        this.buf.marshal(2);
+        assertEquals(4 + 4 + length + 4, this.buf.idx(WRITER));
+    }
+
+    @Then("^the byte array should be unmarshalled between the two ints$")
+    public void theByteArrayShouldBeUnmarshalled() {
+        assertEquals(1, (int) this.buf.unmarshal(int.class));
+        assertArrayEquals(this.bytes, this.buf.unmarshal(byte[].class));
+        assertEquals(2, (int) this.buf.unmarshal(int.class));
+        assertEquals(this.buf.idx(WRITER), this.buf.idx(READER));
+    }
+
+    @Then("^raw bytes of the buffer should not be unmarshallable$")
+    public void rawBytesShouldNotBeUnmarshallable() {
+        try {
+            this.resolver.defaultMarshaller().read(this.buf, 0);
+            fail("Unmarshalled raw bytes");
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+}
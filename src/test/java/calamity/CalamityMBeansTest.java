@@ -0,0 +1,83 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.memory.MemoryGovernor;
+import com.gmail.woodyc40.calamity.metrics.BufferMetrics;
+import com.gmail.woodyc40.calamity.metrics.CalamityMBeans;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class CalamityMBeansTest {
+    private BufferMetrics metrics;
+    private MemoryGovernor governor;
+    private ObjectName name;
+
+    @Given("^buffer metrics named \"([^\"]*)\" registered as an MBean$")
+    public void bufferMetricsRegisteredAsAnMBean(String name) {
+        this.metrics = new BufferMetrics(name);
+        this.name = CalamityMBeans.register(this.metrics);
+    }
+
+    @Given("^a governor with limits (\\d+) and (\\d+) registered as an MBean named \"([^\"]*)\"$")
+    public void aGovernorRegisteredAsAnMBean(long softLimit, long hardLimit, String name) {
+        this.governor = new MemoryGovernor(softLimit, hardLimit);
+        this.name = CalamityMBeans.register(name, this.governor);
+    }
+
+    @When("^(\\d+) buffers are built with the registered metrics$")
+    public void buffersAreBuiltWithTheRegisteredMetrics(int count) {
+        CalamityOptions options = CalamityOptions.newBuilder().metrics(this.metrics);
+        for (int i = 0; i < count; i++) {
+            options.newBuf();
+        }
+    }
+
+    @When("^(\\d+) bytes are reserved from the registered governor$")
+    public void bytesAreReservedFromTheRegisteredGovernor(long bytes) {
+        this.governor.reserve(bytes);
+    }
+
+    @Then("^the MBean attribute \"([^\"]*)\" should be (\\d+)$")
+    public void theMBeanAttributeShouldBeNumber(String attribute, long value) throws JMException {
+        assertEquals(value, ManagementFactory.getPlatformMBeanServer().getAttribute(this.name, attribute));
+    }
+
+    @Then("^the MBean attribute \"([^\"]*)\" should be \"([^\"]*)\"$")
+    public void theMBeanAttributeShouldBeString(String attribute, String value) throws JMException {
+        assertEquals(value, ManagementFactory.getPlatformMBeanServer().getAttribute(this.name, attribute));
+    }
+
+    @Then("^the MBean attribute \"([^\"]*)\" should be (true|false)$")
+    public void theMBeanAttributeShouldBeBoolean(String attribute, boolean value) throws JMException {
+        assertEquals(value, ManagementFactory.getPlatformMBeanServer().getAttribute(this.name, attribute));
+    }
+
+    @And("^registering the metrics again should be refused$")
+    public void registeringTheMetricsAgainShouldBeRefused() {
+        try {
+            CalamityMBeans.register(this.metrics);
+            fail("Registered the same metrics twice");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @When("^the MBean is unregistered$")
+    public void theMBeanIsUnregistered() {
+        CalamityMBeans.unregister(this.name);
+    }
+
+    @Then("^the MBean should no longer be registered$")
+    public void theMBeanShouldNoLongerBeRegistered() {
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(this.name));
+    }
+}
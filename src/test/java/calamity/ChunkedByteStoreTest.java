@@ -0,0 +1,58 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.bytes.ChunkedByteStore;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkedByteStoreTest {
+    private CalamityBuf buf;
+
+    private static byte[] sequence(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        return bytes;
+    }
+
+    @Given("^a buffer with chunks below (\\d+) bytes$")
+    public void aBufferWithChunksBelow(int threshold) {
+        this.buf = CalamityOptions.newBuilder()
+                .byteStore(() -> new ChunkedByteStore(threshold))
+                .newBuf();
+    }
+
+    @When("^(\\d+) sequential bytes are written$")
+    public void sequentialBytesAreWritten(int length) {
+        this.buf.write(sequence(length));
+    }
+
+    @Then("^the store should hold (\\d+) chunks of (\\d+) bytes$")
+    public void theStoreShouldHoldChunks(int count, int chunkSize) {
+        ChunkedByteStore store = this.buf.byteStore();
+        assertEquals(chunkSize, store.chunkSize());
+        assertEquals(count * chunkSize, store.length());
+    }
+
+    @And("^the (\\d+) sequential bytes should be read back$")
+    public void theSequentialBytesShouldBeReadBack(int length) {
+        byte[] bytes = new byte[length];
+        assertEquals(length, this.buf.read(bytes));
+        assertArrayEquals(sequence(length), bytes);
+    }
+
+    @Then("^the store array should be raw$")
+    public void theStoreArrayShouldBeRaw() {
+        ChunkedByteStore store = this.buf.byteStore();
+        assertTrue(store.isArrayRaw());
+    }
+}
@@ -0,0 +1,232 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.marshal.GraphMarshaller;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GraphMarshallerTest {
+    private GraphMarshaller marshaller;
+    private CalamityBuf buf;
+    private Frame read;
+    private byte[] first;
+    private byte[] second;
+    private WeakReference<GraphMarshaller> discarded;
+    private Object[] collections;
+
+    private static Frame snapshot() {
+        Frame root = new Frame("main", 1, State.RUNNING);
+        Frame child = new Frame("run", 2, State.WAITING);
+        child.parent = root;
+        root.children.add(child);
+
+        Variable shared = new Variable("shared", 42L, new byte[] { 1, 2, 3 });
+        root.locals = new Object[] { shared, "text", shared, null, new int[] { 4, 5 } };
+        child.locals = new Object[] { shared };
+        child.attributes.put("owner", root);
+        child.attributes.put("count", 7);
+        return root;
+    }
+
+    @Given("^a graph marshaller$")
+    public void aGraphMarshaller() {
+        this.marshaller = new GraphMarshaller();
+        this.buf = CalamityOptions.newBuilder().newBuf();
+    }
+
+    @Given("^a graph marshaller permitting only java classes$")
+    public void aGraphMarshallerPermittingOnlyJavaClasses() {
+        this.marshaller = new GraphMarshaller(type -> type.getName().startsWith("java."));
+        this.buf = CalamityOptions.newBuilder().newBuf();
+    }
+
+    @When("^a snapshot with shared and cyclic references is marshalled$")
+    public void aSnapshotIsMarshalled() {
+        int written = this.marshaller.write(this.buf, this.buf.idx(WRITER), snapshot());
+        assertEquals(written, this.buf.idx(WRITER));
+
+        this.read = (Frame) this.marshaller.read(this.buf, this.buf.idx(READER));
+        assertEquals(this.buf.idx(WRITER), this.buf.idx(READER));
+    }
+
+    @When("^a snapshot with shared and cyclic references is marshalled twice$")
+    public void aSnapshotIsMarshalledTwice() {
+        Frame snapshot = snapshot();
+        int firstLength = this.marshaller.write(this.buf, 0, snapshot);
+        int secondLength = this.marshaller.write(this.buf, firstLength, snapshot);
+
+        this.first = new byte[firstLength];
+        this.second = new byte[secondLength];
+        this.buf.byteStore().read(0, this.first, 0, firstLength);
+        this.buf.byteStore().read(0, this.second, firstLength, secondLength);
+    }
+
+    @Then("^the snapshot should be read back with the same structure$")
+    public void theSnapshotShouldBeReadBack() {
+        assertEquals("main", this.read.name);
+        assertEquals(1, this.read.line);
+        assertEquals(State.RUNNING, this.read.state);
+        assertNull(this.read.parent);
+        assertEquals(1, this.read.children.size());
+
+        Frame child = this.read.children.get(0);
+        assertEquals("run", child.name);
+        assertEquals(State.WAITING, child.state);
+        assertEquals(7, child.attributes.get("count"));
+
+        Variable shared = (Variable) this.read.locals[0];
+        assertEquals("shared", shared.name);
+        assertEquals(42L, shared.value);
+        assertArrayEquals(new byte[] { 1, 2, 3 }, shared.raw);
+        assertEquals("text", this.read.locals[1]);
+        assertNull(this.read.locals[3]);
+        assertArrayEquals(new int[] { 4, 5 }, (int[]) this.read.locals[4]);
+    }
+
+    @And("^shared objects should be read back as the same instance$")
+    public void sharedObjectsShouldBeTheSameInstance() {
+        Frame child = this.read.children.get(0);
+        assertSame(this.read.locals[0], this.read.locals[2]);
+        assertSame(this.read.locals[0], child.locals[0]);
+    }
+
+    @And("^the cycle should be read back as the same instance$")
+    public void theCycleShouldBeTheSameInstance() {
+        Frame child = this.read.children.get(0);
+        assertSame(this.read, child.parent);
+        assertSame(this.read, child.attributes.get("owner"));
+    }
+
+    @Then("^a repeated object should occupy fewer bytes than two copies$")
+    public void aRepeatedObjectShouldOccupyFewerBytes() {
+        Variable variable = new Variable("repeated", 1L, new byte[64]);
+        int once = this.marshaller.write(this.buf, 0, new Object[] { variable });
+        int twice = this.marshaller.write(this.buf, 0, new Object[] { variable, variable });
+        int copies = this.marshaller.write(this.buf, 0,
+                new Object[] { variable, new Variable("repeated", 1L, new byte[64]) });
+
+        assertTrue(twice < once + 8);
+        assertTrue(copies > once + 64);
+    }
+
+    @When("^the graph marshaller writes a list of strings and is discarded$")
+    public void theGraphMarshallerIsDiscarded() {
+        this.marshaller.write(this.buf, 0, new ArrayList<>(Arrays.asList("a", "b")));
+        this.discarded = new WeakReference<>(this.marshaller);
+        this.marshaller = null;
+    }
+
+    @Then("^the discarded graph marshaller should be garbage collected$")
+    public void theDiscardedGraphMarshallerShouldBeCollected() throws InterruptedException {
+        for (int i = 0; i < 50 && this.discarded.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertNull(this.discarded.get());
+    }
+
+    @When("^JDK collections without a public no-arg constructor are marshalled$")
+    public void jdkCollectionsAreMarshalled() {
+        Object[] collections = {
+                Arrays.asList(1, 2),
+                Collections.emptyList(),
+                Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList("a", "b"))),
+                Collections.singletonMap("key", 3L)
+        };
+
+        this.marshaller.write(this.buf, this.buf.idx(WRITER), collections);
+        this.collections = (Object[]) this.marshaller.read(this.buf, this.buf.idx(READER));
+        assertEquals(this.buf.idx(WRITER), this.buf.idx(READER));
+    }
+
+    @Then("^they should be read back as an ArrayList, LinkedHashSet and LinkedHashMap with the same contents$")
+    public void theyShouldBeReadBackAsMutableCopies() {
+        assertEquals(ArrayList.class, this.collections[0].getClass());
+        assertEquals(Arrays.asList(1, 2), this.collections[0]);
+        assertEquals(ArrayList.class, this.collections[1].getClass());
+        assertEquals(Collections.emptyList(), this.collections[1]);
+        assertEquals(LinkedHashSet.class, this.collections[2].getClass());
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<>((LinkedHashSet<?>) this.collections[2]));
+        assertEquals(LinkedHashMap.class, this.collections[3].getClass());
+        assertEquals(Collections.singletonMap("key", 3L), this.collections[3]);
+    }
+
+    @Then("^both messages should be identical$")
+    public void bothMessagesShouldBeIdentical() {
+        assertArrayEquals(this.first, this.second);
+    }
+
+    @Then("^marshalling a snapshot should fail$")
+    public void marshallingASnapshotShouldFail() {
+        this.marshaller.write(this.buf, 0, Arrays.asList(1, 2));
+
+        try {
+            this.marshaller.write(this.buf, 0, snapshot());
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    enum State {
+        RUNNING, WAITING
+    }
+
+    static class Frame {
+        final String name;
+        final int line;
+        final State state;
+        Frame parent;
+        final List<Frame> children = new ArrayList<>();
+        final Map<String, Object> attributes = new HashMap<>();
+        Object[] locals;
+
+        Frame() {
+            this(null, 0, null);
+        }
+
+        Frame(String name, int line, State state) {
+            this.name = name;
+            this.line = line;
+            this.state = state;
+        }
+    }
+
+    static class Variable {
+        String name;
+        long value;
+        byte[] raw;
+
+        Variable() {
+        }
+
+        Variable(String name, long value, byte[] raw) {
+            this.name = name;
+            this.value = value;
+            this.raw = raw;
+        }
+    }
+}
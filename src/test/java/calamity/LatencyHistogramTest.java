@@ -0,0 +1,114 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.marshal.RegistryMarshallingResolver;
+import com.gmail.woodyc40.calamity.metrics.HistogramMarshaller;
+import com.gmail.woodyc40.calamity.metrics.HistogramSnapshot;
+import com.gmail.woodyc40.calamity.metrics.LatencyHistogram;
+import com.gmail.woodyc40.calamity.util.Constants;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LatencyHistogramTest {
+    private LatencyHistogram histogram;
+
+    @Given("^a latency histogram with (\\d+) bits of precision$")
+    public void aLatencyHistogram(int precisionBits) {
+        this.histogram = new LatencyHistogram(precisionBits);
+    }
+
+    @When("^the values (\\d+) through (\\d+) are recorded$")
+    public void theValuesAreRecorded(long from, long to) {
+        for (long value = from; value <= to; value++) {
+            this.histogram.record(value);
+        }
+    }
+
+    @And("^the value (\\d+) is recorded$")
+    public void theValueIsRecorded(long value) {
+        this.histogram.record(value);
+    }
+
+    @Then("^the histogram should count (\\d+) values$")
+    public void theHistogramShouldCount(long count) {
+        assertEquals(count, this.histogram.snapshot().totalCount());
+    }
+
+    @And("^the histogram percentile (\\d+) should be within (\\d+) percent of (\\d+)$")
+    public void theHistogramPercentileShouldBeWithin(double percentile, double error, long expected) {
+        assertWithin(expected, error, this.histogram.snapshot().valueAtPercentile(percentile));
+    }
+
+    @And("^the histogram minimum should be (\\d+)$")
+    public void theHistogramMinimumShouldBe(long min) {
+        assertEquals(min, this.histogram.snapshot().min());
+    }
+
+    @And("^the histogram maximum should be within (\\d+) percent of (\\d+)$")
+    public void theHistogramMaximumShouldBeWithin(double error, long expected) {
+        assertWithin(expected, error, this.histogram.snapshot().max());
+    }
+
+    @And("^the histogram maximum should be (\\d+)$")
+    public void theHistogramMaximumShouldBe(long max) {
+        assertEquals(max, this.histogram.snapshot().max());
+    }
+
+    @Then("^the interval snapshot should count (\\d+) values$")
+    public void theIntervalSnapshotShouldCount(long count) {
+        assertEquals(count, this.histogram.intervalSnapshot().totalCount());
+    }
+
+    @Then("^the marshalled snapshot should occupy fewer than (\\d+) bytes$")
+    public void theMarshalledSnapshotShouldOccupyFewerThan(int bytes) {
+        HistogramSnapshot snapshot = this.histogram.snapshot();
+        HistogramMarshaller marshaller = new HistogramMarshaller();
+        CalamityBuf buf = CalamityOptions.newBuilder().newBuf();
+
+        int size = marshaller.write(buf, 0, snapshot);
+        assertEquals(marshaller.sizeOf(snapshot), size);
+        assertTrue("Occupied " + size + " bytes", size < bytes);
+    }
+
+    @And("^the marshalled snapshot should read back equal to the original$")
+    public void theMarshalledSnapshotShouldReadBackEqual() {
+        RegistryMarshallingResolver resolver = RegistryMarshallingResolver.newBuilder()
+                .register(HistogramSnapshot.class, new HistogramMarshaller())
+                .build();
+        CalamityBuf buf = CalamityOptions.newBuilder()
+                .marshaller(Constants.supplyConst(resolver))
+                .newBuf();
+
+        HistogramSnapshot snapshot = this.histogram.snapshot();
+        int size = buf.marshal(snapshot);
+        assertEquals(size, buf.idx(WRITER));
+        assertEquals(snapshot, buf.unmarshal(HistogramSnapshot.class));
+    }
+
+    private static void assertWithin(long expected, double percent, long actual) {
+        assertTrue(actual + " is not within " + percent + "% of " + expected,
+                Math.abs(actual - expected) <= expected * percent / 100);
+    }
+
+    @Then("^recording the value (-?\\d+) once should be refused$")
+    public void recordingTheValueShouldBeRefused(long value) {
+        this.recordingShouldBeRefused(value, 1);
+    }
+
+    @And("^recording the value (-?\\d+) (-?\\d+) times should be refused$")
+    public void recordingShouldBeRefused(long value, long count) {
+        try {
+            this.histogram.record(value, count);
+            fail("Recorded " + value + " " + count + " times");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.ipc.MappedRing;
+import com.gmail.woodyc40.calamity.metrics.HistogramSnapshot;
+import com.gmail.woodyc40.calamity.metrics.LatencyHistogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+
+/**
+ * Exchanges messages between two processes through a pair
+ * of {@link MappedRing}s.
+ *
+ * <p>Run without arguments to create the rings in a
+ * temporary directory, start an echo process and print the
+ * distribution of round trip latencies:</p>
+ *
+ * <pre>
+ *     java -cp ... calamity.MappedRingDemo [count] [size]
+ * </pre>
+ */
+public final class MappedRingDemo {
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private MappedRingDemo() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 4 && args[0].equals("echo")) {
+            echo(Paths.get(args[1]), Paths.get(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+
+        Path dir = Files.createTempDirectory("calamity-ring");
+        Path requestFile = dir.resolve("requests");
+        Path responseFile = dir.resolve("responses");
+        try (MappedRing requests = MappedRing.create(requestFile, 1 << 16);
+             MappedRing responses = MappedRing.create(responseFile, 1 << 16)) {
+            Process echo = startEcho(requestFile, responseFile, count);
+
+            byte[] message = new byte[size];
+            byte[] echoed = new byte[size];
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (int i = 0; i < count; i++) {
+                long start = System.nanoTime();
+                roundTrip(requests, responses, message, echoed);
+                histogram.record(System.nanoTime() - start);
+            }
+
+            echo.waitFor();
+            HistogramSnapshot snapshot = histogram.snapshot();
+            System.out.printf("%d round trips of %d bytes: p50=%dns p99=%dns p99.9=%dns max=%dns%n",
+                    count, size, snapshot.valueAtPercentile(50), snapshot.valueAtPercentile(99),
+                    snapshot.valueAtPercentile(99.9), snapshot.max());
+        } finally {
+            Files.deleteIfExists(requestFile);
+            Files.deleteIfExists(responseFile);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    /**
+     * Starts a process echoing the given number of messages
+     * from the request ring into the response ring, both of
+     * which must already have been created.
+     */
+    static Process startEcho(Path requestFile, Path responseFile, int count) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                MappedRingDemo.class.getName(), "echo", requestFile.toString(), responseFile.toString(),
+                String.valueOf(count))
+                .inheritIO()
+                .start();
+    }
+
+    /**
+     * Sends a message and waits for it to be echoed back.
+     *
+     * @return the length of the echoed message
+     */
+    static int roundTrip(MappedRing requests, MappedRing responses, byte[] message, byte[] echoed) {
+        CalamityBuf request = requests.claim();
+        request.write(0, message, 0, message.length);
+        requests.publish();
+
+        CalamityBuf response = await(responses);
+        int length = response.idx(WRITER);
+        response.byteStore().read(0, echoed, 0, Math.min(length, echoed.length));
+        responses.release();
+
+        return length;
+    }
+
+    private static void echo(Path requestFile, Path responseFile, int count) throws IOException {
+        try (MappedRing requests = MappedRing.open(requestFile);
+             MappedRing responses = MappedRing.open(responseFile)) {
+            byte[] scratch = new byte[0];
+            for (int i = 0; i < count; i++) {
+                CalamityBuf request = await(requests);
+                int length = request.idx(WRITER);
+                if (scratch.length < length) {
+                    scratch = new byte[length];
+                }
+
+                request.byteStore().read(0, scratch, 0, length);
+                requests.release();
+
+                CalamityBuf response = responses.claim();
+                response.write(0, scratch, 0, length);
+                responses.publish();
+            }
+        }
+    }
+
+    private static CalamityBuf await(MappedRing ring) {
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        CalamityBuf buf;
+        while ((buf = ring.poll()) == null) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("Timed out waiting for a message");
+            }
+
+            Thread.yield();
+        }
+
+        return buf;
+    }
+}
@@ -0,0 +1,262 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.ipc.MappedRing;
+import com.gmail.woodyc40.calamity.metrics.AllocationProfiler;
+import com.gmail.woodyc40.calamity.metrics.BufferMetrics;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MappedRingTest {
+    private static final int DATA_OFFSET = 192;
+
+    private final Random random = new Random(50);
+    private final List<byte[]> sent = new ArrayList<>();
+    private final List<byte[]> received = new ArrayList<>();
+    private MappedRing ring;
+    private MappedRing responses;
+    private Path file;
+    private Path responseFile;
+    private Process echo;
+    private BufferMetrics metrics;
+    private AllocationProfiler profiler;
+
+    @Given("^a mapped ring of (\\d+) bytes$")
+    public void aMappedRing(int capacity) throws IOException {
+        this.file = this.tempFile();
+        this.ring = MappedRing.create(this.file, capacity);
+    }
+
+    @Given("^a mapped ring of (\\d+) bytes created with metrics and a profiler$")
+    public void aMappedRingWithMetrics(int capacity) throws IOException {
+        this.metrics = new BufferMetrics("ring");
+        this.profiler = new AllocationProfiler(1, 4);
+        this.file = this.tempFile();
+        this.ring = MappedRing.create(this.file, capacity, CalamityOptions.newBuilder()
+                .metrics(this.metrics)
+                .profiler(this.profiler));
+    }
+
+    @Given("^a pair of mapped rings of (\\d+) bytes$")
+    public void aPairOfMappedRings(int capacity) throws IOException {
+        this.aMappedRing(capacity);
+        this.responseFile = this.tempFile();
+        this.responses = MappedRing.create(this.responseFile, capacity);
+    }
+
+    @Given("^a file holding (\\d+) zeros$")
+    public void aFileHoldingZeros(int length) throws IOException {
+        this.file = this.tempFile();
+        Files.write(this.file, new byte[length]);
+    }
+
+    @When("^(\\d+) messages of up to (\\d+) bytes are published and polled one at a time$")
+    public void messagesArePublishedAndPolled(int count, int maxLength) {
+        MappedRing reader = this.openRing(this.file);
+        for (int i = 0; i < count; i++) {
+            this.publish(this.message(maxLength));
+
+            CalamityBuf buf = reader.poll();
+            assertNotNull(buf);
+            this.received.add(toBytes(buf));
+            reader.release();
+        }
+    }
+
+    @When("^a message of (\\d+) bytes is published$")
+    public void aMessageIsPublished(int length) {
+        byte[] message = new byte[length];
+        this.random.nextBytes(message);
+        this.publish(message);
+    }
+
+    @Then("^claiming a message of (\\d+) bytes should fail because the ring is full$")
+    public void claimingShouldFail(int length) {
+        try {
+            this.ring.claim().write(0, new byte[length], 0, length);
+            fail("Claimed " + length + " bytes with only " + this.ring.writable() + " writable");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Then("^publishing an empty message should fail because the ring is full$")
+    public void publishingAnEmptyMessageShouldFail() {
+        this.ring.claim();
+        try {
+            this.ring.publish();
+            fail("Published a message with only " + this.ring.writable() + " writable");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Then("^writing to index (\\d+) of a claimed message should fail$")
+    public void writingToIndexShouldFail(int idx) {
+        try {
+            this.ring.claim().write(idx, (byte) 1);
+            fail("Wrote to index " + idx + " with only " + this.ring.writable() + " writable");
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    @And("^the next polled message should match the last published message$")
+    public void theNextPolledMessageShouldMatch() {
+        MappedRing reader = this.openRing(this.file);
+        CalamityBuf buf = reader.poll();
+        assertNotNull(buf);
+        assertArrayEquals(this.sent.get(this.sent.size() - 1), toBytes(buf));
+        reader.release();
+        assertEquals(null, reader.poll());
+    }
+
+    @And("^the length prefix of the published message is overwritten with (-?\\d+)$")
+    public void theLengthPrefixIsOverwritten(int length) throws IOException {
+        ByteBuffer prefix = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, length);
+        try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.WRITE)) {
+            channel.write(prefix, DATA_OFFSET);
+        }
+    }
+
+    @Then("^polling the ring should fail$")
+    public void pollingTheRingShouldFail() {
+        MappedRing reader = this.openRing(this.file);
+        try {
+            reader.poll();
+            fail("Polled a message with a corrupt length");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @When("^the mapped ring is closed$")
+    public void theMappedRingIsClosed() throws IOException {
+        this.ring.close();
+    }
+
+    @Then("^claiming, publishing, polling and releasing the closed ring should fail$")
+    public void usingTheClosedRingShouldFail() {
+        Runnable[] operations = { this.ring::claim, this.ring::publish, this.ring::poll, this.ring::release };
+        for (Runnable operation : operations) {
+            try {
+                operation.run();
+                fail("Used a closed ring");
+            } catch (IllegalStateException e) {
+                assertEquals("Ring is closed", e.getMessage());
+            }
+        }
+    }
+
+    @Then("^the ring metrics and profiler should have recorded no allocations$")
+    public void theRingMetricsShouldHaveRecordedNoAllocations() {
+        assertEquals(0, this.metrics.allocated());
+        assertEquals(0, this.metrics.liveBytes());
+        assertTrue(this.profiler.snapshot().isEmpty());
+    }
+
+    @When("^the published message is polled and released$")
+    public void thePublishedMessageIsPolledAndReleased() {
+        MappedRing reader = this.openRing(this.file);
+        assertNotNull(reader.poll());
+        reader.release();
+        assertEquals(null, reader.poll());
+    }
+
+    @Then("^a message of (\\d+) bytes may be published$")
+    public void aMessageMayBePublished(int length) {
+        this.publish(new byte[length]);
+    }
+
+    @Then("^opening the file as a ring should fail$")
+    public void openingTheFileShouldFail() throws IOException {
+        try {
+            MappedRing.open(this.file).close();
+            fail("Opened a file which is not a ring");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @When("^an echo process is started for (\\d+) messages$")
+    public void anEchoProcessIsStarted(int count) throws IOException {
+        this.echo = MappedRingDemo.startEcho(this.file, this.responseFile, count);
+    }
+
+    @And("^(\\d+) messages of up to (\\d+) bytes are sent through the echo process$")
+    public void messagesAreSentThroughTheEchoProcess(int count, int maxLength) {
+        byte[] echoed = new byte[maxLength];
+        for (int i = 0; i < count; i++) {
+            byte[] message = this.message(maxLength);
+            this.sent.add(message);
+
+            int length = MappedRingDemo.roundTrip(this.ring, this.responses, message, echoed);
+            this.received.add(Arrays.copyOf(echoed, length));
+        }
+    }
+
+    @Then("^every (?:polled|echoed) message should match the (?:published|sent) message$")
+    public void everyMessageShouldMatch() {
+        assertEquals(this.sent.size(), this.received.size());
+        for (int i = 0; i < this.sent.size(); i++) {
+            assertArrayEquals("Message " + i, this.sent.get(i), this.received.get(i));
+        }
+    }
+
+    @And("^the echo process should exit successfully$")
+    public void theEchoProcessShouldExitSuccessfully() throws InterruptedException {
+        assertTrue("Echo process did not exit", this.echo.waitFor(30, TimeUnit.SECONDS));
+        assertEquals(0, this.echo.exitValue());
+    }
+
+    private Path tempFile() throws IOException {
+        Path file = Files.createTempFile("calamity-ring", ".bin");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    private MappedRing openRing(Path file) {
+        try {
+            return MappedRing.open(file);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] message(int maxLength) {
+        byte[] message = new byte[this.random.nextInt(maxLength + 1)];
+        this.random.nextBytes(message);
+        return message;
+    }
+
+    private void publish(byte[] message) {
+        this.sent.add(message);
+        CalamityBuf buf = this.ring.claim();
+        buf.write(0, message, 0, message.length);
+        this.ring.publish();
+    }
+
+    private static byte[] toBytes(CalamityBuf buf) {
+        byte[] bytes = new byte[buf.idx(WRITER)];
+        buf.byteStore().read(0, bytes, 0, bytes.length);
+        return bytes;
+    }
+}
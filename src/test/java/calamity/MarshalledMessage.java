@@ -0,0 +1,84 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.marshal.Marshalled;
+
+import java.util.Objects;
+
+@Marshalled
+public final class MarshalledMessage {
+    private final long id;
+    private final float score;
+    private final String body;
+    private final Header header;
+
+    public MarshalledMessage(long id, float score, String body, Header header) {
+        this.id = id;
+        this.score = score;
+        this.body = body;
+        this.header = header;
+    }
+
+    public long getId() {
+        return this.id;
+    }
+
+    public float getScore() {
+        return this.score;
+    }
+
+    public String body() {
+        return this.body;
+    }
+
+    public Header getHeader() {
+        return this.header;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof MarshalledMessage)) {
+            return false;
+        }
+
+        MarshalledMessage m = (MarshalledMessage) o;
+        return this.id == m.id && this.score == m.score && Objects.equals(this.body, m.body) &&
+                Objects.equals(this.header, m.header);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.id);
+    }
+
+    @Marshalled
+    public static class Header {
+        boolean urgent;
+        char kind;
+        private short version;
+        String tag;
+
+        public short getVersion() {
+            return this.version;
+        }
+
+        public void setVersion(short version) {
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Header)) {
+                return false;
+            }
+
+            Header h = (Header) o;
+            return this.urgent == h.urgent && this.kind == h.kind && this.version == h.version &&
+                    Objects.equals(this.tag, h.tag);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.version;
+        }
+    }
+}
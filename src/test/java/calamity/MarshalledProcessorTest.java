@@ -0,0 +1,77 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.marshal.GeneratedMarshaller;
+import com.gmail.woodyc40.calamity.marshal.PojoMarshallerFactory;
+import com.gmail.woodyc40.calamity.marshal.RegistryMarshallingResolver;
+import com.gmail.woodyc40.calamity.util.Constants;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MarshalledProcessorTest {
+    private CalamityBuf buf;
+    private MarshalledMessage message;
+
+    private static CalamityBuf newBuf(RegistryMarshallingResolver resolver) {
+        return CalamityOptions.newBuilder()
+                .marshaller(Constants.supplyConst(resolver))
+                .newBuf();
+    }
+
+    private static byte[] written(CalamityBuf buf) {
+        byte[] bytes = new byte[buf.idx(WRITER)];
+        buf.read(0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    @Given("^a buffer with the generated marshallers$")
+    public void aBufferWithTheGeneratedMarshallers() {
+        this.buf = newBuf(RegistryMarshallingResolver.newBuilder()
+                .registerDefaults()
+                .registerGenerated(MarshalledProcessorTest.class.getClassLoader())
+                .build());
+    }
+
+    @When("^an annotated message is marshalled$")
+    public void anAnnotatedMessageIsMarshalled() {
+        MarshalledMessage.Header header = new MarshalledMessage.Header();
+        header.urgent = true;
+        header.kind = 'k';
+        header.setVersion((short) 7);
+
+        this.message = new MarshalledMessage(-5L, 0.25F, "body", header);
+        this.buf.marshal(this.message);
+    }
+
+    @Then("^the generated marshaller should be used for the annotated message$")
+    public void theGeneratedMarshallerShouldBeUsed() {
+        assertTrue(this.buf.resolveMarshaller(MarshalledMessage.class) instanceof GeneratedMarshaller);
+        assertTrue(this.buf.resolveMarshaller(MarshalledMessage.Header.class) instanceof GeneratedMarshaller);
+    }
+
+    @And("^an equal annotated message should be unmarshalled$")
+    public void anEqualAnnotatedMessageShouldBeUnmarshalled() {
+        assertEquals(this.message, this.buf.unmarshal(MarshalledMessage.class));
+        assertEquals(this.buf.idx(WRITER), this.buf.idx(READER));
+    }
+
+    @Then("^the bytes should equal those written by a POJO marshaller$")
+    public void theBytesShouldEqualThoseWrittenByAPojoMarshaller() {
+        CalamityBuf pojo = newBuf(RegistryMarshallingResolver.newBuilder()
+                .registerDefaults()
+                .factory(new PojoMarshallerFactory())
+                .build());
+        pojo.marshal(this.message);
+
+        assertArrayEquals(written(pojo), written(this.buf));
+    }
+}
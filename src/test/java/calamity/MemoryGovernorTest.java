@@ -0,0 +1,140 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.memory.MemoryGovernor;
+import com.gmail.woodyc40.calamity.memory.MemoryLimitException;
+import com.gmail.woodyc40.calamity.resize.SteppedResizer;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MemoryGovernorTest {
+    private MemoryGovernor governor;
+    private CalamityBuf buf;
+    private CompletableFuture<Void> relief;
+    private long pressureUsed = -1;
+    private long reliefUsed = -1;
+
+    @Given("^a governor with a soft limit of (\\d+) and a hard limit of (\\d+)$")
+    public void aGovernorWithLimits(long softLimit, long hardLimit) {
+        this.governor = new MemoryGovernor(softLimit, hardLimit);
+        this.governor.addListener(new MemoryGovernor.Listener() {
+            @Override
+            public void onPressure(MemoryGovernor governor, long used) {
+                MemoryGovernorTest.this.pressureUsed = used;
+            }
+
+            @Override
+            public void onRelief(MemoryGovernor governor, long used) {
+                MemoryGovernorTest.this.reliefUsed = used;
+            }
+        });
+    }
+
+    @And("^a governed buffer of (\\d+) bytes$")
+    public void aGovernedBuffer(int length) {
+        this.buf = CalamityOptions.newBuilder()
+                .initialLength(length)
+                .governor(this.governor)
+                .newBuf();
+    }
+
+    @And("^a governed buffer with a stepped resizer of threshold (\\d+) and step (\\d+)$")
+    public void aGovernedBufferWithASteppedResizer(int threshold, int step) {
+        this.buf = CalamityOptions.newBuilder()
+                .resizer(SteppedResizer.supplier(threshold, step, threshold))
+                .governor(this.governor)
+                .newBuf();
+    }
+
+    @When("^the governed buffer is grown to (\\d+) bytes$")
+    public void theGovernedBufferIsGrown(int length) {
+        this.buf.resizer().resize(this.buf, 0, length);
+    }
+
+    @When("^the governed buffer is freed$")
+    public void theGovernedBufferIsFreed() {
+        this.buf.free();
+    }
+
+    @When("^the governed buffer is reset$")
+    public void theGovernedBufferIsReset() {
+        this.buf.reset();
+    }
+
+    @When("^byte (\\d+) is written to index (\\d+) of the governed buffer$")
+    public void byteIsWrittenToTheGovernedBuffer(int b, int idx) {
+        this.buf.write(idx, (byte) b);
+    }
+
+    @Then("^the governor should have (\\d+) bytes in use$")
+    public void theGovernorShouldHaveBytesInUse(long used) {
+        assertEquals(used, this.governor.used());
+    }
+
+    @Then("^the governor should account for the governed buffer capacity$")
+    public void theGovernorShouldAccountForTheCapacity() {
+        assertEquals(this.buf.byteStore().length(), this.governor.used());
+    }
+
+    @Then("^the governor should be under pressure$")
+    public void theGovernorShouldBeUnderPressure() {
+        assertTrue(this.governor.isUnderPressure());
+    }
+
+    @And("^the governor should not be under pressure$")
+    public void theGovernorShouldNotBeUnderPressure() {
+        assertFalse(this.governor.isUnderPressure());
+    }
+
+    @And("^the pressure listener should have been notified with (\\d+) bytes in use$")
+    public void thePressureListenerShouldHaveBeenNotified(long used) {
+        assertEquals(used, this.pressureUsed);
+    }
+
+    @And("^the relief listener should have been notified with (\\d+) bytes in use$")
+    public void theReliefListenerShouldHaveBeenNotified(long used) {
+        assertEquals(used, this.reliefUsed);
+    }
+
+    @And("^the governor should not yet be relieved$")
+    public void theGovernorShouldNotYetBeRelieved() {
+        this.relief = this.governor.relief();
+        assertFalse(this.relief.isDone());
+    }
+
+    @And("^the governor should be relieved$")
+    public void theGovernorShouldBeRelieved() {
+        assertTrue(this.relief.isDone());
+        assertTrue(this.governor.relief().isDone());
+    }
+
+    @Then("^growing the governed buffer to (\\d+) bytes should be refused$")
+    public void growingTheGovernedBufferShouldBeRefused(int length) {
+        try {
+            this.buf.resizer().resize(this.buf, 0, length);
+            fail("Grew beyond the hard limit");
+        } catch (MemoryLimitException e) {
+            assertEquals(this.governor.hardLimit(), e.hardLimit());
+        }
+    }
+
+    @And("^the governed buffer capacity should be (\\d+)$")
+    public void theGovernedBufferCapacityShouldBe(int capacity) {
+        assertEquals(capacity, this.buf.byteStore().length());
+    }
+
+    @And("^index (\\d+) of the governed buffer should hold byte (\\d+)$")
+    public void indexOfTheGovernedBufferShouldHold(int idx, int b) {
+        assertEquals(b, this.buf.read(idx));
+    }
+}
@@ -0,0 +1,138 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.marshal.PojoMarshallerFactory;
+import com.gmail.woodyc40.calamity.marshal.RegistryMarshallingResolver;
+import com.gmail.woodyc40.calamity.util.Constants;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+import static org.junit.Assert.assertEquals;
+
+public class PojoMarshallerTest {
+    private CalamityBuf buf;
+    private Object written;
+
+    @Given("^a buffer with a POJO marshaller factory$")
+    public void aBufferWithAPojoMarshallerFactory() {
+        RegistryMarshallingResolver resolver = RegistryMarshallingResolver.newBuilder()
+                .registerDefaults()
+                .factory(new PojoMarshallerFactory(type -> type.getName().startsWith("calamity.")))
+                .build();
+        this.buf = CalamityOptions.newBuilder()
+                .marshaller(Constants.supplyConst(resolver))
+                .newBuf();
+    }
+
+    @When("^a mutable object with every kind of field is marshalled$")
+    public void aMutableObjectIsMarshalled() {
+        Mutable mutable = new Mutable();
+        mutable.flag = true;
+        mutable.b = -3;
+        mutable.s = -300;
+        mutable.c = 'z';
+        mutable.i = Integer.MIN_VALUE;
+        mutable.f = -1.5F;
+        mutable.l = Long.MAX_VALUE;
+        mutable.d = Math.PI;
+        mutable.name = "mutable";
+        mutable.values = new int[] { 1, 2, 3 };
+        mutable.ignored = 42;
+
+        this.written = mutable;
+        this.buf.marshal(mutable);
+    }
+
+    @Then("^an equal mutable object should be unmarshalled$")
+    public void anEqualMutableObjectShouldBeUnmarshalled() {
+        Mutable mutable = (Mutable) this.written;
+        mutable.ignored = 0;
+
+        assertEquals(mutable, this.buf.unmarshal(Mutable.class));
+        assertEquals(this.buf.idx(WRITER), this.buf.idx(READER));
+    }
+
+    @When("^an immutable object with a nested and a null field is marshalled$")
+    public void anImmutableObjectIsMarshalled() {
+        Immutable nested = new Immutable(1, null, null);
+        Immutable immutable = new Immutable(2, "outer", nested);
+
+        this.written = immutable;
+        this.buf.marshal(immutable);
+    }
+
+    @Then("^an equal immutable object should be unmarshalled$")
+    public void anEqualImmutableObjectShouldBeUnmarshalled() {
+        assertEquals(this.written, this.buf.unmarshal(Immutable.class));
+        assertEquals(this.buf.idx(WRITER), this.buf.idx(READER));
+    }
+
+    static class Base {
+        boolean flag;
+        byte b;
+        short s;
+        char c;
+    }
+
+    static class Mutable extends Base {
+        int i;
+        float f;
+        long l;
+        double d;
+        String name;
+        int[] values;
+        transient int ignored;
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Mutable)) {
+                return false;
+            }
+
+            Mutable m = (Mutable) o;
+            return this.flag == m.flag && this.b == m.b && this.s == m.s && this.c == m.c &&
+                    this.i == m.i && this.f == m.f && this.l == m.l && this.d == m.d &&
+                    Objects.equals(this.name, m.name) && Arrays.equals(this.values, m.values) &&
+                    this.ignored == m.ignored;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.i;
+        }
+    }
+
+    static final class Immutable {
+        private final int id;
+        private final String name;
+        private final Immutable child;
+
+        Immutable(int id, String name, Immutable child) {
+            this.id = id;
+            this.name = name;
+            this.child = child;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Immutable)) {
+                return false;
+            }
+
+            Immutable m = (Immutable) o;
+            return this.id == m.id && Objects.equals(this.name, m.name) && Objects.equals(this.child, m.child);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.id;
+        }
+    }
+}
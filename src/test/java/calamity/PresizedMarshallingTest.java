@@ -0,0 +1,84 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.marshal.DefaultMarshaller;
+import com.gmail.woodyc40.calamity.marshal.PojoMarshallerFactory;
+import com.gmail.woodyc40.calamity.marshal.RegistryMarshallingResolver;
+import com.gmail.woodyc40.calamity.resize.DoublingResizer;
+import com.gmail.woodyc40.calamity.util.Constants;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+import static org.junit.Assert.assertEquals;
+
+public class PresizedMarshallingTest {
+    private CalamityBuf buf;
+    private int resizes;
+    private int computedSize;
+    private int writtenSize;
+
+    @Given("^a buffer counting its resizes$")
+    public void aBufferCountingItsResizes() {
+        RegistryMarshallingResolver resolver = RegistryMarshallingResolver.newBuilder()
+                .registerDefaults()
+                .register(byte[].class, new UnsizedMarshaller())
+                .factory(new PojoMarshallerFactory(type -> type == Point.class))
+                .build();
+        this.buf = CalamityOptions.newBuilder()
+                .resizer(() -> new DoublingResizer() {
+                    @Override
+                    public void resize(StrippedCalamityBuf buf, int beginIndex, int length) {
+                        PresizedMarshallingTest.this.resizes++;
+                        super.resize(buf, beginIndex, length);
+                    }
+                })
+                .marshaller(Constants.supplyConst(resolver))
+                .newBuf();
+    }
+
+    @When("^a batch of an int, a string, a long array and a POJO is marshalled$")
+    public void aBatchOfKnownSizeIsMarshalled() {
+        Object[] batch = { 1, "string", new long[] { 1, 2, 3 }, new Point(3, "point") };
+        this.computedSize = this.buf.sizeOfAll(batch);
+        this.writtenSize = this.buf.marshalAll(batch);
+    }
+
+    @When("^a batch of an int and raw bytes of unknown size is marshalled$")
+    public void aBatchOfUnknownSizeIsMarshalled() {
+        this.buf.marshalAll(1, new byte[] { 1, 2, 3 });
+    }
+
+    @Then("^the batch should occupy its computed size$")
+    public void theBatchShouldOccupyItsComputedSize() {
+        assertEquals(4 + 4 + 6 + 4 + 3 * 8 + 4 + 1 + 4 + 5, this.computedSize);
+        assertEquals(this.computedSize, this.writtenSize);
+        assertEquals(this.computedSize, this.buf.idx(WRITER));
+    }
+
+    @And("^the buffer should have been resized (\\d+) times?$")
+    public void theBufferShouldHaveBeenResized(int times) {
+        assertEquals(times, this.resizes);
+    }
+
+    static class Point {
+        final int x;
+        final String name;
+
+        Point(int x, String name) {
+            this.x = x;
+            this.name = name;
+        }
+    }
+
+    private static class UnsizedMarshaller extends DefaultMarshaller {
+        @Override
+        public int sizeOf(byte[] obj) {
+            return -1;
+        }
+    }
+}
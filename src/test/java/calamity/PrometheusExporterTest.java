@@ -0,0 +1,118 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.memory.MemoryGovernor;
+import com.gmail.woodyc40.calamity.metrics.BufferMetrics;
+import com.gmail.woodyc40.calamity.metrics.PrometheusExporter;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PrometheusExporterTest {
+    private BufferMetrics metrics;
+    private MemoryGovernor governor;
+    private String governorName;
+    private PrometheusExporter exporter;
+
+    @Given("^an exporter with metrics named \"([^\"]*)\" and a governor named \"([^\"]*)\"$")
+    public void anExporterWithMetricsAndAGovernor(String metricsName, String governorName) {
+        this.metrics = new BufferMetrics(metricsName);
+        this.governor = new MemoryGovernor(1024, 2048);
+        this.governorName = governorName;
+        this.exporter = new PrometheusExporter()
+                .add(this.metrics)
+                .add(governorName, this.governor);
+    }
+
+    @And("^the exporter is served on the loopback address$")
+    public void theExporterIsServedOnTheLoopbackAddress() throws IOException {
+        this.exporter.close();
+        this.exporter = new PrometheusExporter(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+                .add(this.metrics)
+                .add(this.governorName, this.governor);
+    }
+
+    @When("^(\\d+) buffers are built with the exported metrics and (\\d+) (?:is|are) freed$")
+    public void buffersAreBuiltWithTheExportedMetrics(int count, int freed) {
+        CalamityOptions options = CalamityOptions.newBuilder().metrics(this.metrics);
+        for (int i = 0; i < count; i++) {
+            CalamityBuf buf = options.newBuf();
+            if (i < freed) {
+                buf.free();
+            }
+        }
+    }
+
+    @And("^(\\d+) bytes are reserved from the exported governor$")
+    public void bytesAreReservedFromTheExportedGovernor(long bytes) {
+        this.governor.reserve(bytes);
+    }
+
+    @Then("^the rendered metrics should contain the line (.*)$")
+    public void theRenderedMetricsShouldContainTheLine(String line) {
+        CalamityBuf buf = CalamityOptions.newBuilder().newBuf();
+        int length = this.exporter.render(buf);
+        assertEquals(buf.idx(WRITER), length);
+
+        String text = new String(Arrays.copyOf(buf.byteStore().array(), length), StandardCharsets.UTF_8);
+        assertLine(text, line);
+    }
+
+    @Then("^scraping the exporter should contain the line (.*)$")
+    public void scrapingTheExporterShouldContainTheLine(String line) throws IOException {
+        InetSocketAddress address = this.exporter.address();
+        URL url = new URL("http", address.getHostString(), address.getPort(), PrometheusExporter.PATH);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            assertEquals(200, connection.getResponseCode());
+            assertEquals(PrometheusExporter.CONTENT_TYPE, connection.getContentType());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (InputStream in = connection.getInputStream()) {
+                byte[] chunk = new byte[4096];
+                for (int read; (read = in.read(chunk)) != -1; ) {
+                    out.write(chunk, 0, read);
+                }
+            }
+
+            assertLine(new String(out.toByteArray(), StandardCharsets.UTF_8), line);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @And("^the exporter is closed$")
+    public void theExporterIsClosed() {
+        this.exporter.close();
+    }
+
+    @And("^rendering the closed exporter should fail$")
+    public void renderingTheClosedExporterShouldFail() {
+        try {
+            this.exporter.render(CalamityOptions.newBuilder().newBuf());
+            fail("Rendered a closed exporter");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    private static void assertLine(String text, String line) {
+        assertTrue("Missing line " + line + " in:\n" + text, Arrays.asList(text.split("\n")).contains(line));
+    }
+}
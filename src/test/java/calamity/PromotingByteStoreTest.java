@@ -0,0 +1,81 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.bytes.DirectByteStore;
+import com.gmail.woodyc40.calamity.bytes.PromotingByteStore;
+import com.gmail.woodyc40.calamity.metrics.BufferMetrics;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PromotingByteStoreTest {
+    private CalamityBuf buf;
+    private BufferMetrics metrics;
+
+    @Given("^a buffer promoted past (\\d+) bytes$")
+    public void aBufferPromotedPast(int promotionLength) {
+        this.buf = CalamityOptions.newBuilder()
+                .byteStore(() -> new PromotingByteStore(promotionLength, DirectByteStore::new))
+                .newBuf();
+    }
+
+    @Given("^a metered buffer promoted past (\\d+) bytes$")
+    public void aMeteredBufferPromotedPast(int promotionLength) {
+        this.metrics = new BufferMetrics("promoting");
+        this.buf = CalamityOptions.newBuilder()
+                .byteStore(() -> new PromotingByteStore(promotionLength, DirectByteStore::new))
+                .metrics(this.metrics)
+                .newBuf();
+    }
+
+    @When("^(\\d+) ascending bytes are written to the promoting buffer$")
+    public void ascendingBytesAreWritten(int count) {
+        byte[] bytes = new byte[count];
+        int start = this.buf.idx(WRITER);
+        for (int i = 0; i < count; i++) {
+            bytes[i] = (byte) (start + i);
+        }
+
+        this.buf.write(bytes);
+    }
+
+    @Then("^the promoting store should not be promoted$")
+    public void theStoreShouldNotBePromoted() {
+        PromotingByteStore store = this.buf.byteStore();
+        assertFalse(store.isPromoted());
+    }
+
+    @Then("^the promoting store should be promoted$")
+    public void theStoreShouldBePromoted() {
+        PromotingByteStore store = this.buf.byteStore();
+        assertTrue(store.isPromoted());
+        assertTrue(store.delegate() instanceof DirectByteStore);
+    }
+
+    @And("^the promoting buffer should hold (\\d+) bytes in ascending order$")
+    public void theBufferShouldHoldBytesInAscendingOrder(int count) {
+        byte[] bytes = new byte[count];
+        assertEquals(count, this.buf.read(bytes));
+        for (int i = 0; i < count; i++) {
+            assertEquals((byte) i, bytes[i]);
+        }
+    }
+
+    @Then("^the promoting buffer should have copied (\\d+) bytes$")
+    public void theBufferShouldHaveCopied(long bytes) {
+        assertEquals(bytes, this.metrics.bytesCopied());
+    }
+
+    @And("^the promoting store should hold (\\d+) bytes$")
+    public void theStoreShouldHold(int length) {
+        PromotingByteStore store = this.buf.byteStore();
+        assertEquals(length, store.delegate().length());
+    }
+}
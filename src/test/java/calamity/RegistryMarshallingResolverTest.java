@@ -0,0 +1,90 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.marshal.Marshaller;
+import com.gmail.woodyc40.calamity.marshal.RegistryMarshallingResolver;
+import com.gmail.woodyc40.calamity.util.Constants;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class RegistryMarshallingResolverTest {
+    private final Marshaller<Number> numberMarshaller = new NoopMarshaller<>();
+    private final Marshaller<CharSequence> charSequenceMarshaller = new NoopMarshaller<>();
+    private RegistryMarshallingResolver resolver;
+    private CalamityBuf buf;
+
+    @Given("^a registry with a marshaller for Number and CharSequence$")
+    public void aRegistryWithMarshallers() {
+        this.resolver = RegistryMarshallingResolver.newBuilder()
+                .register(Number.class, this.numberMarshaller)
+                .register(CharSequence.class, this.charSequenceMarshaller)
+                .build();
+    }
+
+    @Then("^the marshaller for Number should resolve Integer$")
+    public void theNumberMarshallerShouldResolveInteger() {
+        assertSame(this.numberMarshaller, this.resolver.resolveType(Integer.class));
+    }
+
+    @And("^the marshaller for CharSequence should resolve String$")
+    public void theCharSequenceMarshallerShouldResolveString() {
+        assertSame(this.charSequenceMarshaller, this.resolver.resolveType(String.class));
+    }
+
+    @And("^no marshaller should resolve Thread$")
+    public void noMarshallerShouldResolveThread() {
+        assertNull(this.resolver.resolveType(Thread.class));
+    }
+
+    @And("^no marshaller should resolve byte arrays$")
+    public void noMarshallerShouldResolveByteArrays() {
+        assertNull(this.resolver.resolveType(byte[].class));
+    }
+
+    @When("^(\\d+) bytes are written into a registry buffer$")
+    public void bytesAreWritten(int count) {
+        this.buf = CalamityOptions.newBuilder()
+                .marshaller(Constants.supplyConst(this.resolver))
+                .newBuf();
+        this.buf.write(new byte[count]);
+    }
+
+    @Then("^the registry buffer writer index should be (\\d+)$")
+    public void theWriterIndexShouldBe(int idx) {
+        assertEquals(idx, this.buf.idx(WRITER));
+    }
+
+    private static class NoopMarshaller<T> implements Marshaller<T> {
+        @Override
+        public void init(CalamityBuf buf) {
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return true;
+        }
+
+        @Override
+        public void free() {
+        }
+
+        @Override
+        public int write(StrippedCalamityBuf buf, int toIndex, T from, int fromIndex, int length) {
+            return 0;
+        }
+
+        @Override
+        public int read(StrippedCalamityBuf buf, int toIndex, T to, int fromIndex, int length) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.resize.SteppedResizer;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class SteppedResizerTest {
+    private CalamityBuf buf;
+
+    @Given("^a buffer with a stepped resizer of threshold (\\d+) and step (\\d+)$")
+    public void aBufferWithASteppedResizer(int threshold, int step) {
+        this.buf = CalamityOptions.newBuilder()
+                .resizer(SteppedResizer.supplier(threshold, step, threshold))
+                .newBuf();
+    }
+
+    @When("^space for (\\d+) bytes is ensured$")
+    public void spaceForBytesIsEnsured(int length) {
+        this.buf.resizer().resize(this.buf, 0, length);
+    }
+
+    @And("^the stepped buffer is reset$")
+    public void theSteppedBufferIsReset() {
+        this.buf.reset();
+    }
+
+    @Then("^the buffer capacity should be (\\d+)$")
+    public void theBufferCapacityShouldBe(int capacity) {
+        assertEquals(capacity, this.buf.byteStore().length());
+    }
+
+    @Then("^a MiB step of (\\d+) should be accepted$")
+    public void aMiBStepShouldBeAccepted(int stepMiB) {
+        assertEquals(stepMiB << 20, ((SteppedResizer) SteppedResizer.mibSteps(1, stepMiB).get()).step());
+    }
+
+    @And("^a MiB step of (\\d+) should be refused$")
+    public void aMiBStepShouldBeRefused(int stepMiB) {
+        try {
+            SteppedResizer.mibSteps(1, stepMiB);
+            fail("Accepted a step of " + stepMiB + " MiB");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.bytes.ChunkedByteStore;
+import com.gmail.woodyc40.calamity.marshal.RegistryMarshallingResolver;
+import com.gmail.woodyc40.calamity.marshal.StringMarshaller;
+import com.gmail.woodyc40.calamity.util.Constants;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+import static org.junit.Assert.assertEquals;
+
+public class StringMarshallerTest {
+    private static final String[] SAMPLES = {
+            "",
+            "plain ascii",
+            "caf\u00E9 cr\u00E8me",
+            "\u65E5\u672C\u8A9E\u306E\u30C6\u30AD\u30B9\u30C8",
+            "emoji \uD83D\uDE00 pair",
+            "lone \uD800 surrogate"
+    };
+
+    private final RegistryMarshallingResolver resolver = RegistryMarshallingResolver.newBuilder()
+            .registerDefaults()
+            .build();
+    private final List<Integer> sizes = new ArrayList<>();
+    private CalamityBuf buf;
+
+    @Given("^a string buffer backed by an array store$")
+    public void aStringBufferBackedByAnArrayStore() {
+        this.buf = CalamityOptions.newBuilder()
+                .marshaller(Constants.supplyConst(this.resolver))
+                .newBuf();
+    }
+
+    @Given("^a string buffer backed by a chunked store$")
+    public void aStringBufferBackedByAChunkedStore() {
+        this.buf = CalamityOptions.newBuilder()
+                .byteStore(() -> new ChunkedByteStore(64))
+                .marshaller(Constants.supplyConst(this.resolver))
+                .newBuf();
+    }
+
+    @When("^the sample strings are marshalled$")
+    public void theSampleStringsAreMarshalled() {
+        for (String sample : SAMPLES) {
+            this.sizes.add(this.buf.marshal(sample));
+        }
+    }
+
+    @Then("^each sample string should occupy its UTF-8 length$")
+    public void eachSampleShouldOccupyItsUtf8Length() {
+        for (int i = 0; i < SAMPLES.length; i++) {
+            int expected = 4 + SAMPLES[i].getBytes(StandardCharsets.UTF_8).length;
+            assertEquals(expected, (int) this.sizes.get(i));
+        }
+    }
+
+    @And("^the sample strings should be unmarshalled$")
+    public void theSampleStringsShouldBeUnmarshalled() {
+        for (String sample : SAMPLES) {
+            String expected = new String(sample.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+            assertEquals(expected, this.buf.unmarshal(String.class));
+        }
+
+        assertEquals(this.buf.idx(WRITER), this.buf.idx(READER));
+    }
+
+    @When("^a string with a character outside of Latin-1 is marshalled in Latin-1$")
+    public void isMarshalledInLatin1() {
+        StringMarshaller.LATIN_1.write(this.buf, this.buf.idx(WRITER), "caf\u00E9 \u2615");
+    }
+
+    @Then("^the character should be replaced when unmarshalled in Latin-1$")
+    public void shouldBeUnmarshalledInLatin1() {
+        assertEquals("caf\u00E9 ?", StringMarshaller.LATIN_1.read(this.buf, this.buf.idx(READER)));
+    }
+}
@@ -0,0 +1,99 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.bytes.SpillBudget;
+import com.gmail.woodyc40.calamity.bytes.TieredByteStore;
+import com.gmail.woodyc40.calamity.memory.MemoryGovernor;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TieredByteStoreTest {
+    private CalamityBuf buf;
+    private Path spillDirectory;
+    private MemoryGovernor governor;
+
+    private static byte[] pattern(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+
+        return bytes;
+    }
+
+    @Given("^a buffer with (\\d+) byte segments and a budget of (\\d+) bytes$")
+    public void aBufferWithSegmentsAndABudget(int segmentSize, int budget) throws IOException {
+        this.spillDirectory = Files.createTempDirectory("calamity-tiered");
+        this.spillDirectory.toFile().deleteOnExit();
+        this.buf = CalamityOptions.newBuilder()
+                .byteStore(() -> new TieredByteStore(segmentSize, budget, SpillBudget.UNLIMITED,
+                        this.spillDirectory))
+                .newBuf();
+    }
+
+    @Given("^a governed buffer with (\\d+) byte segments and a budget of (\\d+) bytes$")
+    public void aGovernedBufferWithSegmentsAndABudget(int segmentSize, int budget) throws IOException {
+        this.spillDirectory = Files.createTempDirectory("calamity-tiered");
+        this.spillDirectory.toFile().deleteOnExit();
+        this.governor = new MemoryGovernor(Long.MAX_VALUE, Long.MAX_VALUE);
+        this.buf = CalamityOptions.newBuilder()
+                .byteStore(() -> new TieredByteStore(segmentSize, budget, SpillBudget.UNLIMITED,
+                        this.spillDirectory))
+                .governor(this.governor)
+                .newBuf();
+    }
+
+    @When("^the governor of the tiered buffer comes under pressure$")
+    public void theGovernorComesUnderPressure() {
+        this.governor.limits(0, Long.MAX_VALUE);
+        assertTrue(this.governor.isUnderPressure());
+    }
+
+    @When("^(\\d+) patterned bytes are written to the tiered buffer$")
+    public void patternedBytesAreWritten(int length) {
+        this.buf.write(pattern(length));
+    }
+
+    @Then("^the tiered store should hold at most (\\d+) bytes in memory$")
+    public void theStoreShouldHoldAtMost(int bytes) {
+        TieredByteStore store = this.buf.byteStore();
+        assertTrue(store.residentBytes() <= bytes);
+    }
+
+    @Then("^the tiered store should hold exactly (\\d+) bytes in memory$")
+    public void theStoreShouldHoldExactly(int bytes) {
+        TieredByteStore store = this.buf.byteStore();
+        assertEquals(bytes, store.residentBytes());
+    }
+
+    @And("^the (\\d+) patterned bytes should be read back from the tiered buffer$")
+    public void thePatternedBytesShouldBeReadBack(int length) {
+        byte[] bytes = new byte[length];
+        assertEquals(length, this.buf.read(bytes));
+        assertArrayEquals(pattern(length), bytes);
+    }
+
+    @When("^the tiered buffer is freed$")
+    public void theTieredBufferIsFreed() {
+        this.buf.free();
+    }
+
+    @And("^the spill directory should be empty$")
+    public void theSpillDirectoryShouldBeEmpty() throws IOException {
+        try (Stream<Path> files = Files.list(this.spillDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
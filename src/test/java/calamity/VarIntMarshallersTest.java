@@ -0,0 +1,67 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.marshal.RegistryMarshallingResolver;
+import com.gmail.woodyc40.calamity.marshal.VarIntMarshaller;
+import com.gmail.woodyc40.calamity.marshal.ZigZagLongMarshaller;
+import com.gmail.woodyc40.calamity.util.Constants;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.READER;
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+import static org.junit.Assert.assertEquals;
+
+public class VarIntMarshallersTest {
+    private CalamityBuf buf;
+
+    @Given("^a buffer with the varint marshallers$")
+    public void aBufferWithTheVarintMarshallers() {
+        RegistryMarshallingResolver resolver = RegistryMarshallingResolver.newBuilder()
+                .registerDefaults()
+                .build();
+        this.buf = CalamityOptions.newBuilder()
+                .marshaller(Constants.supplyConst(resolver))
+                .newBuf();
+    }
+
+    @When("^the ints (-?\\d+), (-?\\d+), (-?\\d+) and (-?\\d+) are marshalled as varints$")
+    public void theIntsAreMarshalled(int a, int b, int c, int d) {
+        VarIntMarshaller marshaller = this.buf.resolver().resolveMarshal(VarIntMarshaller.class);
+        for (int value : new int[] { a, b, c, d }) {
+            marshaller.writeInt(this.buf, this.buf.idx(WRITER), value);
+        }
+    }
+
+    @And("^the ints (-?\\d+), (-?\\d+), (-?\\d+) and (-?\\d+) should be unmarshalled as varints$")
+    public void theIntsShouldBeUnmarshalled(int a, int b, int c, int d) {
+        VarIntMarshaller marshaller = this.buf.resolver().resolveMarshal(VarIntMarshaller.class);
+        for (int value : new int[] { a, b, c, d }) {
+            assertEquals(value, marshaller.readInt(this.buf, this.buf.idx(READER)));
+        }
+    }
+
+    @When("^the longs (-?\\d+), (-?\\d+), (-?\\d+) and (-?\\d+) are marshalled as ZigZag varints$")
+    public void theLongsAreMarshalled(long a, long b, long c, long d) {
+        ZigZagLongMarshaller marshaller = this.buf.resolver().resolveMarshal(ZigZagLongMarshaller.class);
+        for (long value : new long[] { a, b, c, d }) {
+            marshaller.writeLong(this.buf, this.buf.idx(WRITER), value);
+        }
+    }
+
+    @And("^the longs (-?\\d+), (-?\\d+), (-?\\d+) and (-?\\d+) should be unmarshalled as ZigZag varints$")
+    public void theLongsShouldBeUnmarshalled(long a, long b, long c, long d) {
+        ZigZagLongMarshaller marshaller = this.buf.resolver().resolveMarshal(ZigZagLongMarshaller.class);
+        for (long value : new long[] { a, b, c, d }) {
+            assertEquals(value, marshaller.readLong(this.buf, this.buf.idx(READER)));
+        }
+    }
+
+    @Then("^the buffer writer index should be (\\d+) after the varints$")
+    public void theWriterIndexShouldBe(int idx) {
+        assertEquals(idx, this.buf.idx(WRITER));
+    }
+}
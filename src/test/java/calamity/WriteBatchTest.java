@@ -0,0 +1,100 @@
+package calamity;
+
+import com.gmail.woodyc40.calamity.CalamityBuf;
+import com.gmail.woodyc40.calamity.CalamityOptions;
+import com.gmail.woodyc40.calamity.StrippedCalamityBuf;
+import com.gmail.woodyc40.calamity.WriteBatch;
+import com.gmail.woodyc40.calamity.marshal.RegistryMarshallingResolver;
+import com.gmail.woodyc40.calamity.resize.DoublingResizer;
+import com.gmail.woodyc40.calamity.util.Constants;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import static com.gmail.woodyc40.calamity.indexer.IdentityIndexKey.WRITER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class WriteBatchTest {
+    private CalamityBuf buf;
+    private WriteBatch batch;
+    private int resizes;
+
+    @Given("^a buffer counting resizes for batches$")
+    public void aBufferCountingResizesForBatches() {
+        RegistryMarshallingResolver resolver = RegistryMarshallingResolver.newBuilder()
+                .registerDefaults()
+                .build();
+        this.buf = CalamityOptions.newBuilder()
+                .resizer(() -> new DoublingResizer() {
+                    @Override
+                    public void resize(StrippedCalamityBuf buf, int beginIndex, int length) {
+                        WriteBatchTest.this.resizes++;
+                        super.resize(buf, beginIndex, length);
+                    }
+                })
+                .marshaller(Constants.supplyConst(resolver))
+                .newBuf();
+    }
+
+    @And("^(\\d+) bytes have been written before the batch$")
+    public void bytesHaveBeenWrittenBeforeTheBatch(int count) {
+        this.buf.write(new byte[count]);
+    }
+
+    @When("^a batch of (\\d+) bytes writes an int, a long, a double and a string$")
+    public void aBatchWritesValues(int upperBound) {
+        int start = this.buf.idx(WRITER);
+        this.batch = this.buf.beginWrite(upperBound);
+        this.batch.writeInt(1);
+        this.batch.writeLong(2L);
+        this.batch.writeDouble(3.0);
+        this.batch.marshal("batch");
+
+        assertEquals(start, this.buf.idx(WRITER));
+    }
+
+    @And("^the batch is committed$")
+    public void theBatchIsCommitted() {
+        assertEquals(this.batch.written(), this.batch.commit());
+    }
+
+    @And("^the batch is aborted$")
+    public void theBatchIsAborted() {
+        this.batch.abort();
+    }
+
+    @And("^the batch is closed$")
+    public void theBatchIsClosed() {
+        this.batch.close();
+    }
+
+    @Then("^the writer index should be (\\d+)$")
+    public void theWriterIndexShouldBe(int idx) {
+        assertEquals(idx, this.buf.idx(WRITER));
+    }
+
+    @And("^the batch values should be readable$")
+    public void theBatchValuesShouldBeReadable() {
+        assertEquals(1, (int) this.buf.unmarshal(Integer.class));
+        assertEquals(2L, (long) this.buf.unmarshal(Long.class));
+        assertEquals(3.0, this.buf.unmarshal(Double.class), 0);
+        assertEquals("batch", this.buf.unmarshal(CharSequence.class).toString());
+    }
+
+    @And("^the batch buffer should have been resized (\\d+) times?$")
+    public void theBatchBufferShouldHaveBeenResized(int times) {
+        assertEquals(times, this.resizes);
+    }
+
+    @And("^the batch should no longer accept writes$")
+    public void theBatchShouldNoLongerAcceptWrites() {
+        try {
+            this.batch.writeInt(4);
+            fail();
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+}
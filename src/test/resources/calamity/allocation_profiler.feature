@@ -0,0 +1,20 @@
+Feature: Allocation Profiler
+
+  Scenario: Rank allocation sites by retained and wasted capacity
+    Given an allocation profiler sampling every buffer
+    When 4 small buffers are filled from one site
+    And 2 oversized buffers are filled from another site
+    Then the top site by retained capacity should be "oversized" with 2 live buffers retaining 4096 bytes
+    And the top site by wasted capacity should be "oversized" wasting 2046 bytes
+    And the site "small" should retain 64 bytes and waste 0 bytes
+
+  Scenario: Forget freed buffers
+    Given an allocation profiler sampling every buffer
+    When 4 small buffers are filled from one site
+    And the profiled buffers are freed
+    Then the profiler should report no sites
+
+  Scenario: Count buffers collected without being freed as leaked
+    Given an allocation profiler sampling every buffer
+    When a small buffer is filled and dropped without being freed
+    Then the site "leaked" should eventually report 1 leaked buffer
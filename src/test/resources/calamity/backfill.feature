@@ -0,0 +1,26 @@
+Feature: Backfill
+
+  Scenario: An int length prefix is backfilled after the body is written
+    Given a buffer for backfilling
+    When an int length is reserved before marshalling "framed body"
+    Then the buffer should hold 4 bytes of length followed by the body
+    And the body length should read back as an int
+
+  Scenario: A padded varint length prefix is backfilled after the body is written
+    Given a buffer for backfilling
+    When a 3 byte varint length is reserved before marshalling "framed body"
+    Then the buffer should hold 3 bytes of length followed by the body
+    And the body length should read back as a varint
+
+  Scenario: A length prefix is backfilled within a write batch
+    Given a buffer for backfilling
+    When a batch reserves a long before marshalling "batched body"
+    And the batch is committed after backfilling
+    Then the buffer should hold 8 bytes of length followed by the body
+    And the body length should read back as a long
+
+  Scenario: Bytes beyond the writer index cannot be backfilled
+    Given a buffer for backfilling
+    When an int length is reserved before marshalling "framed body"
+    Then backfilling an int at the writer index should fail
+    And backfilling a varint too large for its width should fail
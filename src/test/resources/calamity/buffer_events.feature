@@ -0,0 +1,21 @@
+Feature: Buffer Events
+
+  Scenario: Record resizes, large allocations and slow marshalling
+    Given a flight recording of buffer events
+    And a large allocation threshold of 1024 bytes
+    When 4096 bytes are written to a recorded buffer
+    And a string is marshalled into the recorded buffer
+    And the flight recording is stopped
+    Then a resize event from 16 to 4096 bytes should be recorded
+    And a large allocation event of 4096 bytes should be recorded
+    And a slow marshalling event for "java.lang.String" should be recorded
+    And every recorded buffer event should carry a stack trace
+
+  Scenario: Shrinking is not recorded as a large allocation
+    Given a large allocation threshold of 1024 bytes
+    And 4096 bytes are written to a recorded buffer with a stepped resizer of threshold 2048
+    And a flight recording of buffer events
+    When the recorded buffer is reset
+    And the flight recording is stopped
+    Then a resize event to 2048 bytes should be recorded
+    And no large allocation event should be recorded
@@ -0,0 +1,17 @@
+Feature: Buffer Metrics
+
+  Scenario: Aggregate allocations, resizes and copies per options template
+    Given options with metrics named "template"
+    When 2 metered buffers are built
+    And 20 bytes are written to the first metered buffer
+    And the metered buffers are freed twice
+    Then the metrics should count 2 allocated and 2 freed buffers
+    And the metrics should count 1 resizes and 1 growths
+    And the metrics should count 16 copied bytes
+    And the metrics peak capacity should be 32
+    And the metrics wasted capacity should be 28
+
+  Scenario: Leave the resizer untouched when metrics are disabled
+    Given options without metrics
+    When 1 metered buffers are built
+    Then the first metered buffer should use the configured resizer
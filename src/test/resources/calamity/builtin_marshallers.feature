@@ -0,0 +1,22 @@
+Feature: Built-in Marshallers
+
+  Scenario: Boxed values are marshalled in order
+    Given a buffer with the default marshallers
+    When the values 42, -7L, 2.5, true and 'x' are marshalled
+    Then the values 42, -7L, 2.5, true and 'x' should be unmarshalled
+
+  Scenario: Primitive arrays are marshalled into an array store
+    Given a buffer with the default marshallers
+    When an int array and a double array of 1000 elements are marshalled
+    Then the int array and the double array should be unmarshalled
+
+  Scenario: Primitive arrays are marshalled into a chunked store
+    Given a chunked buffer with the default marshallers
+    When an int array and a double array of 1000 elements are marshalled
+    Then the int array and the double array should be unmarshalled
+
+  Scenario: Byte arrays are marshalled with their length
+    Given a buffer with the default marshallers
+    When a byte array of 100 elements is marshalled between two ints
+    Then the byte array should be unmarshalled between the two ints
+    And raw bytes of the buffer should not be unmarshallable
@@ -0,0 +1,20 @@
+Feature: Calamity MBeans
+
+  Scenario: Expose buffer metrics over JMX
+    Given buffer metrics named "pooled" registered as an MBean
+    When 3 buffers are built with the registered metrics
+    Then the MBean attribute "Allocated" should be 3
+    And the MBean attribute "Live" should be 3
+    And the MBean attribute "Name" should be "pooled"
+    And registering the metrics again should be refused
+    When the MBean is unregistered
+    Then the MBean should no longer be registered
+
+  Scenario: Expose a memory governor over JMX
+    Given a governor with limits 100 and 200 registered as an MBean named "ingest"
+    When 150 bytes are reserved from the registered governor
+    Then the MBean attribute "Used" should be 150
+    And the MBean attribute "HardLimit" should be 200
+    And the MBean attribute "UnderPressure" should be true
+    When the MBean is unregistered
+    Then the MBean should no longer be registered
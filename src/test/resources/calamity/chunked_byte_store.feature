@@ -0,0 +1,12 @@
+Feature: Chunked Byte Store
+
+  Scenario: Bytes written across chunk boundaries can be read back
+    Given a buffer with chunks below 64 bytes
+    When 100 sequential bytes are written
+    Then the store should hold 4 chunks of 32 bytes
+    And the 100 sequential bytes should be read back
+
+  Scenario: A small store is held in a single raw array
+    Given a buffer with chunks below 64 bytes
+    When 10 sequential bytes are written
+    Then the store array should be raw
@@ -0,0 +1,31 @@
+Feature: Graph Marshaller
+
+  Scenario: Shared and cyclic references are preserved
+    Given a graph marshaller
+    When a snapshot with shared and cyclic references is marshalled
+    Then the snapshot should be read back with the same structure
+    And shared objects should be read back as the same instance
+    And the cycle should be read back as the same instance
+
+  Scenario: Repeated objects are written as back-references
+    Given a graph marshaller
+    Then a repeated object should occupy fewer bytes than two copies
+
+  Scenario: Tables are reset between messages
+    Given a graph marshaller
+    When a snapshot with shared and cyclic references is marshalled twice
+    Then both messages should be identical
+
+  Scenario: Classes rejected by the filter cannot be marshalled
+    Given a graph marshaller permitting only java classes
+    Then marshalling a snapshot should fail
+
+  Scenario: Discarded marshallers are collected
+    Given a graph marshaller
+    When the graph marshaller writes a list of strings and is discarded
+    Then the discarded graph marshaller should be garbage collected
+
+  Scenario: JDK collections without a public no-arg constructor are read back as mutable copies
+    Given a graph marshaller
+    When JDK collections without a public no-arg constructor are marshalled
+    Then they should be read back as an ArrayList, LinkedHashSet and LinkedHashMap with the same contents
@@ -0,0 +1,33 @@
+Feature: Latency Histogram
+
+  Scenario: Bound the error of recorded values
+    Given a latency histogram with 6 bits of precision
+    When the values 1 through 100000 are recorded
+    Then the histogram should count 100000 values
+    And the histogram percentile 50 should be within 3 percent of 50000
+    And the histogram percentile 99 should be within 3 percent of 99000
+    And the histogram minimum should be 1
+    And the histogram maximum should be within 3 percent of 100000
+
+  Scenario: Take interval snapshots
+    Given a latency histogram with 6 bits of precision
+    When the values 1 through 10 are recorded
+    Then the interval snapshot should count 10 values
+    When the values 1000 through 1004 are recorded
+    Then the interval snapshot should count 5 values
+    And the interval snapshot should count 0 values
+    And the histogram should count 15 values
+
+  Scenario: Marshal a snapshot sparsely
+    Given a latency histogram with 6 bits of precision
+    When the values 1 through 100 are recorded
+    And the value 9223372036854775807 is recorded
+    Then the marshalled snapshot should occupy fewer than 200 bytes
+    And the marshalled snapshot should read back equal to the original
+    And the histogram maximum should be 9223372036854775807
+
+  Scenario: Refuse negative values and counts
+    Given a latency histogram with 6 bits of precision
+    Then recording the value -1 once should be refused
+    And recording the value 5 -1 times should be refused
+    And the histogram should count 0 values
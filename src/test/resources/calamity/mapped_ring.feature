@@ -0,0 +1,62 @@
+Feature: Mapped Ring
+
+  Scenario: Exchange messages which wrap around the ring
+    Given a mapped ring of 64 bytes
+    When 200 messages of up to 40 bytes are published and polled one at a time
+    Then every polled message should match the published message
+
+  Scenario: Refuse messages larger than the released space
+    Given a mapped ring of 64 bytes
+    When a message of 40 bytes is published
+    Then claiming a message of 40 bytes should fail because the ring is full
+    When the published message is polled and released
+    Then a message of 40 bytes may be published
+
+  Scenario: Refuse to publish into a full ring
+    Given a mapped ring of 64 bytes
+    When a message of 58 bytes is published
+    Then publishing an empty message should fail because the ring is full
+    And the next polled message should match the last published message
+
+  Scenario: Refuse to publish into a full ring once wrapped around
+    Given a mapped ring of 64 bytes
+    When a message of 30 bytes is published
+    And the published message is polled and released
+    And a message of 58 bytes is published
+    Then publishing an empty message should fail because the ring is full
+    And the next polled message should match the last published message
+
+  Scenario: Refuse direct writes beyond the released space
+    Given a mapped ring of 64 bytes
+    When a message of 40 bytes is published
+    Then writing to index 16 of a claimed message should fail
+    And the next polled message should match the last published message
+
+  Scenario: Refuse corrupt message lengths
+    Given a mapped ring of 64 bytes
+    When a message of 10 bytes is published
+    And the length prefix of the published message is overwritten with 1000
+    Then polling the ring should fail
+    When the length prefix of the published message is overwritten with -1
+    Then polling the ring should fail
+
+  Scenario: Refuse to use a closed ring
+    Given a mapped ring of 64 bytes
+    When the mapped ring is closed
+    Then claiming, publishing, polling and releasing the closed ring should fail
+
+  Scenario: Ring views are neither recorded nor profiled
+    Given a mapped ring of 64 bytes created with metrics and a profiler
+    When a message of 10 bytes is published
+    Then the ring metrics and profiler should have recorded no allocations
+
+  Scenario: Refuse files which do not hold a ring
+    Given a file holding 256 zeros
+    Then opening the file as a ring should fail
+
+  Scenario: Echo messages through another process
+    Given a pair of mapped rings of 4096 bytes
+    When an echo process is started for 500 messages
+    And 500 messages of up to 1000 bytes are sent through the echo process
+    Then every echoed message should match the sent message
+    And the echo process should exit successfully
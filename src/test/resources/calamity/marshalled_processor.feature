@@ -0,0 +1,12 @@
+Feature: Marshalled Annotation Processor
+
+  Scenario: Generated marshallers round-trip annotated classes
+    Given a buffer with the generated marshallers
+    When an annotated message is marshalled
+    Then the generated marshaller should be used for the annotated message
+    And an equal annotated message should be unmarshalled
+
+  Scenario: Generated marshallers write the same bytes as POJO marshallers
+    Given a buffer with the generated marshallers
+    When an annotated message is marshalled
+    Then the bytes should equal those written by a POJO marshaller
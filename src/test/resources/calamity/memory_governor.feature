@@ -0,0 +1,36 @@
+Feature: Memory Governor
+
+  Scenario: Apply backpressure at the soft limit until memory is released
+    Given a governor with a soft limit of 64 and a hard limit of 256
+    And a governed buffer of 16 bytes
+    Then the governor should have 16 bytes in use
+    And the governor should not be under pressure
+    When the governed buffer is grown to 100 bytes
+    Then the governor should be under pressure
+    And the pressure listener should have been notified with 100 bytes in use
+    And the governor should not yet be relieved
+    When the governed buffer is freed
+    Then the governor should have 0 bytes in use
+    And the governor should not be under pressure
+    And the relief listener should have been notified with 0 bytes in use
+    And the governor should be relieved
+
+  Scenario: Refuse allocations beyond the hard limit
+    Given a governor with a soft limit of 64 and a hard limit of 128
+    And a governed buffer of 16 bytes
+    When byte 7 is written to index 3 of the governed buffer
+    Then growing the governed buffer to 200 bytes should be refused
+    And the governed buffer capacity should be 16
+    And the governor should have 16 bytes in use
+    And index 3 of the governed buffer should hold byte 7
+    When byte 9 is written to index 15 of the governed buffer
+    Then index 15 of the governed buffer should hold byte 9
+
+  Scenario: Release memory when a buffer shrinks
+    Given a governor with a soft limit of 1024 and a hard limit of 1024
+    And a governed buffer with a stepped resizer of threshold 64 and step 16
+    When the governed buffer is grown to 200 bytes
+    Then the governor should account for the governed buffer capacity
+    When the governed buffer is reset
+    Then the governed buffer capacity should be 64
+    And the governor should have 64 bytes in use
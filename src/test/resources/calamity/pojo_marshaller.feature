@@ -0,0 +1,11 @@
+Feature: POJO Marshaller
+
+  Scenario: Mutable objects are marshalled field by field
+    Given a buffer with a POJO marshaller factory
+    When a mutable object with every kind of field is marshalled
+    Then an equal mutable object should be unmarshalled
+
+  Scenario: Immutable objects are created through their constructor
+    Given a buffer with a POJO marshaller factory
+    When an immutable object with a nested and a null field is marshalled
+    Then an equal immutable object should be unmarshalled
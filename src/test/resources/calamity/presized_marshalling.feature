@@ -0,0 +1,12 @@
+Feature: Presized Marshalling
+
+  Scenario: A batch of objects of known size is written after one resize
+    Given a buffer counting its resizes
+    When a batch of an int, a string, a long array and a POJO is marshalled
+    Then the batch should occupy its computed size
+    And the buffer should have been resized 1 time
+
+  Scenario: A batch containing an object of unknown size is written normally
+    Given a buffer counting its resizes
+    When a batch of an int and raw bytes of unknown size is marshalled
+    Then the buffer should have been resized 2 times
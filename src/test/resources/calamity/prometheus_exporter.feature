@@ -0,0 +1,20 @@
+Feature: Prometheus exporter
+
+  Scenario: Render metrics in the text exposition format
+    Given an exporter with metrics named "frames" and a governor named "ingest"
+    When 2 buffers are built with the exported metrics and 1 is freed
+    And 24 bytes are reserved from the exported governor
+    Then the rendered metrics should contain the line calamity_buffers_allocated_total{template="frames"} 2
+    And the rendered metrics should contain the line calamity_buffers_live{template="frames"} 1
+    And the rendered metrics should contain the line calamity_buffer_live_bytes{template="frames",store="ArrayByteStore"} 16
+    And the rendered metrics should contain the line calamity_governor_used_bytes{governor="ingest"} 24
+    And the rendered metrics should contain the line # TYPE calamity_buffer_resizes_total counter
+
+  Scenario: Serve metrics over HTTP
+    Given an exporter with metrics named "served" and a governor named "egress"
+    And the exporter is served on the loopback address
+    When 3 buffers are built with the exported metrics and 0 is freed
+    Then scraping the exporter should contain the line calamity_buffers_allocated_total{template="served"} 3
+    And scraping the exporter should contain the line calamity_governor_under_pressure{governor="egress"} 0
+    And the exporter is closed
+    And rendering the closed exporter should fail
@@ -0,0 +1,18 @@
+Feature: Promoting Byte Store
+
+  Scenario: A growing store is promoted off-heap without losing bytes
+    Given a buffer promoted past 64 bytes
+    When 50 ascending bytes are written to the promoting buffer
+    Then the promoting store should not be promoted
+    When 50 ascending bytes are written to the promoting buffer
+    Then the promoting store should be promoted
+    And the promoting buffer should hold 100 bytes in ascending order
+
+  Scenario: Promotion sizes the new store directly
+    Given a metered buffer promoted past 64 bytes
+    When 50 ascending bytes are written to the promoting buffer
+    Then the promoting buffer should have copied 16 bytes
+    When 50 ascending bytes are written to the promoting buffer
+    Then the promoting store should be promoted
+    And the promoting buffer should have copied 66 bytes
+    And the promoting store should hold 100 bytes
@@ -0,0 +1,13 @@
+Feature: Registry Marshalling Resolver
+
+  Scenario: Unregistered types fall back to their supertypes
+    Given a registry with a marshaller for Number and CharSequence
+    Then the marshaller for Number should resolve Integer
+    And the marshaller for CharSequence should resolve String
+    And no marshaller should resolve Thread
+
+  Scenario: Byte arrays are written raw but not marshalled by default
+    Given a registry with a marshaller for Number and CharSequence
+    When 16 bytes are written into a registry buffer
+    Then the registry buffer writer index should be 16
+    And no marshaller should resolve byte arrays
@@ -0,0 +1,22 @@
+Feature: Stepped Resizer
+
+  Scenario: Double below the threshold and step above it
+    Given a buffer with a stepped resizer of threshold 64 and step 16
+    When space for 40 bytes is ensured
+    Then the buffer capacity should be 40
+    When space for 70 bytes is ensured
+    Then the buffer capacity should be 80
+    When space for 81 bytes is ensured
+    Then the buffer capacity should be 96
+
+  Scenario: Trim capacity back down on reset
+    Given a buffer with a stepped resizer of threshold 64 and step 16
+    When space for 200 bytes is ensured
+    And the stepped buffer is reset
+    Then the buffer capacity should be 64
+
+  Scenario: Refuse MiB steps which do not fit into an int
+    Then a MiB step of 2047 should be accepted
+    And a MiB step of 2048 should be refused
+    And a MiB step of 4097 should be refused
+    And a MiB step of 0 should be refused
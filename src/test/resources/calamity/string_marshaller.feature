@@ -0,0 +1,18 @@
+Feature: String Marshaller
+
+  Scenario: Strings are encoded in UTF-8 into an array store
+    Given a string buffer backed by an array store
+    When the sample strings are marshalled
+    Then each sample string should occupy its UTF-8 length
+    And the sample strings should be unmarshalled
+
+  Scenario: Strings are encoded in UTF-8 into a chunked store
+    Given a string buffer backed by a chunked store
+    When the sample strings are marshalled
+    Then each sample string should occupy its UTF-8 length
+    And the sample strings should be unmarshalled
+
+  Scenario: Strings are encoded in Latin-1
+    Given a string buffer backed by an array store
+    When a string with a character outside of Latin-1 is marshalled in Latin-1
+    Then the character should be replaced when unmarshalled in Latin-1
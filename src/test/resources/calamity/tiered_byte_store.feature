@@ -0,0 +1,21 @@
+Feature: Tiered Byte Store
+
+  Scenario: Cold segments are spilled to disk and faulted back in
+    Given a buffer with 16 byte segments and a budget of 48 bytes
+    When 200 patterned bytes are written to the tiered buffer
+    Then the tiered store should hold at most 48 bytes in memory
+    And the 200 patterned bytes should be read back from the tiered buffer
+    And the tiered store should hold at most 48 bytes in memory
+    When the tiered buffer is freed
+    Then the tiered store should hold at most 0 bytes in memory
+    And the spill directory should be empty
+
+  Scenario: Only one segment is spilled per fault while the governor is under pressure
+    Given a governed buffer with 16 byte segments and a budget of 1024 bytes
+    When 128 patterned bytes are written to the tiered buffer
+    Then the tiered store should hold exactly 128 bytes in memory
+    When the governor of the tiered buffer comes under pressure
+    And 16 patterned bytes are written to the tiered buffer
+    Then the tiered store should hold exactly 128 bytes in memory
+    When the tiered buffer is freed
+    Then the spill directory should be empty
@@ -0,0 +1,13 @@
+Feature: Varint Marshallers
+
+  Scenario: Small values are marshalled compactly
+    Given a buffer with the varint marshallers
+    When the ints 0, 127, 128 and 300 are marshalled as varints
+    Then the buffer writer index should be 6 after the varints
+    And the ints 0, 127, 128 and 300 should be unmarshalled as varints
+
+  Scenario: Negative values are marshalled compactly using ZigZag
+    Given a buffer with the varint marshallers
+    When the longs -1, 1, -64 and -9223372036854775808 are marshalled as ZigZag varints
+    Then the buffer writer index should be 13 after the varints
+    And the longs -1, 1, -64 and -9223372036854775808 should be unmarshalled as ZigZag varints
@@ -0,0 +1,30 @@
+Feature: Write Batch
+
+  Scenario: A committed batch publishes its writes after one resize
+    Given a buffer counting resizes for batches
+    When a batch of 32 bytes writes an int, a long, a double and a string
+    And the batch is committed
+    Then the writer index should be 29
+    And the batch values should be readable
+    And the batch buffer should have been resized 1 time
+
+  Scenario: An aborted batch leaves the writer index unchanged
+    Given a buffer counting resizes for batches
+    And 4 bytes have been written before the batch
+    When a batch of 32 bytes writes an int, a long, a double and a string
+    And the batch is aborted
+    Then the writer index should be 4
+
+  Scenario: A batch which is closed without committing is aborted
+    Given a buffer counting resizes for batches
+    When a batch of 32 bytes writes an int, a long, a double and a string
+    And the batch is closed
+    Then the writer index should be 0
+    And the batch should no longer accept writes
+
+  Scenario: A batch writing past its upper bound resizes the buffer
+    Given a buffer counting resizes for batches
+    When a batch of 8 bytes writes an int, a long, a double and a string
+    And the batch is committed
+    Then the writer index should be 29
+    And the batch values should be readable